@@ -0,0 +1,64 @@
+package org.scarter4work.wumpus2.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of writing a game state response as JSON and in the binary
+ * format, for a game halfway through a 25-room grid. Run with {@code -prof gc}
+ * to compare allocation as well; the payload sizes are printed at setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private GameController.GameStateResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+        UUID gameId = UUID.randomUUID();
+        List<Room> rooms = CaveTemplate.create(CaveTemplate.Layout.GRID, 25).createRooms(gameId);
+        Game game = Game.createNewGame("TestPlayer", rooms.get(12).getId());
+        game.setId(gameId);
+        game.setVersion(12L);
+        Set<UUID> visitedRooms = new HashSet<>();
+        for (int i = 0; i < rooms.size(); i += 2) {
+            visitedRooms.add(rooms.get(i).getId());
+        }
+        response = new GameController.GameStateResponse(game, rooms.get(12),
+                Map.of("wumpusNearby", false, "pitNearby", true, "batsNearby", false), visitedRooms);
+        response.setRooms(rooms);
+
+        System.out.printf("JSON: %d bytes, binary: %d bytes%n",
+                writeJson().length, GameStateCodec.encode(response).length);
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeBinary() {
+        return GameStateCodec.encode(response);
+    }
+}
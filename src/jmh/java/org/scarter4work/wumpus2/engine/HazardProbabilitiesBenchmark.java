@@ -0,0 +1,56 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.openjdk.jmh.annotations.*;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of working out the hazard chances from what a player has sensed
+ * after standing in a third of the safe rooms of a grid cave, with the
+ * component enumerations cached from earlier updates and without.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HazardProbabilitiesBenchmark {
+
+    @Param({"25", "100"})
+    private int rooms;
+
+    private int pits;
+    private BeliefState belief;
+    private HazardProbabilities cached;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CaveTopology topology = CaveTemplate.create(CaveTemplate.Layout.GRID, rooms).topology();
+        SplittableRandom random = new SplittableRandom(3);
+        byte[] contents = new byte[rooms];
+        pits = rooms / 8;
+        CaveContents.placeRandomHazards(contents, rooms, random, pits, CaveContents.BAT_COLONIES);
+        belief = new BeliefState().reset(topology);
+        for (int room = 0; room < rooms; room++) {
+            if (contents[room] == 0 && random.nextInt(3) == 0) {
+                belief.observe(room, CaveContents.nearby(topology, contents, room, CaveContents.WUMPUS),
+                        CaveContents.nearby(topology, contents, room, CaveContents.PIT),
+                        CaveContents.nearby(topology, contents, room, CaveContents.BATS));
+            }
+        }
+        cached = new HazardProbabilities(pits, CaveContents.BAT_COLONIES).update(belief);
+    }
+
+    @Benchmark
+    public HazardProbabilities cached() {
+        return cached.update(belief);
+    }
+
+    @Benchmark
+    public HazardProbabilities uncached() {
+        return new HazardProbabilities(pits, CaveContents.BAT_COLONIES).update(belief);
+    }
+}
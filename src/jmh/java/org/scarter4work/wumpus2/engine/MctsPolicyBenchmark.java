@@ -0,0 +1,49 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.openjdk.jmh.annotations.*;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of one choice of the MCTS player that it has to search for: the
+ * player stands in a breezy corner of a grid cave with both ways on a risk,
+ * and searches with the self-play budget on one thread or several.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MctsPolicyBenchmark {
+
+    @Param({"25", "100"})
+    private int rooms;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private SimulatedGame game;
+    private MctsPolicy player;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CaveTopology topology = CaveTemplate.create(CaveTemplate.Layout.GRID, rooms).topology();
+        byte[] contents = new byte[rooms];
+        int side = (int) Math.sqrt(rooms);
+        contents[1] = CaveContents.PIT;
+        contents[rooms - 1] = CaveContents.WUMPUS;
+        contents[rooms - side] = CaveContents.BATS;
+        game = new SimulatedGame(new SplittableRandom(1)).load(topology, contents, 0, SimulatedGame.STARTING_ARROWS);
+        player = new MctsPolicy(new SplittableRandom(2), CaveContents.PITS, CaveContents.BAT_COLONIES,
+                new MctsSettings(MctsSettings.SELF_PLAY.iterations(), null, parallelism));
+    }
+
+    @Benchmark
+    public int choose() {
+        player.start(game);
+        return player.act(game);
+    }
+}
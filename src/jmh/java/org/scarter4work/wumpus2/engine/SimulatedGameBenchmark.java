@@ -0,0 +1,55 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.openjdk.jmh.annotations.*;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the game engine on the 25-room grid: dealing a game, and
+ * dealing and playing one to the end with a player who wanders at random and
+ * shoots one step in five. Run with {@code -prof gc} to check that neither
+ * allocates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulatedGameBenchmark {
+
+    private CaveTopology topology;
+    private SimulatedGame game;
+    private SplittableRandom player;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        topology = CaveTemplate.create(CaveTemplate.Layout.GRID, 25).topology();
+        game = new SimulatedGame(new SplittableRandom(1));
+        player = new SplittableRandom(2);
+    }
+
+    @Benchmark
+    public int deal() {
+        return game.deal(topology).getCurrentRoom();
+    }
+
+    @Benchmark
+    public int playGame() {
+        game.deal(topology);
+        while (!game.getOutcome().isOver()) {
+            int direction = player.nextInt(CaveTopology.DIRECTIONS);
+            while (game.neighbour(direction) == CaveTopology.NO_ROOM) {
+                direction = (direction + 1) % CaveTopology.DIRECTIONS;
+            }
+            if (player.nextInt(5) == 0) {
+                game.shoot(direction);
+            } else {
+                game.move(direction);
+            }
+        }
+        return game.getMoves();
+    }
+}
@@ -0,0 +1,48 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.openjdk.jmh.annotations.*;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of one step of the solver on grid caves: taking in the percepts,
+ * choosing an action and carrying it out, with a new game dealt whenever the
+ * last one ends. Run with {@code -prof gc} to check that it does not allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverPolicyBenchmark {
+
+    @Param({"25", "100"})
+    private int rooms;
+
+    private CaveTopology topology;
+    private SimulatedGame game;
+    private SolverPolicy solver;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        topology = CaveTemplate.create(CaveTemplate.Layout.GRID, rooms).topology();
+        game = new SimulatedGame(new SplittableRandom(1));
+        solver = new SolverPolicy(new SplittableRandom(2));
+        game.deal(topology);
+        solver.start(game);
+    }
+
+    @Benchmark
+    public int step() {
+        if (game.getOutcome().isOver()) {
+            game.deal(topology);
+            solver.start(game);
+        }
+        int action = solver.act(game);
+        Policy.apply(game, action);
+        return action;
+    }
+}
@@ -0,0 +1,56 @@
+package org.scarter4work.wumpus2.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of cave generation. These do not touch any repository.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaveBenchmark {
+
+    private final UUID gameId = UUID.randomUUID();
+
+    private GameServiceFixture fixture;
+    private CaveTemplate template;
+    private List<Room> rooms;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = GameServiceFixture.inMemory();
+        template = CaveTemplate.create(CaveTemplate.Layout.GRID, 25);
+        rooms = template.createRooms(gameId);
+        fixture.gameService.placeRandomHazards(rooms);
+    }
+
+    @Benchmark
+    public CaveTemplate createCaveTemplate() {
+        return CaveTemplate.create(CaveTemplate.Layout.GRID, 25);
+    }
+
+    @Benchmark
+    public List<Room> createCaveSystem() {
+        return template.createRooms(gameId);
+    }
+
+    @Benchmark
+    public List<Room> placeRandomHazards() {
+        fixture.gameService.placeRandomHazards(rooms);
+        return rooms;
+    }
+
+    @Benchmark
+    public Room findSafeStartingRoom() {
+        return fixture.gameService.findSafeStartingRoom(rooms);
+    }
+}
@@ -0,0 +1,61 @@
+package org.scarter4work.wumpus2.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.scarter4work.wumpus2.model.Game;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the game commands served by {@link GameService}, against the
+ * in-memory repositories and against H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameServiceBenchmark {
+
+    @Param({"memory", "h2"})
+    public String backend;
+
+    private GameServiceFixture fixture;
+    private UUID gameId;
+    private boolean east;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = GameServiceFixture.create(backend);
+        gameId = fixture.createEndlessGame().getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Game createNewGame() {
+        return fixture.gameService.createNewGame("Benchmark");
+    }
+
+    @Benchmark
+    public Game movePlayer() {
+        // Step back and forth between the two safe rooms in the middle of the grid
+        east = !east;
+        return fixture.gameService.movePlayer(gameId, east ? "east" : "west");
+    }
+
+    @Benchmark
+    public Game shootArrow() {
+        return fixture.gameService.shootArrow(gameId, "south");
+    }
+
+    @Benchmark
+    public Map<String, Boolean> getHazardInformation() {
+        return fixture.gameService.getHazardInformation(gameId);
+    }
+}
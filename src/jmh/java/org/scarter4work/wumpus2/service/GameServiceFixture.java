@@ -0,0 +1,113 @@
+package org.scarter4work.wumpus2.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.scarter4work.wumpus2.Wumpus2Application;
+import org.scarter4work.wumpus2.config.GameSessionProperties;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.repository.GameRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+
+/**
+ * The game services wired against one of the benchmark backends:
+ * "memory" uses {@link InMemoryRepositories}, "h2" starts the application
+ * context with the test profile's in-memory H2 database.
+ */
+final class GameServiceFixture implements AutoCloseable {
+
+    /**
+     * Room the benchmark games start in: the centre of the 5x5 grid.
+     */
+    private static final int START_ROOM = 13;
+
+    /**
+     * Room holding the Wumpus in benchmark games: a corner, away from the start.
+     */
+    private static final int WUMPUS_ROOM = 1;
+
+    final GameService gameService;
+    final CaveService caveService;
+    final GameRepository gameRepository;
+    private final ConfigurableApplicationContext context;
+
+    private GameServiceFixture(GameService gameService, CaveService caveService, GameRepository gameRepository,
+                               ConfigurableApplicationContext context) {
+        this.gameService = gameService;
+        this.caveService = caveService;
+        this.gameRepository = gameRepository;
+        this.context = context;
+    }
+
+    /**
+     * Creates the services for a backend.
+     *
+     * @param backend "memory" or "h2"
+     * @return The fixture
+     */
+    static GameServiceFixture create(String backend) {
+        return switch (backend) {
+            case "memory" -> inMemory();
+            case "h2" -> h2();
+            default -> throw new IllegalArgumentException("Unknown benchmark backend: " + backend);
+        };
+    }
+
+    static GameServiceFixture inMemory() {
+        InMemoryRepositories repositories = new InMemoryRepositories();
+        GameRepository gameRepository = repositories.gameRepository();
+        CaveService caveService = new CaveService(repositories.caveTemplateRepository(),
+                repositories.gameCaveRepository(), gameRepository, repositories.roomRepository(),
+                repositories.transactionManager());
+        GameSessionProperties properties = new GameSessionProperties();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GameSessionCache gameSessionCache = new GameSessionCache(gameRepository, caveService,
+                properties, meterRegistry);
+        GameService gameService = new GameService(gameRepository, repositories.gameVisitedRoomRepository(),
+                gameSessionCache, caveService, new GameMetrics(meterRegistry),
+                new GameMailboxes(properties, meterRegistry), repositories.transactionManager(),
+                event -> { });
+        return new GameServiceFixture(gameService, caveService, gameRepository, null);
+    }
+
+    static GameServiceFixture h2() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Wumpus2Application.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.org.scarter4work.wumpus2=WARN")
+                .run();
+        return new GameServiceFixture(context.getBean(GameService.class), context.getBean(CaveService.class),
+                context.getBean(GameRepository.class), context);
+    }
+
+    /**
+     * Stores a game that can be played indefinitely: it starts in the centre of
+     * the grid with no hazards nearby and effectively unlimited arrows.
+     *
+     * @return The stored game
+     */
+    Game createEndlessGame() {
+        CaveTemplate template = caveService.getTemplate(CaveTemplate.Layout.GRID, 25);
+        Game game = Game.createNewGame("Benchmark", null);
+        game.setId(UUID.randomUUID());
+        game.setCurrentRoomId(CaveTemplate.roomId(game.getId(), START_ROOM));
+        game.setArrowsRemaining(Integer.MAX_VALUE);
+        game.setCaveTemplateId(template.getId());
+        game.setWumpusMask(1L << (WUMPUS_ROOM - 1));
+        game.setPitMask(0L);
+        game.setBatMask(0L);
+        game.setVisitedMask(1L << (START_ROOM - 1));
+        gameRepository.insertNewGame(game, null, null);
+        return game;
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.scarter4work.wumpus2.service;
+
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.GameCave;
+import org.scarter4work.wumpus2.model.GameVisitedRoom;
+import org.scarter4work.wumpus2.repository.CaveTemplateRepository;
+import org.scarter4work.wumpus2.repository.GameCaveRepository;
+import org.scarter4work.wumpus2.repository.GameRepository;
+import org.scarter4work.wumpus2.repository.GameVisitedRoomRepository;
+import org.scarter4work.wumpus2.repository.RoomRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Map-backed stand-ins for the repositories used by the game services, so the
+ * benchmarks can measure the services without a database. Only the methods the
+ * services call are implemented; anything else throws.
+ */
+final class InMemoryRepositories {
+
+    private final Map<UUID, Game> games = new ConcurrentHashMap<>();
+    private final Map<UUID, GameCave> gameCaves = new ConcurrentHashMap<>();
+    private final Map<UUID, CaveTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<UUID, List<GameVisitedRoom>> visits = new ConcurrentHashMap<>();
+
+    GameRepository gameRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findById", args -> Optional.ofNullable(games.get((UUID) args[0])));
+        methods.put("saveAndFlush", args -> {
+            Game game = (Game) args[0];
+            games.put(game.getId(), game);
+            return game;
+        });
+        methods.put("insertNewGame", args -> {
+            Game game = (Game) args[0];
+            games.put(game.getId(), game);
+            if (args[1] != null) {
+                gameCaves.put(game.getId(), (GameCave) args[1]);
+            }
+            if (args[2] != null) {
+                visits.computeIfAbsent(game.getId(), id -> new ArrayList<>()).add((GameVisitedRoom) args[2]);
+            }
+            return null;
+        });
+        methods.put("updatePositions", args -> {
+            @SuppressWarnings("unchecked")
+            Collection<Game> updated = (Collection<Game>) args[0];
+            updated.forEach(game -> games.put(game.getId(), game));
+            return Set.of();
+        });
+        methods.put("updateHazardMasks", args -> {
+            Game game = (Game) args[0];
+            games.put(game.getId(), game);
+            return 1;
+        });
+        return proxy(GameRepository.class, methods);
+    }
+
+    GameCaveRepository gameCaveRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findById", args -> Optional.ofNullable(gameCaves.get((UUID) args[0])));
+        methods.put("save", args -> {
+            GameCave cave = (GameCave) args[0];
+            gameCaves.put(cave.getGameId(), cave);
+            return cave;
+        });
+        return proxy(GameCaveRepository.class, methods);
+    }
+
+    CaveTemplateRepository caveTemplateRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findById", args -> Optional.ofNullable(templates.get((UUID) args[0])));
+        methods.put("findByLayoutAndRoomCount", args -> templates.values().stream()
+                .filter(template -> template.getLayout() == args[0] && template.getRoomCount().equals(args[1]))
+                .findFirst());
+        methods.put("saveAndFlush", args -> {
+            CaveTemplate template = (CaveTemplate) args[0];
+            template.setId(UUID.randomUUID());
+            templates.put(template.getId(), template);
+            return template;
+        });
+        return proxy(CaveTemplateRepository.class, methods);
+    }
+
+    GameVisitedRoomRepository gameVisitedRoomRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findByGameId", args -> visits.getOrDefault((UUID) args[0], List.of()));
+        methods.put("existsByGameIdAndRoomId", args -> visits.getOrDefault((UUID) args[0], List.of()).stream()
+                .anyMatch(visit -> visit.getRoomId().equals(args[1])));
+        methods.put("save", args -> {
+            GameVisitedRoom visit = (GameVisitedRoom) args[0];
+            visits.computeIfAbsent(visit.getGameId(), id -> new ArrayList<>()).add(visit);
+            return visit;
+        });
+        return proxy(GameVisitedRoomRepository.class, methods);
+    }
+
+    RoomRepository roomRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findRoomsByGameId", args -> List.of());
+        return proxy(RoomRepository.class, methods);
+    }
+
+    PlatformTransactionManager transactionManager() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("getTransaction", args -> new SimpleTransactionStatus());
+        methods.put("commit", args -> null);
+        methods.put("rollback", args -> null);
+        return proxy(PlatformTransactionManager.class, methods);
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        Object instance = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation != null) {
+                return implementation.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> "InMemory" + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                default -> throw new UnsupportedOperationException(
+                        type.getSimpleName() + "." + method.getName() + " is not supported in memory");
+            };
+        });
+        return type.cast(instance);
+    }
+}
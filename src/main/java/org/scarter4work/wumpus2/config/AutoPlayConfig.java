@@ -0,0 +1,12 @@
+package org.scarter4work.wumpus2.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the settings of the players that play stored games.
+ */
+@Configuration
+@EnableConfigurationProperties(AutoPlayProperties.class)
+public class AutoPlayConfig {
+}
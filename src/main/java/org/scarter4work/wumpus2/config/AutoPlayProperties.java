@@ -0,0 +1,61 @@
+package org.scarter4work.wumpus2.config;
+
+import org.scarter4work.wumpus2.engine.MctsSettings;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the players that play stored games to the end.
+ */
+@ConfigurationProperties(prefix = "wumpus.autoplay")
+public class AutoPlayProperties {
+
+    /**
+     * Simulated games the MCTS player may play per choice.
+     */
+    private int mctsIterations = 20_000;
+
+    /**
+     * How long the MCTS player may search per choice.
+     */
+    private Duration mctsTimeLimit = Duration.ofMillis(200);
+
+    /**
+     * Threads the MCTS player searches one choice with.
+     */
+    private int mctsParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @return The search budget of the MCTS player
+     * @throws IllegalArgumentException if a setting is out of range
+     */
+    public MctsSettings mctsSettings() {
+        return new MctsSettings(mctsIterations, mctsTimeLimit, mctsParallelism);
+    }
+
+    // Getters and Setters
+    public int getMctsIterations() {
+        return mctsIterations;
+    }
+
+    public void setMctsIterations(int mctsIterations) {
+        this.mctsIterations = mctsIterations;
+    }
+
+    public Duration getMctsTimeLimit() {
+        return mctsTimeLimit;
+    }
+
+    public void setMctsTimeLimit(Duration mctsTimeLimit) {
+        this.mctsTimeLimit = mctsTimeLimit;
+    }
+
+    public int getMctsParallelism() {
+        return mctsParallelism;
+    }
+
+    public void setMctsParallelism(int mctsParallelism) {
+        this.mctsParallelism = mctsParallelism;
+    }
+}
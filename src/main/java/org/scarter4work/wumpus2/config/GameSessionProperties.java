@@ -0,0 +1,80 @@
+package org.scarter4work.wumpus2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the in-memory cache of active game sessions.
+ */
+@ConfigurationProperties(prefix = "wumpus.session-cache")
+public class GameSessionProperties {
+
+    /**
+     * Maximum number of game sessions kept in memory.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a session may go unused before it is evicted.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    /**
+     * Whether changes to the current room and arrow count are batched
+     * instead of being written on every command. Status changes are always
+     * written immediately.
+     */
+    private boolean writeBehind = false;
+
+    /**
+     * How often dirty sessions are flushed when write-behind is enabled.
+     */
+    private Duration writeBehindInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long a game's command mailbox may stay empty before it is removed.
+     */
+    private Duration mailboxIdleTimeout = Duration.ofMinutes(1);
+
+    // Getters and Setters
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public Duration getWriteBehindInterval() {
+        return writeBehindInterval;
+    }
+
+    public void setWriteBehindInterval(Duration writeBehindInterval) {
+        this.writeBehindInterval = writeBehindInterval;
+    }
+
+    public Duration getMailboxIdleTimeout() {
+        return mailboxIdleTimeout;
+    }
+
+    public void setMailboxIdleTimeout(Duration mailboxIdleTimeout) {
+        this.mailboxIdleTimeout = mailboxIdleTimeout;
+    }
+}
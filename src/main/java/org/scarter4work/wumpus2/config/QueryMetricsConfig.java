@@ -0,0 +1,164 @@
+package org.scarter4work.wumpus2.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Counts the database statements run while handling each HTTP request and
+ * publishes them as the "wumpus.http.db.queries" summary, tagged by method and
+ * URI pattern, so the endpoints driving database load can be told apart.
+ * A JDBC batch counts as one statement; statements run outside a request,
+ * such as write-behind flushes, are not counted. Work a request hands to
+ * another thread counts towards it if wrapped with {@link #inCurrentRequest}.
+ */
+@Configuration
+public class QueryMetricsConfig {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    /**
+     * Statement count of the request handled by the current thread, null outside a request.
+     */
+    private static final ThreadLocal<long[]> REQUEST_QUERIES = new ThreadLocal<>();
+
+    /**
+     * Wraps the application DataSource so that statements are counted.
+     *
+     * @return The post-processor
+     */
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return proxy(DataSource.class, dataSource, result -> result instanceof Connection connection
+                            ? proxy(Connection.class, connection, QueryMetricsConfig::countingStatement)
+                            : result);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Records the statement count of each request.
+     *
+     * @param meterRegistry The registry to publish to
+     * @return The filter
+     */
+    @Bean
+    public OncePerRequestFilter queryCountFilter(MeterRegistry meterRegistry) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                long[] queries = new long[1];
+                REQUEST_QUERIES.set(queries);
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    REQUEST_QUERIES.remove();
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    DistributionSummary.builder("wumpus.http.db.queries")
+                            .description("Database statements run per HTTP request")
+                            .baseUnit("statements")
+                            .tag("method", request.getMethod())
+                            .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                            .register(meterRegistry)
+                            .record(queries[0]);
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps a task the current thread hands to another thread and waits for,
+     * so that the statements it runs count towards the current request.
+     *
+     * @param task The task
+     * @return The wrapped task, or the task itself outside a request
+     */
+    public static <T> Supplier<T> inCurrentRequest(Supplier<T> task) {
+        long[] queries = REQUEST_QUERIES.get();
+        if (queries == null) {
+            return task;
+        }
+        return () -> {
+            long[] previous = REQUEST_QUERIES.get();
+            REQUEST_QUERIES.set(queries);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    REQUEST_QUERIES.set(previous);
+                } else {
+                    REQUEST_QUERIES.remove();
+                }
+            }
+        };
+    }
+
+    private static Object countingStatement(Object result) {
+        if (result instanceof CallableStatement statement) {
+            return proxy(CallableStatement.class, statement, value -> value);
+        }
+        if (result instanceof PreparedStatement statement) {
+            return proxy(PreparedStatement.class, statement, value -> value);
+        }
+        if (result instanceof Statement statement) {
+            return proxy(Statement.class, statement, value -> value);
+        }
+        return result;
+    }
+
+    /**
+     * Proxies a JDBC object, counting executions if it is a statement and
+     * wrapping the results of its methods.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+        boolean statement = Statement.class.isAssignableFrom(type);
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (statement && EXECUTE_METHODS.contains(method.getName())) {
+                long[] queries = REQUEST_QUERIES.get();
+                if (queries != null) {
+                    queries[0]++;
+                }
+            }
+            try {
+                return wrapper.wrap(method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @FunctionalInterface
+    private interface ResultWrapper {
+        Object wrap(Object result);
+    }
+}
@@ -0,0 +1,86 @@
+package org.scarter4work.wumpus2.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+import java.util.List;
+
+/**
+ * Configuration of the reactive profile, where R2DBC runs next to JPA.
+ */
+@Slf4j
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+
+    /**
+     * The JDBC data source for JPA and Liquibase. Declared here because Spring Boot
+     * backs off from creating one when an R2DBC connection factory exists.
+     *
+     * @param properties The spring.datasource properties
+     * @return The data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * The JPA transaction manager. Declared here because Spring Boot
+     * only creates one when no other transaction manager exists, and R2DBC adds its own;
+     * primary, so that {@code @Transactional} services keep using JPA.
+     *
+     * @param entityManagerFactory The JPA entity manager factory
+     * @return The transaction manager
+     */
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * Runs reactive pipelines in R2DBC transactions.
+     *
+     * @param reactiveTransactionManager The R2DBC transaction manager
+     * @return The transactional operator
+     */
+    @Bean
+    public TransactionalOperator transactionalOperator(ReactiveTransactionManager reactiveTransactionManager) {
+        return TransactionalOperator.create(reactiveTransactionManager);
+    }
+
+    /**
+     * Configure CORS for the reactive API the way {@link WebConfig} does for Spring MVC.
+     *
+     * @return The CORS filter
+     */
+    @Bean
+    public CorsWebFilter corsWebFilter() {
+        log.info("Configuring reactive CORS mappings");
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(List.of("*"));
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(List.of("*"));
+        configuration.setMaxAge(3600L);
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+        return new CorsWebFilter(source);
+    }
+}
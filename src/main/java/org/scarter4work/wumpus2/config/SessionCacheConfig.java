@@ -0,0 +1,15 @@
+package org.scarter4work.wumpus2.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the session cache settings and the scheduler used to flush
+ * write-behind game state.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(GameSessionProperties.class)
+public class SessionCacheConfig {
+}
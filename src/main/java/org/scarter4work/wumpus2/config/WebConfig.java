@@ -1,10 +1,14 @@
 package org.scarter4work.wumpus2.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.controller.GameStateBinaryConverter;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * Web configuration for the application.
  */
@@ -28,4 +32,15 @@ public class WebConfig implements WebMvcConfigurer {
                 .maxAge(3600);
         log.info("CORS mappings configured successfully");
     }
+
+    /**
+     * Add the binary game state format after the default converters, so that
+     * it is only used when a client asks for it.
+     *
+     * @param converters The configured converters
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new GameStateBinaryConverter());
+    }
 }
@@ -1,14 +1,37 @@
 package org.scarter4work.wumpus2.controller;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.engine.PlayerPolicy;
 import org.scarter4work.wumpus2.model.Game;
 import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.service.AutoPlayResult;
+import org.scarter4work.wumpus2.service.AutoPlayService;
+import org.scarter4work.wumpus2.service.CommandBatchResult;
+import org.scarter4work.wumpus2.service.CommandResult;
+import org.scarter4work.wumpus2.service.GameCommand;
+import org.scarter4work.wumpus2.service.GameEvent;
+import org.scarter4work.wumpus2.service.GameEventStream;
+import org.scarter4work.wumpus2.service.GameMetrics;
 import org.scarter4work.wumpus2.service.GameService;
+import org.scarter4work.wumpus2.service.GameState;
+import org.scarter4work.wumpus2.service.GameStateDelta;
+import org.scarter4work.wumpus2.service.PlayerView;
 import org.scarter4work.wumpus2.service.RoomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -18,16 +41,24 @@ import java.util.UUID;
  */
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/games")
 public class GameController {
 
     private final GameService gameService;
     private final RoomService roomService;
+    private final GameMetrics gameMetrics;
+    private final GameEventStream gameEventStream;
+    private final AutoPlayService autoPlayService;
 
     @Autowired
-    public GameController(GameService gameService, RoomService roomService) {
+    public GameController(GameService gameService, RoomService roomService, GameMetrics gameMetrics,
+                          GameEventStream gameEventStream, AutoPlayService autoPlayService) {
         this.gameService = gameService;
         this.roomService = roomService;
+        this.gameMetrics = gameMetrics;
+        this.gameEventStream = gameEventStream;
+        this.autoPlayService = autoPlayService;
     }
 
     /**
@@ -38,7 +69,8 @@ public class GameController {
      */
     @PostMapping
     public ResponseEntity<Game> createGame(@RequestBody CreateGameRequest request) {
-        Game game = gameService.createNewGame(request.getPlayerName());
+        Game game = gameMetrics.timeCommand(GameMetrics.Command.CREATE,
+                () -> gameService.createNewGame(request.getPlayerName()));
         return ResponseEntity.ok(game);
     }
 
@@ -50,13 +82,37 @@ public class GameController {
      */
     @GetMapping("/{gameId}/state")
     public ResponseEntity<GameStateResponse> getGameState(@PathVariable UUID gameId) {
-        Game game = gameService.getGame(gameId);
-        Room currentRoom = gameService.getCurrentRoom(gameId);
-        Set<UUID> visitedRooms = gameService.getVisitedRooms(gameId);
-        Map<String, Boolean> hazardInfo = gameService.getHazardInformation(gameId);
-        
-        GameStateResponse response = new GameStateResponse(game, currentRoom, hazardInfo, visitedRooms);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(GameStateResponse.of(gameService.getGameState(gameId)));
+    }
+
+    /**
+     * Get what changed in a game since the version the client holds.
+     *
+     * @param gameId The ID of the game
+     * @param since The version the client holds
+     * @return The changes, or the whole state if the version is not current
+     */
+    @GetMapping(value = "/{gameId}/state", params = "since")
+    public ResponseEntity<GameStateDelta> getGameStateDelta(@PathVariable UUID gameId, @RequestParam long since) {
+        return ResponseEntity.ok(gameService.getGameStateDelta(gameId, since));
+    }
+
+    /**
+     * Get what the player may know about a game: the cave's layout, and what
+     * they sensed and found in the rooms they visited. Clients may cache it
+     * and revalidate it with the ETag, which is the game's version.
+     *
+     * @param gameId The ID of the game
+     * @return The player's view of the game
+     */
+    @GetMapping("/{gameId}/view")
+    public ResponseEntity<PlayerView> getPlayerView(@PathVariable UUID gameId) {
+        PlayerView view = gameService.getPlayerView(gameId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+        if (view.version() != null) {
+            response.eTag(view.version().toString());
+        }
+        return response.body(view);
     }
 
     /**
@@ -70,13 +126,28 @@ public class GameController {
     public ResponseEntity<GameStateResponse> movePlayer(
             @PathVariable UUID gameId,
             @RequestBody MoveRequest request) {
-        Game game = gameService.movePlayer(gameId, request.getDirection());
-        Room currentRoom = gameService.getCurrentRoom(gameId);
-        Set<UUID> visitedRooms = gameService.getVisitedRooms(gameId);
-        Map<String, Boolean> hazardInfo = gameService.getHazardInformation(gameId);
-        
-        GameStateResponse response = new GameStateResponse(game, currentRoom, hazardInfo, visitedRooms);
-        return ResponseEntity.ok(response);
+        GameState state = gameMetrics.timeCommand(GameMetrics.Command.MOVE,
+                () -> gameService.movePlayerAndGetState(gameId, request.getDirection()));
+        return ResponseEntity.ok(GameStateResponse.of(state));
+    }
+
+    /**
+     * Move the player in a direction and get what changed since the version
+     * the client holds.
+     *
+     * @param gameId The ID of the game
+     * @param since The version the client holds
+     * @param request The request containing the direction to move
+     * @return The changes, or the whole state if the version was not current
+     */
+    @PostMapping(value = "/{gameId}/move", params = "since")
+    public ResponseEntity<GameStateDelta> movePlayerDelta(
+            @PathVariable UUID gameId,
+            @RequestParam long since,
+            @RequestBody MoveRequest request) {
+        GameStateDelta delta = gameMetrics.timeCommand(GameMetrics.Command.MOVE,
+                () -> gameService.movePlayerAndGetDelta(gameId, request.getDirection(), since));
+        return ResponseEntity.ok(delta);
     }
 
     /**
@@ -90,13 +161,100 @@ public class GameController {
     public ResponseEntity<GameStateResponse> shootArrow(
             @PathVariable UUID gameId,
             @RequestBody ShootRequest request) {
-        Game game = gameService.shootArrow(gameId, request.getDirection());
-        Room currentRoom = gameService.getCurrentRoom(gameId);
-        Set<UUID> visitedRooms = gameService.getVisitedRooms(gameId);
-        Map<String, Boolean> hazardInfo = gameService.getHazardInformation(gameId);
-        
-        GameStateResponse response = new GameStateResponse(game, currentRoom, hazardInfo, visitedRooms);
-        return ResponseEntity.ok(response);
+        GameState state = gameMetrics.timeCommand(GameMetrics.Command.SHOOT,
+                () -> gameService.shootArrowAndGetState(gameId, request.getDirection()));
+        return ResponseEntity.ok(GameStateResponse.of(state));
+    }
+
+    /**
+     * Shoot an arrow in a direction and get what changed since the version
+     * the client holds.
+     *
+     * @param gameId The ID of the game
+     * @param since The version the client holds
+     * @param request The request containing the direction to shoot
+     * @return The changes, or the whole state if the version was not current
+     */
+    @PostMapping(value = "/{gameId}/shoot", params = "since")
+    public ResponseEntity<GameStateDelta> shootArrowDelta(
+            @PathVariable UUID gameId,
+            @RequestParam long since,
+            @RequestBody ShootRequest request) {
+        GameStateDelta delta = gameMetrics.timeCommand(GameMetrics.Command.SHOOT,
+                () -> gameService.shootArrowAndGetDelta(gameId, request.getDirection(), since));
+        return ResponseEntity.ok(delta);
+    }
+
+    /**
+     * Run a sequence of moves and shots in one request and one transaction.
+     * Commands run in order until one is rejected or the game ends.
+     *
+     * @param gameId The ID of the game
+     * @param request The request containing the commands
+     * @return The result of each command that was run and the final game state
+     */
+    @PostMapping("/{gameId}/commands")
+    public ResponseEntity<CommandBatchResponse> runCommands(
+            @PathVariable UUID gameId,
+            @RequestBody CommandBatchRequest request) {
+        List<GameCommand> commands = batchCommands(request);
+        CommandBatchResult result = gameMetrics.timeCommand(GameMetrics.Command.BATCH,
+                () -> gameService.runCommands(gameId, commands));
+        return ResponseEntity.ok(CommandBatchResponse.of(result));
+    }
+
+    /**
+     * Reads the commands of a batch, answering 400 Bad Request if a command type
+     * is unknown or there are too many, as {@link ReactiveGameHandler} does.
+     */
+    private static List<GameCommand> batchCommands(CommandBatchRequest request) {
+        try {
+            return request.toCommands();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Let an AI player play the game to the end. Each of its moves and shots is
+     * saved and streamed to watchers as it is made.
+     *
+     * @param gameId The ID of the game
+     * @param policy The player: SOLVER, PROBABILISTIC or MCTS
+     * @return The number of moves and shots made and the final game state
+     */
+    @PostMapping("/{gameId}/autoplay")
+    public ResponseEntity<AutoPlayResponse> autoPlay(
+            @PathVariable UUID gameId,
+            @RequestParam(defaultValue = "SOLVER") PlayerPolicy policy) {
+        AutoPlayResult result = gameMetrics.timeCommand(GameMetrics.Command.AUTOPLAY,
+                () -> autoPlayService.play(gameId, policy));
+        return ResponseEntity.ok(AutoPlayResponse.of(result));
+    }
+
+    /**
+     * Stream the changes to a game as server-sent events, starting with its
+     * current state and ending when the game is over.
+     *
+     * @param gameId The ID of the game
+     * @return The game events
+     */
+    @GetMapping(value = "/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<GameEvent>> streamEvents(@PathVariable UUID gameId) {
+        return toServerSentEvents(
+                gameEventStream.stream(gameId, Mono.fromCallable(() -> gameService.getGameState(gameId))));
+    }
+
+    /**
+     * Wraps game events as server-sent events named after their type.
+     *
+     * @param events The game events
+     * @return The server-sent events
+     */
+    static Flux<ServerSentEvent<GameEvent>> toServerSentEvents(Flux<GameEvent> events) {
+        return events.map(event -> ServerSentEvent.builder(event)
+                .event(event.type().name().toLowerCase())
+                .build());
     }
 
     /**
@@ -144,14 +302,150 @@ public class GameController {
         }
     }
 
+    /**
+     * Request class for running a batch of commands.
+     */
+    public static class CommandBatchRequest {
+        private List<CommandRequest> commands = List.of();
+
+        /**
+         * Converts the requested commands for the game service.
+         *
+         * @return The commands, in order
+         * @throws IllegalArgumentException if a command type is unknown or there are
+         *         more than {@link GameService#MAX_BATCH_COMMANDS} commands
+         */
+        public List<GameCommand> toCommands() {
+            if (commands.size() > GameService.MAX_BATCH_COMMANDS) {
+                throw new IllegalArgumentException("At most " + GameService.MAX_BATCH_COMMANDS + " commands per batch");
+            }
+            return commands.stream()
+                    .map(command -> GameCommand.of(command.getType(), command.getDirection()))
+                    .toList();
+        }
+
+        public List<CommandRequest> getCommands() {
+            return commands;
+        }
+
+        public void setCommands(List<CommandRequest> commands) {
+            this.commands = commands;
+        }
+    }
+
+    /**
+     * Request class for one command of a batch.
+     */
+    public static class CommandRequest {
+        private String type;
+        private String direction;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getDirection() {
+            return direction;
+        }
+
+        public void setDirection(String direction) {
+            this.direction = direction;
+        }
+    }
+
+    /**
+     * Response class for a batch of commands.
+     */
+    public static class CommandBatchResponse {
+        private List<CommandResult> results;
+        private GameStateResponse state;
+
+        public CommandBatchResponse(List<CommandResult> results, GameStateResponse state) {
+            this.results = results;
+            this.state = state;
+        }
+
+        /**
+         * Creates the response for the outcome of a batch.
+         *
+         * @param result The outcome of the batch
+         * @return The response
+         */
+        public static CommandBatchResponse of(CommandBatchResult result) {
+            return new CommandBatchResponse(result.results(), GameStateResponse.of(result.state()));
+        }
+
+        public List<CommandResult> getResults() {
+            return results;
+        }
+
+        public void setResults(List<CommandResult> results) {
+            this.results = results;
+        }
+
+        public GameStateResponse getState() {
+            return state;
+        }
+
+        public void setState(GameStateResponse state) {
+            this.state = state;
+        }
+    }
+
+    /**
+     * Response class for a game played by the solver.
+     */
+    public static class AutoPlayResponse {
+        private int steps;
+        private GameStateResponse state;
+
+        public AutoPlayResponse(int steps, GameStateResponse state) {
+            this.steps = steps;
+            this.state = state;
+        }
+
+        /**
+         * Creates the response for a game played by the solver.
+         *
+         * @param result The outcome of the game
+         * @return The response
+         */
+        public static AutoPlayResponse of(AutoPlayResult result) {
+            return new AutoPlayResponse(result.steps(), GameStateResponse.of(result.state()));
+        }
+
+        public int getSteps() {
+            return steps;
+        }
+
+        public void setSteps(int steps) {
+            this.steps = steps;
+        }
+
+        public GameStateResponse getState() {
+            return state;
+        }
+
+        public void setState(GameStateResponse state) {
+            this.state = state;
+        }
+    }
+
     /**
      * Response class for game state.
      */
     public static class GameStateResponse {
         private Game game;
+        // What the room holds is only shown to the player through their view of the game
+        @JsonIgnoreProperties({"hasWumpus", "hasPit", "hasBats"})
         private Room currentRoom;
         private Map<String, Boolean> hazardInfo;
         private Set<UUID> visitedRooms;
+        private List<Room> rooms = List.of();
 
         public GameStateResponse(Game game, Room currentRoom, Map<String, Boolean> hazardInfo, Set<UUID> visitedRooms) {
             this.game = game;
@@ -160,6 +454,19 @@ public class GameController {
             this.visitedRooms = visitedRooms;
         }
 
+        /**
+         * Creates the response for a game state.
+         *
+         * @param state The game state
+         * @return The response
+         */
+        public static GameStateResponse of(GameState state) {
+            GameStateResponse response =
+                    new GameStateResponse(state.game(), state.currentRoom(), state.hazardInfo(), state.visitedRooms());
+            response.setRooms(state.rooms());
+            return response;
+        }
+
         public Game getGame() {
             return game;
         }
@@ -191,5 +498,18 @@ public class GameController {
         public void setVisitedRooms(Set<UUID> visitedRooms) {
             this.visitedRooms = visitedRooms;
         }
+
+        /**
+         * @return The rooms of the game, which the binary format uses to send
+         *         room numbers instead of room IDs
+         */
+        @JsonIgnore
+        public List<Room> getRooms() {
+            return rooms;
+        }
+
+        public void setRooms(List<Room> rooms) {
+            this.rooms = rooms;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package org.scarter4work.wumpus2.controller;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes game states in the {@link GameStateCodec} binary format, for clients
+ * that ask for it with {@code Accept: application/x-wumpus-state}. Clients
+ * that do not still get JSON, since this converter comes after Jackson's.
+ */
+public class GameStateBinaryConverter extends AbstractHttpMessageConverter<GameController.GameStateResponse> {
+
+    public GameStateBinaryConverter() {
+        super(GameStateCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GameController.GameStateResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected GameController.GameStateResponse readInternal(Class<? extends GameController.GameStateResponse> clazz,
+                                                            HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Game states are not accepted as input", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(GameController.GameStateResponse response, HttpOutputMessage outputMessage)
+            throws IOException {
+        byte[] bytes = GameStateCodec.encode(response);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
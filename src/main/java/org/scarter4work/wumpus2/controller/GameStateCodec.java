@@ -0,0 +1,210 @@
+package org.scarter4work.wumpus2.controller;
+
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of a game state, for clients that would rather not
+ * parse JSON. Rooms are sent as room numbers instead of IDs, the hazards
+ * sensed and the visited rooms as bits, and counters as unsigned varints
+ * (seven bits per byte, low bits first, high bit set on all but the last byte).
+ * <p>
+ * Layout, in order:
+ * <ol>
+ *     <li>format version, one byte ({@link #FORMAT_VERSION})</li>
+ *     <li>game ID, 16 bytes, most significant half first</li>
+ *     <li>state version plus one, varint, zero if the state has no version</li>
+ *     <li>status ordinal, one byte</li>
+ *     <li>arrows remaining, varint</li>
+ *     <li>current room number, varint</li>
+ *     <li>room numbers to the north, east, south and west, varints, zero if there is no room</li>
+ *     <li>hazards sensed, one byte: {@link #WUMPUS_NEARBY}, {@link #PIT_NEARBY}, {@link #BATS_NEARBY}</li>
+ *     <li>room count, varint, then the visited rooms as a bitmap of {@code (count + 7) / 8}
+ *         bytes in which bit {@code n - 1} (low bit first) is set if room number {@code n} was visited</li>
+ *     <li>player name length, varint, then the name in UTF-8</li>
+ * </ol>
+ * Start and end times are left out.
+ */
+public final class GameStateCodec {
+
+    /**
+     * The content type of the binary format.
+     */
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType("application/x-wumpus-state");
+
+    public static final int FORMAT_VERSION = 1;
+
+    public static final int WUMPUS_NEARBY = 1;
+    public static final int PIT_NEARBY = 1 << 1;
+    public static final int BATS_NEARBY = 1 << 2;
+
+    private GameStateCodec() {
+    }
+
+    /**
+     * A decoded game state.
+     *
+     * @param gameId The ID of the game
+     * @param version The version of the state, or null if it has none
+     * @param status The game status
+     * @param arrowsRemaining The arrows left
+     * @param roomNumber The number of the room the player is in
+     * @param neighbours The numbers of the rooms to the north, east, south and west, zero if there is none
+     * @param hazards The hazards sensed, as bits
+     * @param roomCount The number of rooms in the cave
+     * @param visitedRooms The visited rooms, bit {@code n - 1} for room number {@code n}
+     * @param playerName The player's name
+     */
+    public record State(UUID gameId, Long version, Game.GameStatus status, int arrowsRemaining, int roomNumber,
+                        int[] neighbours, int hazards, int roomCount, BitSet visitedRooms, String playerName) {
+
+        /**
+         * @param hazard One of the hazard bits
+         * @return Whether that hazard is sensed
+         */
+        public boolean senses(int hazard) {
+            return (hazards & hazard) != 0;
+        }
+    }
+
+    /**
+     * Encodes a game state.
+     *
+     * @param response The game state
+     * @return The encoded state
+     * @throws IllegalStateException if the state refers to a room it has no number for
+     */
+    public static byte[] encode(GameController.GameStateResponse response) {
+        Game game = response.getGame();
+        Room room = response.getCurrentRoom();
+        Map<UUID, Integer> roomNumbers = new HashMap<>();
+        for (Room each : response.getRooms()) {
+            roomNumbers.put(each.getId(), each.getRoomNumber());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(FORMAT_VERSION);
+        out.writeBytes(ByteBuffer.allocate(16)
+                .putLong(game.getId().getMostSignificantBits())
+                .putLong(game.getId().getLeastSignificantBits())
+                .array());
+        writeVarint(out, game.getVersion() != null ? game.getVersion() + 1 : 0);
+        out.write(game.getStatus().ordinal());
+        writeVarint(out, game.getArrowsRemaining());
+        writeVarint(out, room.getRoomNumber());
+        writeVarint(out, neighbourNumber(roomNumbers, room.getNorthRoomId()));
+        writeVarint(out, neighbourNumber(roomNumbers, room.getEastRoomId()));
+        writeVarint(out, neighbourNumber(roomNumbers, room.getSouthRoomId()));
+        writeVarint(out, neighbourNumber(roomNumbers, room.getWestRoomId()));
+        out.write(hazards(response.getHazardInfo()));
+
+        int roomCount = response.getRooms().size();
+        BitSet visited = new BitSet(roomCount);
+        for (UUID roomId : response.getVisitedRooms()) {
+            visited.set(roomNumber(roomNumbers, roomId) - 1);
+        }
+        writeVarint(out, roomCount);
+        byte[] bitmap = visited.toByteArray();
+        out.writeBytes(bitmap);
+        out.writeBytes(new byte[(roomCount + 7) / 8 - bitmap.length]);
+
+        byte[] name = game.getPlayerName() != null
+                ? game.getPlayerName().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        writeVarint(out, name.length);
+        out.writeBytes(name);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a game state.
+     *
+     * @param bytes The encoded state
+     * @return The state
+     * @throws IllegalArgumentException if the bytes are not an encoded state
+     */
+    public static State decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            int format = in.get();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported game state format: " + format);
+            }
+            UUID gameId = new UUID(in.getLong(), in.getLong());
+            long version = readVarint(in);
+            Game.GameStatus status = Game.GameStatus.values()[in.get()];
+            int arrowsRemaining = (int) readVarint(in);
+            int roomNumber = (int) readVarint(in);
+            int[] neighbours = new int[4];
+            for (int i = 0; i < neighbours.length; i++) {
+                neighbours[i] = (int) readVarint(in);
+            }
+            int hazards = in.get();
+            int roomCount = (int) readVarint(in);
+            byte[] bitmap = new byte[(roomCount + 7) / 8];
+            in.get(bitmap);
+            byte[] name = new byte[(int) readVarint(in)];
+            in.get(name);
+            return new State(gameId, version == 0 ? null : version - 1, status, arrowsRemaining, roomNumber,
+                    neighbours, hazards, roomCount, BitSet.valueOf(bitmap), new String(name, StandardCharsets.UTF_8));
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed game state", e);
+        }
+    }
+
+    private static int neighbourNumber(Map<UUID, Integer> roomNumbers, UUID roomId) {
+        return roomId != null ? roomNumber(roomNumbers, roomId) : 0;
+    }
+
+    private static int roomNumber(Map<UUID, Integer> roomNumbers, UUID roomId) {
+        Integer roomNumber = roomNumbers.get(roomId);
+        if (roomNumber == null) {
+            throw new IllegalStateException("No room number for room " + roomId);
+        }
+        return roomNumber;
+    }
+
+    private static int hazards(Map<String, Boolean> hazardInfo) {
+        int hazards = 0;
+        if (Boolean.TRUE.equals(hazardInfo.get("wumpusNearby"))) {
+            hazards |= WUMPUS_NEARBY;
+        }
+        if (Boolean.TRUE.equals(hazardInfo.get("pitNearby"))) {
+            hazards |= PIT_NEARBY;
+        }
+        if (Boolean.TRUE.equals(hazardInfo.get("batsNearby"))) {
+            hazards |= BATS_NEARBY;
+        }
+        return hazards;
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+}
@@ -0,0 +1,167 @@
+package org.scarter4work.wumpus2.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.service.GameCommand;
+import org.scarter4work.wumpus2.service.GameEvent;
+import org.scarter4work.wumpus2.service.GameMetrics;
+import org.scarter4work.wumpus2.service.ReactiveGameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reactive handlers for game-related operations, mirroring {@link GameController}.
+ */
+@Slf4j
+@Component
+@Profile("reactive")
+public class ReactiveGameHandler {
+
+    private final ReactiveGameService gameService;
+    private final GameMetrics gameMetrics;
+
+    @Autowired
+    public ReactiveGameHandler(ReactiveGameService gameService, GameMetrics gameMetrics) {
+        this.gameService = gameService;
+        this.gameMetrics = gameMetrics;
+    }
+
+    /**
+     * Create a new game.
+     *
+     * @param request The request containing the player name
+     * @return The created game
+     */
+    public Mono<ServerResponse> createGame(ServerRequest request) {
+        return request.bodyToMono(GameController.CreateGameRequest.class)
+                .flatMap(body -> gameMetrics.timeCommand(GameMetrics.Command.CREATE,
+                        gameService.createNewGame(body.getPlayerName())))
+                .flatMap(game -> ServerResponse.ok().bodyValue(game));
+    }
+
+    /**
+     * Get the current state of a game.
+     *
+     * @param request The request with the ID of the game
+     * @return The game state
+     */
+    public Mono<ServerResponse> getGameState(ServerRequest request) {
+        return gameService.getGameState(uuid(request, "gameId"))
+                .flatMap(state -> ServerResponse.ok().bodyValue(GameController.GameStateResponse.of(state)));
+    }
+
+    /**
+     * Get what the player may know about a game, with its version as the ETag,
+     * answering 304 Not Modified if the client holds that version.
+     *
+     * @param request The request with the ID of the game
+     * @return The player's view of the game
+     */
+    public Mono<ServerResponse> getPlayerView(ServerRequest request) {
+        return gameService.getPlayerView(uuid(request, "gameId"))
+                .flatMap(view -> request.checkNotModified(view.version().toString())
+                        .switchIfEmpty(ServerResponse.ok()
+                                .cacheControl(CacheControl.noCache().cachePrivate())
+                                .eTag(view.version().toString())
+                                .bodyValue(view)));
+    }
+
+    /**
+     * Move the player in a direction.
+     *
+     * @param request The request containing the direction to move
+     * @return The updated game state
+     */
+    public Mono<ServerResponse> movePlayer(ServerRequest request) {
+        UUID gameId = uuid(request, "gameId");
+        return request.bodyToMono(GameController.MoveRequest.class)
+                .flatMap(body -> gameMetrics.timeCommand(GameMetrics.Command.MOVE,
+                        gameService.movePlayer(gameId, body.getDirection())))
+                .flatMap(state -> ServerResponse.ok().bodyValue(GameController.GameStateResponse.of(state)));
+    }
+
+    /**
+     * Shoot an arrow in a direction.
+     *
+     * @param request The request containing the direction to shoot
+     * @return The updated game state
+     */
+    public Mono<ServerResponse> shootArrow(ServerRequest request) {
+        UUID gameId = uuid(request, "gameId");
+        return request.bodyToMono(GameController.ShootRequest.class)
+                .flatMap(body -> gameMetrics.timeCommand(GameMetrics.Command.SHOOT,
+                        gameService.shootArrow(gameId, body.getDirection())))
+                .flatMap(state -> ServerResponse.ok().bodyValue(GameController.GameStateResponse.of(state)));
+    }
+
+    /**
+     * Run a sequence of moves and shots in one request and one transaction.
+     *
+     * @param request The request containing the commands
+     * @return The result of each command that was run and the final game state
+     */
+    public Mono<ServerResponse> runCommands(ServerRequest request) {
+        UUID gameId = uuid(request, "gameId");
+        return request.bodyToMono(GameController.CommandBatchRequest.class)
+                .flatMap(body -> gameMetrics.timeCommand(GameMetrics.Command.BATCH,
+                        Mono.fromSupplier(() -> batchCommands(body))
+                                .flatMap(commands -> gameService.runCommands(gameId, commands))))
+                .flatMap(result -> ServerResponse.ok().bodyValue(GameController.CommandBatchResponse.of(result)));
+    }
+
+    /**
+     * Stream the changes to a game as server-sent events.
+     *
+     * @param request The request with the ID of the game
+     * @return The game events
+     */
+    public Mono<ServerResponse> streamEvents(ServerRequest request) {
+        UUID gameId = uuid(request, "gameId");
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(GameController.toServerSentEvents(gameService.streamEvents(gameId)),
+                        new ParameterizedTypeReference<ServerSentEvent<GameEvent>>() {
+                        });
+    }
+
+    /**
+     * Reads the commands of a batch, answering 400 Bad Request if a command type
+     * is unknown or there are too many.
+     *
+     * @param body The batch request
+     * @return The commands, in order
+     */
+    private static List<GameCommand> batchCommands(GameController.CommandBatchRequest body) {
+        try {
+            return body.toCommands();
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a UUID path variable, answering 400 Bad Request if it is malformed.
+     *
+     * @param request The request
+     * @param name The name of the path variable
+     * @return The UUID
+     */
+    static UUID uuid(ServerRequest request, String name) {
+        try {
+            return UUID.fromString(request.pathVariable(name));
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException("Invalid " + name + ": " + request.pathVariable(name));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.scarter4work.wumpus2.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Hazard;
+import org.scarter4work.wumpus2.service.HazardRoomQuery;
+import org.scarter4work.wumpus2.service.ReactiveGameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Reactive handlers for room-related operations, mirroring {@link RoomController}
+ * and mapped under the same property.
+ */
+@Slf4j
+@Component
+@Profile("reactive")
+@ConditionalOnProperty(prefix = "wumpus.api", name = "room-endpoints-enabled", havingValue = "true")
+public class ReactiveRoomHandler {
+
+    private final ReactiveGameService gameService;
+
+    @Autowired
+    public ReactiveRoomHandler(ReactiveGameService gameService) {
+        this.gameService = gameService;
+    }
+
+    /**
+     * Get all rooms for a specific game.
+     *
+     * @param request The request with the ID of the game
+     * @return List of rooms in the game
+     */
+    public Mono<ServerResponse> getRoomsForGame(ServerRequest request) {
+        UUID gameId = ReactiveGameHandler.uuid(request, "gameId");
+        return gameService.getRoomsForGame(gameId)
+                .doOnNext(rooms -> log.debug("Found {} rooms for game: {}", rooms.size(), gameId))
+                .flatMap(rooms -> ServerResponse.ok().bodyValue(rooms));
+    }
+
+    /**
+     * Place hazards for a specific game. Like {@link RoomController}, hazards
+     * are placed randomly whatever the requested counts.
+     *
+     * @param request The request containing hazard counts
+     * @return Success status
+     */
+    public Mono<ServerResponse> placeHazards(ServerRequest request) {
+        UUID gameId = ReactiveGameHandler.uuid(request, "gameId");
+        return request.bodyToMono(RoomController.PlaceHazardsRequest.class)
+                .doOnNext(body -> log.info("Placing hazards for game: {}, wumpus: {}, pits: {}, bats: {}",
+                        gameId, body.getWumpusCount(), body.getPitCount(), body.getBatCount()))
+                .then(gameService.placeRandomHazards(gameId))
+                .flatMap(success -> ServerResponse.ok().bodyValue(success));
+    }
+
+    /**
+     * Get a specific room.
+     *
+     * @param request The request with the ID of the room
+     * @return The room, or 404 Not Found
+     */
+    public Mono<ServerResponse> getRoom(ServerRequest request) {
+        return gameService.getRoom(ReactiveGameHandler.uuid(request, "roomId"))
+                .flatMap(room -> ServerResponse.ok().bodyValue(room))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    /**
+     * Get a page of rooms with the Wumpus, taking the same query
+     * parameters as {@link RoomController#getRoomsWithWumpus}.
+     *
+     * @param request The request with the filters and page position
+     * @return The page of rooms with the Wumpus
+     */
+    public Mono<ServerResponse> getRoomsWithWumpus(ServerRequest request) {
+        return getRoomsWithHazard(request, Hazard.WUMPUS);
+    }
+
+    /**
+     * Get a page of rooms with pits.
+     *
+     * @param request The request with the filters and page position
+     * @return The page of rooms with pits
+     */
+    public Mono<ServerResponse> getRoomsWithPits(ServerRequest request) {
+        return getRoomsWithHazard(request, Hazard.PIT);
+    }
+
+    /**
+     * Get a page of rooms with bats.
+     *
+     * @param request The request with the filters and page position
+     * @return The page of rooms with bats
+     */
+    public Mono<ServerResponse> getRoomsWithBats(ServerRequest request) {
+        return getRoomsWithHazard(request, Hazard.BATS);
+    }
+
+    private Mono<ServerResponse> getRoomsWithHazard(ServerRequest request, Hazard hazard) {
+        return gameService.getRoomsWithHazard(hazardRoomQuery(request, hazard))
+                .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    /**
+     * Reads the filters and page position of a hazard query, answering 400 Bad
+     * Request if one is malformed.
+     */
+    private static HazardRoomQuery hazardRoomQuery(ServerRequest request, Hazard hazard) {
+        try {
+            return new HazardRoomQuery(hazard,
+                    request.queryParam("gameId").map(UUID::fromString).orElse(null),
+                    request.queryParam("status").map(Game.GameStatus::valueOf).orElse(null),
+                    request.queryParam("after").map(UUID::fromString).orElse(null),
+                    request.queryParam("size").map(Integer::parseInt).orElse(HazardRoomQuery.DEFAULT_PAGE_SIZE));
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.scarter4work.wumpus2.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Functional routes of the reactive API, at the same paths as the Spring MVC
+ * controllers they replace under the reactive profile.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveRoutes {
+
+    /**
+     * Routes for game operations.
+     *
+     * @param games The game handlers
+     * @return The routes
+     */
+    @Bean
+    public RouterFunction<ServerResponse> apiRoutes(ReactiveGameHandler games) {
+        return RouterFunctions.route()
+                .path("/api/games", builder -> builder
+                        .POST("", games::createGame)
+                        .GET("/{gameId}/state", games::getGameState)
+                        .GET("/{gameId}/view", games::getPlayerView)
+                        .GET("/{gameId}/events", games::streamEvents)
+                        .POST("/{gameId}/move", games::movePlayer)
+                        .POST("/{gameId}/shoot", games::shootArrow)
+                        .POST("/{gameId}/commands", games::runCommands))
+                .build();
+    }
+
+    /**
+     * Routes for room operations, which expose hazards and so are only mapped
+     * when {@code wumpus.api.room-endpoints-enabled} is set.
+     *
+     * @param rooms The room handlers
+     * @return The routes
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "wumpus.api", name = "room-endpoints-enabled", havingValue = "true")
+    public RouterFunction<ServerResponse> roomRoutes(ReactiveRoomHandler rooms) {
+        return RouterFunctions.route()
+                .path("/api/rooms", builder -> builder
+                        .GET("/game/{gameId}", rooms::getRoomsForGame)
+                        .POST("/game/{gameId}/hazards", rooms::placeHazards)
+                        .GET("/wumpus", rooms::getRoomsWithWumpus)
+                        .GET("/pits", rooms::getRoomsWithPits)
+                        .GET("/bats", rooms::getRoomsWithBats)
+                        .GET("/{roomId}", rooms::getRoom))
+                .build();
+    }
+}
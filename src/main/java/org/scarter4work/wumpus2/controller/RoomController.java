@@ -1,20 +1,33 @@
 package org.scarter4work.wumpus2.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Hazard;
 import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.service.HazardRoomQuery;
+import org.scarter4work.wumpus2.service.RoomPage;
 import org.scarter4work.wumpus2.service.RoomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.UUID;
 
 /**
- * REST Controller for room-related operations.
+ * REST Controller for room-related operations. These return Room entities,
+ * hazards included, so they are only mapped when
+ * {@code wumpus.api.room-endpoints-enabled} is set; players get what they
+ * may know from {@link GameController#getPlayerView(UUID)}.
  */
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "wumpus.api", name = "room-endpoints-enabled", havingValue = "true")
 @RequestMapping("/api/rooms")
 public class RoomController {
 
@@ -81,42 +94,82 @@ public class RoomController {
     }
 
     /**
-     * Get all rooms with the Wumpus.
+     * Get a page of the rooms of a game with the Wumpus, in room ID order.
      *
-     * @return List of rooms with the Wumpus
+     * @param gameId The game whose rooms to read; 400 Bad Request if missing, 404 Not Found if it does not exist
+     * @param status Only if the game has this status, if given
+     * @param after Only rooms after this room ID, from the previous page's {@code next}
+     * @param size The page size, at most {@value HazardRoomQuery#MAX_PAGE_SIZE}; 400 Bad Request otherwise
+     * @return The page of rooms with the Wumpus
      */
     @GetMapping("/wumpus")
-    public ResponseEntity<List<Room>> getRoomsWithWumpus() {
-        log.info("Getting all rooms with Wumpus");
-        List<Room> rooms = roomService.getRoomsWithWumpus();
-        log.info("Found {} rooms with Wumpus", rooms.size());
-        return ResponseEntity.ok(rooms);
+    public ResponseEntity<RoomPage> getRoomsWithWumpus(
+            @RequestParam(required = false) UUID gameId,
+            @RequestParam(required = false) Game.GameStatus status,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "" + HazardRoomQuery.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Getting rooms with Wumpus after: {}", after);
+        RoomPage page = roomService.getRoomsWithHazard(
+                hazardRoomQuery(Hazard.WUMPUS, gameId, status, after, size));
+        log.info("Found {} rooms with Wumpus", page.rooms().size());
+        return ResponseEntity.ok(page);
     }
 
     /**
-     * Get all rooms with pits.
+     * Get a page of the rooms of a game with pits, in room ID order.
      *
-     * @return List of rooms with pits
+     * @param gameId The game whose rooms to read; 400 Bad Request if missing, 404 Not Found if it does not exist
+     * @param status Only if the game has this status, if given
+     * @param after Only rooms after this room ID, from the previous page's {@code next}
+     * @param size The page size, at most {@value HazardRoomQuery#MAX_PAGE_SIZE}; 400 Bad Request otherwise
+     * @return The page of rooms with pits
      */
     @GetMapping("/pits")
-    public ResponseEntity<List<Room>> getRoomsWithPits() {
-        log.info("Getting all rooms with pits");
-        List<Room> rooms = roomService.getRoomsWithPits();
-        log.info("Found {} rooms with pits", rooms.size());
-        return ResponseEntity.ok(rooms);
+    public ResponseEntity<RoomPage> getRoomsWithPits(
+            @RequestParam(required = false) UUID gameId,
+            @RequestParam(required = false) Game.GameStatus status,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "" + HazardRoomQuery.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Getting rooms with pits after: {}", after);
+        RoomPage page = roomService.getRoomsWithHazard(
+                hazardRoomQuery(Hazard.PIT, gameId, status, after, size));
+        log.info("Found {} rooms with pits", page.rooms().size());
+        return ResponseEntity.ok(page);
     }
 
     /**
-     * Get all rooms with bats.
+     * Get a page of the rooms of a game with bats, in room ID order.
      *
-     * @return List of rooms with bats
+     * @param gameId The game whose rooms to read; 400 Bad Request if missing, 404 Not Found if it does not exist
+     * @param status Only if the game has this status, if given
+     * @param after Only rooms after this room ID, from the previous page's {@code next}
+     * @param size The page size, at most {@value HazardRoomQuery#MAX_PAGE_SIZE}; 400 Bad Request otherwise
+     * @return The page of rooms with bats
      */
     @GetMapping("/bats")
-    public ResponseEntity<List<Room>> getRoomsWithBats() {
-        log.info("Getting all rooms with bats");
-        List<Room> rooms = roomService.getRoomsWithBats();
-        log.info("Found {} rooms with bats", rooms.size());
-        return ResponseEntity.ok(rooms);
+    public ResponseEntity<RoomPage> getRoomsWithBats(
+            @RequestParam(required = false) UUID gameId,
+            @RequestParam(required = false) Game.GameStatus status,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "" + HazardRoomQuery.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Getting rooms with bats after: {}", after);
+        RoomPage page = roomService.getRoomsWithHazard(
+                hazardRoomQuery(Hazard.BATS, gameId, status, after, size));
+        log.info("Found {} rooms with bats", page.rooms().size());
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Builds the query of a hazard endpoint, answering 400 Bad Request if the
+     * game is missing or the page size is out of range, as {@link ReactiveRoomHandler} does.
+     */
+    private static HazardRoomQuery hazardRoomQuery(Hazard hazard, UUID gameId, Game.GameStatus status, UUID after,
+                                                   int size) {
+        try {
+            return new HazardRoomQuery(hazard, gameId, status, after, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     /**
@@ -0,0 +1,71 @@
+package org.scarter4work.wumpus2.controller;
+
+import org.scarter4work.wumpus2.engine.PlayerPolicy;
+import org.scarter4work.wumpus2.engine.SelfPlaySettings;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.service.SelfPlayReport;
+import org.scarter4work.wumpus2.service.SelfPlayService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admin endpoint for self-play runs, at {@code POST /actuator/selfplay}. Every
+ * parameter is optional; a run with none plays {@value #DEFAULT_GAMES} games
+ * of the cautious player on the classic 25 room grid.
+ */
+@Component
+@Endpoint(id = "selfplay")
+public class SelfPlayEndpoint {
+
+    static final int DEFAULT_ROOMS = 25;
+
+    static final int DEFAULT_PITS = 3;
+
+    static final int DEFAULT_BAT_COLONIES = 3;
+
+    static final int DEFAULT_GAMES = 10_000;
+
+    private final SelfPlayService selfPlayService;
+
+    @Autowired
+    public SelfPlayEndpoint(SelfPlayService selfPlayService) {
+        this.selfPlayService = selfPlayService;
+    }
+
+    /**
+     * Plays a self-play run.
+     *
+     * @param layout The cave layout, GRID by default
+     * @param rooms The number of rooms in the cave, at most {@value SelfPlaySettings#MAX_ROOMS}
+     * @param pits The number of pits in each cave
+     * @param batColonies The number of bat colonies in each cave
+     * @param policy The player, CAUTIOUS by default
+     * @param games The number of games to play; fewer for a player that searches
+     * @param seed The seed of the run, 0 by default
+     * @param maxSteps The steps after which a game is given up
+     * @return The statistics of the run
+     */
+    @WriteOperation
+    public SelfPlayReport play(@Nullable CaveTemplate.Layout layout, @Nullable Integer rooms,
+                               @Nullable Integer pits, @Nullable Integer batColonies,
+                               @Nullable PlayerPolicy policy, @Nullable Integer games,
+                               @Nullable Long seed, @Nullable Integer maxSteps) {
+        try {
+            SelfPlaySettings settings = new SelfPlaySettings(
+                    pits != null ? pits : DEFAULT_PITS,
+                    batColonies != null ? batColonies : DEFAULT_BAT_COLONIES,
+                    policy != null ? policy : PlayerPolicy.CAUTIOUS,
+                    games != null ? games : DEFAULT_GAMES,
+                    seed != null ? seed : 0L,
+                    maxSteps != null ? maxSteps : SelfPlaySettings.DEFAULT_MAX_STEPS);
+            return selfPlayService.play(layout != null ? layout : CaveTemplate.Layout.GRID,
+                    rooms != null ? rooms : DEFAULT_ROOMS, settings);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
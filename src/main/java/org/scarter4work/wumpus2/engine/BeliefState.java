@@ -0,0 +1,366 @@
+package org.scarter4work.wumpus2.engine;
+
+/**
+ * What a player can prove about a cave from what it has sensed, held as
+ * bitsets with one bit per room in {@code long} words. Every room the player
+ * has stood in is empty. A room next to one where the player sensed no pit
+ * holds no pit, and likewise for bats. Since there is only one Wumpus, it is
+ * in a room next to every room where the player smelled it and next to none
+ * where it did not, so each percept narrows the Wumpus candidates by one
+ * mask operation. A room where the player sensed a pit or bats and all but
+ * one neighbour is proven clear of them has that neighbour proven to hold them.
+ * <p>
+ * One instance can follow any number of games in turn; {@link #reset}
+ * reuses its arrays, and observing allocates nothing. Not thread-safe.
+ */
+public final class BeliefState {
+
+    private CaveTopology topology;
+    private int words;
+    private long[] adjacency = new long[0];
+
+    private long[] visited = new long[0];
+    private long[] noPit = new long[0];
+    private long[] noBats = new long[0];
+    private long[] pits = new long[0];
+    private long[] bats = new long[0];
+    private long[] breezy = new long[0];
+    private long[] noisy = new long[0];
+    private long[] wumpusCandidates = new long[0];
+
+    /**
+     * Forgets everything for a new game on a cave. Before the first percept
+     * the Wumpus may be in any room.
+     *
+     * @param topology The connections of the cave
+     * @return This belief state
+     */
+    public BeliefState reset(CaveTopology topology) {
+        int size = topology.size();
+        if (topology != this.topology) {
+            words = (size + Long.SIZE - 1) / Long.SIZE;
+            if (visited.length < words) {
+                visited = new long[words];
+                noPit = new long[words];
+                noBats = new long[words];
+                pits = new long[words];
+                bats = new long[words];
+                breezy = new long[words];
+                noisy = new long[words];
+                wumpusCandidates = new long[words];
+            }
+            if (adjacency.length < size * words) {
+                adjacency = new long[size * words];
+            }
+            for (int room = 0; room < size; room++) {
+                for (int word = 0; word < words; word++) {
+                    adjacency[room * words + word] = 0;
+                }
+                for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+                    int neighbour = topology.neighbour(room, direction);
+                    if (neighbour != CaveTopology.NO_ROOM) {
+                        adjacency[room * words + (neighbour >>> 6)] |= 1L << neighbour;
+                    }
+                }
+            }
+            this.topology = topology;
+        }
+
+        for (int word = 0; word < words; word++) {
+            visited[word] = 0;
+            noPit[word] = 0;
+            noBats[word] = 0;
+            pits[word] = 0;
+            bats[word] = 0;
+            breezy[word] = 0;
+            noisy[word] = 0;
+            wumpusCandidates[word] = -1L;
+        }
+        if (size % Long.SIZE != 0) {
+            wumpusCandidates[words - 1] = (1L << size) - 1;
+        }
+        return this;
+    }
+
+    /**
+     * Makes this belief state a copy of another, for a player that plays on
+     * from what another one knows.
+     *
+     * @param other The belief state to copy
+     * @return This belief state
+     */
+    public BeliefState copyFrom(BeliefState other) {
+        if (other.topology != topology) {
+            reset(other.topology);
+        }
+        System.arraycopy(other.visited, 0, visited, 0, words);
+        System.arraycopy(other.noPit, 0, noPit, 0, words);
+        System.arraycopy(other.noBats, 0, noBats, 0, words);
+        System.arraycopy(other.pits, 0, pits, 0, words);
+        System.arraycopy(other.bats, 0, bats, 0, words);
+        System.arraycopy(other.breezy, 0, breezy, 0, words);
+        System.arraycopy(other.noisy, 0, noisy, 0, words);
+        System.arraycopy(other.wumpusCandidates, 0, wumpusCandidates, 0, words);
+        return this;
+    }
+
+    /**
+     * Takes in what the player senses in a room.
+     *
+     * @param room The room index the player is in
+     * @param wumpusNearby Whether the player smells the Wumpus
+     * @param pitNearby Whether the player feels a breeze
+     * @param batsNearby Whether the player hears bats
+     */
+    public void observe(int room, boolean wumpusNearby, boolean pitNearby, boolean batsNearby) {
+        int word = room >>> 6;
+        long bit = 1L << room;
+        visited[word] |= bit;
+        noPit[word] |= bit;
+        noBats[word] |= bit;
+        wumpusCandidates[word] &= ~bit;
+
+        int offset = room * words;
+        for (int i = 0; i < words; i++) {
+            long adjacent = adjacency[offset + i];
+            wumpusCandidates[i] &= wumpusNearby ? adjacent : ~adjacent;
+            if (!pitNearby) {
+                noPit[i] |= adjacent;
+            }
+            if (!batsNearby) {
+                noBats[i] |= adjacent;
+            }
+        }
+        if (pitNearby) {
+            breezy[word] |= bit;
+        }
+        if (batsNearby) {
+            noisy[word] |= bit;
+        }
+
+        locate(breezy, noPit, pits);
+        locate(noisy, noBats, bats);
+    }
+
+    /**
+     * Takes in that the player stepped into a room and was carried off by bats,
+     * which proves the room holds bats and nothing else.
+     *
+     * @param room The room index the bats were in
+     */
+    public void carriedOffFrom(int room) {
+        int word = room >>> 6;
+        long bit = 1L << room;
+        bats[word] |= bit;
+        noBats[word] &= ~bit;
+        noPit[word] |= bit;
+        wumpusCandidates[word] &= ~bit;
+    }
+
+    /**
+     * Takes in that an arrow shot into a room missed.
+     *
+     * @param room The room index the arrow was shot into
+     */
+    public void missed(int room) {
+        wumpusCandidates[room >>> 6] &= ~(1L << room);
+    }
+
+    /**
+     * Marks the hazard in every room of {@code hazards} that is the only
+     * neighbour of a room in {@code sensed} not proven clear of it.
+     */
+    private void locate(long[] sensed, long[] clear, long[] hazards) {
+        for (int word = 0; word < words; word++) {
+            long pending = sensed[word];
+            while (pending != 0) {
+                int room = (word << 6) + Long.numberOfTrailingZeros(pending);
+                pending &= pending - 1;
+                int offset = room * words;
+                int unknownWord = -1;
+                long unknown = 0;
+                for (int i = 0; i < words; i++) {
+                    long open = adjacency[offset + i] & ~clear[i];
+                    if (open == 0) {
+                        continue;
+                    }
+                    if (unknownWord != -1 || (open & (open - 1)) != 0) {
+                        unknownWord = -2;
+                        break;
+                    }
+                    unknownWord = i;
+                    unknown = open;
+                }
+                if (unknownWord >= 0) {
+                    hazards[unknownWord] |= unknown;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the room is proven to hold neither the Wumpus, a pit nor bats
+     */
+    public boolean isSafe(int room) {
+        int word = room >>> 6;
+        long bit = 1L << room;
+        return (noPit[word] & noBats[word] & ~wumpusCandidates[word] & bit) != 0;
+    }
+
+    /**
+     * Estimates the chance that a room holds a pit from the breezes around
+     * it: a breeze with {@code n} neighbours not proven clear of pits puts a
+     * pit in each with a chance of at least {@code 1/n}, and the room takes the
+     * highest such chance of the breezes next to it.
+     *
+     * @param room The room index
+     * @return 0 if the room is proven clear of pits, 1 if it is proven to hold one, else the estimate
+     */
+    public double pitRisk(int room) {
+        return risk(room, breezy, noPit, pits);
+    }
+
+    /**
+     * Estimates the chance that a room holds bats, as {@link #pitRisk} does for pits.
+     *
+     * @param room The room index
+     * @return 0 if the room is proven clear of bats, 1 if it is proven to hold them, else the estimate
+     */
+    public double batRisk(int room) {
+        return risk(room, noisy, noBats, bats);
+    }
+
+    /**
+     * @param room The room index
+     * @return The chance that the Wumpus is in the room, taking each remaining candidate as equally likely
+     */
+    public double wumpusRisk(int room) {
+        return isSet(wumpusCandidates, room) ? 1.0 / wumpusCandidateCount() : 0;
+    }
+
+    private double risk(int room, long[] sensed, long[] clear, long[] hazards) {
+        if (isSet(clear, room)) {
+            return 0;
+        }
+        if (isSet(hazards, room)) {
+            return 1;
+        }
+        double risk = 0;
+        int offset = room * words;
+        for (int word = 0; word < words; word++) {
+            long around = adjacency[offset + word] & sensed[word];
+            while (around != 0) {
+                int neighbour = (word << 6) + Long.numberOfTrailingZeros(around);
+                around &= around - 1;
+                int open = 0;
+                for (int i = 0; i < words; i++) {
+                    open += Long.bitCount(adjacency[neighbour * words + i] & ~clear[i]);
+                }
+                risk = Math.max(risk, 1.0 / open);
+            }
+        }
+        return risk;
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the player has stood in the room
+     */
+    public boolean isVisited(int room) {
+        return isSet(visited, room);
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the room is proven to hold a pit
+     */
+    public boolean isPit(int room) {
+        return isSet(pits, room);
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the room is proven to hold bats
+     */
+    public boolean isBats(int room) {
+        return isSet(bats, room);
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the player has felt a breeze in the room
+     */
+    public boolean isBreezy(int room) {
+        return isSet(breezy, room);
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the player has heard bats in the room
+     */
+    public boolean isNoisy(int room) {
+        return isSet(noisy, room);
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the room is proven to hold no pit
+     */
+    public boolean isClearOfPit(int room) {
+        return isSet(noPit, room);
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the room is proven to hold no bats
+     */
+    public boolean isClearOfBats(int room) {
+        return isSet(noBats, room);
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the Wumpus may still be in the room
+     */
+    public boolean isWumpusCandidate(int room) {
+        return isSet(wumpusCandidates, room);
+    }
+
+    /**
+     * @return The number of rooms the Wumpus may still be in
+     */
+    public int wumpusCandidateCount() {
+        int count = 0;
+        for (int word = 0; word < words; word++) {
+            count += Long.bitCount(wumpusCandidates[word]);
+        }
+        return count;
+    }
+
+    /**
+     * @return The room the Wumpus is proven to be in, or {@link CaveTopology#NO_ROOM} while it may be in several
+     */
+    public int wumpusRoom() {
+        int room = CaveTopology.NO_ROOM;
+        for (int word = 0; word < words; word++) {
+            long candidates = wumpusCandidates[word];
+            if (candidates == 0) {
+                continue;
+            }
+            if (room != CaveTopology.NO_ROOM || (candidates & (candidates - 1)) != 0) {
+                return CaveTopology.NO_ROOM;
+            }
+            room = (word << 6) + Long.numberOfTrailingZeros(candidates);
+        }
+        return room;
+    }
+
+    public CaveTopology getTopology() {
+        return topology;
+    }
+
+    private static boolean isSet(long[] rooms, int room) {
+        return (rooms[room >>> 6] & (1L << room)) != 0;
+    }
+}
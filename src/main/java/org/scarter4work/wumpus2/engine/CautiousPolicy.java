@@ -0,0 +1,162 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A player that only steps into rooms it knows to be clear while it can. A
+ * room is clear of a hazard once the player has stood next to it without
+ * sensing that hazard. The player explores the nearest clear room it has not
+ * visited, through rooms it has visited or knows to be clear. When there are
+ * none left it risks the nearest room that may hold bats but neither the
+ * Wumpus nor a pit, and only then any room at all. It shoots whenever it
+ * smells the Wumpus, into a neighbouring room that might hold it and that it
+ * has not shot into yet.
+ */
+public final class CautiousPolicy implements Policy {
+
+    private static final int CLEAR_OF_WUMPUS = CaveContents.WUMPUS;
+    private static final int CLEAR_OF_PIT = CaveContents.PIT;
+    private static final int CLEAR_OF_BATS = CaveContents.BATS;
+    private static final int CLEAR = CLEAR_OF_WUMPUS | CLEAR_OF_PIT | CLEAR_OF_BATS;
+
+    private final RandomGenerator random;
+
+    private byte[] cleared = new byte[0];
+    private boolean[] shotAt = new boolean[0];
+    private boolean[] seen = new boolean[0];
+    private int[] queue = new int[0];
+    private int[] firstStep = new int[0];
+
+    public CautiousPolicy(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public void start(SimulatedGame game) {
+        int size = game.getTopology().size();
+        if (cleared.length < size) {
+            cleared = new byte[size];
+            shotAt = new boolean[size];
+            seen = new boolean[size];
+            queue = new int[size];
+            firstStep = new int[size];
+        } else {
+            for (int i = 0; i < size; i++) {
+                cleared[i] = 0;
+                shotAt[i] = false;
+            }
+        }
+    }
+
+    @Override
+    public int act(SimulatedGame game) {
+        observe(game);
+
+        if (game.wumpusNearby()) {
+            int direction = unshotWumpusCandidate(game);
+            if (direction != CaveTopology.NO_ROOM) {
+                int target = game.neighbour(direction);
+                shotAt[target] = true;
+                cleared[target] |= CLEAR_OF_WUMPUS;
+                return Policy.shoot(direction);
+            }
+        }
+
+        int direction = stepToward(game, CLEAR);
+        if (direction == CaveTopology.NO_ROOM) {
+            direction = stepToward(game, CLEAR_OF_WUMPUS | CLEAR_OF_PIT);
+        }
+        if (direction == CaveTopology.NO_ROOM) {
+            direction = stepToward(game, 0);
+        }
+        return direction != CaveTopology.NO_ROOM ? direction : RandomWalkPolicy.randomExit(game, random);
+    }
+
+    /**
+     * Clears the player's room, which cannot hold anything or the player would
+     * not be standing in it, and clears its neighbours of what is not sensed.
+     */
+    private void observe(SimulatedGame game) {
+        int room = game.getCurrentRoom();
+        cleared[room] = CLEAR;
+
+        int clear = 0;
+        if (!game.wumpusNearby()) {
+            clear |= CLEAR_OF_WUMPUS;
+        }
+        if (!game.pitNearby()) {
+            clear |= CLEAR_OF_PIT;
+        }
+        if (!game.batsNearby()) {
+            clear |= CLEAR_OF_BATS;
+        }
+        for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+            int neighbour = game.neighbour(direction);
+            if (neighbour != CaveTopology.NO_ROOM) {
+                cleared[neighbour] |= (byte) clear;
+            }
+        }
+    }
+
+    private int unshotWumpusCandidate(SimulatedGame game) {
+        int candidates = 0;
+        for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+            if (isWumpusCandidate(game.neighbour(direction))) {
+                candidates++;
+            }
+        }
+        if (candidates == 0) {
+            return CaveTopology.NO_ROOM;
+        }
+        int pick = random.nextInt(candidates);
+        for (int direction = 0; ; direction++) {
+            if (isWumpusCandidate(game.neighbour(direction)) && pick-- == 0) {
+                return direction;
+            }
+        }
+    }
+
+    private boolean isWumpusCandidate(int room) {
+        return room != CaveTopology.NO_ROOM && (cleared[room] & CLEAR_OF_WUMPUS) == 0 && !shotAt[room];
+    }
+
+    /**
+     * Finds the first step on a shortest path to an unvisited room that is
+     * clear of the given hazards, going only through rooms that are visited or
+     * clear of everything.
+     *
+     * @param game The game
+     * @param required The clear bits the room must have
+     * @return The direction of the first step, or {@link CaveTopology#NO_ROOM} if there is no such room
+     */
+    private int stepToward(SimulatedGame game, int required) {
+        CaveTopology topology = game.getTopology();
+        for (int i = 0; i < topology.size(); i++) {
+            seen[i] = false;
+        }
+
+        int start = game.getCurrentRoom();
+        seen[start] = true;
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int room = queue[head++];
+            for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+                int next = topology.neighbour(room, direction);
+                if (next == CaveTopology.NO_ROOM || seen[next]) {
+                    continue;
+                }
+                seen[next] = true;
+                firstStep[next] = room == start ? direction : firstStep[room];
+                if (!game.isVisited(next) && (cleared[next] & required) == required) {
+                    return firstStep[next];
+                }
+                if (game.isVisited(next) || cleared[next] == CLEAR) {
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return CaveTopology.NO_ROOM;
+    }
+}
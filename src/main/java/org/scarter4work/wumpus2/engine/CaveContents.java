@@ -0,0 +1,144 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Helpers for what the rooms of a cave hold, encoded as one byte per room
+ * with a bit for each hazard. None of them allocate.
+ */
+public final class CaveContents {
+
+    public static final int WUMPUS = 1;
+    public static final int PIT = 1 << 1;
+    public static final int BATS = 1 << 2;
+
+    public static final int PITS = 3;
+    public static final int BAT_COLONIES = 3;
+
+    /**
+     * The number of rooms hazards are placed in: one for the Wumpus, one for each
+     * pit and one for each bat colony.
+     */
+    public static final int HAZARDOUS_ROOMS = 1 + PITS + BAT_COLONIES;
+
+    private CaveContents() {
+    }
+
+    /**
+     * Clears the first rooms of a cave and places the Wumpus, {@link #PITS} pits
+     * and {@link #BAT_COLONIES} bat colonies in distinct rooms, uniformly at random.
+     *
+     * @param contents The contents to fill
+     * @param size The number of rooms in the cave
+     * @param random The random generator to draw rooms from
+     * @throws IllegalStateException if there are fewer rooms than hazards
+     */
+    public static void placeRandomHazards(byte[] contents, int size, RandomGenerator random) {
+        placeRandomHazards(contents, size, random, PITS, BAT_COLONIES);
+    }
+
+    /**
+     * Clears the first rooms of a cave and places the Wumpus, the pits and the
+     * bat colonies in distinct rooms, uniformly at random.
+     *
+     * @param contents The contents to fill
+     * @param size The number of rooms in the cave
+     * @param random The random generator to draw rooms from
+     * @param pits The number of pits
+     * @param batColonies The number of bat colonies
+     * @throws IllegalStateException if there are fewer rooms than hazards
+     */
+    public static void placeRandomHazards(byte[] contents, int size, RandomGenerator random, int pits,
+                                          int batColonies) {
+        if (pits < 0 || batColonies < 0) {
+            throw new IllegalArgumentException("Hazard counts cannot be negative");
+        }
+        if (size < 1 + pits + batColonies) {
+            throw new IllegalStateException("Not enough rooms to place all hazards");
+        }
+        for (int i = 0; i < size; i++) {
+            contents[i] = 0;
+        }
+
+        placeInEmptyRoom(contents, size, random, WUMPUS);
+        for (int i = 0; i < pits; i++) {
+            placeInEmptyRoom(contents, size, random, PIT);
+        }
+        for (int i = 0; i < batColonies; i++) {
+            placeInEmptyRoom(contents, size, random, BATS);
+        }
+    }
+
+    /**
+     * Picks a room to start in, uniformly at random from the rooms without
+     * hazards, else from the rooms without the Wumpus or a pit, else from all rooms.
+     *
+     * @param contents The contents of the cave
+     * @param size The number of rooms in the cave
+     * @param random The random generator to draw the room from
+     * @return The index of the room
+     */
+    public static int findSafeRoom(byte[] contents, int size, RandomGenerator random) {
+        int room = pickRoomWithout(contents, size, random, WUMPUS | PIT | BATS);
+        if (room == CaveTopology.NO_ROOM) {
+            room = pickRoomWithout(contents, size, random, WUMPUS | PIT);
+        }
+        return room != CaveTopology.NO_ROOM ? room : random.nextInt(size);
+    }
+
+    /**
+     * @param contents The contents of the cave
+     * @param room The room index
+     * @param hazard One of the hazard bits
+     * @return Whether the room holds the hazard
+     */
+    public static boolean has(byte[] contents, int room, int hazard) {
+        return (contents[room] & hazard) != 0;
+    }
+
+    /**
+     * @param topology The connections of the cave
+     * @param contents The contents of the cave
+     * @param room The room index
+     * @param hazard One of the hazard bits
+     * @return Whether a room connected to the given room holds the hazard
+     */
+    public static boolean nearby(CaveTopology topology, byte[] contents, int room, int hazard) {
+        for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+            int neighbour = topology.neighbour(room, direction);
+            if (neighbour != CaveTopology.NO_ROOM && has(contents, neighbour, hazard)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Redrawing until an empty room comes up is uniform over the empty rooms and,
+    // with at least as many rooms as hazards, needs no scratch space
+    private static void placeInEmptyRoom(byte[] contents, int size, RandomGenerator random, int hazard) {
+        int room;
+        do {
+            room = random.nextInt(size);
+        } while (contents[room] != 0);
+        contents[room] = (byte) hazard;
+    }
+
+    private static int pickRoomWithout(byte[] contents, int size, RandomGenerator random, int hazards) {
+        int candidates = 0;
+        for (int i = 0; i < size; i++) {
+            if ((contents[i] & hazards) == 0) {
+                candidates++;
+            }
+        }
+        if (candidates == 0) {
+            return CaveTopology.NO_ROOM;
+        }
+        int pick = random.nextInt(candidates);
+        for (int i = 0; i < size; i++) {
+            if ((contents[i] & hazards) == 0 && pick-- == 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+}
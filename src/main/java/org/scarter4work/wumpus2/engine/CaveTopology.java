@@ -0,0 +1,89 @@
+package org.scarter4work.wumpus2.engine;
+
+/**
+ * The connections of a cave, held in one flat array with the north, east,
+ * south and west neighbour of each room in turn. Rooms are addressed by index
+ * 0..N-1 and directions by {@link #NORTH} to {@link #WEST}, in the order of
+ * {@link org.scarter4work.wumpus2.model.Direction}. Immutable, so one topology
+ * can be shared by any number of games.
+ */
+public final class CaveTopology {
+
+    /**
+     * Neighbour value used when there is no connection in a direction.
+     */
+    public static final int NO_ROOM = -1;
+
+    public static final int NORTH = 0;
+    public static final int EAST = 1;
+    public static final int SOUTH = 2;
+    public static final int WEST = 3;
+
+    /**
+     * The number of directions, and so of neighbours stored per room.
+     */
+    public static final int DIRECTIONS = 4;
+
+    private final int[] neighbours;
+
+    private CaveTopology(int[] neighbours) {
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Creates a topology from room indices.
+     *
+     * @param neighbours The north, east, south and west neighbour index of each room in turn,
+     *                   {@link #NO_ROOM} for none
+     * @return A new CaveTopology
+     * @throws IllegalArgumentException if the array does not describe whole rooms or
+     *                                  refers to a room that does not exist
+     */
+    public static CaveTopology of(int[] neighbours) {
+        if (neighbours.length % DIRECTIONS != 0) {
+            throw new IllegalArgumentException("Every room needs a neighbour in each direction");
+        }
+        int size = neighbours.length / DIRECTIONS;
+        for (int neighbour : neighbours) {
+            if (neighbour != NO_ROOM && (neighbour < 0 || neighbour >= size)) {
+                throw new IllegalArgumentException("No room with index " + neighbour);
+            }
+        }
+        return new CaveTopology(neighbours.clone());
+    }
+
+    /**
+     * Creates a topology from room numbers, as cave templates store them.
+     *
+     * @param connections The north, east, south and west neighbour room number of each room in turn,
+     *                    0 for none
+     * @return A new CaveTopology
+     * @throws IllegalArgumentException if the array does not describe whole rooms or
+     *                                  refers to a room that does not exist
+     */
+    public static CaveTopology fromRoomNumbers(int[] connections) {
+        int[] neighbours = new int[connections.length];
+        for (int i = 0; i < connections.length; i++) {
+            neighbours[i] = connections[i] - 1;
+        }
+        return of(neighbours);
+    }
+
+    /**
+     * @return The number of rooms in the cave
+     */
+    public int size() {
+        return neighbours.length / DIRECTIONS;
+    }
+
+    /**
+     * Gets the room connected in a direction.
+     *
+     * @param room The room index
+     * @param direction The direction to follow, {@link #NORTH} to {@link #WEST}
+     * @return The index of the connected room, or {@link #NO_ROOM} if there is no connection
+     */
+    public int neighbour(int room, int direction) {
+        return neighbours[room * DIRECTIONS + direction];
+    }
+}
@@ -0,0 +1,544 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The chance that each room holds a pit, bats or the Wumpus, given what a
+ * {@link BeliefState} has sensed and how many pits and bat colonies the cave
+ * has. The answer is an approximation. Pits and bats are enumerated
+ * separately: every placement of the remaining pits that explains each breeze
+ * is taken as equally likely, and a room's pit chance is the share of those
+ * placements that put a pit in it; bats are enumerated the same way from the
+ * rooms where bats were heard. Neither enumeration leaves room for the Wumpus,
+ * and the two are coupled only through rooms already proven to hold the other
+ * hazard, not through the rooms each placement would fill. The Wumpus is then
+ * put in one of its candidate rooms, each weighed by the chance that it holds
+ * neither a pit nor bats.
+ * <p>
+ * Only the frontier, the unproven rooms next to an unexplained breeze, needs
+ * enumerating; every other unproven room is alike and is counted rather than
+ * enumerated. The frontier splits into components that share no breeze, each
+ * enumerated on its own, and the components are then combined by how many
+ * pits each uses. A component's enumeration depends only on its shape, so it
+ * is cached and reused across steps and games, and components of at least
+ * {@link #PARALLEL_MIN_ROOMS} rooms are enumerated in parallel on the
+ * fork/join common pool.
+ * <p>
+ * Not thread-safe; give each player its own instance.
+ */
+public final class HazardProbabilities {
+
+    /**
+     * The size of component from which new components are enumerated in parallel.
+     */
+    static final int PARALLEL_MIN_ROOMS = 16;
+
+    /**
+     * The number of component enumerations kept before the cache is emptied.
+     */
+    static final int MAX_CACHED_COMPONENTS = 10_000;
+
+    private final int pits;
+    private final int batColonies;
+    private final Map<Component, Table> cache = new HashMap<>();
+
+    private double[] pit = new double[0];
+    private double[] bats = new double[0];
+    private double[] wumpus = new double[0];
+    private double[] logFactorials = {0};
+
+    /**
+     * @param pits The number of pits in the cave
+     * @param batColonies The number of bat colonies in the cave
+     * @throws IllegalArgumentException if a count is negative
+     */
+    public HazardProbabilities(int pits, int batColonies) {
+        if (pits < 0 || batColonies < 0) {
+            throw new IllegalArgumentException("Hazard counts cannot be negative");
+        }
+        this.pits = pits;
+        this.batColonies = batColonies;
+    }
+
+    /**
+     * Works out the chances for everything the belief state has sensed so far.
+     *
+     * @param belief What the player has proven
+     * @return This instance
+     */
+    public HazardProbabilities update(BeliefState belief) {
+        int size = belief.getTopology().size();
+        if (pit.length < size) {
+            pit = new double[size];
+            bats = new double[size];
+            wumpus = new double[size];
+        }
+        if (logFactorials.length <= size) {
+            logFactorials = new double[size + 1];
+            for (int n = 1; n <= size; n++) {
+                logFactorials[n] = logFactorials[n - 1] + Math.log(n);
+            }
+        }
+
+        solve(belief, Hazard.PIT, pits, pit);
+        solve(belief, Hazard.BATS, batColonies, bats);
+
+        double total = 0;
+        for (int room = 0; room < size; room++) {
+            wumpus[room] = belief.isWumpusCandidate(room) ? (1 - pit[room]) * (1 - bats[room]) : 0;
+            total += wumpus[room];
+        }
+        int candidates = belief.wumpusCandidateCount();
+        for (int room = 0; room < size; room++) {
+            if (total > 0) {
+                wumpus[room] /= total;
+            } else if (belief.isWumpusCandidate(room)) {
+                wumpus[room] = 1.0 / candidates;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @param room The room index
+     * @return The chance that the room holds a pit, as of the last {@link #update}
+     */
+    public double pit(int room) {
+        return pit[room];
+    }
+
+    /**
+     * @param room The room index
+     * @return The chance that the room holds bats, as of the last {@link #update}
+     */
+    public double bats(int room) {
+        return bats[room];
+    }
+
+    /**
+     * @param room The room index
+     * @return The chance that the Wumpus is in the room, as of the last {@link #update}
+     */
+    public double wumpus(int room) {
+        return wumpus[room];
+    }
+
+    /**
+     * @return The number of component enumerations cached
+     */
+    int cachedComponents() {
+        return cache.size();
+    }
+
+    /**
+     * The hazards placed in counted numbers, and how a belief state tells of them.
+     */
+    private enum Hazard {
+        PIT {
+            @Override
+            boolean sensed(BeliefState belief, int room) {
+                return belief.isBreezy(room);
+            }
+
+            @Override
+            boolean clear(BeliefState belief, int room) {
+                return belief.isClearOfPit(room) || belief.isBats(room);
+            }
+
+            @Override
+            boolean known(BeliefState belief, int room) {
+                return belief.isPit(room);
+            }
+        },
+        BATS {
+            @Override
+            boolean sensed(BeliefState belief, int room) {
+                return belief.isNoisy(room);
+            }
+
+            @Override
+            boolean clear(BeliefState belief, int room) {
+                return belief.isClearOfBats(room) || belief.isPit(room);
+            }
+
+            @Override
+            boolean known(BeliefState belief, int room) {
+                return belief.isBats(room);
+            }
+        };
+
+        abstract boolean sensed(BeliefState belief, int room);
+
+        abstract boolean clear(BeliefState belief, int room);
+
+        abstract boolean known(BeliefState belief, int room);
+    }
+
+    private void solve(BeliefState belief, Hazard hazard, int count, double[] chances) {
+        CaveTopology topology = belief.getTopology();
+        int size = topology.size();
+
+        boolean[] unknown = new boolean[size];
+        int known = 0;
+        int unknownRooms = 0;
+        for (int room = 0; room < size; room++) {
+            if (hazard.known(belief, room)) {
+                chances[room] = 1;
+                known++;
+            } else {
+                chances[room] = 0;
+                if (!hazard.clear(belief, room)) {
+                    unknown[room] = true;
+                    unknownRooms++;
+                }
+            }
+        }
+        int remaining = count - known;
+        if (remaining <= 0 || unknownRooms == 0) {
+            return;
+        }
+
+        // Each unexplained percept needs the hazard in one of its unproven neighbours
+        int[] parent = new int[size];
+        Arrays.fill(parent, -1);
+        List<int[]> constraints = new ArrayList<>();
+        int[] open = new int[CaveTopology.DIRECTIONS];
+        for (int room = 0; room < size; room++) {
+            if (!hazard.sensed(belief, room)) {
+                continue;
+            }
+            int opened = 0;
+            boolean explained = false;
+            for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+                int neighbour = topology.neighbour(room, direction);
+                if (neighbour == CaveTopology.NO_ROOM) {
+                    continue;
+                }
+                if (hazard.known(belief, neighbour)) {
+                    explained = true;
+                } else if (unknown[neighbour]) {
+                    open[opened++] = neighbour;
+                }
+            }
+            if (explained || opened == 0) {
+                continue;
+            }
+            int[] constraint = Arrays.copyOf(open, opened);
+            Arrays.sort(constraint);
+            constraints.add(constraint);
+            for (int neighbour : constraint) {
+                if (parent[neighbour] == -1) {
+                    parent[neighbour] = neighbour;
+                }
+                union(parent, constraint[0], neighbour);
+            }
+        }
+
+        List<Component> components = components(parent, constraints, remaining);
+        int frontier = 0;
+        for (Component component : components) {
+            frontier += component.rooms.length;
+        }
+        Table[] tables = tables(components);
+
+        // Combine the components by the number of hazards each places
+        int others = unknownRooms - frontier;
+        double[] weights = new double[remaining + 1];
+        double maxLog = Double.NEGATIVE_INFINITY;
+        for (int used = 0; used <= remaining; used++) {
+            maxLog = Math.max(maxLog, logChoose(others, remaining - used));
+        }
+        for (int used = 0; used <= remaining; used++) {
+            weights[used] = Math.exp(logChoose(others, remaining - used) - maxLog);
+        }
+
+        int k = tables.length;
+        double[][] prefix = new double[k + 1][];
+        double[][] suffix = new double[k + 1][];
+        prefix[0] = unit(remaining);
+        suffix[k] = unit(remaining);
+        for (int i = 0; i < k; i++) {
+            prefix[i + 1] = convolve(prefix[i], tables[i].ways);
+        }
+        for (int i = k - 1; i >= 0; i--) {
+            suffix[i] = convolve(suffix[i + 1], tables[i].ways);
+        }
+
+        double total = 0;
+        double otherHazards = 0;
+        for (int used = 0; used <= remaining; used++) {
+            double weighted = prefix[k][used] * weights[used];
+            total += weighted;
+            otherHazards += weighted * (remaining - used);
+        }
+        if (total == 0) {
+            // The counts cannot explain the percepts; fall back to spreading the hazards evenly
+            for (int room = 0; room < size; room++) {
+                if (unknown[room]) {
+                    chances[room] = Math.min(1, (double) remaining / unknownRooms);
+                }
+            }
+            return;
+        }
+
+        double other = others > 0 ? otherHazards / others / total : 0;
+        boolean[] inFrontier = new boolean[size];
+        for (int i = 0; i < k; i++) {
+            Component component = components.get(i);
+            Table table = tables[i];
+            double[] rest = convolve(prefix[i], suffix[i + 1]);
+            for (int local = 0; local < component.rooms.length; local++) {
+                double ways = 0;
+                for (int used = 0; used <= remaining; used++) {
+                    double with = table.hazardWays[local][used];
+                    if (with == 0) {
+                        continue;
+                    }
+                    for (int elsewhere = 0; used + elsewhere <= remaining; elsewhere++) {
+                        ways += with * rest[elsewhere] * weights[used + elsewhere];
+                    }
+                }
+                int room = component.rooms[local];
+                chances[room] = ways / total;
+                inFrontier[room] = true;
+            }
+        }
+        for (int room = 0; room < size; room++) {
+            if (unknown[room] && !inFrontier[room]) {
+                chances[room] = other;
+            }
+        }
+    }
+
+    private static int find(int[] parent, int room) {
+        while (parent[room] != room) {
+            parent[room] = parent[parent[room]];
+            room = parent[room];
+        }
+        return room;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[rootB] = rootA;
+        }
+    }
+
+    /**
+     * Groups the frontier rooms and their constraints into components that
+     * share no constraint, with the constraints in room-local indices.
+     */
+    private static List<Component> components(int[] parent, List<int[]> constraints, int cap) {
+        Map<Integer, List<Integer>> roomsByRoot = new HashMap<>();
+        for (int room = 0; room < parent.length; room++) {
+            if (parent[room] != -1) {
+                roomsByRoot.computeIfAbsent(find(parent, room), root -> new ArrayList<>()).add(room);
+            }
+        }
+        Map<Integer, List<int[]>> constraintsByRoot = new HashMap<>();
+        for (int[] constraint : constraints) {
+            constraintsByRoot.computeIfAbsent(find(parent, constraint[0]), root -> new ArrayList<>()).add(constraint);
+        }
+
+        List<Component> components = new ArrayList<>(roomsByRoot.size());
+        for (Map.Entry<Integer, List<Integer>> entry : roomsByRoot.entrySet()) {
+            int[] rooms = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            List<int[]> roomConstraints = constraintsByRoot.get(entry.getKey());
+            int[][] local = new int[roomConstraints.size()][];
+            for (int i = 0; i < local.length; i++) {
+                int[] constraint = roomConstraints.get(i);
+                local[i] = new int[constraint.length];
+                for (int j = 0; j < constraint.length; j++) {
+                    local[i][j] = Arrays.binarySearch(rooms, constraint[j]);
+                }
+            }
+            Arrays.sort(local, Arrays::compare);
+            components.add(new Component(rooms, local, cap));
+        }
+        return components;
+    }
+
+    /**
+     * Gets the enumeration of each component, from the cache or by enumerating
+     * the components not in it, in parallel if any of them is large.
+     */
+    private Table[] tables(List<Component> components) {
+        Table[] tables = new Table[components.size()];
+        List<Integer> missing = new ArrayList<>();
+        boolean large = false;
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = cache.get(components.get(i));
+            if (tables[i] == null) {
+                missing.add(i);
+                large |= components.get(i).rooms.length >= PARALLEL_MIN_ROOMS;
+            }
+        }
+
+        if (large && missing.size() > 1) {
+            missing.parallelStream().forEach(i -> tables[i] = Enumeration.run(components.get(i)));
+        } else {
+            missing.forEach(i -> tables[i] = Enumeration.run(components.get(i)));
+        }
+
+        if (cache.size() + missing.size() > MAX_CACHED_COMPONENTS) {
+            cache.clear();
+        }
+        for (int i : missing) {
+            cache.put(components.get(i), tables[i]);
+        }
+        return tables;
+    }
+
+    private double logChoose(int n, int k) {
+        if (k < 0 || k > n) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return logFactorials[n] - logFactorials[k] - logFactorials[n - k];
+    }
+
+    private static double[] unit(int length) {
+        double[] unit = new double[length + 1];
+        unit[0] = 1;
+        return unit;
+    }
+
+    /**
+     * Combines two counts of placements by the number of hazards they use,
+     * dropping placements that use more than there are.
+     */
+    private static double[] convolve(double[] a, double[] b) {
+        double[] result = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == 0) {
+                continue;
+            }
+            for (int j = 0; i + j < a.length && j < b.length; j++) {
+                result[i + j] += a[i] * b[j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A frontier component: its rooms, and for each unexplained percept the
+     * local indices of the rooms that could explain it. Components are equal
+     * when they have the same shape, whichever rooms they cover, since their
+     * enumerations are then the same.
+     *
+     * @param rooms The room indices, ascending
+     * @param constraints The local room indices of each constraint, in a canonical order
+     * @param cap The most hazards a placement may use
+     */
+    private record Component(int[] rooms, int[][] constraints, int cap) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Component other && rooms.length == other.rooms.length && cap == other.cap
+                    && Arrays.deepEquals(constraints, other.constraints);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * rooms.length + cap) + Arrays.deepHashCode(constraints);
+        }
+    }
+
+    /**
+     * The placements of a component that explain all its percepts, counted by
+     * the number of hazards they use: in all, and with a hazard in each room.
+     */
+    private record Table(double[] ways, double[][] hazardWays) {
+    }
+
+    /**
+     * Backtracking over the rooms of a component, pruning a branch as soon as
+     * a percept is left with no room that could explain it or the placement
+     * uses more hazards than there are.
+     */
+    private static final class Enumeration {
+
+        private final int cap;
+        private final int[][] roomConstraints;
+        private final int[] undecided;
+        private final int[] placedIn;
+        private final int[] placed;
+        private final double[] ways;
+        private final double[][] hazardWays;
+
+        private Enumeration(Component component) {
+            int size = component.rooms.length;
+            this.cap = component.cap;
+            int[] memberships = new int[size];
+            for (int[] constraint : component.constraints) {
+                for (int local : constraint) {
+                    memberships[local]++;
+                }
+            }
+            roomConstraints = new int[size][];
+            for (int local = 0; local < size; local++) {
+                roomConstraints[local] = new int[memberships[local]];
+                memberships[local] = 0;
+            }
+            undecided = new int[component.constraints.length];
+            for (int c = 0; c < component.constraints.length; c++) {
+                undecided[c] = component.constraints[c].length;
+                for (int local : component.constraints[c]) {
+                    roomConstraints[local][memberships[local]++] = c;
+                }
+            }
+            placedIn = new int[component.constraints.length];
+            placed = new int[Math.min(cap, size)];
+            ways = new double[cap + 1];
+            hazardWays = new double[size][cap + 1];
+        }
+
+        static Table run(Component component) {
+            Enumeration enumeration = new Enumeration(component);
+            enumeration.place(0, 0);
+            return new Table(enumeration.ways, enumeration.hazardWays);
+        }
+
+        private void place(int room, int used) {
+            if (room == roomConstraints.length) {
+                ways[used]++;
+                for (int i = 0; i < used; i++) {
+                    hazardWays[placed[i]][used]++;
+                }
+                return;
+            }
+
+            int[] constraints = roomConstraints[room];
+            if (used < cap) {
+                for (int c : constraints) {
+                    undecided[c]--;
+                    placedIn[c]++;
+                }
+                placed[used] = room;
+                place(room + 1, used + 1);
+                for (int c : constraints) {
+                    undecided[c]++;
+                    placedIn[c]--;
+                }
+            }
+
+            boolean explained = true;
+            for (int c : constraints) {
+                undecided[c]--;
+                explained &= undecided[c] > 0 || placedIn[c] > 0;
+            }
+            if (explained) {
+                place(room + 1, used);
+            }
+            for (int c : constraints) {
+                undecided[c]++;
+            }
+        }
+    }
+}
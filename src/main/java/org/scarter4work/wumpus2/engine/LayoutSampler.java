@@ -0,0 +1,293 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws hidden cave layouts that agree with everything a {@link BeliefState}
+ * has sensed, for players that plan by simulating the games they could be in.
+ * Every placement of the hazards is equally likely before the player senses
+ * anything and percepts are certain, so the layouts that agree with the
+ * percepts are equally likely too. The sampler draws from them with a Markov
+ * chain: {@link #start} builds one layout that explains every percept, and
+ * {@link #next} moves hazards to random rooms or swaps two hazards of
+ * different kinds, keeping each change that still explains them. Swaps are
+ * needed where moves alone cannot get from one layout to another: a room that
+ * is both breezy and noisy with two rooms left next to it has a pit in one
+ * and bats in the other, and moving either hazard alone breaks a percept.
+ * Both kinds of change are symmetric, so the uniform distribution over
+ * agreeing layouts is the one the chain keeps. That it reaches every agreeing
+ * layout from the first is checked against exact counts, not proven.
+ * <p>
+ * Rooms proven to hold a pit or bats keep them, as do rooms the player was
+ * carried off from. One instance reuses its arrays and drawing allocates
+ * nothing. Not thread-safe.
+ */
+final class LayoutSampler {
+
+    /**
+     * The moves and swaps tried between two layouts handed out by {@link #next}.
+     */
+    static final int MOVES_PER_LAYOUT = 8;
+
+    /**
+     * The attempts at building a first layout before giving up on the percepts.
+     */
+    static final int MAX_START_ATTEMPTS = 100;
+
+    private BeliefState belief;
+    private CaveTopology topology;
+    private byte[] contents = new byte[0];
+
+    /**
+     * The room of each hazard: the Wumpus, then the pits, then the bat colonies.
+     */
+    private int[] hazardRooms = new int[0];
+    private boolean[] fixed = new boolean[0];
+    private int pits;
+    private int hazards;
+    private int[] open = new int[0];
+
+    /**
+     * Builds a first layout that explains what the player has sensed. The
+     * belief state must not change until the next call to this method.
+     *
+     * @param belief What the player has sensed
+     * @param pits The number of pits in the cave
+     * @param batColonies The number of bat colonies in the cave
+     * @param random The generator to draw from
+     * @return Whether a layout was found; false if the counts cannot explain the percepts
+     */
+    boolean start(BeliefState belief, int pits, int batColonies, RandomGenerator random) {
+        this.belief = belief;
+        this.topology = belief.getTopology();
+        this.pits = pits;
+        this.hazards = 1 + pits + batColonies;
+        int size = topology.size();
+        if (contents.length < size) {
+            contents = new byte[size];
+            open = new int[size];
+        }
+        if (hazardRooms.length < hazards) {
+            hazardRooms = new int[hazards];
+            fixed = new boolean[hazards];
+        }
+
+        for (int attempt = 0; attempt < MAX_START_ATTEMPTS; attempt++) {
+            if (build(random)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves and swaps the hazards of the last layout around for {@link #MOVES_PER_LAYOUT} tries.
+     *
+     * @param random The generator to draw from
+     * @return The contents of each room, by {@link CaveContents} hazard bits; overwritten by the next call
+     */
+    byte[] next(RandomGenerator random) {
+        for (int move = 0; move < MOVES_PER_LAYOUT; move++) {
+            if (random.nextBoolean()) {
+                move(random);
+            } else {
+                swap(random);
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Tries moving a random hazard to a random empty room.
+     */
+    private void move(RandomGenerator random) {
+        int hazard = random.nextInt(hazards);
+        int to = random.nextInt(topology.size());
+        if (fixed[hazard] || contents[to] != 0 || belief.isVisited(to)) {
+            return;
+        }
+        int bit = bit(hazard);
+        if (bit == CaveContents.WUMPUS && !belief.isWumpusCandidate(to)) {
+            return;
+        }
+
+        int from = hazardRooms[hazard];
+        contents[from] = 0;
+        contents[to] = (byte) bit;
+        if (explainsAround(from, to, bit)) {
+            hazardRooms[hazard] = to;
+        } else {
+            contents[to] = 0;
+            contents[from] = (byte) bit;
+        }
+    }
+
+    /**
+     * Tries swapping the rooms of two random hazards of different kinds.
+     */
+    private void swap(RandomGenerator random) {
+        int first = random.nextInt(hazards);
+        int second = random.nextInt(hazards);
+        int firstBit = bit(first);
+        int secondBit = bit(second);
+        if (fixed[first] || fixed[second] || firstBit == secondBit) {
+            return;
+        }
+        int firstRoom = hazardRooms[first];
+        int secondRoom = hazardRooms[second];
+        if ((firstBit == CaveContents.WUMPUS && !belief.isWumpusCandidate(secondRoom))
+                || (secondBit == CaveContents.WUMPUS && !belief.isWumpusCandidate(firstRoom))) {
+            return;
+        }
+
+        contents[firstRoom] = (byte) secondBit;
+        contents[secondRoom] = (byte) firstBit;
+        if (explainsAround(firstRoom, secondRoom, firstBit) && explainsAround(firstRoom, secondRoom, secondBit)) {
+            hazardRooms[first] = secondRoom;
+            hazardRooms[second] = firstRoom;
+        } else {
+            contents[firstRoom] = (byte) firstBit;
+            contents[secondRoom] = (byte) secondBit;
+        }
+    }
+
+    /**
+     * Places the proven hazards, the Wumpus in a room it may be in, a hazard
+     * next to each room where it was sensed and none is yet, and the rest in
+     * random rooms not proven clear of them.
+     */
+    private boolean build(RandomGenerator random) {
+        int size = topology.size();
+        for (int room = 0; room < size; room++) {
+            contents[room] = 0;
+        }
+        int nextPit = 1;
+        int nextBats = 1 + pits;
+        for (int room = 0; room < size; room++) {
+            if (belief.isPit(room)) {
+                if (nextPit == 1 + pits) {
+                    return false;
+                }
+                place(nextPit++, room, CaveContents.PIT, true);
+            } else if (belief.isBats(room)) {
+                if (nextBats == hazards) {
+                    return false;
+                }
+                place(nextBats++, room, CaveContents.BATS, true);
+            }
+        }
+
+        int openRooms = 0;
+        for (int room = 0; room < size; room++) {
+            if (contents[room] == 0 && belief.isWumpusCandidate(room)) {
+                open[openRooms++] = room;
+            }
+        }
+        if (openRooms == 0) {
+            return false;
+        }
+        place(0, open[random.nextInt(openRooms)], CaveContents.WUMPUS, false);
+
+        nextPit = cover(CaveContents.PIT, nextPit, 1 + pits, random);
+        nextBats = cover(CaveContents.BATS, nextBats, hazards, random);
+        if (nextPit < 0 || nextBats < 0) {
+            return false;
+        }
+        return fill(CaveContents.PIT, nextPit, 1 + pits, random) && fill(CaveContents.BATS, nextBats, hazards, random);
+    }
+
+    /**
+     * Places a hazard next to every room where it was sensed and none is yet.
+     *
+     * @return The next free slot in {@link #hazardRooms}, or -1 if the hazards ran out or could not be placed
+     */
+    private int cover(int bit, int next, int end, RandomGenerator random) {
+        for (int room = 0; room < topology.size(); room++) {
+            if (!sensed(room, bit) || CaveContents.nearby(topology, contents, room, bit)) {
+                continue;
+            }
+            if (next == end) {
+                return -1;
+            }
+            int openRooms = 0;
+            for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+                int neighbour = topology.neighbour(room, direction);
+                if (neighbour != CaveTopology.NO_ROOM && isOpen(neighbour, bit)) {
+                    open[openRooms++] = neighbour;
+                }
+            }
+            if (openRooms == 0) {
+                return -1;
+            }
+            place(next++, open[random.nextInt(openRooms)], bit, false);
+        }
+        return next;
+    }
+
+    /**
+     * Places the remaining hazards of a kind in random rooms not proven clear of them.
+     */
+    private boolean fill(int bit, int next, int end, RandomGenerator random) {
+        int openRooms = 0;
+        for (int room = 0; room < topology.size(); room++) {
+            if (isOpen(room, bit)) {
+                open[openRooms++] = room;
+            }
+        }
+        for (; next < end; next++) {
+            if (openRooms == 0) {
+                return false;
+            }
+            int pick = random.nextInt(openRooms);
+            place(next, open[pick], bit, false);
+            open[pick] = open[--openRooms];
+        }
+        return true;
+    }
+
+    private boolean isOpen(int room, int bit) {
+        return contents[room] == 0
+                && !(bit == CaveContents.PIT ? belief.isClearOfPit(room) : belief.isClearOfBats(room));
+    }
+
+    private void place(int hazard, int room, int bit, boolean proven) {
+        contents[room] = (byte) bit;
+        hazardRooms[hazard] = room;
+        fixed[hazard] = proven;
+    }
+
+    /**
+     * @return Whether the rooms the player has stood in next to either room
+     * still sense the hazard exactly when they did; the Wumpus is not sensed
+     * by these percepts
+     */
+    private boolean explainsAround(int room, int otherRoom, int bit) {
+        return bit == CaveContents.WUMPUS || (explainsAround(room, bit) && explainsAround(otherRoom, bit));
+    }
+
+    /**
+     * @return Whether every room the player has stood in next to a room still
+     * senses the hazard exactly when it did
+     */
+    private boolean explainsAround(int room, int bit) {
+        for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+            int neighbour = topology.neighbour(room, direction);
+            if (neighbour != CaveTopology.NO_ROOM && belief.isVisited(neighbour)
+                    && sensed(neighbour, bit) != CaveContents.nearby(topology, contents, neighbour, bit)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sensed(int room, int bit) {
+        return bit == CaveContents.PIT ? belief.isBreezy(room) : belief.isNoisy(room);
+    }
+
+    private int bit(int hazard) {
+        if (hazard == 0) {
+            return CaveContents.WUMPUS;
+        }
+        return hazard <= pits ? CaveContents.PIT : CaveContents.BATS;
+    }
+}
@@ -0,0 +1,358 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * A player that searches for the best risk to take by Monte Carlo tree search
+ * over the games it could be in. While there is a room proven safe to explore
+ * or an arrow for every room the Wumpus may be in, it plays like a
+ * {@link SolverPolicy}, as there is nothing to weigh. Otherwise its options
+ * are to walk through rooms proven safe into one of the rooms it could risk,
+ * or to shoot into a neighbouring room the Wumpus may be in.
+ * <p>
+ * Each iteration of the search draws a hidden layout that agrees with what
+ * the player has sensed from a {@link LayoutSampler} and loads it into a
+ * {@link SimulatedGame}. It walks down the tree of options tried so far by
+ * UCB1, playing the moves that need no choice as the solver would, adds one
+ * option to the tree and plays the game out with a solver that knows what
+ * this player knows. The tree is open loop: it is keyed by options alone, so
+ * bat flights land in the same nodes wherever they drop the player. The
+ * player takes the option tried most often at the root and keeps walking to
+ * the room it chose until it gets there or learns something new.
+ * <p>
+ * Iterations run on {@link MctsSettings#parallelism()} workers, each with its
+ * own sampler, game, solver and generator, sharing one tree. Nodes are added
+ * by compare-and-set and their visit and win counts are updated atomically,
+ * so the tree takes no locks. A worker counts its visit on the way down and
+ * its win on the way back, so nodes other workers are still playing out look
+ * worse meanwhile and the workers spread out over the tree.
+ * <p>
+ * What the player has proven is kept in the {@link BeliefState} of a solver
+ * that follows the actions played. If no layout explains the percepts, which
+ * only happens when the hazard counts are wrong, the player takes that
+ * solver's choice.
+ */
+public final class MctsPolicy implements PerceptPolicy {
+
+    /**
+     * The weight of exploration against the win rate in UCB1.
+     */
+    static final double EXPLORATION = 0.5;
+
+    /**
+     * The moves and shots after which a playout is counted as a loss.
+     */
+    static final int MAX_PLAYOUT_STEPS = 200;
+
+    private final int pits;
+    private final int batColonies;
+    private final MctsSettings settings;
+    private final SolverPolicy tracker;
+    private final Worker[] workers;
+
+    private int goalRoom = CaveTopology.NO_ROOM;
+    private int lastIterations;
+
+    /**
+     * @param random The generator the workers' generators are seeded from
+     * @param pits The number of pits in the caves it will play
+     * @param batColonies The number of bat colonies in the caves it will play
+     * @param settings The search budget for each choice
+     */
+    public MctsPolicy(RandomGenerator random, int pits, int batColonies, MctsSettings settings) {
+        this.pits = pits;
+        this.batColonies = batColonies;
+        this.settings = settings;
+        this.tracker = new SolverPolicy(new SplittableRandom(random.nextLong()));
+        this.workers = new Worker[settings.parallelism()];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(new SplittableRandom(random.nextLong()));
+        }
+    }
+
+    @Override
+    public void start(CaveTopology topology) {
+        tracker.start(topology);
+        goalRoom = CaveTopology.NO_ROOM;
+    }
+
+    @Override
+    public int act(int currentRoom, int arrowsRemaining, boolean wumpusNearby, boolean pitNearby,
+                   boolean batsNearby) {
+        tracker.perceive(currentRoom, wumpusNearby, pitNearby, batsNearby);
+        lastIterations = 0;
+        int action = tracker.chooseProven(currentRoom, arrowsRemaining);
+        if (action == CaveTopology.NO_ROOM && isGoalOpen()) {
+            action = tracker.stepTo(currentRoom, goalRoom);
+        }
+        if (action == CaveTopology.NO_ROOM) {
+            action = search(currentRoom, arrowsRemaining);
+        }
+        tracker.commit(currentRoom, action);
+        return action;
+    }
+
+    /**
+     * @return Whether the player is still on its way to the room it chose to risk
+     */
+    private boolean isGoalOpen() {
+        BeliefState belief = tracker.getBelief();
+        return goalRoom != CaveTopology.NO_ROOM && !belief.isVisited(goalRoom) && !belief.isBats(goalRoom);
+    }
+
+    private int search(int currentRoom, int arrowsRemaining) {
+        BeliefState belief = tracker.getBelief();
+        int size = belief.getTopology().size();
+        Node root = new Node(size);
+        AtomicInteger iterations = new AtomicInteger();
+        long deadline = settings.timeLimit() == null ? Long.MAX_VALUE
+                : System.nanoTime() + settings.timeLimit().toNanos();
+
+        if (workers.length == 1) {
+            workers[0].search(root, belief, currentRoom, arrowsRemaining, iterations, deadline);
+        } else {
+            IntStream.range(0, workers.length)
+                    .parallel()
+                    .forEach(i -> workers[i].search(root, belief, currentRoom, arrowsRemaining, iterations,
+                            deadline));
+        }
+        lastIterations = root.visits;
+
+        int best = CaveTopology.NO_ROOM;
+        int bestVisits = 0;
+        for (int option = 0; option < root.children.length(); option++) {
+            Node child = root.children.get(option);
+            if (child != null && child.visits > bestVisits) {
+                best = option;
+                bestVisits = child.visits;
+            }
+        }
+
+        goalRoom = CaveTopology.NO_ROOM;
+        if (best == CaveTopology.NO_ROOM) {
+            return tracker.choose(currentRoom, arrowsRemaining);
+        }
+        if (best >= size) {
+            return Policy.shoot(best - size);
+        }
+        goalRoom = best;
+        return tracker.stepTo(currentRoom, goalRoom);
+    }
+
+    /**
+     * @return The simulated games played to choose the last action, 0 if it needed no search
+     */
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    /**
+     * What the player has proven about the cave so far.
+     *
+     * @return The belief state
+     */
+    public BeliefState getBelief() {
+        return tracker.getBelief();
+    }
+
+    /**
+     * A node of the search tree: the games that reached it by one sequence of
+     * options, and how many of them were won. Its children are indexed by
+     * option: the room index to walk into, or the cave size plus the
+     * direction to shoot in.
+     */
+    private static final class Node {
+
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicIntegerFieldUpdater<Node> WINS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "wins");
+
+        private final AtomicReferenceArray<Node> children;
+        private volatile int visits;
+        private volatile int wins;
+
+        private Node(int rooms) {
+            children = new AtomicReferenceArray<>(rooms + CaveTopology.DIRECTIONS);
+        }
+
+        /**
+         * @return The child for an option, added if no worker has added it yet
+         */
+        private Node child(int option) {
+            Node child = children.get(option);
+            if (child == null) {
+                Node added = new Node(children.length() - CaveTopology.DIRECTIONS);
+                child = children.compareAndExchange(option, null, added);
+                if (child == null) {
+                    child = added;
+                }
+            }
+            return child;
+        }
+    }
+
+    /**
+     * One searching thread's sampler, game and playout solver.
+     */
+    private final class Worker {
+
+        private final RandomGenerator random;
+        private final LayoutSampler sampler = new LayoutSampler();
+        private final SimulatedGame game;
+        private final SolverPolicy playout;
+        private final Node[] path = new Node[MAX_PLAYOUT_STEPS + 1];
+        private int[] options = new int[0];
+
+        private Worker(SplittableRandom random) {
+            this.random = random;
+            this.game = new SimulatedGame(random.split());
+            this.playout = new SolverPolicy(random.split());
+        }
+
+        private void search(Node root, BeliefState belief, int currentRoom, int arrowsRemaining,
+                            AtomicInteger iterations, long deadline) {
+            if (!sampler.start(belief, pits, batColonies, random)) {
+                return;
+            }
+            CaveTopology topology = belief.getTopology();
+            if (options.length < topology.size() + CaveTopology.DIRECTIONS) {
+                options = new int[topology.size() + CaveTopology.DIRECTIONS];
+            }
+            while (iterations.getAndIncrement() < settings.iterations() && System.nanoTime() < deadline) {
+                game.load(topology, sampler.next(random), currentRoom, arrowsRemaining);
+                playout.start(belief);
+                boolean won = play(root);
+                // path[0] is the root, whose visits are all of the iterations
+                for (int i = 0; path[i] != null; i++) {
+                    if (won) {
+                        Node.WINS.incrementAndGet(path[i]);
+                    }
+                    path[i] = null;
+                }
+            }
+        }
+
+        /**
+         * Walks down the tree from the root, adds the first option not tried
+         * yet and plays the game out.
+         *
+         * @return Whether the game was won
+         */
+        private boolean play(Node root) {
+            Node node = root;
+            Node.VISITS.incrementAndGet(root);
+            path[0] = root;
+            int depth = 1;
+            int steps = 0;
+            while (!game.getOutcome().isOver() && steps < MAX_PLAYOUT_STEPS) {
+                int room = game.getCurrentRoom();
+                playout.perceive(room, game.wumpusNearby(), game.pitNearby(), game.batsNearby());
+                int action = playout.chooseProven(room, game.getArrowsRemaining());
+                if (action != CaveTopology.NO_ROOM) {
+                    playout.commit(room, action);
+                    Policy.apply(game, action);
+                    steps++;
+                    continue;
+                }
+
+                int option = select(node, room);
+                if (option == CaveTopology.NO_ROOM) {
+                    break;
+                }
+                Node child = node.child(option);
+                boolean expanding = Node.VISITS.getAndIncrement(child) == 0;
+                path[depth++] = child;
+                steps += take(option, room);
+                node = child;
+                if (expanding) {
+                    break;
+                }
+            }
+
+            for (; steps < MAX_PLAYOUT_STEPS && !game.getOutcome().isOver(); steps++) {
+                Policy.apply(game, playout.act(game));
+            }
+            return game.getOutcome().isWon();
+        }
+
+        /**
+         * Picks the first option not tried yet, or the one with the highest UCB1 score.
+         *
+         * @return The option, or {@link CaveTopology#NO_ROOM} if there are none
+         */
+        private int select(Node node, int room) {
+            int count = listOptions(room);
+            double logVisits = Math.log(Math.max(1, node.visits));
+            int best = CaveTopology.NO_ROOM;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                int option = options[i];
+                Node child = node.children.get(option);
+                int visits = child == null ? 0 : child.visits;
+                if (visits == 0) {
+                    return option;
+                }
+                double score = (double) child.wins / visits + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (score > bestScore) {
+                    best = option;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Lists the rooms the player could risk, then the shots into
+         * neighbouring rooms the Wumpus may be in.
+         */
+        private int listOptions(int room) {
+            int size = game.getTopology().size();
+            int count = playout.frontier(room, options);
+            if (game.getArrowsRemaining() > 0) {
+                for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+                    int target = game.neighbour(direction);
+                    if (target != CaveTopology.NO_ROOM && playout.getBelief().isWumpusCandidate(target)) {
+                        options[count++] = size + direction;
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Shoots, or walks through rooms proven safe into the chosen room.
+         *
+         * @return The moves and shots taken
+         */
+        private int take(int option, int room) {
+            int size = game.getTopology().size();
+            if (option >= size) {
+                int action = Policy.shoot(option - size);
+                playout.commit(room, action);
+                Policy.apply(game, action);
+                return 1;
+            }
+
+            int steps = 0;
+            while (true) {
+                int direction = playout.stepTo(room, option);
+                int next = game.neighbour(direction);
+                playout.commit(room, direction);
+                Policy.apply(game, direction);
+                steps++;
+                // Stop in the chosen room, or wherever bats dropped the player from it
+                if (next == option || game.getOutcome().isOver()) {
+                    return steps;
+                }
+                room = game.getCurrentRoom();
+                playout.perceive(room, game.wumpusNearby(), game.pitNearby(), game.batsNearby());
+            }
+        }
+    }
+}
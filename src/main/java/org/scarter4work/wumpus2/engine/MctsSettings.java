@@ -0,0 +1,35 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.time.Duration;
+
+/**
+ * The search budget of an {@link MctsPolicy} for each move. The search stops
+ * at whichever limit it reaches first.
+ *
+ * @param iterations The simulated games per move, at most {@link #MAX_ITERATIONS}
+ * @param timeLimit How long to search per move, or null for no time limit
+ * @param parallelism The threads searching one move at a time
+ */
+public record MctsSettings(int iterations, Duration timeLimit, int parallelism) {
+
+    public static final int MAX_ITERATIONS = 1_000_000;
+
+    /**
+     * For self-play: a single thread, since self-play already plays a game on
+     * every core, and no time limit, so that runs give the same totals for the
+     * same seed.
+     */
+    public static final MctsSettings SELF_PLAY = new MctsSettings(500, null, 1);
+
+    public MctsSettings {
+        if (iterations < 1 || iterations > MAX_ITERATIONS) {
+            throw new IllegalArgumentException("Iterations must be between 1 and " + MAX_ITERATIONS);
+        }
+        if (timeLimit != null && (timeLimit.isNegative() || timeLimit.isZero())) {
+            throw new IllegalArgumentException("Time limit must be positive");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+    }
+}
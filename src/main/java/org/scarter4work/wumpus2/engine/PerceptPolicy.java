@@ -0,0 +1,41 @@
+package org.scarter4work.wumpus2.engine;
+
+/**
+ * A player that only needs the cave's connections, its room, its arrows and
+ * its percepts, so it can play a {@link SimulatedGame} through
+ * {@link #act(SimulatedGame)} or any other game, such as a stored one, through
+ * {@link #start(CaveTopology)} and {@link #act(int, int, boolean, boolean, boolean)}.
+ */
+public interface PerceptPolicy extends Policy {
+
+    /**
+     * Forgets the last game, for a new game on a cave.
+     *
+     * @param topology The connections of the cave
+     */
+    void start(CaveTopology topology);
+
+    /**
+     * Takes in what the player senses and chooses the next action. The player
+     * must carry out every action it chooses.
+     *
+     * @param currentRoom The room index the player is in
+     * @param arrowsRemaining The arrows left
+     * @param wumpusNearby Whether the player smells the Wumpus
+     * @param pitNearby Whether the player feels a breeze
+     * @param batsNearby Whether the player hears bats
+     * @return The action
+     */
+    int act(int currentRoom, int arrowsRemaining, boolean wumpusNearby, boolean pitNearby, boolean batsNearby);
+
+    @Override
+    default void start(SimulatedGame game) {
+        start(game.getTopology());
+    }
+
+    @Override
+    default int act(SimulatedGame game) {
+        return act(game.getCurrentRoom(), game.getArrowsRemaining(), game.wumpusNearby(), game.pitNearby(),
+                game.batsNearby());
+    }
+}
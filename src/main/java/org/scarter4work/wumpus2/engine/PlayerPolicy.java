@@ -0,0 +1,90 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The policies self-play can pit against the cave.
+ */
+public enum PlayerPolicy {
+    /**
+     * See {@link RandomWalkPolicy}.
+     */
+    RANDOM_WALK {
+        @Override
+        public Policy create(RandomGenerator random, int pits, int batColonies, MctsSettings search) {
+            return new RandomWalkPolicy(random);
+        }
+    },
+    /**
+     * See {@link CautiousPolicy}.
+     */
+    CAUTIOUS {
+        @Override
+        public Policy create(RandomGenerator random, int pits, int batColonies, MctsSettings search) {
+            return new CautiousPolicy(random);
+        }
+    },
+    /**
+     * See {@link SolverPolicy}.
+     */
+    SOLVER {
+        @Override
+        public Policy create(RandomGenerator random, int pits, int batColonies, MctsSettings search) {
+            return new SolverPolicy(random);
+        }
+    },
+    /**
+     * A {@link SolverPolicy} that works out its risks with {@link HazardProbabilities}.
+     */
+    PROBABILISTIC {
+        @Override
+        public Policy create(RandomGenerator random, int pits, int batColonies, MctsSettings search) {
+            return new SolverPolicy(random, new HazardProbabilities(pits, batColonies));
+        }
+    },
+    /**
+     * See {@link MctsPolicy}. Searches with {@link MctsSettings#SELF_PLAY} unless told otherwise.
+     */
+    MCTS {
+        @Override
+        public Policy create(RandomGenerator random, int pits, int batColonies, MctsSettings search) {
+            return new MctsPolicy(random, pits, batColonies, search);
+        }
+
+        @Override
+        public boolean searches() {
+            return true;
+        }
+    };
+
+    /**
+     * @return Whether the player simulates games to choose its moves, spending its {@link MctsSettings}
+     */
+    public boolean searches() {
+        return false;
+    }
+
+    /**
+     * Creates a player of this policy, for one thread, searching with
+     * {@link MctsSettings#SELF_PLAY} if it searches.
+     *
+     * @param random The random generator the player draws from
+     * @param pits The number of pits in the caves it will play
+     * @param batColonies The number of bat colonies in the caves it will play
+     * @return A new player
+     */
+    public Policy create(RandomGenerator random, int pits, int batColonies) {
+        return create(random, pits, batColonies, MctsSettings.SELF_PLAY);
+    }
+
+    /**
+     * Creates a player of this policy, for one thread.
+     *
+     * @param random The random generator the player draws from
+     * @param pits The number of pits in the caves it will play
+     * @param batColonies The number of bat colonies in the caves it will play
+     * @param search The search budget, for the policies that search
+     * @return A new player
+     */
+    public abstract Policy create(RandomGenerator random, int pits, int batColonies, MctsSettings search);
+}
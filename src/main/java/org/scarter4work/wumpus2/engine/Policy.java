@@ -0,0 +1,70 @@
+package org.scarter4work.wumpus2.engine;
+
+/**
+ * A player for simulated games. A policy may only go by what a player would
+ * know: the room it is in, the rooms it has visited, its arrows and what it
+ * senses, not by {@link SimulatedGame#has(int, int)}.
+ * <p>
+ * Actions are encoded as ints so choosing one allocates nothing: a direction
+ * to move in, {@link CaveTopology#NORTH} to {@link CaveTopology#WEST}, or a
+ * direction with the {@link #SHOOT} bit set to shoot in. Policies keep state
+ * between steps and are not thread-safe.
+ */
+public interface Policy {
+
+    /**
+     * Bit set on actions that shoot rather than move.
+     */
+    int SHOOT = 1 << 2;
+
+    /**
+     * Called once a new game has been dealt, before the first action.
+     *
+     * @param game The game
+     */
+    default void start(SimulatedGame game) {
+    }
+
+    /**
+     * Chooses the next action. Only called while the game is in progress.
+     *
+     * @param game The game
+     * @return The action
+     */
+    int act(SimulatedGame game);
+
+    /**
+     * @param direction A direction
+     * @return The action shooting in that direction
+     */
+    static int shoot(int direction) {
+        return direction | SHOOT;
+    }
+
+    /**
+     * @param action An action
+     * @return Whether the action shoots
+     */
+    static boolean isShot(int action) {
+        return (action & SHOOT) != 0;
+    }
+
+    /**
+     * @param action An action
+     * @return The direction of the action
+     */
+    static int direction(int action) {
+        return action & ~SHOOT;
+    }
+
+    /**
+     * Carries out an action.
+     *
+     * @param game The game
+     * @param action The action
+     * @return How the game stands after it
+     */
+    static SimulatedGame.Outcome apply(SimulatedGame game, int action) {
+        return isShot(action) ? game.shoot(direction(action)) : game.move(direction(action));
+    }
+}
@@ -0,0 +1,61 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The baseline player: wanders to a random adjacent room, and shoots into a
+ * random adjacent room whenever it smells the Wumpus.
+ */
+public final class RandomWalkPolicy implements Policy {
+
+    private final RandomGenerator random;
+
+    public RandomWalkPolicy(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public int act(SimulatedGame game) {
+        int direction = randomExit(game, random);
+        return game.wumpusNearby() ? Policy.shoot(direction) : direction;
+    }
+
+    /**
+     * Picks a random direction out of the player's room.
+     *
+     * @param game The game
+     * @param random The random generator
+     * @return A direction with a room in it
+     * @throws IllegalStateException if the room has no exits
+     */
+    static int randomExit(SimulatedGame game, RandomGenerator random) {
+        return randomExit(game.getTopology(), game.getCurrentRoom(), random);
+    }
+
+    /**
+     * Picks a random direction out of a room.
+     *
+     * @param topology The connections of the cave
+     * @param room The room index
+     * @param random The random generator
+     * @return A direction with a room in it
+     * @throws IllegalStateException if the room has no exits
+     */
+    static int randomExit(CaveTopology topology, int room, RandomGenerator random) {
+        int exits = 0;
+        for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+            if (topology.neighbour(room, direction) != CaveTopology.NO_ROOM) {
+                exits++;
+            }
+        }
+        if (exits == 0) {
+            throw new IllegalStateException("Room has no exits");
+        }
+        int pick = random.nextInt(exits);
+        for (int direction = 0; ; direction++) {
+            if (topology.neighbour(room, direction) != CaveTopology.NO_ROOM && pick-- == 0) {
+                return direction;
+            }
+        }
+    }
+}
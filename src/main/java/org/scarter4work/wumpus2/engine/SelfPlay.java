@@ -0,0 +1,84 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Plays large numbers of simulated games across all cores, for balance
+ * statistics. Games are split into chunks of {@link #CHUNK_SIZE}, each played
+ * on a fork/join worker with its own game, player and generator seeded from
+ * the run's seed, so a run gives the same totals for the same seed however
+ * many cores play it. Nothing is allocated per game.
+ */
+public final class SelfPlay {
+
+    /**
+     * The number of games played in a row by one worker.
+     */
+    static final int CHUNK_SIZE = 4_096;
+
+    private SelfPlay() {
+    }
+
+    /**
+     * Plays the games of a run.
+     *
+     * @param topology The cave every game is dealt on
+     * @param settings What to play
+     * @return The totals over all games
+     * @throws IllegalArgumentException if the cave has too few rooms for the hazards
+     */
+    public static SelfPlayStats run(CaveTopology topology, SelfPlaySettings settings) {
+        if (topology.size() < 1 + settings.pits() + settings.batColonies()) {
+            throw new IllegalArgumentException("Not enough rooms to place all hazards");
+        }
+
+        int chunks = (settings.games() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        long[] seeds = new long[chunks];
+        SplittableRandom seeder = new SplittableRandom(settings.seed());
+        for (int i = 0; i < chunks; i++) {
+            seeds[i] = seeder.nextLong();
+        }
+
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> playChunk(topology, settings, seeds[chunk],
+                        Math.min(CHUNK_SIZE, settings.games() - chunk * CHUNK_SIZE)))
+                .reduce(SelfPlayStats.NONE, SelfPlayStats::plus);
+    }
+
+    private static SelfPlayStats playChunk(CaveTopology topology, SelfPlaySettings settings, long seed, int games) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SimulatedGame game = new SimulatedGame(random.split());
+        Policy player = settings.policy().create(random.split(), settings.pits(), settings.batColonies());
+
+        long won = 0;
+        long eatenByWumpus = 0;
+        long fellIntoPit = 0;
+        long outOfArrows = 0;
+        long unfinished = 0;
+        long moves = 0;
+        long arrowsUsed = 0;
+        long batFlights = 0;
+        for (int i = 0; i < games; i++) {
+            game.deal(topology, settings.pits(), settings.batColonies());
+            player.start(game);
+            for (int step = 0; step < settings.maxSteps() && !game.getOutcome().isOver(); step++) {
+                Policy.apply(game, player.act(game));
+            }
+
+            switch (game.getOutcome()) {
+                case SHOT_WUMPUS -> won++;
+                case EATEN_BY_WUMPUS -> eatenByWumpus++;
+                case FELL_INTO_PIT -> fellIntoPit++;
+                case OUT_OF_ARROWS -> outOfArrows++;
+                case IN_PROGRESS -> unfinished++;
+            }
+            moves += game.getMoves();
+            arrowsUsed += SimulatedGame.STARTING_ARROWS - game.getArrowsRemaining();
+            batFlights += game.getBatFlights();
+        }
+        return new SelfPlayStats(games, won, eatenByWumpus, fellIntoPit, outOfArrows, unfinished, moves,
+                arrowsUsed, batFlights);
+    }
+}
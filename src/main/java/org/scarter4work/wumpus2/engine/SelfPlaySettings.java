@@ -0,0 +1,49 @@
+package org.scarter4work.wumpus2.engine;
+
+/**
+ * What to simulate in a self-play run.
+ *
+ * @param pits The number of pits in each cave
+ * @param batColonies The number of bat colonies in each cave
+ * @param policy The player
+ * @param games The number of games to play, at most {@link #MAX_GAMES}, and for a player that
+ *              searches at most {@link #MAX_SEARCH_ITERATIONS} over its iterations per choice
+ * @param seed The seed every random draw of the run derives from
+ * @param maxSteps The moves and shots after which a game is given up as unfinished
+ */
+public record SelfPlaySettings(int pits, int batColonies, PlayerPolicy policy, int games, long seed, int maxSteps) {
+
+    public static final int MAX_GAMES = 10_000_000;
+
+    /**
+     * The most rooms a self-play cave may have.
+     */
+    public static final int MAX_ROOMS = 10_000;
+
+    /**
+     * The most games times iterations per choice of a run with a searching
+     * player, whose games each take thousands of times longer.
+     */
+    public static final long MAX_SEARCH_ITERATIONS = 10_000_000L;
+
+    public static final int DEFAULT_MAX_STEPS = 1_000;
+
+    public SelfPlaySettings {
+        if (pits < 0 || batColonies < 0) {
+            throw new IllegalArgumentException("Hazard counts cannot be negative");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Policy is required");
+        }
+        if (games < 1 || games > MAX_GAMES) {
+            throw new IllegalArgumentException("Games must be between 1 and " + MAX_GAMES);
+        }
+        if (policy.searches() && (long) games * MctsSettings.SELF_PLAY.iterations() > MAX_SEARCH_ITERATIONS) {
+            throw new IllegalArgumentException("A " + policy + " run can play at most "
+                    + MAX_SEARCH_ITERATIONS / MctsSettings.SELF_PLAY.iterations() + " games");
+        }
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("Games must be allowed at least one step");
+        }
+    }
+}
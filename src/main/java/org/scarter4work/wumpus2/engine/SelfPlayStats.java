@@ -0,0 +1,55 @@
+package org.scarter4work.wumpus2.engine;
+
+/**
+ * Totals over a number of simulated games.
+ *
+ * @param games The games played
+ * @param won The games won by shooting the Wumpus
+ * @param eatenByWumpus The games lost by walking into the Wumpus
+ * @param fellIntoPit The games lost by falling into a pit
+ * @param outOfArrows The games lost by missing with the last arrow
+ * @param unfinished The games given up after the step limit
+ * @param moves The moves made
+ * @param arrowsUsed The arrows shot
+ * @param batFlights The times bats carried the player off
+ */
+public record SelfPlayStats(long games, long won, long eatenByWumpus, long fellIntoPit, long outOfArrows,
+                            long unfinished, long moves, long arrowsUsed, long batFlights) {
+
+    public static final SelfPlayStats NONE = new SelfPlayStats(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    /**
+     * @param other More totals
+     * @return The sum of these totals and the others
+     */
+    public SelfPlayStats plus(SelfPlayStats other) {
+        return new SelfPlayStats(games + other.games, won + other.won, eatenByWumpus + other.eatenByWumpus,
+                fellIntoPit + other.fellIntoPit, outOfArrows + other.outOfArrows, unfinished + other.unfinished,
+                moves + other.moves, arrowsUsed + other.arrowsUsed, batFlights + other.batFlights);
+    }
+
+    /**
+     * @return The share of games won, 0 if none were played
+     */
+    public double winRate() {
+        return perGame(won);
+    }
+
+    /**
+     * @return The moves made per game, 0 if none were played
+     */
+    public double averageMoves() {
+        return perGame(moves);
+    }
+
+    /**
+     * @return The arrows shot per game, 0 if none were played
+     */
+    public double averageArrowsUsed() {
+        return perGame(arrowsUsed);
+    }
+
+    private double perGame(long total) {
+        return games == 0 ? 0 : (double) total / games;
+    }
+}
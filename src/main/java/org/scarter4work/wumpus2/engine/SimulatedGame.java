@@ -0,0 +1,265 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The rules of Hunt the Wumpus over a mutable game held in primitive arrays,
+ * with no entities, repositories or Spring behind it. One instance can play
+ * any number of games in turn: {@link #deal} starts a fresh one on a cave,
+ * reusing the arrays of the last, and neither dealing nor moving nor shooting
+ * allocates. All randomness comes from the generator given at construction,
+ * so a seeded generator replays the same games.
+ * <p>
+ * Not thread-safe; give each thread its own instance and generator.
+ */
+public final class SimulatedGame {
+
+    public static final int STARTING_ARROWS = 5;
+
+    /**
+     * How a game stands after a step.
+     */
+    public enum Outcome {
+        IN_PROGRESS, SHOT_WUMPUS, EATEN_BY_WUMPUS, FELL_INTO_PIT, OUT_OF_ARROWS;
+
+        /**
+         * @return Whether the game has ended
+         */
+        public boolean isOver() {
+            return this != IN_PROGRESS;
+        }
+
+        /**
+         * @return Whether the player won
+         */
+        public boolean isWon() {
+            return this == SHOT_WUMPUS;
+        }
+    }
+
+    private final RandomGenerator random;
+
+    private CaveTopology topology;
+    private byte[] contents = new byte[0];
+    private boolean[] visited = new boolean[0];
+    private int currentRoom;
+    private int arrowsRemaining;
+    private Outcome outcome;
+    private int moves;
+    private int batFlights;
+
+    /**
+     * @param random The generator for hazard placement, starting rooms and bat flights
+     */
+    public SimulatedGame(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * Starts a new game on a cave: places the Wumpus and the default number of
+     * pits and bat colonies at random, starts the player in a safe room with
+     * {@link #STARTING_ARROWS} arrows and marks that room visited.
+     *
+     * @param topology The connections of the cave
+     * @return This game
+     * @throws IllegalStateException if the cave has fewer rooms than hazards
+     */
+    public SimulatedGame deal(CaveTopology topology) {
+        return deal(topology, CaveContents.PITS, CaveContents.BAT_COLONIES);
+    }
+
+    /**
+     * Starts a new game on a cave with the given number of pits and bat colonies.
+     *
+     * @param topology The connections of the cave
+     * @param pits The number of pits
+     * @param batColonies The number of bat colonies
+     * @return This game
+     * @throws IllegalStateException if the cave has fewer rooms than hazards
+     * @see #deal(CaveTopology)
+     */
+    public SimulatedGame deal(CaveTopology topology, int pits, int batColonies) {
+        reset(topology);
+        CaveContents.placeRandomHazards(contents, topology.size(), random, pits, batColonies);
+        currentRoom = CaveContents.findSafeRoom(contents, topology.size(), random);
+        visited[currentRoom] = true;
+        return this;
+    }
+
+    /**
+     * Continues a game from a known position. Only the player's room is marked visited.
+     *
+     * @param topology The connections of the cave
+     * @param contents The contents of each room of the cave, which are copied
+     * @param currentRoom The index of the room the player is in
+     * @param arrowsRemaining The arrows left
+     * @return This game
+     */
+    public SimulatedGame load(CaveTopology topology, byte[] contents, int currentRoom, int arrowsRemaining) {
+        reset(topology);
+        System.arraycopy(contents, 0, this.contents, 0, topology.size());
+        this.currentRoom = currentRoom;
+        this.arrowsRemaining = arrowsRemaining;
+        visited[currentRoom] = true;
+        return this;
+    }
+
+    private void reset(CaveTopology topology) {
+        int size = topology.size();
+        if (contents.length < size) {
+            contents = new byte[size];
+            visited = new boolean[size];
+        } else {
+            for (int i = 0; i < size; i++) {
+                contents[i] = 0;
+                visited[i] = false;
+            }
+        }
+        this.topology = topology;
+        arrowsRemaining = STARTING_ARROWS;
+        outcome = Outcome.IN_PROGRESS;
+        moves = 0;
+        batFlights = 0;
+    }
+
+    /**
+     * Moves the player to an adjacent room and resolves its hazards: the
+     * Wumpus and pits end the game, bats carry the player to a random room,
+     * whose hazards are resolved in turn. The room the player ends up in is
+     * marked visited.
+     *
+     * @param direction The direction to move, {@link CaveTopology#NORTH} to {@link CaveTopology#WEST}
+     * @return How the game stands after the move
+     * @throws IllegalStateException if the game is over
+     * @throws IllegalArgumentException if there is no room in that direction
+     */
+    public Outcome move(int direction) {
+        requireInProgress();
+        int room = topology.neighbour(currentRoom, direction);
+        if (room == CaveTopology.NO_ROOM) {
+            throw new IllegalArgumentException("Cannot move in that direction");
+        }
+        moves++;
+
+        while (true) {
+            currentRoom = room;
+            int hazards = contents[room];
+            if ((hazards & CaveContents.WUMPUS) != 0) {
+                outcome = Outcome.EATEN_BY_WUMPUS;
+                break;
+            }
+            if ((hazards & CaveContents.PIT) != 0) {
+                outcome = Outcome.FELL_INTO_PIT;
+                break;
+            }
+            if ((hazards & CaveContents.BATS) == 0) {
+                break;
+            }
+            batFlights++;
+            room = random.nextInt(topology.size());
+        }
+        visited[currentRoom] = true;
+        return outcome;
+    }
+
+    /**
+     * Shoots an arrow into an adjacent room. Hitting the Wumpus wins the game
+     * and missing with the last arrow loses it.
+     *
+     * @param direction The direction to shoot, {@link CaveTopology#NORTH} to {@link CaveTopology#WEST}
+     * @return How the game stands after the shot
+     * @throws IllegalStateException if the game is over or no arrows are left
+     * @throws IllegalArgumentException if there is no room in that direction
+     */
+    public Outcome shoot(int direction) {
+        requireInProgress();
+        if (arrowsRemaining <= 0) {
+            throw new IllegalStateException("No arrows remaining");
+        }
+        int target = topology.neighbour(currentRoom, direction);
+        if (target == CaveTopology.NO_ROOM) {
+            throw new IllegalArgumentException("Cannot shoot in that direction");
+        }
+
+        arrowsRemaining--;
+        if (CaveContents.has(contents, target, CaveContents.WUMPUS)) {
+            outcome = Outcome.SHOT_WUMPUS;
+        } else if (arrowsRemaining == 0) {
+            outcome = Outcome.OUT_OF_ARROWS;
+        }
+        return outcome;
+    }
+
+    private void requireInProgress() {
+        if (outcome.isOver()) {
+            throw new IllegalStateException("Game is not in progress");
+        }
+    }
+
+    /**
+     * @param direction The direction to look, {@link CaveTopology#NORTH} to {@link CaveTopology#WEST}
+     * @return The index of the room next to the player in that direction, or {@link CaveTopology#NO_ROOM}
+     */
+    public int neighbour(int direction) {
+        return topology.neighbour(currentRoom, direction);
+    }
+
+    public boolean wumpusNearby() {
+        return CaveContents.nearby(topology, contents, currentRoom, CaveContents.WUMPUS);
+    }
+
+    public boolean pitNearby() {
+        return CaveContents.nearby(topology, contents, currentRoom, CaveContents.PIT);
+    }
+
+    public boolean batsNearby() {
+        return CaveContents.nearby(topology, contents, currentRoom, CaveContents.BATS);
+    }
+
+    /**
+     * @param room The room index
+     * @param hazard One of the {@link CaveContents} hazard bits
+     * @return Whether the room holds the hazard
+     */
+    public boolean has(int room, int hazard) {
+        return CaveContents.has(contents, room, hazard);
+    }
+
+    /**
+     * @param room The room index
+     * @return Whether the player has been in the room
+     */
+    public boolean isVisited(int room) {
+        return visited[room];
+    }
+
+    public CaveTopology getTopology() {
+        return topology;
+    }
+
+    public int getCurrentRoom() {
+        return currentRoom;
+    }
+
+    public int getArrowsRemaining() {
+        return arrowsRemaining;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The moves made since the game was dealt or loaded
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return The times bats carried the player off since the game was dealt or loaded
+     */
+    public int getBatFlights() {
+        return batFlights;
+    }
+}
@@ -0,0 +1,353 @@
+package org.scarter4work.wumpus2.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A player that acts on what it can prove, kept in a {@link BeliefState}. Once
+ * it has smelled the Wumpus, there are at most four rooms it can be in and
+ * the player has an arrow for each, so it hunts: it shoots into the
+ * neighbouring rooms the Wumpus may be in, one at a time, and walks to the
+ * next room it can shoot from. Until then it explores the nearest unvisited
+ * room proven safe, and when there are none it risks the reachable room least
+ * likely to end the game. Walks only go through rooms proven safe. How likely
+ * a room is to end the game is estimated from the belief state alone, or
+ * worked out exactly by {@link HazardProbabilities} if the player is given one.
+ * <p>
+ * Without hazard probabilities, choosing an action allocates nothing.
+ */
+public final class SolverPolicy implements PerceptPolicy {
+
+    /**
+     * How much a bat flight counts as ending the game. A flight ends it when
+     * the player lands on the Wumpus or a pit, and otherwise drops the player
+     * where it may know nothing; this weight won the most self-play games on
+     * the 25 room grid.
+     */
+    static final double BAT_FLIGHT_RISK = 0.35;
+
+    private final RandomGenerator random;
+    private final BeliefState belief = new BeliefState();
+    private final HazardProbabilities probabilities;
+
+    private int moveTarget = CaveTopology.NO_ROOM;
+    private int goalRoom = CaveTopology.NO_ROOM;
+    private boolean[] seen = new boolean[0];
+    private int[] queue = new int[0];
+    private int[] firstStep = new int[0];
+
+    /**
+     * Creates a player that estimates risks from its belief state alone.
+     *
+     * @param random The generator for the rare moves with nothing to go by
+     */
+    public SolverPolicy(RandomGenerator random) {
+        this(random, null);
+    }
+
+    /**
+     * Creates a player that works out risks exactly.
+     *
+     * @param random The generator for the rare moves with nothing to go by
+     * @param probabilities The hazard probabilities to work risks out with, or null to estimate them
+     */
+    public SolverPolicy(RandomGenerator random, HazardProbabilities probabilities) {
+        this.random = random;
+        this.probabilities = probabilities;
+    }
+
+    /**
+     * Forgets the last game, for a new game on a cave.
+     *
+     * @param topology The connections of the cave
+     */
+    @Override
+    public void start(CaveTopology topology) {
+        belief.reset(topology);
+        moveTarget = CaveTopology.NO_ROOM;
+        int size = topology.size();
+        if (seen.length < size) {
+            seen = new boolean[size];
+            queue = new int[size];
+            firstStep = new int[size];
+        }
+    }
+
+    /**
+     * Plays on from what another player knows, as if it had made that
+     * player's moves itself.
+     *
+     * @param known What the other player has proven, up to and including its percepts in its current room
+     */
+    public void start(BeliefState known) {
+        start(known.getTopology());
+        belief.copyFrom(known);
+    }
+
+    /**
+     * Takes in what the player senses and chooses the next action. The player
+     * must carry out every action it chooses, as it assumes its shots missed
+     * when the game goes on.
+     */
+    @Override
+    public int act(int currentRoom, int arrowsRemaining, boolean wumpusNearby, boolean pitNearby,
+                   boolean batsNearby) {
+        perceive(currentRoom, wumpusNearby, pitNearby, batsNearby);
+        int action = choose(currentRoom, arrowsRemaining);
+        commit(currentRoom, action);
+        return action;
+    }
+
+    /**
+     * Takes in what the player senses, including whether bats carried it off
+     * on its last move.
+     *
+     * @param currentRoom The room index the player is in
+     * @param wumpusNearby Whether the player smells the Wumpus
+     * @param pitNearby Whether the player feels a breeze
+     * @param batsNearby Whether the player hears bats
+     */
+    void perceive(int currentRoom, boolean wumpusNearby, boolean pitNearby, boolean batsNearby) {
+        if (moveTarget != CaveTopology.NO_ROOM && moveTarget != currentRoom) {
+            belief.carriedOffFrom(moveTarget);
+        }
+        belief.observe(currentRoom, wumpusNearby, pitNearby, batsNearby);
+    }
+
+    /**
+     * Takes in that the player carries out an action, which need not be one
+     * this player chose.
+     *
+     * @param currentRoom The room index the player is in
+     * @param action The action
+     */
+    void commit(int currentRoom, int action) {
+        CaveTopology topology = belief.getTopology();
+        if (Policy.isShot(action)) {
+            belief.missed(topology.neighbour(currentRoom, Policy.direction(action)));
+            moveTarget = CaveTopology.NO_ROOM;
+        } else {
+            moveTarget = topology.neighbour(currentRoom, action);
+        }
+    }
+
+    /**
+     * Chooses the next action from what the player has perceived so far.
+     *
+     * @param currentRoom The room index the player is in
+     * @param arrowsRemaining The arrows left
+     * @return The action
+     */
+    int choose(int currentRoom, int arrowsRemaining) {
+        int action = chooseProven(currentRoom, arrowsRemaining);
+        if (action != CaveTopology.NO_ROOM) {
+            return action;
+        }
+
+        CaveTopology topology = belief.getTopology();
+        if (probabilities != null) {
+            probabilities.update(belief);
+        }
+        int direction = stepTowardLeastRisk(topology, currentRoom);
+        return direction != CaveTopology.NO_ROOM ? direction : randomExit(topology, currentRoom);
+    }
+
+    /**
+     * Chooses the next action if the player need not guess: a shot or a step
+     * of the hunt once there is an arrow for every room the Wumpus may be in,
+     * or a step toward an unvisited room proven safe.
+     *
+     * @param currentRoom The room index the player is in
+     * @param arrowsRemaining The arrows left
+     * @return The action, or {@link CaveTopology#NO_ROOM} if every way on is a risk
+     */
+    int chooseProven(int currentRoom, int arrowsRemaining) {
+        CaveTopology topology = belief.getTopology();
+        if (belief.wumpusCandidateCount() <= arrowsRemaining) {
+            int direction = wumpusCandidate(topology, currentRoom);
+            if (direction != CaveTopology.NO_ROOM) {
+                return Policy.shoot(direction);
+            }
+            direction = stepToward(topology, currentRoom, Goal.NEXT_TO_WUMPUS);
+            if (direction != CaveTopology.NO_ROOM) {
+                return direction;
+            }
+        }
+        return stepToward(topology, currentRoom, Goal.SAFE);
+    }
+
+    /**
+     * Finds the first step on a shortest path to a room, going only through
+     * rooms proven safe before it.
+     *
+     * @param currentRoom The room index the player is in
+     * @param room The room index to walk to
+     * @return The direction of the first step, or {@link CaveTopology#NO_ROOM} if the room cannot be reached
+     */
+    int stepTo(int currentRoom, int room) {
+        goalRoom = room;
+        return stepToward(belief.getTopology(), currentRoom, Goal.ROOM);
+    }
+
+    /**
+     * Lists the rooms the player could risk next: the unvisited rooms not
+     * proven safe that it can walk to through rooms proven safe, leaving out
+     * those proven to hold a pit or the Wumpus.
+     *
+     * @param currentRoom The room index the player is in
+     * @param rooms Filled with the room indices, which needs room for every room of the cave
+     * @return The number of rooms listed
+     */
+    int frontier(int currentRoom, int[] rooms) {
+        CaveTopology topology = belief.getTopology();
+        for (int i = 0; i < topology.size(); i++) {
+            seen[i] = false;
+        }
+
+        int wumpusRoom = belief.wumpusRoom();
+        int count = 0;
+        seen[currentRoom] = true;
+        queue[0] = currentRoom;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int room = queue[head++];
+            for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+                int next = topology.neighbour(room, direction);
+                if (next == CaveTopology.NO_ROOM || seen[next]) {
+                    continue;
+                }
+                seen[next] = true;
+                if (belief.isSafe(next)) {
+                    queue[tail++] = next;
+                } else if (!belief.isPit(next) && next != wumpusRoom) {
+                    rooms[count++] = next;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The rooms a walk to a room proven safe can end in.
+     */
+    private enum Goal {
+        NEXT_TO_WUMPUS, SAFE, ROOM
+    }
+
+    private boolean isGoal(Goal goal, CaveTopology topology, int room) {
+        return switch (goal) {
+            case NEXT_TO_WUMPUS -> belief.isSafe(room) && wumpusCandidate(topology, room) != CaveTopology.NO_ROOM;
+            case SAFE -> !belief.isVisited(room) && belief.isSafe(room);
+            case ROOM -> room == goalRoom;
+        };
+    }
+
+    /**
+     * Finds the first step on a shortest path to a goal room, going only
+     * through rooms proven safe.
+     *
+     * @return The direction of the first step, or {@link CaveTopology#NO_ROOM} if no goal room can be reached
+     */
+    private int stepToward(CaveTopology topology, int start, Goal goal) {
+        for (int i = 0; i < topology.size(); i++) {
+            seen[i] = false;
+        }
+
+        seen[start] = true;
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int room = queue[head++];
+            for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+                int next = topology.neighbour(room, direction);
+                if (next == CaveTopology.NO_ROOM || seen[next]) {
+                    continue;
+                }
+                seen[next] = true;
+                firstStep[next] = room == start ? direction : firstStep[room];
+                if (isGoal(goal, topology, next)) {
+                    return firstStep[next];
+                }
+                if (belief.isSafe(next)) {
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return CaveTopology.NO_ROOM;
+    }
+
+    /**
+     * Finds the first step on a shortest path to the unvisited room that is
+     * least likely to end the game, going only through rooms proven safe.
+     *
+     * @return The direction of the first step, or {@link CaveTopology#NO_ROOM} if every reachable room is fatal
+     */
+    private int stepTowardLeastRisk(CaveTopology topology, int start) {
+        for (int i = 0; i < topology.size(); i++) {
+            seen[i] = false;
+        }
+
+        int best = CaveTopology.NO_ROOM;
+        double bestRisk = 1;
+        seen[start] = true;
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int room = queue[head++];
+            for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+                int next = topology.neighbour(room, direction);
+                if (next == CaveTopology.NO_ROOM || seen[next]) {
+                    continue;
+                }
+                seen[next] = true;
+                firstStep[next] = room == start ? direction : firstStep[room];
+                if (belief.isSafe(next)) {
+                    queue[tail++] = next;
+                } else {
+                    double risk = risk(next);
+                    if (risk < bestRisk) {
+                        best = next;
+                        bestRisk = risk;
+                    }
+                }
+            }
+        }
+        return best != CaveTopology.NO_ROOM ? firstStep[best] : CaveTopology.NO_ROOM;
+    }
+
+    /**
+     * Estimates the chance that stepping into a room ends the game, counting
+     * a bat flight as {@link #BAT_FLIGHT_RISK}.
+     */
+    private double risk(int room) {
+        if (probabilities != null) {
+            double survive = (1 - probabilities.pit(room)) * (1 - probabilities.wumpus(room));
+            return 1 - survive * (1 - BAT_FLIGHT_RISK * probabilities.bats(room));
+        }
+        double survive = (1 - belief.pitRisk(room)) * (1 - belief.wumpusRisk(room));
+        return 1 - survive * (1 - BAT_FLIGHT_RISK * belief.batRisk(room));
+    }
+
+    private int wumpusCandidate(CaveTopology topology, int room) {
+        for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+            int neighbour = topology.neighbour(room, direction);
+            if (neighbour != CaveTopology.NO_ROOM && belief.isWumpusCandidate(neighbour)) {
+                return direction;
+            }
+        }
+        return CaveTopology.NO_ROOM;
+    }
+
+    private int randomExit(CaveTopology topology, int room) {
+        return RandomWalkPolicy.randomExit(topology, room, random);
+    }
+
+    /**
+     * @return What the player has proven about the cave so far
+     */
+    public BeliefState getBelief() {
+        return belief;
+    }
+}
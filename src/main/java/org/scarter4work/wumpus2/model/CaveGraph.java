@@ -0,0 +1,200 @@
+package org.scarter4work.wumpus2.model;
+
+import org.scarter4work.wumpus2.engine.CaveContents;
+import org.scarter4work.wumpus2.engine.CaveTopology;
+import org.scarter4work.wumpus2.engine.SimulatedGame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable, compiled view of a game's cave system.
+ * Rooms are addressed by index 0..N-1, connections are held as a
+ * {@link CaveTopology} and hazards as {@link CaveContents} bits, so game rules
+ * can be evaluated by the {@link SimulatedGame} engine without going back to
+ * the database.
+ */
+public final class CaveGraph {
+
+    /**
+     * Adjacency value used when there is no connection in a direction.
+     */
+    public static final int NO_ROOM = CaveTopology.NO_ROOM;
+
+    private final UUID[] roomIds;
+    private final Integer[] roomNumbers;
+    private final Map<UUID, Integer> indexById;
+    private final CaveTopology topology;
+    private final byte[] contents;
+
+    private CaveGraph(UUID[] roomIds, Integer[] roomNumbers, Map<UUID, Integer> indexById,
+                      CaveTopology topology, byte[] contents) {
+        this.roomIds = roomIds;
+        this.roomNumbers = roomNumbers;
+        this.indexById = indexById;
+        this.topology = topology;
+        this.contents = contents;
+    }
+
+    /**
+     * Compiles a cave graph from the rooms of a game.
+     * Connections to rooms outside the list are treated as missing.
+     *
+     * @param rooms The rooms of the cave system
+     * @return A new CaveGraph
+     */
+    public static CaveGraph fromRooms(List<Room> rooms) {
+        int size = rooms.size();
+        UUID[] roomIds = new UUID[size];
+        Integer[] roomNumbers = new Integer[size];
+        Map<UUID, Integer> indexById = new HashMap<>(size * 2);
+        byte[] contents = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            Room room = rooms.get(i);
+            roomIds[i] = room.getId();
+            roomNumbers[i] = room.getRoomNumber();
+            indexById.put(room.getId(), i);
+            contents[i] = contents(room);
+        }
+
+        int[] neighbours = new int[size * CaveTopology.DIRECTIONS];
+        for (int i = 0; i < size; i++) {
+            Room room = rooms.get(i);
+            int offset = i * CaveTopology.DIRECTIONS;
+            neighbours[offset + CaveTopology.NORTH] = resolve(indexById, room.getNorthRoomId());
+            neighbours[offset + CaveTopology.EAST] = resolve(indexById, room.getEastRoomId());
+            neighbours[offset + CaveTopology.SOUTH] = resolve(indexById, room.getSouthRoomId());
+            neighbours[offset + CaveTopology.WEST] = resolve(indexById, room.getWestRoomId());
+        }
+
+        return new CaveGraph(roomIds, roomNumbers, indexById, CaveTopology.of(neighbours), contents);
+    }
+
+    /**
+     * @param room A room
+     * @return The hazards the room holds, as {@link CaveContents} bits
+     */
+    public static byte contents(Room room) {
+        int contents = 0;
+        if (room.isHasWumpus()) {
+            contents |= CaveContents.WUMPUS;
+        }
+        if (room.isHasPit()) {
+            contents |= CaveContents.PIT;
+        }
+        if (room.isHasBats()) {
+            contents |= CaveContents.BATS;
+        }
+        return (byte) contents;
+    }
+
+    private static int resolve(Map<UUID, Integer> indexById, UUID roomId) {
+        if (roomId == null) {
+            return NO_ROOM;
+        }
+        return indexById.getOrDefault(roomId, NO_ROOM);
+    }
+
+    /**
+     * @return The number of rooms in the cave
+     */
+    public int size() {
+        return roomIds.length;
+    }
+
+    /**
+     * @return The connections of the cave
+     */
+    public CaveTopology topology() {
+        return topology;
+    }
+
+    /**
+     * Loads a position in this cave into the game engine.
+     *
+     * @param simulation The engine game to load into
+     * @param currentRoom The index of the room the player is in
+     * @param arrowsRemaining The arrows left
+     * @return The engine game
+     */
+    public SimulatedGame load(SimulatedGame simulation, int currentRoom, int arrowsRemaining) {
+        return simulation.load(topology, contents, currentRoom, arrowsRemaining);
+    }
+
+    /**
+     * Gets the index of a room.
+     *
+     * @param roomId The ID of the room
+     * @return The room index, or NO_ROOM if the room is not part of this cave
+     */
+    public int indexOf(UUID roomId) {
+        Integer index = indexById.get(roomId);
+        return index != null ? index : NO_ROOM;
+    }
+
+    /**
+     * @param index The room index
+     * @return The ID of the room at the given index
+     */
+    public UUID roomId(int index) {
+        return roomIds[index];
+    }
+
+    /**
+     * @param index The room index
+     * @return The room number of the room at the given index, or null if it has none
+     */
+    public Integer roomNumber(int index) {
+        return roomNumbers[index];
+    }
+
+    /**
+     * Gets the room connected in a direction.
+     *
+     * @param index The room index
+     * @param direction The direction to follow
+     * @return The index of the connected room, or NO_ROOM if there is no connection
+     */
+    public int neighbour(int index, Direction direction) {
+        return topology.neighbour(index, direction.ordinal());
+    }
+
+    public boolean hasWumpus(int index) {
+        return CaveContents.has(contents, index, CaveContents.WUMPUS);
+    }
+
+    public boolean hasPit(int index) {
+        return CaveContents.has(contents, index, CaveContents.PIT);
+    }
+
+    public boolean hasBats(int index) {
+        return CaveContents.has(contents, index, CaveContents.BATS);
+    }
+
+    /**
+     * @param index The room index
+     * @return true if the Wumpus is in a room connected to the given room
+     */
+    public boolean wumpusNearby(int index) {
+        return CaveContents.nearby(topology, contents, index, CaveContents.WUMPUS);
+    }
+
+    /**
+     * @param index The room index
+     * @return true if a pit is in a room connected to the given room
+     */
+    public boolean pitNearby(int index) {
+        return CaveContents.nearby(topology, contents, index, CaveContents.PIT);
+    }
+
+    /**
+     * @param index The room index
+     * @return true if bats are in a room connected to the given room
+     */
+    public boolean batsNearby(int index) {
+        return CaveContents.nearby(topology, contents, index, CaveContents.BATS);
+    }
+}
@@ -0,0 +1,223 @@
+package org.scarter4work.wumpus2.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.engine.CaveTopology;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A reusable cave topology. The connections of a layout are stored once and
+ * shared by every game that uses it; only hazard placement is stored per game
+ * (see {@link GameCave}).
+ */
+@Entity
+@Table(name = "cave_templates",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cave_templates_layout_room_count",
+                columnNames = {"layout", "room_count"}))
+@Data
+@NoArgsConstructor
+@Slf4j
+public class CaveTemplate {
+
+    /**
+     * Number of connections stored per room: north, east, south, west.
+     */
+    private static final int CONNECTIONS_PER_ROOM = 4;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Layout layout;
+
+    @Column(nullable = false)
+    private Integer roomCount;
+
+    /**
+     * Comma-separated room numbers of the north, east, south and west neighbour
+     * of each room in turn, with 0 meaning no connection.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String adjacency;
+
+    @Transient
+    private int[] connections;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private CaveTopology topology;
+
+    /**
+     * The supported cave layouts.
+     */
+    public enum Layout {
+        /**
+         * A square grid where each room connects to its orthogonal neighbours.
+         */
+        GRID {
+            @Override
+            int[] connect(int roomCount) {
+                int width = (int) Math.round(Math.sqrt(roomCount));
+                if (width * width != roomCount) {
+                    throw new IllegalArgumentException("Grid caves must have a square number of rooms");
+                }
+                int[] connections = new int[roomCount * CONNECTIONS_PER_ROOM];
+                for (int i = 0; i < roomCount; i++) {
+                    int roomNumber = i + 1;
+                    int row = i / width;
+                    int col = i % width;
+                    int offset = i * CONNECTIONS_PER_ROOM;
+                    connections[offset] = row > 0 ? roomNumber - width : 0;
+                    connections[offset + 1] = col < width - 1 ? roomNumber + 1 : 0;
+                    connections[offset + 2] = row < width - 1 ? roomNumber + width : 0;
+                    connections[offset + 3] = col > 0 ? roomNumber - 1 : 0;
+                }
+                return connections;
+            }
+        },
+        /**
+         * A ring of rooms with extra east connections three rooms ahead and
+         * west connections across the cave from every other room.
+         */
+        CIRCULAR {
+            @Override
+            int[] connect(int roomCount) {
+                if (roomCount < 5) {
+                    throw new IllegalArgumentException("Cave system must have at least 5 rooms");
+                }
+                int[] connections = new int[roomCount * CONNECTIONS_PER_ROOM];
+                for (int i = 0; i < roomCount; i++) {
+                    int offset = i * CONNECTIONS_PER_ROOM;
+                    connections[offset] = (i + 1) % roomCount + 1;
+                    connections[offset + 1] = (i + 3) % roomCount + 1;
+                    connections[offset + 2] = (i - 1 + roomCount) % roomCount + 1;
+                    connections[offset + 3] = i % 2 == 0 ? (i + roomCount / 2) % roomCount + 1 : 0;
+                }
+                return connections;
+            }
+        };
+
+        /**
+         * Computes the connections of this layout.
+         *
+         * @param roomCount The number of rooms
+         * @return The north, east, south and west neighbour room numbers of each room, 0 for none
+         */
+        abstract int[] connect(int roomCount);
+    }
+
+    /**
+     * Creates a new template for a layout.
+     *
+     * @param layout The cave layout
+     * @param roomCount The number of rooms
+     * @return A new CaveTemplate instance
+     */
+    public static CaveTemplate create(Layout layout, int roomCount) {
+        log.info("Creating {} cave template with {} rooms", layout, roomCount);
+        int[] connections = layout.connect(roomCount);
+        CaveTemplate template = new CaveTemplate();
+        template.setLayout(layout);
+        template.setRoomCount(roomCount);
+        StringBuilder adjacency = new StringBuilder(connections.length * 3);
+        for (int i = 0; i < connections.length; i++) {
+            if (i > 0) {
+                adjacency.append(',');
+            }
+            adjacency.append(connections[i]);
+        }
+        template.setAdjacency(adjacency.toString());
+        template.connections = connections;
+        return template;
+    }
+
+    /**
+     * Gets the room number connected to a room in a direction.
+     *
+     * @param roomNumber The room number (1-based)
+     * @param direction The direction to follow
+     * @return The connected room number, or 0 if there is no connection
+     */
+    public int neighbour(int roomNumber, Direction direction) {
+        return connections()[(roomNumber - 1) * CONNECTIONS_PER_ROOM + direction.ordinal()];
+    }
+
+    /**
+     * @return The connections of this template by room index, for the game engine
+     */
+    public CaveTopology topology() {
+        if (topology == null) {
+            topology = CaveTopology.fromRoomNumbers(connections());
+        }
+        return topology;
+    }
+
+    /**
+     * Builds the rooms of this template for a game, without hazards.
+     * Room IDs are derived from the game ID and room number, so the same room
+     * always gets the same ID without being stored.
+     *
+     * @param gameId The ID of the game
+     * @return The rooms, ordered by room number
+     */
+    public List<Room> createRooms(UUID gameId) {
+        List<Room> rooms = new ArrayList<>(roomCount);
+        for (int roomNumber = 1; roomNumber <= roomCount; roomNumber++) {
+            Room room = Room.createRoom(
+                    roomId(gameId, neighbour(roomNumber, Direction.NORTH)),
+                    roomId(gameId, neighbour(roomNumber, Direction.EAST)),
+                    roomId(gameId, neighbour(roomNumber, Direction.SOUTH)),
+                    roomId(gameId, neighbour(roomNumber, Direction.WEST)));
+            room.setId(roomId(gameId, roomNumber));
+            room.setRoomNumber(roomNumber);
+            rooms.add(room);
+        }
+        return rooms;
+    }
+
+    /**
+     * Derives the ID of a room in a template-based game.
+     *
+     * @param gameId The ID of the game
+     * @param roomNumber The room number, or 0 for no room
+     * @return The room ID, or null if the room number is 0
+     */
+    public static UUID roomId(UUID gameId, int roomNumber) {
+        if (roomNumber == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 2 + Integer.BYTES);
+        buffer.putLong(gameId.getMostSignificantBits());
+        buffer.putLong(gameId.getLeastSignificantBits());
+        buffer.putInt(roomNumber);
+        return UUID.nameUUIDFromBytes(buffer.array());
+    }
+
+    private int[] connections() {
+        if (connections == null) {
+            String[] values = adjacency.split(",");
+            int[] parsed = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                parsed[i] = Integer.parseInt(values[i]);
+            }
+            connections = parsed;
+        }
+        return connections;
+    }
+}
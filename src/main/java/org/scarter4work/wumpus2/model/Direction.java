@@ -0,0 +1,42 @@
+package org.scarter4work.wumpus2.model;
+
+/**
+ * The four directions a player can move or shoot in. Declared in the order of
+ * the {@link org.scarter4work.wumpus2.engine.CaveTopology} direction indices, so
+ * an ordinal can be handed to the game engine as it is.
+ */
+public enum Direction {
+    NORTH,
+    EAST,
+    SOUTH,
+    WEST;
+
+    /**
+     * Parses a direction name case-insensitively.
+     *
+     * @param direction The direction name (north, east, south, west)
+     * @return The matching direction
+     * @throws IllegalArgumentException if the direction is not recognised
+     */
+    public static Direction fromString(String direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Invalid direction");
+        }
+        return switch (direction.toLowerCase()) {
+            case "north" -> NORTH;
+            case "east" -> EAST;
+            case "south" -> SOUTH;
+            case "west" -> WEST;
+            default -> throw new IllegalArgumentException("Invalid direction");
+        };
+    }
+
+    /**
+     * Gets the lower-case name used by the REST API.
+     *
+     * @return The direction name
+     */
+    public String key() {
+        return name().toLowerCase();
+    }
+}
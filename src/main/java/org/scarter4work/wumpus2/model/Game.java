@@ -1,5 +1,6 @@
 package org.scarter4work.wumpus2.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -38,6 +39,36 @@ public class Game {
     @Column(nullable = false)
     private UUID currentRoomId;
 
+    /**
+     * The shared cave template of the game, or null for games with their own room rows.
+     */
+    @JsonIgnore
+    private UUID caveTemplateId;
+
+    /**
+     * Hazard and visited room bitmasks, indexed by room number minus one.
+     * Only set for template caves of at most 64 rooms; larger caves keep their
+     * hazards in a {@link GameCave} record and their visits as rows.
+     */
+    @JsonIgnore
+    private Long wumpusMask;
+
+    @JsonIgnore
+    private Long pitMask;
+
+    @JsonIgnore
+    private Long batMask;
+
+    @JsonIgnore
+    private Long visitedMask;
+
+    /**
+     * Incremented on every update, so that an update based on a stale read
+     * fails instead of overwriting a newer one.
+     */
+    @Version
+    private Long version;
+
     public enum GameStatus {
         IN_PROGRESS,
         WON,
@@ -101,6 +132,62 @@ public class Game {
         this.currentRoomId = currentRoomId;
     }
 
+    public UUID getCaveTemplateId() {
+        return caveTemplateId;
+    }
+
+    public void setCaveTemplateId(UUID caveTemplateId) {
+        this.caveTemplateId = caveTemplateId;
+    }
+
+    public Long getWumpusMask() {
+        return wumpusMask;
+    }
+
+    public void setWumpusMask(Long wumpusMask) {
+        this.wumpusMask = wumpusMask;
+    }
+
+    public Long getPitMask() {
+        return pitMask;
+    }
+
+    public void setPitMask(Long pitMask) {
+        this.pitMask = pitMask;
+    }
+
+    public Long getBatMask() {
+        return batMask;
+    }
+
+    public void setBatMask(Long batMask) {
+        this.batMask = batMask;
+    }
+
+    public Long getVisitedMask() {
+        return visitedMask;
+    }
+
+    public void setVisitedMask(Long visitedMask) {
+        this.visitedMask = visitedMask;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * @return True if the game's hazards and visits are held in its bitmasks
+     */
+    @JsonIgnore
+    public boolean isMasked() {
+        return caveTemplateId != null && wumpusMask != null;
+    }
+
     /**
      * Creates a new game for the given player.
      * 
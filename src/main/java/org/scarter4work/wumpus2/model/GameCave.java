@@ -0,0 +1,89 @@
+package org.scarter4work.wumpus2.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The cave of a template-based game: the shared {@link CaveTemplate} it uses
+ * and where the hazards are. Hazards are stored as bitsets indexed by
+ * room number minus one.
+ */
+@Entity
+@Table(name = "game_caves")
+@Data
+@NoArgsConstructor
+public class GameCave {
+
+    @Id
+    private UUID gameId;
+
+    @Column(nullable = false)
+    private UUID templateId;
+
+    @Column(nullable = false)
+    private byte[] wumpusRooms;
+
+    @Column(nullable = false)
+    private byte[] pitRooms;
+
+    @Column(nullable = false)
+    private byte[] batRooms;
+
+    /**
+     * Creates the cave record of a game from its rooms.
+     *
+     * @param gameId The ID of the game
+     * @param templateId The ID of the cave template the rooms were built from
+     * @param rooms The rooms, ordered by room number
+     * @return A new GameCave instance
+     */
+    public static GameCave fromRooms(UUID gameId, UUID templateId, List<Room> rooms) {
+        GameCave cave = new GameCave();
+        cave.setGameId(gameId);
+        cave.setTemplateId(templateId);
+        cave.setHazards(rooms);
+        return cave;
+    }
+
+    /**
+     * Records the hazards of the given rooms, replacing any previous placement.
+     *
+     * @param rooms The rooms, ordered by room number
+     */
+    public void setHazards(List<Room> rooms) {
+        BitSet wumpus = new BitSet(rooms.size());
+        BitSet pits = new BitSet(rooms.size());
+        BitSet bats = new BitSet(rooms.size());
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            wumpus.set(i, room.isHasWumpus());
+            pits.set(i, room.isHasPit());
+            bats.set(i, room.isHasBats());
+        }
+        wumpusRooms = wumpus.toByteArray();
+        pitRooms = pits.toByteArray();
+        batRooms = bats.toByteArray();
+    }
+
+    /**
+     * Applies the recorded hazards to rooms built from the game's template.
+     *
+     * @param rooms The rooms, ordered by room number
+     */
+    public void applyHazards(List<Room> rooms) {
+        BitSet wumpus = BitSet.valueOf(wumpusRooms);
+        BitSet pits = BitSet.valueOf(pitRooms);
+        BitSet bats = BitSet.valueOf(batRooms);
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            room.setHasWumpus(wumpus.get(i));
+            room.setHasPit(pits.get(i));
+            room.setHasBats(bats.get(i));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.scarter4work.wumpus2.model;
+
+/**
+ * The hazards a room can hold.
+ */
+public enum Hazard {
+    WUMPUS,
+    PIT,
+    BATS;
+
+    /**
+     * @param room The room
+     * @return Whether the room holds this hazard
+     */
+    public boolean isIn(Room room) {
+        return switch (this) {
+            case WUMPUS -> room.isHasWumpus();
+            case PIT -> room.isHasPit();
+            case BATS -> room.isHasBats();
+        };
+    }
+}
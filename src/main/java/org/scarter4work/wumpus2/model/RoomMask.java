@@ -0,0 +1,61 @@
+package org.scarter4work.wumpus2.model;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Helpers for sets of rooms encoded as a {@code long}, with bit {@code i}
+ * standing for the room at index {@code i} (room number {@code i + 1}).
+ */
+public final class RoomMask {
+
+    /**
+     * The largest cave that fits in a mask.
+     */
+    public static final int MAX_ROOMS = Long.SIZE;
+
+    private RoomMask() {
+    }
+
+    /**
+     * Builds the mask of the rooms matching a condition.
+     *
+     * @param rooms The rooms, ordered by room number
+     * @param condition The condition to test
+     * @return The mask of matching rooms
+     */
+    public static long of(List<Room> rooms, Predicate<Room> condition) {
+        if (rooms.size() > MAX_ROOMS) {
+            throw new IllegalArgumentException("Too many rooms for a room mask");
+        }
+        long mask = 0L;
+        for (int i = 0; i < rooms.size(); i++) {
+            if (condition.test(rooms.get(i))) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Checks whether a room is in a mask.
+     *
+     * @param mask The mask
+     * @param index The room index
+     * @return True if the room is in the mask
+     */
+    public static boolean contains(long mask, int index) {
+        return (mask & (1L << index)) != 0;
+    }
+
+    /**
+     * Adds a room to a mask.
+     *
+     * @param mask The mask
+     * @param index The room index
+     * @return The mask including the room
+     */
+    public static long add(long mask, int index) {
+        return mask | (1L << index);
+    }
+}
@@ -0,0 +1,24 @@
+package org.scarter4work.wumpus2.repository;
+
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for CaveTemplate entity operations.
+ */
+@Repository
+public interface CaveTemplateRepository extends JpaRepository<CaveTemplate, UUID> {
+
+    /**
+     * Find the template of a layout with a given number of rooms.
+     *
+     * @param layout The cave layout
+     * @param roomCount The number of rooms
+     * @return The template if one has been stored
+     */
+    Optional<CaveTemplate> findByLayoutAndRoomCount(CaveTemplate.Layout layout, Integer roomCount);
+}
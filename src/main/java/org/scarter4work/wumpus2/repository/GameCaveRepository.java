@@ -0,0 +1,14 @@
+package org.scarter4work.wumpus2.repository;
+
+import org.scarter4work.wumpus2.model.GameCave;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Repository for GameCave entity operations. Games are keyed by their game ID.
+ */
+@Repository
+public interface GameCaveRepository extends JpaRepository<GameCave, UUID> {
+}
@@ -11,7 +11,7 @@ import java.util.UUID;
  * Repository for accessing and manipulating Game entities.
  */
 @Repository
-public interface GameRepository extends JpaRepository<Game, UUID> {
+public interface GameRepository extends JpaRepository<Game, UUID>, GameRepositoryCustom {
     
     /**
      * Find all games for a specific player.
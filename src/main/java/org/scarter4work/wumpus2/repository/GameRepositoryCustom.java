@@ -0,0 +1,46 @@
+package org.scarter4work.wumpus2.repository;
+
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.GameCave;
+import org.scarter4work.wumpus2.model.GameVisitedRoom;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Custom persistence operations for Game entities that bypass the persistence context.
+ */
+public interface GameRepositoryCustom {
+
+    /**
+     * Writes the current room, arrow count and visited room mask of the given games
+     * as a single JDBC batch. Each row is only written if its version still matches
+     * the game's, and its version is then incremented.
+     *
+     * @param games The games to update
+     * @return The IDs of the games that were not written because their row has
+     *         changed since they were read
+     */
+    Set<UUID> updatePositions(Collection<Game> games);
+
+    /**
+     * Inserts a new game together with its cave record and first visited room,
+     * one statement per table. All IDs must already be assigned. Games whose
+     * hazards and visits are held in their bitmasks need neither.
+     *
+     * @param game The new game
+     * @param cave The game's cave template reference and hazard placement, or null
+     * @param firstVisit The visit to the game's starting room, or null
+     */
+    void insertNewGame(Game game, GameCave cave, GameVisitedRoom firstVisit);
+
+    /**
+     * Writes the hazard bitmasks of a game without touching the rest of its row,
+     * other than incrementing its version.
+     *
+     * @param game The game with its new masks
+     * @return The number of rows updated
+     */
+    int updateHazardMasks(Game game);
+}
@@ -0,0 +1,95 @@
+package org.scarter4work.wumpus2.repository;
+
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.GameCave;
+import org.scarter4work.wumpus2.model.GameVisitedRoom;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link GameRepositoryCustom}.
+ */
+public class GameRepositoryCustomImpl implements GameRepositoryCustom {
+
+    private static final String UPDATE_POSITION_SQL =
+            "UPDATE games SET current_room_id = ?, arrows_remaining = ?, visited_mask = ?, version = version + 1 " +
+                    "WHERE id = ? AND version = ?";
+
+    private static final String UPDATE_HAZARD_MASKS_SQL =
+            "UPDATE games SET wumpus_mask = ?, pit_mask = ?, bat_mask = ?, version = version + 1 WHERE id = ?";
+
+    private static final String INSERT_GAME_SQL =
+            "INSERT INTO games (id, player_name, start_time, end_time, status, arrows_remaining, current_room_id, " +
+                    "cave_template_id, wumpus_mask, pit_mask, bat_mask, visited_mask, version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_GAME_CAVE_SQL =
+            "INSERT INTO game_caves (game_id, template_id, wumpus_rooms, pit_rooms, bat_rooms) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_VISITED_ROOM_SQL =
+            "INSERT INTO game_visited_rooms (id, game_id, room_id, visited_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public GameRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Set<UUID> updatePositions(Collection<Game> games) {
+        if (games.isEmpty()) {
+            return Set.of();
+        }
+
+        List<Game> ordered = new ArrayList<>(games);
+        List<Object[]> batchArgs = new ArrayList<>(ordered.size());
+        for (Game game : ordered) {
+            batchArgs.add(new Object[]{game.getCurrentRoomId(), game.getArrowsRemaining(), game.getVisitedMask(),
+                    game.getId(), game.getVersion()});
+        }
+
+        // Drivers may report Statement.SUCCESS_NO_INFO for batched rows; only 0 means the version did not match
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_POSITION_SQL, batchArgs);
+        Set<UUID> stale = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                stale.add(ordered.get(i).getId());
+            }
+        }
+        return stale;
+    }
+
+    @Override
+    public void insertNewGame(Game game, GameCave cave, GameVisitedRoom firstVisit) {
+        // The game first, so that the cave and visit foreign keys resolve
+        jdbcTemplate.update(INSERT_GAME_SQL, game.getId(), game.getPlayerName(), game.getStartTime(),
+                game.getEndTime(), game.getStatus().name(), game.getArrowsRemaining(), game.getCurrentRoomId(),
+                game.getCaveTemplateId(), game.getWumpusMask(), game.getPitMask(), game.getBatMask(),
+                game.getVisitedMask(), game.getVersion());
+
+        if (cave != null) {
+            jdbcTemplate.update(INSERT_GAME_CAVE_SQL, cave.getGameId(), cave.getTemplateId(),
+                    cave.getWumpusRooms(), cave.getPitRooms(), cave.getBatRooms());
+        }
+
+        if (firstVisit != null) {
+            jdbcTemplate.update(INSERT_VISITED_ROOM_SQL, firstVisit.getId(), firstVisit.getGameId(),
+                    firstVisit.getRoomId(), firstVisit.getVisitedAt());
+        }
+    }
+
+    @Override
+    public int updateHazardMasks(Game game) {
+        return jdbcTemplate.update(UPDATE_HAZARD_MASKS_SQL, game.getWumpusMask(), game.getPitMask(),
+                game.getBatMask(), game.getId());
+    }
+}
@@ -0,0 +1,218 @@
+package org.scarter4work.wumpus2.repository;
+
+import io.r2dbc.spi.Readable;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.GameCave;
+import org.scarter4work.wumpus2.model.GameVisitedRoom;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * R2DBC access to games, their caves and their visited rooms for the reactive
+ * API. Like {@link GameRepositoryCustomImpl}, statements are written out, and
+ * updates check and increment the version like the JPA and JDBC paths do. The
+ * status is cast to VARCHAR since the H2 driver binds strings as CLOBs, which
+ * H2 does not convert to the enum column Hibernate creates in tests.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveGameRepository {
+
+    private static final String SELECT_GAME_SQL =
+            "SELECT id, player_name, start_time, end_time, status, arrows_remaining, current_room_id, " +
+                    "cave_template_id, wumpus_mask, pit_mask, bat_mask, visited_mask, version " +
+                    "FROM games WHERE id = :id";
+
+    private static final String INSERT_GAME_SQL =
+            "INSERT INTO games (id, player_name, start_time, end_time, status, arrows_remaining, current_room_id, " +
+                    "cave_template_id, wumpus_mask, pit_mask, bat_mask, visited_mask, version) " +
+                    "VALUES (:id, :playerName, :startTime, :endTime, CAST(:status AS VARCHAR), :arrowsRemaining, :currentRoomId, " +
+                    ":caveTemplateId, :wumpusMask, :pitMask, :batMask, :visitedMask, :version)";
+
+    private static final String UPDATE_GAME_SQL =
+            "UPDATE games SET end_time = :endTime, status = CAST(:status AS VARCHAR), arrows_remaining = :arrowsRemaining, " +
+                    "current_room_id = :currentRoomId, visited_mask = :visitedMask, version = version + 1 " +
+                    "WHERE id = :id AND version = :version";
+
+    private static final String UPDATE_HAZARD_MASKS_SQL =
+            "UPDATE games SET wumpus_mask = :wumpusMask, pit_mask = :pitMask, bat_mask = :batMask, " +
+                    "version = version + 1 WHERE id = :id AND version = :version";
+
+    private static final String SELECT_GAME_CAVE_SQL =
+            "SELECT game_id, template_id, wumpus_rooms, pit_rooms, bat_rooms FROM game_caves WHERE game_id = :gameId";
+
+    private static final String SELECT_VISITED_ROOM_IDS_SQL =
+            "SELECT room_id FROM game_visited_rooms WHERE game_id = :gameId";
+
+    private static final String COUNT_VISITS_SQL =
+            "SELECT COUNT(*) FROM game_visited_rooms WHERE game_id = :gameId AND room_id = :roomId";
+
+    private static final String INSERT_VISITED_ROOM_SQL =
+            "INSERT INTO game_visited_rooms (id, game_id, room_id, visited_at) " +
+                    "VALUES (:id, :gameId, :roomId, :visitedAt)";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveGameRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Finds a game by its ID.
+     *
+     * @param gameId The ID of the game
+     * @return The game, or empty if it does not exist
+     */
+    public Mono<Game> findById(UUID gameId) {
+        return databaseClient.sql(SELECT_GAME_SQL)
+                .bind("id", gameId)
+                .map(ReactiveGameRepository::toGame)
+                .one();
+    }
+
+    /**
+     * Inserts a new game.
+     *
+     * @param game The game
+     * @return Completes when the game is inserted
+     */
+    public Mono<Void> insert(Game game) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT_GAME_SQL)
+                .bind("id", game.getId())
+                .bind("playerName", game.getPlayerName())
+                .bind("startTime", game.getStartTime())
+                .bind("status", game.getStatus().name())
+                .bind("arrowsRemaining", game.getArrowsRemaining())
+                .bind("currentRoomId", game.getCurrentRoomId())
+                .bind("version", game.getVersion());
+        spec = bind(spec, "endTime", game.getEndTime(), LocalDateTime.class);
+        spec = bind(spec, "caveTemplateId", game.getCaveTemplateId(), UUID.class);
+        spec = bind(spec, "wumpusMask", game.getWumpusMask(), Long.class);
+        spec = bind(spec, "pitMask", game.getPitMask(), Long.class);
+        spec = bind(spec, "batMask", game.getBatMask(), Long.class);
+        spec = bind(spec, "visitedMask", game.getVisitedMask(), Long.class);
+        return spec.then();
+    }
+
+    /**
+     * Updates the status, position, arrows and visited mask of a game, if its
+     * row still has the game's version.
+     *
+     * @param game The updated game
+     * @return True if the game was updated, false if its row has a newer version
+     */
+    public Mono<Boolean> update(Game game) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(UPDATE_GAME_SQL)
+                .bind("status", game.getStatus().name())
+                .bind("arrowsRemaining", game.getArrowsRemaining())
+                .bind("currentRoomId", game.getCurrentRoomId())
+                .bind("id", game.getId())
+                .bind("version", game.getVersion());
+        spec = bind(spec, "endTime", game.getEndTime(), LocalDateTime.class);
+        spec = bind(spec, "visitedMask", game.getVisitedMask(), Long.class);
+        return spec.fetch().rowsUpdated().map(rows -> rows > 0);
+    }
+
+    /**
+     * Updates the hazard masks of a game, if its row still has the game's version.
+     *
+     * @param game The game with its new hazard masks
+     * @return True if the game was updated, false if its row has a newer version
+     */
+    public Mono<Boolean> updateHazardMasks(Game game) {
+        return databaseClient.sql(UPDATE_HAZARD_MASKS_SQL)
+                .bind("wumpusMask", game.getWumpusMask())
+                .bind("pitMask", game.getPitMask())
+                .bind("batMask", game.getBatMask())
+                .bind("id", game.getId())
+                .bind("version", game.getVersion())
+                .fetch().rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    /**
+     * Finds the cave record of a game whose cave does not fit in its masks.
+     *
+     * @param gameId The ID of the game
+     * @return The cave record, or empty if the game has none
+     */
+    public Mono<GameCave> findGameCave(UUID gameId) {
+        return databaseClient.sql(SELECT_GAME_CAVE_SQL)
+                .bind("gameId", gameId)
+                .map(row -> {
+                    GameCave cave = new GameCave();
+                    cave.setGameId(row.get("game_id", UUID.class));
+                    cave.setTemplateId(row.get("template_id", UUID.class));
+                    cave.setWumpusRooms(row.get("wumpus_rooms", byte[].class));
+                    cave.setPitRooms(row.get("pit_rooms", byte[].class));
+                    cave.setBatRooms(row.get("bat_rooms", byte[].class));
+                    return cave;
+                })
+                .one();
+    }
+
+    /**
+     * Finds the IDs of the rooms visited in a game without a visited mask.
+     *
+     * @param gameId The ID of the game
+     * @return The IDs of the visited rooms
+     */
+    public Flux<UUID> findVisitedRoomIds(UUID gameId) {
+        return databaseClient.sql(SELECT_VISITED_ROOM_IDS_SQL)
+                .bind("gameId", gameId)
+                .map(row -> row.get("room_id", UUID.class))
+                .all();
+    }
+
+    /**
+     * Records a visit to a room, unless the room has been visited before.
+     *
+     * @param visitedRoom The visit
+     * @return Completes when the visit is recorded
+     */
+    public Mono<Void> insertVisitedRoomIfAbsent(GameVisitedRoom visitedRoom) {
+        return databaseClient.sql(COUNT_VISITS_SQL)
+                .bind("gameId", visitedRoom.getGameId())
+                .bind("roomId", visitedRoom.getRoomId())
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .filter(visits -> visits == 0)
+                .flatMap(visits -> databaseClient.sql(INSERT_VISITED_ROOM_SQL)
+                        .bind("id", visitedRoom.getId())
+                        .bind("gameId", visitedRoom.getGameId())
+                        .bind("roomId", visitedRoom.getRoomId())
+                        .bind("visitedAt", visitedRoom.getVisitedAt())
+                        .then());
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                          Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private static Game toGame(Readable row) {
+        Game game = new Game();
+        game.setId(row.get("id", UUID.class));
+        game.setPlayerName(row.get("player_name", String.class));
+        game.setStartTime(row.get("start_time", LocalDateTime.class));
+        game.setEndTime(row.get("end_time", LocalDateTime.class));
+        game.setStatus(Game.GameStatus.valueOf(row.get("status", String.class)));
+        game.setArrowsRemaining(row.get("arrows_remaining", Integer.class));
+        game.setCurrentRoomId(row.get("current_room_id", UUID.class));
+        game.setCaveTemplateId(row.get("cave_template_id", UUID.class));
+        game.setWumpusMask(row.get("wumpus_mask", Long.class));
+        game.setPitMask(row.get("pit_mask", Long.class));
+        game.setBatMask(row.get("bat_mask", Long.class));
+        game.setVisitedMask(row.get("visited_mask", Long.class));
+        game.setVersion(row.get("version", Long.class));
+        return game;
+    }
+}
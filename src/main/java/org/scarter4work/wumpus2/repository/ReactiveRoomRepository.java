@@ -0,0 +1,79 @@
+package org.scarter4work.wumpus2.repository;
+
+import io.r2dbc.spi.Readable;
+import org.scarter4work.wumpus2.model.Room;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * R2DBC access to stored rooms for the reactive API. Only games created before
+ * cave templates existed have stored rooms, mapped to them through game_rooms.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveRoomRepository {
+
+    private static final String ROOM_COLUMNS =
+            "r.id, r.room_number, r.north_room_id, r.east_room_id, r.south_room_id, r.west_room_id, " +
+                    "r.has_wumpus, r.has_pit, r.has_bats";
+
+    private static final String SELECT_ROOM_SQL =
+            "SELECT " + ROOM_COLUMNS + " FROM rooms r WHERE r.id = :id";
+
+    private static final String SELECT_ROOMS_BY_GAME_SQL =
+            "SELECT " + ROOM_COLUMNS + " FROM rooms r JOIN game_rooms gr ON gr.room_id = r.id " +
+                    "WHERE gr.game_id = :gameId ORDER BY r.room_number";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveRoomRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Finds a stored room by its ID.
+     *
+     * @param roomId The ID of the room
+     * @return The room, or empty if it does not exist
+     */
+    public Mono<Room> findById(UUID roomId) {
+        return databaseClient.sql(SELECT_ROOM_SQL)
+                .bind("id", roomId)
+                .map(ReactiveRoomRepository::toRoom)
+                .one();
+    }
+
+    /**
+     * Finds the stored rooms of a game in one statement, joining through game_rooms.
+     *
+     * @param gameId The ID of the game
+     * @return The rooms of the game, ordered by room number
+     */
+    public Flux<Room> findRoomsByGameId(UUID gameId) {
+        return databaseClient.sql(SELECT_ROOMS_BY_GAME_SQL)
+                .bind("gameId", gameId)
+                .map(ReactiveRoomRepository::toRoom)
+                .all();
+    }
+
+    private static Room toRoom(Readable row) {
+        Room room = new Room();
+        room.setId(row.get("id", UUID.class));
+        room.setRoomNumber(row.get("room_number", Integer.class));
+        room.setNorthRoomId(row.get("north_room_id", UUID.class));
+        room.setEastRoomId(row.get("east_room_id", UUID.class));
+        room.setSouthRoomId(row.get("south_room_id", UUID.class));
+        room.setWestRoomId(row.get("west_room_id", UUID.class));
+        room.setHasWumpus(Boolean.TRUE.equals(row.get("has_wumpus", Boolean.class)));
+        room.setHasPit(Boolean.TRUE.equals(row.get("has_pit", Boolean.class)));
+        room.setHasBats(Boolean.TRUE.equals(row.get("has_bats", Boolean.class)));
+        return room;
+    }
+}
@@ -1,8 +1,9 @@
 package org.scarter4work.wumpus2.repository;
 
-import org.scarter4work.wumpus2.model.Game;
 import org.scarter4work.wumpus2.model.Room;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,27 +15,6 @@ import java.util.UUID;
 @Repository
 public interface RoomRepository extends JpaRepository<Room, UUID> {
 
-    /**
-     * Find all rooms that contain the Wumpus.
-     * 
-     * @return List of rooms containing the Wumpus
-     */
-    List<Room> findByHasWumpusTrue();
-
-    /**
-     * Find all rooms that contain a pit.
-     * 
-     * @return List of rooms containing a pit
-     */
-    List<Room> findByHasPitTrue();
-
-    /**
-     * Find all rooms that contain bats.
-     * 
-     * @return List of rooms containing bats
-     */
-    List<Room> findByHasBatsTrue();
-
     /**
      * Find all rooms connected to the specified room.
      * 
@@ -44,4 +24,15 @@ public interface RoomRepository extends JpaRepository<Room, UUID> {
     List<Room> findByNorthRoomIdOrEastRoomIdOrSouthRoomIdOrWestRoomId(
             UUID roomId, UUID roomId1, UUID roomId2, UUID roomId3);
 
+    /**
+     * Find all rooms belonging to a game in a single statement by joining
+     * through the game_rooms mapping table.
+     *
+     * @param gameId The ID of the game
+     * @return List of rooms in the game, ordered by room number
+     */
+    @Query("SELECT r FROM Room r JOIN GameRoom gr ON gr.roomId = r.id " +
+            "WHERE gr.gameId = :gameId ORDER BY r.roomNumber")
+    List<Room> findRoomsByGameId(@Param("gameId") UUID gameId);
+
 }
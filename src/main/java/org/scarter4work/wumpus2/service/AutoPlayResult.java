@@ -0,0 +1,10 @@
+package org.scarter4work.wumpus2.service;
+
+/**
+ * The outcome of a game played by the solver.
+ *
+ * @param steps The moves and shots the solver made
+ * @param state The game state after the last of them
+ */
+public record AutoPlayResult(int steps, GameState state) {
+}
@@ -0,0 +1,133 @@
+package org.scarter4work.wumpus2.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.config.AutoPlayProperties;
+import org.scarter4work.wumpus2.engine.CaveContents;
+import org.scarter4work.wumpus2.engine.CaveTopology;
+import org.scarter4work.wumpus2.engine.MctsPolicy;
+import org.scarter4work.wumpus2.engine.PerceptPolicy;
+import org.scarter4work.wumpus2.engine.PlayerPolicy;
+import org.scarter4work.wumpus2.engine.Policy;
+import org.scarter4work.wumpus2.engine.SelfPlaySettings;
+import org.scarter4work.wumpus2.model.Direction;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service that lets a {@link PerceptPolicy} play a stored game to the end.
+ * The player sees what a person would: the connections of the rooms and the
+ * percepts of the game state. Each of its moves and shots is an ordinary game
+ * command, so it is saved, counted and published to watchers like a person's.
+ * How long it takes to choose each one is recorded by {@link GameMetrics}.
+ */
+@Service
+@Slf4j
+public class AutoPlayService {
+
+    /**
+     * The moves and shots after which the player gives up on a game.
+     */
+    static final int MAX_STEPS = SelfPlaySettings.DEFAULT_MAX_STEPS;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final GameService gameService;
+    private final GameMetrics gameMetrics;
+    private final AutoPlayProperties properties;
+
+    @Autowired
+    public AutoPlayService(GameService gameService, GameMetrics gameMetrics, AutoPlayProperties properties) {
+        this.gameService = gameService;
+        this.gameMetrics = gameMetrics;
+        this.properties = properties;
+    }
+
+    /**
+     * Plays a game until it is over, or until {@link #MAX_STEPS} moves and shots.
+     *
+     * @param gameId The ID of the game
+     * @param policy The player, one that plays from percepts: {@link PlayerPolicy#SOLVER},
+     *               {@link PlayerPolicy#PROBABILISTIC} or {@link PlayerPolicy#MCTS}
+     * @return The steps taken and the final game state
+     * @throws GameNotFoundException if the game does not exist
+     * @throws IllegalArgumentException if the policy cannot play stored games
+     * @throws IllegalStateException if the game is not in progress
+     */
+    public AutoPlayResult play(UUID gameId, PlayerPolicy policy) {
+        if (!(policy.create(ThreadLocalRandom.current(), CaveContents.PITS, CaveContents.BAT_COLONIES,
+                properties.mctsSettings()) instanceof PerceptPolicy player)) {
+            throw new IllegalArgumentException("Only players that go by percepts can play stored games");
+        }
+
+        GameState state = gameService.getGameState(gameId);
+        if (state.game().getStatus() != Game.GameStatus.IN_PROGRESS) {
+            throw new IllegalStateException("Game is not in progress");
+        }
+
+        Map<UUID, Integer> indices = indexRooms(state.rooms());
+        player.start(topology(state.rooms(), indices));
+
+        int steps = 0;
+        while (state.game().getStatus() == Game.GameStatus.IN_PROGRESS && steps < MAX_STEPS) {
+            int currentRoom = indices.get(state.currentRoom().getId());
+            int arrowsRemaining = state.game().getArrowsRemaining();
+            Map<String, Boolean> hazardInfo = state.hazardInfo();
+            int action = gameMetrics.timeDecision(policy, () -> player.act(currentRoom, arrowsRemaining,
+                    Boolean.TRUE.equals(hazardInfo.get("wumpusNearby")),
+                    Boolean.TRUE.equals(hazardInfo.get("pitNearby")),
+                    Boolean.TRUE.equals(hazardInfo.get("batsNearby"))));
+            if (player instanceof MctsPolicy mcts && mcts.getLastIterations() > 0) {
+                gameMetrics.searched(mcts.getLastIterations());
+            }
+
+            String direction = DIRECTIONS[Policy.direction(action)].key();
+            state = Policy.isShot(action)
+                    ? gameService.shootArrowAndGetState(gameId, direction)
+                    : gameService.movePlayerAndGetState(gameId, direction);
+            steps++;
+        }
+
+        log.info("{} finished game {} with status {} after {} steps", policy, gameId, state.game().getStatus(), steps);
+        return new AutoPlayResult(steps, state);
+    }
+
+    private static Map<UUID, Integer> indexRooms(List<Room> rooms) {
+        Map<UUID, Integer> indices = new HashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            indices.put(rooms.get(i).getId(), i);
+        }
+        return indices;
+    }
+
+    /**
+     * Builds the engine's view of a cave from the connections of its rooms.
+     *
+     * @param rooms The rooms of the game
+     * @param indices The index of each room by its ID
+     * @return The cave topology
+     */
+    private static CaveTopology topology(List<Room> rooms, Map<UUID, Integer> indices) {
+        int[] neighbours = new int[rooms.size() * CaveTopology.DIRECTIONS];
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            int offset = i * CaveTopology.DIRECTIONS;
+            neighbours[offset + CaveTopology.NORTH] = index(room.getNorthRoomId(), indices);
+            neighbours[offset + CaveTopology.EAST] = index(room.getEastRoomId(), indices);
+            neighbours[offset + CaveTopology.SOUTH] = index(room.getSouthRoomId(), indices);
+            neighbours[offset + CaveTopology.WEST] = index(room.getWestRoomId(), indices);
+        }
+        return CaveTopology.of(neighbours);
+    }
+
+    private static int index(UUID roomId, Map<UUID, Integer> indices) {
+        return roomId == null ? CaveTopology.NO_ROOM : indices.getOrDefault(roomId, CaveTopology.NO_ROOM);
+    }
+}
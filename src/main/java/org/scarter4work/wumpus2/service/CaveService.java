@@ -0,0 +1,218 @@
+package org.scarter4work.wumpus2.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.engine.CaveContents;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.GameCave;
+import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.model.RoomMask;
+import org.scarter4work.wumpus2.repository.CaveTemplateRepository;
+import org.scarter4work.wumpus2.repository.GameCaveRepository;
+import org.scarter4work.wumpus2.repository.GameRepository;
+import org.scarter4work.wumpus2.repository.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service for cave layouts. Topologies are stored once as {@link CaveTemplate}s
+ * and kept in memory; a game only stores its hazard placement, as bitmasks on
+ * the game row for caves of up to 64 rooms and as a {@link GameCave} otherwise.
+ * Games created before templates existed keep their own room rows and are
+ * still read from those.
+ */
+@Service
+@Slf4j
+public class CaveService {
+
+    private final CaveTemplateRepository caveTemplateRepository;
+    private final GameCaveRepository gameCaveRepository;
+    private final GameRepository gameRepository;
+    private final RoomRepository roomRepository;
+    private final TransactionTemplate newTransaction;
+    private final ConcurrentMap<UUID, CaveTemplate> templatesById = new ConcurrentHashMap<>();
+    // A lock rather than a monitor, since templates are read and stored while it is held
+    private final Lock templateCreation = new ReentrantLock();
+
+    @Autowired
+    public CaveService(CaveTemplateRepository caveTemplateRepository, GameCaveRepository gameCaveRepository,
+                       GameRepository gameRepository, RoomRepository roomRepository,
+                       PlatformTransactionManager transactionManager) {
+        this.caveTemplateRepository = caveTemplateRepository;
+        this.gameCaveRepository = gameCaveRepository;
+        this.gameRepository = gameRepository;
+        this.roomRepository = roomRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Gets the template of a layout, storing it the first time it is used.
+     * Storing runs in a new transaction, which needs a second connection when
+     * called inside one; layouts used by requests should be loaded at startup.
+     *
+     * @param layout The cave layout
+     * @param roomCount The number of rooms
+     * @return The stored template
+     */
+    public CaveTemplate getTemplate(CaveTemplate.Layout layout, int roomCount) {
+        for (CaveTemplate template : templatesById.values()) {
+            if (template.getLayout() == layout && template.getRoomCount() == roomCount) {
+                return template;
+            }
+        }
+
+        templateCreation.lock();
+        try {
+            for (CaveTemplate template : templatesById.values()) {
+                if (template.getLayout() == layout && template.getRoomCount() == roomCount) {
+                    return template;
+                }
+            }
+            CaveTemplate template = caveTemplateRepository.findByLayoutAndRoomCount(layout, roomCount)
+                    .orElseGet(() -> createTemplate(layout, roomCount));
+            return cache(template);
+        } finally {
+            templateCreation.unlock();
+        }
+    }
+
+    /**
+     * Gets a template by its ID.
+     *
+     * @param templateId The ID of the template
+     * @return The template
+     * @throws IllegalStateException if the template does not exist
+     */
+    public CaveTemplate getTemplate(UUID templateId) {
+        CaveTemplate template = templatesById.get(templateId);
+        if (template == null) {
+            template = cache(caveTemplateRepository.findById(templateId)
+                    .orElseThrow(() -> new IllegalStateException("Cave template not found")));
+        }
+        return template;
+    }
+
+    /**
+     * Gets a template by its ID if it is already in memory, without a query.
+     *
+     * @param templateId The ID of the template
+     * @return The template, or empty if it has not been loaded yet
+     */
+    public Optional<CaveTemplate> findLoadedTemplate(UUID templateId) {
+        return Optional.ofNullable(templatesById.get(templateId));
+    }
+
+    /**
+     * Gets the rooms of a game, ordered by room number. Rooms of template-based
+     * games are built from the template and the game's hazard placement, so
+     * games with hazard masks need no query at all.
+     *
+     * @param game The game
+     * @return List of rooms in the game, empty if the game has none
+     */
+    public List<Room> getRoomsForGame(Game game) {
+        if (game.isMasked()) {
+            return createMaskedRooms(game, getTemplate(game.getCaveTemplateId()));
+        }
+
+        Optional<GameCave> gameCave = gameCaveRepository.findById(game.getId());
+        if (gameCave.isEmpty()) {
+            return roomRepository.findRoomsByGameId(game.getId());
+        }
+
+        List<Room> rooms = getTemplate(gameCave.get().getTemplateId()).createRooms(game.getId());
+        gameCave.get().applyHazards(rooms);
+        return rooms;
+    }
+
+    /**
+     * Builds the rooms of a game with hazard masks from its template.
+     *
+     * @param game The game, which must have hazard masks
+     * @param template The game's cave template
+     * @return List of rooms in the game, ordered by room number
+     */
+    public static List<Room> createMaskedRooms(Game game, CaveTemplate template) {
+        List<Room> rooms = template.createRooms(game.getId());
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            room.setHasWumpus(RoomMask.contains(game.getWumpusMask(), i));
+            room.setHasPit(RoomMask.contains(game.getPitMask(), i));
+            room.setHasBats(RoomMask.contains(game.getBatMask(), i));
+        }
+        return rooms;
+    }
+
+    /**
+     * Sets the hazards of rooms from what the game engine placed in them.
+     *
+     * @param rooms The rooms, ordered by room index
+     * @param contents The {@link CaveContents} bits of each room
+     */
+    static void applyContents(List<Room> rooms, byte[] contents) {
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            room.setHasWumpus(CaveContents.has(contents, i, CaveContents.WUMPUS));
+            room.setHasPit(CaveContents.has(contents, i, CaveContents.PIT));
+            room.setHasBats(CaveContents.has(contents, i, CaveContents.BATS));
+        }
+    }
+
+    /**
+     * Saves the hazard placement of a game's rooms. The game's masks are
+     * updated in place for masked games.
+     *
+     * @param game The game
+     * @param rooms The rooms of the game as returned by {@link #getRoomsForGame(Game)}
+     */
+    @Transactional
+    public void saveHazards(Game game, List<Room> rooms) {
+        if (game.isMasked()) {
+            game.setWumpusMask(RoomMask.of(rooms, Room::isHasWumpus));
+            game.setPitMask(RoomMask.of(rooms, Room::isHasPit));
+            game.setBatMask(RoomMask.of(rooms, Room::isHasBats));
+            gameRepository.updateHazardMasks(game);
+            return;
+        }
+
+        Optional<GameCave> gameCave = gameCaveRepository.findById(game.getId());
+        if (gameCave.isEmpty()) {
+            roomRepository.saveAll(rooms);
+            return;
+        }
+
+        gameCave.get().setHazards(rooms);
+        gameCaveRepository.save(gameCave.get());
+    }
+
+    private CaveTemplate createTemplate(CaveTemplate.Layout layout, int roomCount) {
+        CaveTemplate template = CaveTemplate.create(layout, roomCount);
+        try {
+            return newTransaction.execute(status -> caveTemplateRepository.saveAndFlush(template));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the same layout first
+            log.debug("{} cave template with {} rooms already exists", layout, roomCount);
+            return caveTemplateRepository.findByLayoutAndRoomCount(layout, roomCount)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private CaveTemplate cache(CaveTemplate template) {
+        CaveTemplate existing = templatesById.putIfAbsent(template.getId(), template);
+        return existing != null ? existing : template;
+    }
+}
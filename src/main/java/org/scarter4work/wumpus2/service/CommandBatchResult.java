@@ -0,0 +1,13 @@
+package org.scarter4work.wumpus2.service;
+
+import java.util.List;
+
+/**
+ * The outcome of a command batch. Commands are applied in order until one is
+ * rejected or the game ends; the commands after that have no result.
+ *
+ * @param results The result of each command that was run
+ * @param state The game state after the batch
+ */
+public record CommandBatchResult(List<CommandResult> results, GameState state) {
+}
@@ -0,0 +1,22 @@
+package org.scarter4work.wumpus2.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The result of one step of a command batch: what the command changed, or
+ * why it was rejected.
+ *
+ * @param command The command
+ * @param change What the command changed, or null if it was rejected
+ * @param error Why the command was rejected, or null if it was applied
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CommandResult(GameCommand command, GameEvent change, String error) {
+
+    /**
+     * @return Whether the command was applied
+     */
+    public boolean isApplied() {
+        return error == null;
+    }
+}
@@ -0,0 +1,54 @@
+package org.scarter4work.wumpus2.service;
+
+/**
+ * A move or shot, as one step of a command batch.
+ *
+ * @param type Whether to move or shoot
+ * @param direction The direction to move or shoot (north, east, south, west)
+ */
+public record GameCommand(Type type, String direction) {
+
+    /**
+     * The kinds of game command.
+     */
+    public enum Type {
+        MOVE, SHOOT;
+
+        /**
+         * Parses a command type, ignoring case.
+         *
+         * @param type The command type (move, shoot)
+         * @return The command type
+         * @throws IllegalArgumentException if the type is unknown
+         */
+        public static Type fromString(String type) {
+            if (type == null) {
+                throw new IllegalArgumentException("Invalid command");
+            }
+            return switch (type.toLowerCase()) {
+                case "move" -> MOVE;
+                case "shoot" -> SHOOT;
+                default -> throw new IllegalArgumentException("Invalid command");
+            };
+        }
+    }
+
+    /**
+     * Creates a command from its request values.
+     *
+     * @param type The command type (move, shoot)
+     * @param direction The direction to move or shoot
+     * @return The command
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public static GameCommand of(String type, String direction) {
+        return new GameCommand(Type.fromString(type), direction);
+    }
+
+    /**
+     * @return The type of event this command produces
+     */
+    GameEvent.Type eventType() {
+        return type == Type.MOVE ? GameEvent.Type.MOVED : GameEvent.Type.SHOT;
+    }
+}
@@ -0,0 +1,17 @@
+package org.scarter4work.wumpus2.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a game kept changing concurrently and a command could not be
+ * applied within its retry budget. Answered with 409 Conflict, so the client
+ * can reload the game and try again.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class GameConflictException extends IllegalStateException {
+
+    public GameConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,76 @@
+package org.scarter4work.wumpus2.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A change to a game as pushed to observers of its event stream. A change
+ * only carries the values that changed; a state event carries them all.
+ * Values are absolute rather than relative, so applying an event twice is harmless.
+ *
+ * @param gameId The ID of the game
+ * @param version The version of the game after the change
+ * @param type What happened
+ * @param roomId The room the player entered, or null if they did not move
+ * @param roomNumber The number of the room the player entered
+ * @param hazardInfo The hazards sensed in the room the player entered
+ * @param arrowsRemaining The arrows left, or null if unchanged
+ * @param status The game status, or null if unchanged
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GameEvent(UUID gameId, Long version, Type type, UUID roomId, Integer roomNumber,
+                        Map<String, Boolean> hazardInfo, Integer arrowsRemaining, Game.GameStatus status) {
+
+    /**
+     * What happened to the game.
+     */
+    public enum Type {
+        STATE, MOVED, SHOT, ENDED
+    }
+
+    /**
+     * Creates an event carrying the whole observable state of a game.
+     *
+     * @param state The game state
+     * @return The state event
+     */
+    public static GameEvent state(GameState state) {
+        Game game = state.game();
+        return new GameEvent(game.getId(), game.getVersion(), Type.STATE, state.currentRoom().getId(),
+                state.currentRoom().getRoomNumber(), state.hazardInfo(), game.getArrowsRemaining(), game.getStatus());
+    }
+
+    /**
+     * Creates an event carrying what a command changed.
+     *
+     * @param type What happened
+     * @param previous The game before the command
+     * @param current The game after the command
+     * @param currentRoom The player's room after the command; only read if the player moved
+     * @param hazardInfo The hazards sensed in that room; only read if the player moved
+     * @return The change event
+     */
+    public static GameEvent change(Type type, Game previous, Game current, Room currentRoom,
+                                   Map<String, Boolean> hazardInfo) {
+        boolean moved = !Objects.equals(previous.getCurrentRoomId(), current.getCurrentRoomId());
+        return new GameEvent(current.getId(), current.getVersion(), type,
+                moved ? currentRoom.getId() : null,
+                moved ? currentRoom.getRoomNumber() : null,
+                moved ? hazardInfo : null,
+                !Objects.equals(previous.getArrowsRemaining(), current.getArrowsRemaining())
+                        ? current.getArrowsRemaining() : null,
+                previous.getStatus() != current.getStatus() ? current.getStatus() : null);
+    }
+
+    /**
+     * @return Whether the game is over after this event
+     */
+    public boolean isTerminal() {
+        return status != null && status != Game.GameStatus.IN_PROGRESS;
+    }
+}
@@ -0,0 +1,172 @@
+package org.scarter4work.wumpus2.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pushes game changes to the observers of each game. All observers of a game
+ * share one sink, which exists only while the game has observers, so changes
+ * to games nobody watches cost nothing and watching a game never touches the
+ * database after its initial state has been read.
+ */
+@Slf4j
+@Component
+public class GameEventStream {
+
+    /**
+     * How long an emission may spin while another thread emits to the same sink.
+     */
+    private static final Duration EMIT_TIMEOUT = Duration.ofMillis(100);
+
+    private final ConcurrentMap<UUID, Channel> channels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GameEventStream(MeterRegistry meterRegistry) {
+        Gauge.builder("wumpus.event-streams.active", channels, ConcurrentMap::size)
+                .description("Games with at least one observer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Streams the changes to a game, starting with its current state and
+     * completing once the game is over.
+     *
+     * @param gameId The ID of the game
+     * @param currentState Reads the current state of the game when the stream is subscribed
+     * @return The events of the game
+     */
+    public Flux<GameEvent> stream(UUID gameId, Mono<GameState> currentState) {
+        return Flux.defer(() -> {
+            Gate gate = new Gate();
+            // Listen before reading the state, so that no change falls in between
+            Flux<GameEvent> changes = Flux.using(() -> acquire(gameId), Channel::events, channel -> release(gameId, channel));
+            return Flux.merge(changes, currentState.map(GameEvent::state).map(Gate.State::new))
+                    .concatMapIterable(gate::admit);
+        }).takeUntil(GameEvent::isTerminal);
+    }
+
+    /**
+     * Pushes the changes made by a command once its transaction has committed.
+     *
+     * @param event The change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameEvent(GameEvent event) {
+        publish(event);
+    }
+
+    /**
+     * Pushes a change to the observers of its game, if it has any.
+     *
+     * @param event The change
+     */
+    public void publish(GameEvent event) {
+        Channel channel = channels.get(event.gameId());
+        if (channel != null) {
+            channel.sink.emitNext(event, Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT));
+        }
+    }
+
+    /**
+     * Ends all streams when the application shuts down, since the web server
+     * waits for open responses before it stops.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void completeAll() {
+        channels.values().forEach(channel ->
+                channel.sink.emitComplete(Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT)));
+    }
+
+    /**
+     * @return The number of games with at least one observer
+     */
+    public int size() {
+        return channels.size();
+    }
+
+    private Channel acquire(UUID gameId) {
+        return channels.compute(gameId, (id, channel) -> {
+            Channel target = channel != null ? channel : new Channel();
+            target.observers++;
+            return target;
+        });
+    }
+
+    private void release(UUID gameId, Channel channel) {
+        channels.computeIfPresent(gameId, (id, current) -> {
+            if (current != channel) {
+                return current;
+            }
+            return --current.observers == 0 ? null : current;
+        });
+    }
+
+    /**
+     * The shared sink of one game. Observers are counted under the map's lock
+     * for the game, so a channel is removed only when its last observer leaves.
+     */
+    private static final class Channel {
+
+        private final Sinks.Many<GameEvent> sink = Sinks.many().multicast().directBestEffort();
+        private int observers;
+
+        private Flux<GameEvent> events() {
+            return sink.asFlux();
+        }
+    }
+
+    /**
+     * Orders the events of one observer: changes that arrive before the
+     * current state are held back, then passed on after it unless the state
+     * already includes them.
+     */
+    private static final class Gate {
+
+        private final List<GameEvent> pending = new ArrayList<>();
+        private GameEvent state;
+
+        private List<GameEvent> admit(Object signal) {
+            if (signal instanceof State(GameEvent current)) {
+                state = current;
+                List<GameEvent> admitted = new ArrayList<>();
+                admitted.add(current);
+                pending.stream().filter(this::isNewer).forEach(admitted::add);
+                pending.clear();
+                return admitted;
+            }
+            GameEvent change = (GameEvent) signal;
+            if (state == null) {
+                pending.add(change);
+                return List.of();
+            }
+            return isNewer(change) ? List.of(change) : List.of();
+        }
+
+        /**
+         * Versions can repeat when changes are written behind, so equal versions
+         * pass; changes are absolute, so passing one twice is harmless.
+         */
+        private boolean isNewer(GameEvent change) {
+            return change.version() == null || state.version() == null || change.version() >= state.version();
+        }
+
+        private record State(GameEvent event) {
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.scarter4work.wumpus2.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.config.GameSessionProperties;
+import org.scarter4work.wumpus2.config.QueryMetricsConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Per-game command mailboxes. Commands for one game run one at a time, in
+ * the order they were submitted, on a virtual thread; commands for different
+ * games run in parallel. A mailbox only exists while its game is in use and
+ * is removed once it has been empty for the configured idle timeout.
+ */
+@Slf4j
+@Component
+public class GameMailboxes {
+
+    /**
+     * The game whose mailbox the current thread is draining, if any.
+     */
+    private static final ThreadLocal<UUID> DRAINING = new ThreadLocal<>();
+
+    private final GameSessionProperties properties;
+    private final ConcurrentMap<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public GameMailboxes(GameSessionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("wumpus.mailboxes.active", mailboxes, ConcurrentMap::size)
+                .description("Games with a command mailbox")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a command in a game's mailbox and waits for its result. A command
+     * submitted from within the same game's mailbox runs immediately instead.
+     * The statements the command runs count towards the caller's HTTP request.
+     *
+     * @param gameId The ID of the game
+     * @param command The command
+     * @return The result of the command
+     */
+    public <T> T execute(UUID gameId, Supplier<T> command) {
+        if (gameId.equals(DRAINING.get())) {
+            return command.get();
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Supplier<T> counted = QueryMetricsConfig.inCurrentRequest(command);
+        Runnable task = () -> {
+            try {
+                result.complete(counted.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+        // Enqueue under the map's lock for this game, so that eviction cannot remove a mailbox in between
+        mailboxes.compute(gameId, (id, mailbox) -> {
+            Mailbox target = mailbox != null ? mailbox : new Mailbox(id);
+            target.enqueue(task);
+            return target;
+        });
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a game command", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Removes mailboxes that have been empty for longer than the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${wumpus.session-cache.mailbox-idle-timeout:1m}")
+    public void evictIdleMailboxes() {
+        long cutoff = System.nanoTime() - properties.getMailboxIdleTimeout().toNanos();
+        int evicted = 0;
+        for (UUID gameId : mailboxes.keySet()) {
+            if (mailboxes.computeIfPresent(gameId, (id, mailbox) -> mailbox.isIdleSince(cutoff) ? null : mailbox)
+                    == null) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle game mailboxes", evicted);
+        }
+    }
+
+    /**
+     * @return The number of games with a mailbox
+     */
+    public int size() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Stops the mailbox threads once queued commands have finished.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+
+    /**
+     * The queued commands of one game, drained by at most one thread at a time.
+     */
+    private final class Mailbox {
+
+        private final UUID gameId;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private boolean draining;
+        private long lastUsed = System.nanoTime();
+
+        private Mailbox(UUID gameId) {
+            this.gameId = gameId;
+        }
+
+        private synchronized void enqueue(Runnable task) {
+            queue.add(task);
+            lastUsed = System.nanoTime();
+            if (!draining) {
+                draining = true;
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            DRAINING.set(gameId);
+            try {
+                while (true) {
+                    Runnable task;
+                    synchronized (this) {
+                        task = queue.poll();
+                        if (task == null) {
+                            draining = false;
+                            lastUsed = System.nanoTime();
+                            return;
+                        }
+                    }
+                    task.run();
+                }
+            } finally {
+                DRAINING.remove();
+            }
+        }
+
+        private synchronized boolean isIdleSince(long cutoff) {
+            return !draining && queue.isEmpty() && lastUsed - cutoff < 0;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.scarter4work.wumpus2.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.scarter4work.wumpus2.engine.PlayerPolicy;
+import org.scarter4work.wumpus2.model.Game;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Game metrics: timers for game commands, state assembly and the choices of
+ * AI players, and counters for finished games and bat teleports. Published as "wumpus.*" meters, so they
+ * show up on the Actuator metrics and Prometheus endpoints.
+ */
+@Component
+public class GameMetrics {
+
+    /**
+     * Why a game ended.
+     */
+    public enum Cause {
+        WUMPUS, PIT, ARROWS, QUIT
+    }
+
+    /**
+     * The timed game commands.
+     */
+    public enum Command {
+        CREATE, MOVE, SHOOT, BATCH, AUTOPLAY
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Command, Timer> commandTimers = new EnumMap<>(Command.class);
+    private final Map<PlayerPolicy, Timer> decisionTimers = new EnumMap<>(PlayerPolicy.class);
+    private final Timer stateAssemblyTimer;
+    private final DistributionSummary searchIterations;
+    private final Counter batTeleports;
+
+    @Autowired
+    public GameMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Command command : Command.values()) {
+            commandTimers.put(command, Timer.builder("wumpus.game.command")
+                    .description("Time to run a game command, including its transaction")
+                    .tag("command", tagValue(command))
+                    .register(meterRegistry));
+        }
+        for (PlayerPolicy policy : PlayerPolicy.values()) {
+            decisionTimers.put(policy, Timer.builder("wumpus.ai.decision")
+                    .description("Time for an AI player to choose its next action")
+                    .tag("policy", tagValue(policy))
+                    .register(meterRegistry));
+        }
+        this.searchIterations = DistributionSummary.builder("wumpus.ai.search.iterations")
+                .description("Simulated games an AI player played to choose an action it had to search for")
+                .register(meterRegistry);
+        this.stateAssemblyTimer = Timer.builder("wumpus.game.state.assembly")
+                .description("Time to assemble the game state returned to the player")
+                .register(meterRegistry);
+        this.batTeleports = Counter.builder("wumpus.game.bat.teleports")
+                .description("Players carried off to a random room by super bats")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a game command and records how long it took, whether or not it succeeds.
+     *
+     * @param command The command
+     * @param action The command to run
+     * @return The result of the command
+     */
+    public <T> T timeCommand(Command command, Supplier<T> action) {
+        return commandTimers.get(command).record(action);
+    }
+
+    /**
+     * Times a reactive game command from subscription until it completes,
+     * fails or is cancelled.
+     *
+     * @param command The command
+     * @param action The command to run
+     * @return The command, timed
+     */
+    public <T> Mono<T> timeCommand(Command command, Mono<T> action) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return action.doFinally(signal -> sample.stop(commandTimers.get(command)));
+        });
+    }
+
+    /**
+     * Lets an AI player choose its next action and records how long it took.
+     *
+     * @param policy The player's policy
+     * @param decision The choice to run
+     * @return The action chosen
+     */
+    public <T> T timeDecision(PlayerPolicy policy, Supplier<T> decision) {
+        return decisionTimers.get(policy).record(decision);
+    }
+
+    /**
+     * Records the simulated games an AI player played to choose an action.
+     *
+     * @param iterations The simulated games
+     */
+    public void searched(int iterations) {
+        searchIterations.record(iterations);
+    }
+
+    /**
+     * Assembles a game state and records how long it took.
+     *
+     * @param assembly The state assembly to run
+     * @return The assembled state
+     */
+    public <T> T timeStateAssembly(Supplier<T> assembly) {
+        return stateAssemblyTimer.record(assembly);
+    }
+
+    /**
+     * Counts a finished game by its outcome and cause.
+     *
+     * @param status The final status, WON or LOST
+     * @param cause Why the game ended
+     */
+    public void gameFinished(Game.GameStatus status, Cause cause) {
+        Counter.builder("wumpus.games.finished")
+                .description("Finished games by outcome and cause")
+                .tag("outcome", tagValue(status))
+                .tag("cause", tagValue(cause))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Counts a game command that hit a concurrent update of its game.
+     *
+     * @param retried Whether the command is retried, false if it gave up
+     */
+    public void conflict(boolean retried) {
+        Counter.builder("wumpus.game.conflicts")
+                .description("Game commands that hit a concurrent update of their game")
+                .tag("result", retried ? "retried" : "rejected")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Counts a bat teleport.
+     */
+    public void batTeleport() {
+        batTeleports.increment();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,19 @@
+package org.scarter4work.wumpus2.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+/**
+ * Thrown when a request names a game that does not exist. Answered with 404
+ * Not Found rather than with an empty result, which would look like a game
+ * with nothing to show.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class GameNotFoundException extends IllegalArgumentException {
+
+    public GameNotFoundException(UUID gameId) {
+        super("Game not found: " + gameId);
+    }
+}
@@ -1,18 +1,31 @@
 package org.scarter4work.wumpus2.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.engine.CaveContents;
+import org.scarter4work.wumpus2.engine.SimulatedGame;
+import org.scarter4work.wumpus2.model.CaveGraph;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Direction;
 import org.scarter4work.wumpus2.model.Game;
-import org.scarter4work.wumpus2.model.GameRoom;
+import org.scarter4work.wumpus2.model.GameCave;
 import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.model.RoomMask;
 import org.scarter4work.wumpus2.repository.GameRepository;
-import org.scarter4work.wumpus2.repository.GameRoomRepository;
-import org.scarter4work.wumpus2.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import org.scarter4work.wumpus2.model.GameVisitedRoom;
 import org.scarter4work.wumpus2.repository.GameVisitedRoomRepository;
 import java.util.stream.Collectors;
@@ -24,61 +37,136 @@ import java.util.stream.Collectors;
 @Slf4j
 public class GameService {
 
+    /**
+     * Number of rooms along each side of the grid cave.
+     */
+    private static final int GRID_WIDTH = 5;
+
+    /**
+     * Attempts at a game command before a concurrent update is reported as a conflict.
+     */
+    static final int MAX_COMMAND_ATTEMPTS = 3;
+
+    /**
+     * Most commands accepted in one batch.
+     */
+    public static final int MAX_BATCH_COMMANDS = 100;
+
     private final GameRepository gameRepository;
-    private final RoomRepository roomRepository;
-    private final GameRoomRepository gameRoomRepository;
     private final GameVisitedRoomRepository gameVisitedRoomRepository;
+    private final GameSessionCache gameSessionCache;
+    private final CaveService caveService;
+    private final GameMetrics gameMetrics;
+    private final GameMailboxes gameMailboxes;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public GameService(GameRepository gameRepository, RoomRepository roomRepository,
-                       GameRoomRepository gameRoomRepository, GameVisitedRoomRepository gameVisitedRoomRepository) {
+    public GameService(GameRepository gameRepository,
+                       GameVisitedRoomRepository gameVisitedRoomRepository,
+                       GameSessionCache gameSessionCache, CaveService caveService,
+                       GameMetrics gameMetrics, GameMailboxes gameMailboxes,
+                       PlatformTransactionManager transactionManager,
+                       ApplicationEventPublisher eventPublisher) {
         this.gameRepository = gameRepository;
-        this.roomRepository = roomRepository;
-        this.gameRoomRepository = gameRoomRepository;
         this.gameVisitedRoomRepository = gameVisitedRoomRepository;
+        this.gameSessionCache = gameSessionCache;
+        this.caveService = caveService;
+        this.gameMetrics = gameMetrics;
+        this.gameMailboxes = gameMailboxes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Loads the grid cave template at startup. Storing a template needs its own
+     * transaction, so it must not happen for the first time inside a request that
+     * already holds a connection, or concurrent first games can exhaust the pool.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCaveTemplate() {
+        getCaveTemplate();
     }
 
     /**
      * Creates a new game with a randomly generated cave system.
+     * The cave uses the shared grid template and fits in the game's hazard and
+     * visited room masks, so only the game row is written.
      *
      * @param playerName The name of the player
      * @return The newly created game
      */
     @Transactional
     public Game createNewGame(String playerName) {
-        // Create a set of rooms for the cave system
-        List<Room> rooms = createCaveSystem();
+        UUID gameId = UUID.randomUUID();
+
+        // Build the rooms of the 5x5 grid for this game
+        CaveTemplate template = getCaveTemplate();
+        List<Room> rooms = template.createRooms(gameId);
+        Game game = newGame(gameId, playerName, template, rooms);
+
+        if (game.isMasked()) {
+            gameRepository.insertNewGame(game, null, null);
+        } else {
+            // Mark the starting room as visited
+            GameVisitedRoom firstVisit = GameVisitedRoom.createVisitedRoom(game.getId(), game.getCurrentRoomId());
+            firstVisit.setId(UUID.randomUUID());
+            gameRepository.insertNewGame(game, GameCave.fromRooms(gameId, template.getId(), rooms), firstVisit);
+        }
+
+        // The cave is fully known here, so cache it on commit instead of reloading it on the first move
+        gameSessionCache.put(game, rooms);
+
+        return game;
+    }
+
+    /**
+     * @return The cave template new games are built from
+     */
+    CaveTemplate getCaveTemplate() {
+        return caveService.getTemplate(CaveTemplate.Layout.GRID, GRID_WIDTH * GRID_WIDTH);
+    }
+
+    /**
+     * Builds a new game on the given rooms: the game engine places hazards
+     * randomly and starts the player in a safe room. Hazards and the first visit are kept in the
+     * game's masks when the cave fits in them. Package-private so that the
+     * reactive API creates games the same way.
+     *
+     * @param gameId The ID of the game
+     * @param playerName The name of the player
+     * @param template The cave template the rooms were built from
+     * @param rooms The rooms of the game's cave
+     * @return The game, not yet stored
+     */
+    Game newGame(UUID gameId, String playerName, CaveTemplate template, List<Room> rooms) {
+        // Place hazards randomly and choose a safe starting room
+        SimulatedGame simulation = new SimulatedGame(ThreadLocalRandom.current()).deal(template.topology());
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            room.setHasWumpus(simulation.has(i, CaveContents.WUMPUS));
+            room.setHasPit(simulation.has(i, CaveContents.PIT));
+            room.setHasBats(simulation.has(i, CaveContents.BATS));
+        }
+        Room startingRoom = rooms.get(simulation.getCurrentRoom());
 
-        // Create the game first to get an ID
         Game game = new Game();
+        game.setId(gameId);
         game.setPlayerName(playerName);
         game.setStartTime(LocalDateTime.now());
         game.setStatus(Game.GameStatus.IN_PROGRESS);
-        game.setArrowsRemaining(5);
-        
-        // Temporarily set to first room - will be updated after hazard placement
-        game.setCurrentRoomId(rooms.get(0).getId());
-        game = gameRepository.save(game);
-
-        // Associate all rooms with the game
-        for (Room room : rooms) {
-            GameRoom gameRoom = GameRoom.createGameRoom(game.getId(), room.getId());
-            gameRoomRepository.save(gameRoom);
-        }
-
-        // Place hazards randomly
-        placeRandomHazards(rooms);
-
-        // Now choose a safe starting room
-        Room startingRoom = findSafeStartingRoom(rooms);
-        
-        // Update the game with the safe starting room
+        game.setArrowsRemaining(simulation.getArrowsRemaining());
         game.setCurrentRoomId(startingRoom.getId());
-        game = gameRepository.save(game);
 
-        // Mark the starting room as visited
-        markRoomAsVisited(game.getId(), startingRoom.getId());
+        game.setCaveTemplateId(template.getId());
+        game.setVersion(0L);
 
+        if (rooms.size() <= RoomMask.MAX_ROOMS) {
+            game.setWumpusMask(RoomMask.of(rooms, Room::isHasWumpus));
+            game.setPitMask(RoomMask.of(rooms, Room::isHasPit));
+            game.setBatMask(RoomMask.of(rooms, Room::isHasBats));
+            game.setVisitedMask(RoomMask.of(rooms, room -> room == startingRoom));
+        }
         return game;
     }
 
@@ -89,7 +177,9 @@ public class GameService {
      * @return The game if found, otherwise null
      */
     public Game getGame(UUID gameId) {
-        return gameRepository.findById(gameId).orElse(null);
+        return gameSessionCache.find(gameId)
+                .map(GameSession::getGame)
+                .orElse(null);
     }
 
     /**
@@ -120,46 +210,97 @@ public class GameService {
      * @return The updated game state
      * @throws IllegalArgumentException if the move is invalid
      */
-    @Transactional
     public Game movePlayer(UUID gameId, String direction) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new IllegalArgumentException("Game not found"));
+        return runCommand(gameId, () -> {
+            GameSession session = gameSessionCache.get(gameId);
+            CaveGraph cave = gameSessionCache.getCave(session);
+
+            session.lock();
+            try {
+                return movePlayer(session, cave, direction);
+            } finally {
+                session.unlock();
+            }
+        });
+    }
 
-        if (game.getStatus() != Game.GameStatus.IN_PROGRESS) {
-            throw new IllegalStateException("Game is not in progress");
-        }
+    /**
+     * Moves the player to an adjacent room and returns the resulting state,
+     * assembled from the same session and cave as the move.
+     *
+     * @param gameId The ID of the game
+     * @param direction The direction to move (north, east, south, west)
+     * @return The game state after the move
+     * @throws IllegalArgumentException if the move is invalid
+     */
+    public GameState movePlayerAndGetState(UUID gameId, String direction) {
+        return runCommand(gameId, () -> {
+            GameSession session = gameSessionCache.get(gameId);
+            CaveGraph cave = gameSessionCache.getCave(session);
+
+            session.lock();
+            try {
+                return assembleState(session, cave, movePlayer(session, cave, direction));
+            } finally {
+                session.unlock();
+            }
+        });
+    }
 
-        Room currentRoom = roomRepository.findById(game.getCurrentRoomId())
-                .orElseThrow(() -> new IllegalStateException("Current room not found"));
+    private Game movePlayer(GameSession session, CaveGraph cave, String direction) {
+        Game previous = session.getGame();
+        Game game = GameSession.copyOf(previous);
 
-        UUID nextRoomId = switch (direction.toLowerCase()) {
-            case "north" -> currentRoom.getNorthRoomId();
-            case "east" -> currentRoom.getEastRoomId();
-            case "south" -> currentRoom.getSouthRoomId();
-            case "west" -> currentRoom.getWestRoomId();
-            default -> throw new IllegalArgumentException("Invalid direction");
-        };
+        GameMetrics.Cause cause = applyMove(game, cave, direction);
 
-        log.info("Moving player {} to room {}", direction.toLowerCase(), nextRoomId);
+        // Games without a visited mask record visits as rows
+        if (game.getVisitedMask() == null) {
+            markRoomAsVisited(game);
+        }
 
-        // Determine the next room based on the direction
-        if (nextRoomId == null) {
-            throw new IllegalArgumentException("Cannot move in that direction");
+        Game committed = gameSessionCache.commit(session, game, cause != null);
+        if (cause != null) {
+            gameMetrics.gameFinished(committed.getStatus(), cause);
         }
+        publishChange(GameEvent.Type.MOVED, session, cave, previous, committed);
+        return committed;
+    }
 
-        Room nextRoom = roomRepository.findById(nextRoomId)
-                .orElseThrow(() -> new IllegalStateException("Next room not found"));
+    /**
+     * Moves the player of a game to an adjacent room, resolves the hazards of
+     * the room they end up in and marks it visited in the game's visited mask,
+     * if it has one. The rules are those of the {@link SimulatedGame} engine.
+     * Package-private so that the reactive API applies the same rules.
+     *
+     * @param game The game to update
+     * @param cave The cave graph of the game
+     * @param direction The direction to move (north, east, south, west)
+     * @return Why the game ended, or null if it is still in progress
+     * @throws IllegalArgumentException if the move is invalid
+     */
+    GameMetrics.Cause applyMove(Game game, CaveGraph cave, String direction) {
+        if (game.getStatus() != Game.GameStatus.IN_PROGRESS) {
+            throw new IllegalStateException("Game is not in progress");
+        }
 
-        // Update the player's current room
-        game.setCurrentRoomId(nextRoom.getId());
+        SimulatedGame simulation = simulate(game, cave);
+        int move = Direction.fromString(direction).ordinal();
 
-        // Check for hazards in the new room
-        checkForHazards(game, nextRoom);
+        int nextRoom = simulation.neighbour(move);
+        log.info("Moving player {} to room {}", direction.toLowerCase(),
+                nextRoom == CaveGraph.NO_ROOM ? null : cave.roomId(nextRoom));
 
-        // Mark the new room as visited
-        markRoomAsVisited(gameId, game.getCurrentRoomId());
+        SimulatedGame.Outcome outcome = simulation.move(move);
+        for (int i = 0; i < simulation.getBatFlights(); i++) {
+            gameMetrics.batTeleport();
+        }
 
-        return gameRepository.save(game);
+        // Update the player's current room and mark it as visited
+        game.setCurrentRoomId(cave.roomId(simulation.getCurrentRoom()));
+        if (game.getVisitedMask() != null) {
+            game.setVisitedMask(RoomMask.add(game.getVisitedMask(), simulation.getCurrentRoom()));
+        }
+        return endIfOver(game, outcome);
     }
 
     /**
@@ -170,53 +311,238 @@ public class GameService {
      * @return The updated game state
      * @throws IllegalArgumentException if the shot is invalid
      */
-    @Transactional
     public Game shootArrow(UUID gameId, String direction) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new IllegalArgumentException("Game not found"));
+        return runCommand(gameId, () -> {
+            GameSession session = gameSessionCache.get(gameId);
+            CaveGraph cave = gameSessionCache.getCave(session);
+
+            session.lock();
+            try {
+                return shootArrow(session, cave, direction);
+            } finally {
+                session.unlock();
+            }
+        });
+    }
 
-        if (game.getStatus() != Game.GameStatus.IN_PROGRESS) {
-            throw new IllegalStateException("Game is not in progress");
+    /**
+     * Shoots an arrow in the specified direction and returns the resulting
+     * state, assembled from the same session and cave as the shot.
+     *
+     * @param gameId The ID of the game
+     * @param direction The direction to shoot (north, east, south, west)
+     * @return The game state after the shot
+     * @throws IllegalArgumentException if the shot is invalid
+     */
+    public GameState shootArrowAndGetState(UUID gameId, String direction) {
+        return runCommand(gameId, () -> {
+            GameSession session = gameSessionCache.get(gameId);
+            CaveGraph cave = gameSessionCache.getCave(session);
+
+            session.lock();
+            try {
+                return assembleState(session, cave, shootArrow(session, cave, direction));
+            } finally {
+                session.unlock();
+            }
+        });
+    }
+
+    /**
+     * Gets the current state of a game in one pass over its session and cave.
+     * Commands replace the cached game rather than change it, so this needs no lock.
+     *
+     * @param gameId The ID of the game
+     * @return The game state
+     * @throws GameNotFoundException if the game does not exist
+     */
+    public GameState getGameState(UUID gameId) {
+        GameSession session = gameSessionCache.get(gameId);
+        CaveGraph cave = gameSessionCache.getCave(session);
+
+        return assembleState(session, cave, session.getGame());
+    }
+
+    /**
+     * Gets what changed in a game since the version a client holds: nothing
+     * if it holds the current version, else the whole state.
+     *
+     * @param gameId The ID of the game
+     * @param knownVersion The version the client holds
+     * @return The compact state
+     * @throws GameNotFoundException if the game does not exist
+     */
+    public GameStateDelta getGameStateDelta(UUID gameId, long knownVersion) {
+        GameSession session = gameSessionCache.get(gameId);
+        CaveGraph cave = gameSessionCache.getCave(session);
+        Game game = session.getGame();
+
+        if (!session.isDirty() && game.getVersion() != null && game.getVersion() == knownVersion) {
+            return GameStateDelta.unchanged(game.getVersion());
         }
+        return GameStateDelta.full(assembleState(session, cave, game), handedOutVersion(session, game));
+    }
+
+    /**
+     * Gets what the player may know about a game. The view is derived once per
+     * change to the game and then served from its session.
+     *
+     * @param gameId The ID of the game
+     * @return The player's view of the game
+     * @throws GameNotFoundException if the game does not exist
+     */
+    public PlayerView getPlayerView(UUID gameId) {
+        GameSession session = gameSessionCache.get(gameId);
+        CaveGraph cave = gameSessionCache.getCave(session);
+        Game game = session.getGame();
+
+        return session.getPlayerView(game, () -> assemblePlayerView(game, handedOutVersion(session, game), cave,
+                session.getRooms(), visitedRooms(game, cave)));
+    }
 
-        if (game.getArrowsRemaining() <= 0) {
-            throw new IllegalStateException("No arrows remaining");
+    /**
+     * Moves the player to an adjacent room and returns what changed since the
+     * version the client holds.
+     *
+     * @param gameId The ID of the game
+     * @param direction The direction to move (north, east, south, west)
+     * @param knownVersion The version the client holds
+     * @return The compact state after the move
+     * @throws IllegalArgumentException if the move is invalid
+     */
+    public GameStateDelta movePlayerAndGetDelta(UUID gameId, String direction, long knownVersion) {
+        return runCommand(gameId, () -> {
+            GameSession session = gameSessionCache.get(gameId);
+            CaveGraph cave = gameSessionCache.getCave(session);
+
+            session.lock();
+            try {
+                Game previous = session.getGame();
+                boolean wasDirty = session.isDirty();
+                Game committed = movePlayer(session, cave, direction);
+                return delta(GameEvent.Type.MOVED, session, cave, previous, wasDirty, committed, knownVersion);
+            } finally {
+                session.unlock();
+            }
+        });
+    }
+
+    /**
+     * Shoots an arrow in the specified direction and returns what changed
+     * since the version the client holds.
+     *
+     * @param gameId The ID of the game
+     * @param direction The direction to shoot (north, east, south, west)
+     * @param knownVersion The version the client holds
+     * @return The compact state after the shot
+     * @throws IllegalArgumentException if the shot is invalid
+     */
+    public GameStateDelta shootArrowAndGetDelta(UUID gameId, String direction, long knownVersion) {
+        return runCommand(gameId, () -> {
+            GameSession session = gameSessionCache.get(gameId);
+            CaveGraph cave = gameSessionCache.getCave(session);
+
+            session.lock();
+            try {
+                Game previous = session.getGame();
+                boolean wasDirty = session.isDirty();
+                Game committed = shootArrow(session, cave, direction);
+                return delta(GameEvent.Type.SHOT, session, cave, previous, wasDirty, committed, knownVersion);
+            } finally {
+                session.unlock();
+            }
+        });
+    }
+
+    /**
+     * Describes a command's outcome to a client holding a given version. A
+     * version only identifies a state once it has been written: with
+     * write-behind, several states share a version until the next flush, so
+     * such states get the whole state and no version.
+     */
+    private GameStateDelta delta(GameEvent.Type type, GameSession session, CaveGraph cave, Game previous,
+                                 boolean wasDirty, Game committed, long knownVersion) {
+        Long version = handedOutVersion(session, committed);
+        boolean knowsPrevious = !wasDirty && previous.getVersion() != null && previous.getVersion() == knownVersion;
+        if (version == null || !knowsPrevious || version.equals(previous.getVersion())) {
+            return GameStateDelta.full(assembleState(session, cave, committed), version);
         }
 
-        Room currentRoom = roomRepository.findById(game.getCurrentRoomId())
-                .orElseThrow(() -> new IllegalStateException("Current room not found"));
+        GameEvent change = change(type, previous, committed, cave, session.getRooms());
+        String visitedRooms = change.roomId() != null
+                ? GameStateDelta.visitedBitmap(session.getRooms(), visitedRooms(committed, cave))
+                : null;
+        return GameStateDelta.change(change, visitedRooms);
+    }
 
-        UUID targetRoomId = switch (direction.toLowerCase()) {
-            case "north" -> currentRoom.getNorthRoomId();
-            case "east" -> currentRoom.getEastRoomId();
-            case "south" -> currentRoom.getSouthRoomId();
-            case "west" -> currentRoom.getWestRoomId();
-            default -> throw new IllegalArgumentException("Invalid direction");
-        };
+    private static Long handedOutVersion(GameSession session, Game game) {
+        return session.isDirty() ? null : game.getVersion();
+    }
+
+    private Game shootArrow(GameSession session, CaveGraph cave, String direction) {
+        Game previous = session.getGame();
+        Game game = GameSession.copyOf(previous);
 
-        // Determine the target room based on the direction
-        if (targetRoomId == null) {
-            throw new IllegalArgumentException("Cannot shoot in that direction");
+        GameMetrics.Cause cause = applyShot(game, cave, direction);
+
+        Game committed = gameSessionCache.commit(session, game, cause != null);
+        if (cause != null) {
+            gameMetrics.gameFinished(committed.getStatus(), cause);
         }
+        publishChange(GameEvent.Type.SHOT, session, cave, previous, committed);
+        return committed;
+    }
 
-        // Decrease arrow count
-        game.setArrowsRemaining(game.getArrowsRemaining() - 1);
+    /**
+     * Shoots an arrow of a game into an adjacent room, by the rules of the
+     * {@link SimulatedGame} engine. Package-private so that the reactive API
+     * applies the same rules.
+     *
+     * @param game The game to update
+     * @param cave The cave graph of the game
+     * @param direction The direction to shoot (north, east, south, west)
+     * @return Why the game ended, or null if it is still in progress
+     * @throws IllegalArgumentException if the shot is invalid
+     */
+    GameMetrics.Cause applyShot(Game game, CaveGraph cave, String direction) {
+        if (game.getStatus() != Game.GameStatus.IN_PROGRESS) {
+            throw new IllegalStateException("Game is not in progress");
+        }
 
-        // Check if the arrow hit the Wumpus
-        Room targetRoom = roomRepository.findById(targetRoomId)
-                .orElseThrow(() -> new IllegalStateException("Target room not found"));
+        SimulatedGame simulation = simulate(game, cave);
+        SimulatedGame.Outcome outcome = simulation.shoot(Direction.fromString(direction).ordinal());
 
-        if (targetRoom.isHasWumpus()) {
-            // Wumpus is killed, player wins
-            game.setStatus(Game.GameStatus.WON);
-            game.setEndTime(LocalDateTime.now());
-        } else if (game.getArrowsRemaining() == 0) {
-            // Out of arrows, player loses
-            game.setStatus(Game.GameStatus.LOST);
+        game.setArrowsRemaining(simulation.getArrowsRemaining());
+        return endIfOver(game, outcome);
+    }
+
+    /**
+     * Loads the position of a game into the game engine.
+     */
+    private SimulatedGame simulate(Game game, CaveGraph cave) {
+        return cave.load(new SimulatedGame(ThreadLocalRandom.current()), currentRoomIndex(game, cave),
+                game.getArrowsRemaining());
+    }
+
+    /**
+     * Ends a game if the engine says it is over.
+     *
+     * @param game The game
+     * @param outcome How the game stands after a step
+     * @return Why the game ended, or null if it is still in progress
+     */
+    private static GameMetrics.Cause endIfOver(Game game, SimulatedGame.Outcome outcome) {
+        GameMetrics.Cause cause = switch (outcome) {
+            case IN_PROGRESS -> null;
+            case SHOT_WUMPUS, EATEN_BY_WUMPUS -> GameMetrics.Cause.WUMPUS;
+            case FELL_INTO_PIT -> GameMetrics.Cause.PIT;
+            case OUT_OF_ARROWS -> GameMetrics.Cause.ARROWS;
+        };
+        if (cause != null) {
+            game.setStatus(outcome.isWon() ? Game.GameStatus.WON : Game.GameStatus.LOST);
             game.setEndTime(LocalDateTime.now());
         }
-
-        return gameRepository.save(game);
+        return cause;
     }
 
     /**
@@ -225,35 +551,227 @@ public class GameService {
      * @param gameId The ID of the game to end
      * @return The updated game
      */
-    @Transactional
     public Game endGame(UUID gameId) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new IllegalArgumentException("Game not found"));
+        return runCommand(gameId, () -> {
+            GameSession session = gameSessionCache.get(gameId);
+
+            session.lock();
+            try {
+                Game previous = session.getGame();
+                Game game = GameSession.copyOf(previous);
+
+                if (game.getStatus() == Game.GameStatus.IN_PROGRESS) {
+                    game.setStatus(Game.GameStatus.LOST);
+                    game.setEndTime(LocalDateTime.now());
+                    Game committed = gameSessionCache.commit(session, game, true);
+                    gameMetrics.gameFinished(committed.getStatus(), GameMetrics.Cause.QUIT);
+                    eventPublisher.publishEvent(
+                            GameEvent.change(GameEvent.Type.ENDED, previous, committed, null, null));
+                    return committed;
+                }
 
-        if (game.getStatus() == Game.GameStatus.IN_PROGRESS) {
-            game.setStatus(Game.GameStatus.LOST);
-            game.setEndTime(LocalDateTime.now());
-            return gameRepository.save(game);
+                return session.getGame();
+            } finally {
+                session.unlock();
+            }
+        });
+    }
+
+    /**
+     * Runs a sequence of moves and shots as one command: in one transaction,
+     * against one copy of the game, written once at the end. Commands run in
+     * order until one is rejected or the game ends; the commands applied
+     * until then are kept.
+     *
+     * @param gameId The ID of the game
+     * @param commands The commands, in order
+     * @return The result of each command that was run and the final game state
+     * @throws IllegalArgumentException if there are too many commands
+     */
+    public CommandBatchResult runCommands(UUID gameId, List<GameCommand> commands) {
+        if (commands.size() > MAX_BATCH_COMMANDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_COMMANDS + " commands per batch");
         }
 
-        return game;
+        return runCommand(gameId, () -> {
+            GameSession session = gameSessionCache.get(gameId);
+            CaveGraph cave = gameSessionCache.getCave(session);
+
+            session.lock();
+            try {
+                Game previous = session.getGame();
+                Game game = GameSession.copyOf(previous);
+
+                AppliedCommands applied = applyCommands(game, cave, commands);
+                if (applied.steps().isEmpty()) {
+                    return new CommandBatchResult(commandResults(applied, previous, previous.getVersion(), cave,
+                            session.getRooms()), assembleState(session, cave, previous));
+                }
+
+                // Games without a visited mask record visits as rows
+                if (game.getVisitedMask() == null) {
+                    applied.steps().forEach(this::markRoomAsVisited);
+                }
+
+                Game committed = gameSessionCache.commit(session, game, applied.cause() != null);
+                if (applied.cause() != null) {
+                    gameMetrics.gameFinished(committed.getStatus(), applied.cause());
+                }
+                List<CommandResult> results = commandResults(applied, previous, committed.getVersion(), cave,
+                        session.getRooms());
+                results.stream()
+                        .filter(CommandResult::isApplied)
+                        .forEach(result -> eventPublisher.publishEvent(result.change()));
+                return new CommandBatchResult(results, assembleState(session, cave, committed));
+            } finally {
+                session.unlock();
+            }
+        });
     }
 
     /**
-     * Gets all rooms associated with a game.
+     * Applies commands to a game in order, until one is rejected or the game
+     * ends. Package-private so that the reactive API applies the same rules.
+     *
+     * @param game The game to update
+     * @param cave The cave graph of the game
+     * @param commands The commands, in order
+     * @return The game after each applied command, and why the batch stopped
+     */
+    AppliedCommands applyCommands(Game game, CaveGraph cave, List<GameCommand> commands) {
+        List<Game> steps = new ArrayList<>();
+        GameMetrics.Cause cause = null;
+        String error = null;
+
+        for (GameCommand command : commands) {
+            try {
+                cause = command.type() == GameCommand.Type.MOVE
+                        ? applyMove(game, cave, command.direction())
+                        : applyShot(game, cave, command.direction());
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                error = e.getMessage();
+                break;
+            }
+            steps.add(GameSession.copyOf(game));
+            if (cause != null) {
+                break;
+            }
+        }
+
+        return new AppliedCommands(commands, steps, cause, error);
+    }
+
+    /**
+     * The commands of a batch that were applied, as a copy of the game after each one.
+     *
+     * @param commands The commands of the batch
+     * @param steps The game after each applied command
+     * @param cause Why the game ended, or null if it is still in progress
+     * @param error Why the command after the last step was rejected, or null if none was
+     */
+    record AppliedCommands(List<GameCommand> commands, List<Game> steps, GameMetrics.Cause cause, String error) {
+    }
+
+    /**
+     * Describes each command of a batch that was run, as the change it made
+     * or the reason it was rejected.
+     *
+     * @param applied The applied commands
+     * @param previous The game before the batch
+     * @param version The version of the game after the batch
+     * @param cave The cave graph of the game
+     * @param rooms The rooms of the game, aligned with the cave graph's indices
+     * @return The result of each command that was run
+     */
+    List<CommandResult> commandResults(AppliedCommands applied, Game previous, Long version, CaveGraph cave,
+                                       List<Room> rooms) {
+        List<CommandResult> results = new ArrayList<>(applied.steps().size() + 1);
+        Game before = previous;
+        for (int i = 0; i < applied.steps().size(); i++) {
+            Game after = applied.steps().get(i);
+            after.setVersion(version);
+            GameCommand command = applied.commands().get(i);
+            results.add(new CommandResult(command, change(command.eventType(), before, after, cave, rooms), null));
+            before = after;
+        }
+        if (applied.error() != null) {
+            results.add(new CommandResult(applied.commands().get(applied.steps().size()), null, applied.error()));
+        }
+        return results;
+    }
+
+    /**
+     * Publishes what a command changed. Observers receive it once the
+     * command's transaction has committed, see {@link GameEventStream}.
+     */
+    private void publishChange(GameEvent.Type type, GameSession session, CaveGraph cave, Game previous,
+                               Game committed) {
+        eventPublisher.publishEvent(change(type, previous, committed, cave, session.getRooms()));
+    }
+
+    /**
+     * Describes what a command changed, including the room the player ended up in.
+     *
+     * @param type What happened
+     * @param previous The game before the command
+     * @param current The game after the command
+     * @param cave The cave graph of the game
+     * @param rooms The rooms of the game, aligned with the cave graph's indices
+     * @return The change
+     */
+    GameEvent change(GameEvent.Type type, Game previous, Game current, CaveGraph cave, List<Room> rooms) {
+        int currentRoom = currentRoomIndex(current, cave);
+        return GameEvent.change(type, previous, current, rooms.get(currentRoom), hazardInformation(cave, currentRoom));
+    }
+
+    /**
+     * Runs a game command in the game's mailbox, so that commands for one game
+     * run one after another on a single thread, each in its own transaction.
+     * If the game was updated concurrently by another instance, its stale
+     * session is discarded and the command is retried on a fresh read, up to
+     * {@link #MAX_COMMAND_ATTEMPTS} times. A command issued by another command of
+     * the same game joins its transaction and runs once, since that transaction
+     * cannot be retried from here. The game is looked up first, so that no
+     * mailbox is opened for a game that does not exist.
      *
      * @param gameId The ID of the game
-     * @return List of rooms in the game
+     * @param command The command
+     * @return The result of the command
+     * @throws GameNotFoundException if the game does not exist
+     * @throws GameConflictException if every attempt hit a concurrent update
      */
-    public List<Room> getRoomsForGame(UUID gameId) {
-        List<GameRoom> gameRooms = gameRoomRepository.findByGameId(gameId);
-        List<Room> rooms = new ArrayList<>();
+    private <T> T runCommand(UUID gameId, Supplier<T> command) {
+        gameSessionCache.get(gameId);
+        return gameMailboxes.execute(gameId, () -> runWithRetry(gameId, command));
+    }
 
-        for (GameRoom gameRoom : gameRooms) {
-            roomRepository.findById(gameRoom.getRoomId()).ifPresent(rooms::add);
+    private <T> T runWithRetry(UUID gameId, Supplier<T> command) {
+        boolean retryable = !TransactionSynchronizationManager.isActualTransactionActive();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> command.get());
+            } catch (OptimisticLockingFailureException e) {
+                gameSessionCache.discard(gameId);
+                if (!retryable || attempt >= MAX_COMMAND_ATTEMPTS) {
+                    gameMetrics.conflict(false);
+                    throw new GameConflictException("Game was updated concurrently, reload and try again", e);
+                }
+                gameMetrics.conflict(true);
+                log.debug("Retrying command on game {} after a concurrent update (attempt {})", gameId, attempt);
+            }
         }
+    }
 
-        return rooms;
+    /**
+     * Gets all rooms associated with a game.
+     *
+     * @param gameId The ID of the game
+     * @return List of rooms in the game
+     */
+    public List<Room> getRoomsForGame(UUID gameId) {
+        return gameSessionCache.find(gameId)
+                .map(session -> caveService.getRoomsForGame(session.getGame()))
+                .orElse(List.of());
     }
 
     /**
@@ -263,11 +781,10 @@ public class GameService {
      * @return The current room
      */
     public Room getCurrentRoom(UUID gameId) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new IllegalArgumentException("Game not found"));
+        GameSession session = gameSessionCache.get(gameId);
+        CaveGraph cave = gameSessionCache.getCave(session);
 
-        return roomRepository.findById(game.getCurrentRoomId())
-                .orElseThrow(() -> new IllegalStateException("Current room not found"));
+        return gameSessionCache.getRoom(session, currentRoomIndex(session.getGame(), cave));
     }
 
     /**
@@ -277,211 +794,138 @@ public class GameService {
      * @return Map of directions to room IDs
      */
     public Map<String, UUID> getAdjacentRooms(UUID gameId) {
-        Room currentRoom = getCurrentRoom(gameId);
+        GameSession session = gameSessionCache.get(gameId);
+        CaveGraph cave = gameSessionCache.getCave(session);
+        int currentRoom = currentRoomIndex(session.getGame(), cave);
         Map<String, UUID> adjacentRooms = new HashMap<>();
 
-        if (currentRoom.getNorthRoomId() != null) {
-            adjacentRooms.put("north", currentRoom.getNorthRoomId());
-        }
-
-        if (currentRoom.getEastRoomId() != null) {
-            adjacentRooms.put("east", currentRoom.getEastRoomId());
-        }
-
-        if (currentRoom.getSouthRoomId() != null) {
-            adjacentRooms.put("south", currentRoom.getSouthRoomId());
-        }
-
-        if (currentRoom.getWestRoomId() != null) {
-            adjacentRooms.put("west", currentRoom.getWestRoomId());
+        for (Direction direction : Direction.values()) {
+            int adjacentRoom = cave.neighbour(currentRoom, direction);
+            if (adjacentRoom != CaveGraph.NO_ROOM) {
+                adjacentRooms.put(direction.key(), cave.roomId(adjacentRoom));
+            }
         }
 
         return adjacentRooms;
     }
 
     /**
-     * Checks for hazards in a room and updates the game state accordingly.
+     * Assembles the state the player sees from a session and its cave.
      *
-     * @param game The game
-     * @param room The room to check for hazards
+     * @param session The game session
+     * @param cave The cave graph of the game
+     * @param game The game as of the state to assemble
+     * @return The game state
      */
-    private void checkForHazards(Game game, Room room) {
-        if (room.isHasWumpus()) {
-            // Player encountered the Wumpus and lost
-            game.setStatus(Game.GameStatus.LOST);
-            game.setEndTime(LocalDateTime.now());
-        } else if (room.isHasPit()) {
-            // Player fell into a pit and lost
-            game.setStatus(Game.GameStatus.LOST);
-            game.setEndTime(LocalDateTime.now());
-        } else if (room.isHasBats()) {
-            // Super bats transport the player to a random room
-            List<Room> allRooms = getRoomsForGame(game.getId());
-            if (!allRooms.isEmpty()) {
-                int randomIndex = new Random().nextInt(allRooms.size());
-                Room randomRoom = allRooms.get(randomIndex);
-                game.setCurrentRoomId(randomRoom.getId());
-
-                // Recursively check for hazards in the new room
-                checkForHazards(game, randomRoom);
-            }
-        }
+    private GameState assembleState(GameSession session, CaveGraph cave, Game game) {
+        return assembleState(game, cave, session.getRooms(), visitedRooms(game, cave));
     }
 
     /**
-     * Creates a cave system with interconnected rooms.
+     * Assembles the state the player sees from a game, its cave and its visited
+     * rooms. Package-private so that the reactive API assembles the same state.
      *
-     * @return List of rooms in the cave system
+     * @param game The game as of the state to assemble
+     * @param cave The cave graph of the game
+     * @param rooms The rooms of the game, aligned with the cave graph's indices
+     * @param visitedRooms The IDs of the rooms the player has visited
+     * @return The game state
      */
-    private List<Room> createCaveSystem() {
-        // Create 25 rooms for a 5x5 cave grid
-        List<Room> rooms = new ArrayList<>();
-        
-        // Create rooms with room numbers 1-25
-        for (int i = 1; i <= 25; i++) {
-            Room room = new Room();
-            room.setRoomNumber(i);
-            rooms.add(roomRepository.save(room));
-        }
+    GameState assembleState(Game game, CaveGraph cave, List<Room> rooms, Set<UUID> visitedRooms) {
+        return gameMetrics.timeStateAssembly(() -> {
+            int currentRoom = currentRoomIndex(game, cave);
+            return new GameState(game, rooms.get(currentRoom), hazardInformation(cave, currentRoom), visitedRooms,
+                    rooms);
+        });
+    }
 
-        // Connect the rooms in a 5x5 grid structure
+    /**
+     * Assembles what the player may know about a game. Package-private so that
+     * the reactive API assembles the same view.
+     *
+     * @param game The game as of the view to assemble
+     * @param version The version to hand out, or null if the game has none yet
+     * @param cave The cave graph of the game
+     * @param rooms The rooms of the game, aligned with the cave graph's indices
+     * @param visitedRooms The IDs of the rooms the player has visited
+     * @return The player's view
+     */
+    PlayerView assemblePlayerView(Game game, Long version, CaveGraph cave, List<Room> rooms, Set<UUID> visitedRooms) {
+        boolean over = game.getStatus() != Game.GameStatus.IN_PROGRESS;
+        List<PlayerView.RoomView> roomViews = new ArrayList<>(rooms.size());
         for (int i = 0; i < rooms.size(); i++) {
             Room room = rooms.get(i);
-            int roomNumber = i + 1; // Room numbers are 1-based
-            int row = (roomNumber - 1) / 5; // 0-based row (0-4)
-            int col = (roomNumber - 1) % 5; // 0-based column (0-4)
-
-            // Connect to adjacent rooms in the grid
-            // North connection (row - 1)
-            if (row > 0) {
-                int northRoomNumber = roomNumber - 5;
-                room.setNorthRoomId(rooms.get(northRoomNumber - 1).getId());
-            }
-
-            // South connection (row + 1)
-            if (row < 4) {
-                int southRoomNumber = roomNumber + 5;
-                room.setSouthRoomId(rooms.get(southRoomNumber - 1).getId());
-            }
-
-            // East connection (col + 1)
-            if (col < 4) {
-                int eastRoomNumber = roomNumber + 1;
-                room.setEastRoomId(rooms.get(eastRoomNumber - 1).getId());
-            }
-
-            // West connection (col - 1)
-            if (col > 0) {
-                int westRoomNumber = roomNumber - 1;
-                room.setWestRoomId(rooms.get(westRoomNumber - 1).getId());
-            }
-
-            roomRepository.save(room);
+            boolean visited = visitedRooms.contains(room.getId());
+            boolean revealed = visited || over;
+            roomViews.add(new PlayerView.RoomView(room.getId(), room.getRoomNumber(), room.getNorthRoomId(),
+                    room.getEastRoomId(), room.getSouthRoomId(), room.getWestRoomId(), visited,
+                    visited ? hazardInformation(cave, i) : null,
+                    revealed ? cave.hasWumpus(i) : null,
+                    revealed ? cave.hasPit(i) : null,
+                    revealed ? cave.hasBats(i) : null));
         }
+        roomViews.sort(Comparator.comparing(PlayerView.RoomView::roomNumber,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return new PlayerView(game.getId(), version, game.getStatus(), game.getArrowsRemaining(),
+                game.getCurrentRoomId(), List.copyOf(roomViews));
+    }
 
-        // Note: Hazards are placed separately via the API call after game creation
-        return rooms;
+    /**
+     * Resolves the player's current room to its index in the cave graph.
+     *
+     * @param game The game
+     * @param cave The cave graph of the game
+     * @return The index of the current room
+     */
+    private int currentRoomIndex(Game game, CaveGraph cave) {
+        int index = cave.indexOf(game.getCurrentRoomId());
+        if (index == CaveGraph.NO_ROOM) {
+            throw new IllegalStateException("Current room not found");
+        }
+        return index;
     }
 
     /**
-     * Places hazards (Wumpus, pits, bats) randomly in the cave system.
+     * Places hazards (Wumpus, pits, bats) randomly in the cave system, as the
+     * game engine does for new games. Package-private so the benchmarks can
+     * measure it in isolation.
      *
      * @param rooms List of rooms in the cave system
      */
-    private void placeRandomHazards(List<Room> rooms) {
+    void placeRandomHazards(List<Room> rooms) {
         if (rooms.isEmpty()) {
             throw new IllegalStateException("No rooms found for hazard placement");
         }
 
-        // Validate we have enough rooms for all hazards (1 wumpus + 3 pits + 3 bats = 7 minimum)
-        if (rooms.size() < 7) {
-            throw new IllegalStateException("Not enough rooms to place all hazards");
-        }
-
-        // Clear any existing hazards
-        rooms.forEach(room -> {
-            room.setHasWumpus(false);
-            room.setHasPit(false);
-            room.setHasBats(false);
-        });
+        byte[] contents = new byte[rooms.size()];
+        CaveContents.placeRandomHazards(contents, rooms.size(), ThreadLocalRandom.current());
+        CaveService.applyContents(rooms, contents);
 
-        // Create shuffled list of room indices to ensure random placement without conflicts
-        List<Integer> availableIndices = new ArrayList<>();
-        for (int i = 0; i < rooms.size(); i++) {
-            availableIndices.add(i);
-        }
-        Collections.shuffle(availableIndices);
-
-        int indexCounter = 0;
-
-        // Place 1 Wumpus
-        Room wumpusRoom = rooms.get(availableIndices.get(indexCounter++));
-        wumpusRoom.setHasWumpus(true);
-        log.info("Placed Wumpus in room {}", wumpusRoom.getRoomNumber());
-
-        // Place 3 pits
-        for (int i = 0; i < 3; i++) {
-            Room pitRoom = rooms.get(availableIndices.get(indexCounter++));
-            pitRoom.setHasPit(true);
-            log.info("Placed pit in room {}", pitRoom.getRoomNumber());
-        }
-
-        // Place 3 bat colonies
-        for (int i = 0; i < 3; i++) {
-            Room batRoom = rooms.get(availableIndices.get(indexCounter++));
-            batRoom.setHasBats(true);
-            log.info("Placed bats in room {}", batRoom.getRoomNumber());
-        }
-
-        // Save all rooms in a single batch operation
-        roomRepository.saveAll(rooms);
         log.info("Successfully placed all hazards randomly");
     }
 
     /**
-     * Finds a safe room (no hazards) to start the game.
+     * Finds a safe room (no hazards) to start the game, as the game engine
+     * does for new games. Package-private so the benchmarks can measure it in isolation.
      *
      * @param rooms List of rooms in the cave system
      * @return A safe room
      */
-    private Room findSafeStartingRoom(List<Room> rooms) {
-        Random random = new Random();
-        
-        // Find all safe rooms (no hazards)
-        List<Room> safeRooms = new ArrayList<>();
-        for (Room room : rooms) {
-            if (!room.isHasWumpus() && !room.isHasPit() && !room.isHasBats()) {
-                safeRooms.add(room);
-            }
-        }
-        
-        if (!safeRooms.isEmpty()) {
-            // Randomly select from safe rooms
-            return safeRooms.get(random.nextInt(safeRooms.size()));
-        }
-
-        // If no completely safe room is found (unlikely with 25 rooms and 7 hazards),
-        // find rooms without Wumpus or pit and randomly select one
-        List<Room> noDeadlyHazards = new ArrayList<>();
-        for (Room room : rooms) {
-            if (!room.isHasWumpus() && !room.isHasPit()) {
-                noDeadlyHazards.add(room);
-            }
-        }
-        
-        if (!noDeadlyHazards.isEmpty()) {
-            return noDeadlyHazards.get(random.nextInt(noDeadlyHazards.size()));
+    Room findSafeStartingRoom(List<Room> rooms) {
+        byte[] contents = new byte[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            contents[i] = CaveGraph.contents(rooms.get(i));
         }
-
-        // Extremely unlikely fallback - just return a random room
-        return rooms.get(random.nextInt(rooms.size()));
+        return rooms.get(CaveContents.findSafeRoom(contents, rooms.size(), ThreadLocalRandom.current()));
     }
 
     // Add helper methods
     /**
-     * Marks a room as visited for a game.
+     * Records a visit to the player's current room, for games without a visited mask.
      */
-    private void markRoomAsVisited(UUID gameId, UUID roomId) {
+    private void markRoomAsVisited(Game game) {
+        UUID gameId = game.getId();
+        UUID roomId = game.getCurrentRoomId();
         if (!gameVisitedRoomRepository.existsByGameIdAndRoomId(gameId, roomId)) {
             GameVisitedRoom visitedRoom = GameVisitedRoom.createVisitedRoom(gameId, roomId);
             gameVisitedRoomRepository.save(visitedRoom);
@@ -492,12 +936,48 @@ public class GameService {
      * Gets all visited room IDs for a game.
      */
     public Set<UUID> getVisitedRooms(UUID gameId) {
+        Optional<GameSession> session = gameSessionCache.find(gameId);
+        if (session.isPresent() && session.get().getGame().getVisitedMask() != null) {
+            return visitedRooms(session.get().getGame(), gameSessionCache.getCave(session.get()));
+        }
+
         return gameVisitedRoomRepository.findByGameId(gameId)
                 .stream()
                 .map(GameVisitedRoom::getRoomId)
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Gets the visited room IDs of a game, from its visited mask when it has one.
+     */
+    private Set<UUID> visitedRooms(Game game, CaveGraph cave) {
+        if (game.getVisitedMask() == null) {
+            return gameVisitedRoomRepository.findByGameId(game.getId())
+                    .stream()
+                    .map(GameVisitedRoom::getRoomId)
+                    .collect(Collectors.toSet());
+        }
+
+        return visitedRooms(game.getVisitedMask(), cave);
+    }
+
+    /**
+     * Gets the IDs of the rooms in a visited mask.
+     *
+     * @param visitedMask The visited mask of a game
+     * @param cave The cave graph of the game
+     * @return The IDs of the visited rooms
+     */
+    static Set<UUID> visitedRooms(long visitedMask, CaveGraph cave) {
+        Set<UUID> visitedRooms = new HashSet<>();
+        for (int i = 0; i < cave.size(); i++) {
+            if (RoomMask.contains(visitedMask, i)) {
+                visitedRooms.add(cave.roomId(i));
+            }
+        }
+        return visitedRooms;
+    }
+
     /**
      * Gets hazard information for adjacent rooms.
      * 
@@ -505,44 +985,18 @@ public class GameService {
      * @return Map of hazard types to their presence in adjacent rooms
      */
     public Map<String, Boolean> getHazardInformation(UUID gameId) {
-        Room currentRoom = getCurrentRoom(gameId);
+        GameSession session = gameSessionCache.get(gameId);
+        CaveGraph cave = gameSessionCache.getCave(session);
+        return hazardInformation(cave, currentRoomIndex(session.getGame(), cave));
+    }
+
+    private Map<String, Boolean> hazardInformation(CaveGraph cave, int currentRoom) {
         Map<String, Boolean> hazardInfo = new HashMap<>();
         
-        // Initialize all hazard indicators to false
-        hazardInfo.put("wumpusNearby", false);
-        hazardInfo.put("pitNearby", false);
-        hazardInfo.put("batsNearby", false);
-        
         // Check all adjacent rooms for hazards
-        List<UUID> adjacentRoomIds = new ArrayList<>();
-        if (currentRoom.getNorthRoomId() != null) {
-            adjacentRoomIds.add(currentRoom.getNorthRoomId());
-        }
-        if (currentRoom.getEastRoomId() != null) {
-            adjacentRoomIds.add(currentRoom.getEastRoomId());
-        }
-        if (currentRoom.getSouthRoomId() != null) {
-            adjacentRoomIds.add(currentRoom.getSouthRoomId());
-        }
-        if (currentRoom.getWestRoomId() != null) {
-            adjacentRoomIds.add(currentRoom.getWestRoomId());
-        }
-        
-        // Check each adjacent room for hazards
-        for (UUID roomId : adjacentRoomIds) {
-            Room adjacentRoom = roomRepository.findById(roomId).orElse(null);
-            if (adjacentRoom != null) {
-                if (adjacentRoom.isHasWumpus()) {
-                    hazardInfo.put("wumpusNearby", true);
-                }
-                if (adjacentRoom.isHasPit()) {
-                    hazardInfo.put("pitNearby", true);
-                }
-                if (adjacentRoom.isHasBats()) {
-                    hazardInfo.put("batsNearby", true);
-                }
-            }
-        }
+        hazardInfo.put("wumpusNearby", cave.wumpusNearby(currentRoom));
+        hazardInfo.put("pitNearby", cave.pitNearby(currentRoom));
+        hazardInfo.put("batsNearby", cave.batsNearby(currentRoom));
         
         return hazardInfo;
     }
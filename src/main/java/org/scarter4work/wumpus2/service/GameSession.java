@@ -0,0 +1,129 @@
+package org.scarter4work.wumpus2.service;
+
+import org.scarter4work.wumpus2.model.CaveGraph;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An active game held in memory: a detached copy of the Game plus its cave.
+ * Callers mutating the game must hold the session's lock.
+ */
+public class GameSession {
+
+    private final UUID gameId;
+    private volatile Game game;
+    private volatile List<Room> rooms;
+    private volatile CaveGraph cave;
+    private volatile boolean dirty;
+    private volatile DerivedView playerView;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    GameSession(Game game) {
+        this.gameId = game.getId();
+        this.game = game;
+    }
+
+    public UUID getGameId() {
+        return gameId;
+    }
+
+    /**
+     * @return The cached game; never attached to a persistence context
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    void setGame(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * @return The rooms of the cave, aligned with the indices of {@link #getCave()},
+     *         or null if the cave has not been loaded yet
+     */
+    List<Room> getRooms() {
+        return rooms;
+    }
+
+    CaveGraph getCave() {
+        return cave;
+    }
+
+    void setCave(List<Room> rooms, CaveGraph cave) {
+        this.rooms = rooms;
+        this.cave = cave;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    /**
+     * Gets the player's view of the session's current game, deriving it only if
+     * the game has changed since it was last derived. Games are replaced rather
+     * than mutated, so a view stays valid for as long as its game is current.
+     *
+     * @param game The current game
+     * @param derive Derives the view of that game
+     * @return The view
+     */
+    PlayerView getPlayerView(Game game, Supplier<PlayerView> derive) {
+        DerivedView derived = playerView;
+        if (derived == null || derived.game() != game) {
+            derived = new DerivedView(game, derive.get());
+            playerView = derived;
+        }
+        return derived.view();
+    }
+
+    /**
+     * Acquires the session's lock. Commands hold it while they write the game;
+     * it is a lock rather than a monitor so that a virtual thread blocking on
+     * the database while holding it does not pin its carrier thread.
+     */
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Creates a detached copy of a game so that cached state is never shared
+     * with a persistence context.
+     *
+     * @param game The game to copy
+     * @return A new Game with the same state
+     */
+    static Game copyOf(Game game) {
+        Game copy = new Game();
+        copy.setId(game.getId());
+        copy.setPlayerName(game.getPlayerName());
+        copy.setStartTime(game.getStartTime());
+        copy.setEndTime(game.getEndTime());
+        copy.setStatus(game.getStatus());
+        copy.setArrowsRemaining(game.getArrowsRemaining());
+        copy.setCurrentRoomId(game.getCurrentRoomId());
+        copy.setCaveTemplateId(game.getCaveTemplateId());
+        copy.setWumpusMask(game.getWumpusMask());
+        copy.setPitMask(game.getPitMask());
+        copy.setBatMask(game.getBatMask());
+        copy.setVisitedMask(game.getVisitedMask());
+        copy.setVersion(game.getVersion());
+        return copy;
+    }
+
+    private record DerivedView(Game game, PlayerView view) {
+    }
+}
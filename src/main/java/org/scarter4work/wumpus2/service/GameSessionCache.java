@@ -0,0 +1,349 @@
+package org.scarter4work.wumpus2.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.config.GameSessionProperties;
+import org.scarter4work.wumpus2.model.CaveGraph;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.repository.GameRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bounded cache of active game sessions keyed by game ID.
+ * Sessions are evicted by size and idle time. Status changes are always written
+ * through to the database; with write-behind enabled, changes to the current room
+ * and arrow count are collected and flushed periodically as one JDBC batch.
+ * Hit, miss and eviction counts are published as "gameSessions" cache metrics,
+ * and the number of in-progress sessions as "wumpus.games.active".
+ */
+@Slf4j
+@Component
+public class GameSessionCache {
+
+    private final GameRepository gameRepository;
+    private final CaveService caveService;
+    private final GameSessionProperties properties;
+    private final Counter flushedGames;
+    private final Cache<UUID, GameSession> sessions;
+
+    @Autowired
+    public GameSessionCache(GameRepository gameRepository, CaveService caveService,
+                            GameSessionProperties properties, MeterRegistry meterRegistry) {
+        this.gameRepository = gameRepository;
+        this.caveService = caveService;
+        this.properties = properties;
+        this.flushedGames = Counter.builder("wumpus.sessions.write.behind.flushed")
+                .description("Games written by the session cache write-behind flush")
+                .register(meterRegistry);
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .evictionListener(this::onEviction)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "gameSessions");
+        Gauge.builder("wumpus.games.active", this, GameSessionCache::activeGames)
+                .description("In-progress games with a cached session")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finds the session of a game, loading the game from the database on a miss.
+     * The game is loaded without holding any cache lock: a loader waiting for a
+     * connection must not block commands that already hold one, or the pool can
+     * deadlock. Concurrent misses may load the game twice; the first to finish wins.
+     *
+     * @param gameId The ID of the game
+     * @return The session, or empty if the game does not exist
+     */
+    public Optional<GameSession> find(UUID gameId) {
+        GameSession session = sessions.getIfPresent(gameId);
+        if (session != null) {
+            return Optional.of(session);
+        }
+
+        Optional<GameSession> loaded = gameRepository.findById(gameId)
+                .map(game -> new GameSession(GameSession.copyOf(game)));
+        return loaded.map(candidate -> {
+            GameSession existing = sessions.asMap().putIfAbsent(gameId, candidate);
+            return existing != null ? existing : candidate;
+        });
+    }
+
+    /**
+     * Gets the session of a game, loading the game from the database on a miss.
+     *
+     * @param gameId The ID of the game
+     * @return The session
+     * @throws GameNotFoundException if the game does not exist
+     */
+    public GameSession get(UUID gameId) {
+        return find(gameId).orElseThrow(() -> new GameNotFoundException(gameId));
+    }
+
+    /**
+     * Gets the compiled cave of a session, loading it on first use. Like games,
+     * caves are loaded without holding the session's lock.
+     *
+     * @param session The game session
+     * @return The cave graph of the game
+     * @throws IllegalStateException if the game has no rooms
+     */
+    public CaveGraph getCave(GameSession session) {
+        CaveGraph cave = session.getCave();
+        if (cave != null) {
+            return cave;
+        }
+
+        List<Room> rooms = caveService.getRoomsForGame(session.getGame());
+        if (rooms.isEmpty()) {
+            throw new IllegalStateException("No rooms found for the game");
+        }
+        CaveGraph loaded = CaveGraph.fromRooms(rooms);
+        session.lock();
+        try {
+            cave = session.getCave();
+            if (cave == null) {
+                cave = loaded;
+                session.setCave(rooms, cave);
+                log.debug("Compiled cave graph of {} rooms for game {}", rooms.size(), session.getGameId());
+            }
+        } finally {
+            session.unlock();
+        }
+        return cave;
+    }
+
+    /**
+     * Gets a room of a session's cave by its index in the cave graph.
+     *
+     * @param session The game session
+     * @param index The room index
+     * @return The room
+     */
+    public Room getRoom(GameSession session, int index) {
+        getCave(session);
+        return session.getRooms().get(index);
+    }
+
+    /**
+     * Caches a game whose cave is already known, e.g. a newly created game.
+     * Inside a transaction the session is cached only once it commits, so that
+     * a game whose insert rolls back is never served from the cache.
+     *
+     * @param game The game
+     * @param rooms The rooms of the game's cave
+     * @return The new session
+     */
+    public GameSession put(Game game, List<Room> rooms) {
+        GameSession session = new GameSession(GameSession.copyOf(game));
+        session.setCave(List.copyOf(rooms), CaveGraph.fromRooms(rooms));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sessions.put(game.getId(), session);
+            return session;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sessions.put(game.getId(), session);
+            }
+        });
+        return session;
+    }
+
+    /**
+     * Replaces the session's game with an updated copy and persists it.
+     * Status changes, and all changes when write-behind is disabled, are written
+     * immediately; otherwise the session is marked dirty for the next flush.
+     * If the surrounding transaction rolls back, the session's previous game is restored.
+     * The caller must hold the session's lock.
+     *
+     * @param session The game session
+     * @param updated The updated copy of the game
+     * @param statusChanged Whether the game status changed
+     * @return The cached game after the update
+     */
+    public Game commit(GameSession session, Game updated, boolean statusChanged) {
+        Game previous = session.getGame();
+        boolean wasDirty = session.isDirty();
+
+        if (properties.isWriteBehind() && !statusChanged) {
+            session.setGame(updated);
+            session.setDirty(true);
+        } else {
+            Game saved = gameRepository.saveAndFlush(updated);
+            session.setGame(GameSession.copyOf(saved));
+            session.setDirty(false);
+        }
+
+        restoreOnRollback(session, session.getGame(), previous, wasDirty);
+        return session.getGame();
+    }
+
+    /**
+     * Removes a game's session, flushing it first if it has unwritten changes.
+     *
+     * @param gameId The ID of the game
+     */
+    public void invalidate(UUID gameId) {
+        GameSession session = sessions.getIfPresent(gameId);
+        if (session != null) {
+            flush(List.of(session));
+        }
+        sessions.invalidate(gameId);
+    }
+
+    /**
+     * Removes a game's session without writing it, e.g. when an update conflict
+     * shows that it is stale. The next access reloads the game.
+     *
+     * @param gameId The ID of the game
+     */
+    public void discard(UUID gameId) {
+        sessions.invalidate(gameId);
+    }
+
+    /**
+     * Writes all dirty sessions as one batch. Runs periodically when write-behind is enabled.
+     */
+    @Scheduled(fixedDelayString = "${wumpus.session-cache.write-behind-interval:1s}")
+    public void flushDirtySessions() {
+        if (properties.isWriteBehind()) {
+            flush(sessions.asMap().values());
+        }
+    }
+
+    /**
+     * Writes all dirty sessions before the application shuts down.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flush(sessions.asMap().values());
+    }
+
+    /**
+     * @return The number of cached sessions
+     */
+    public long size() {
+        sessions.cleanUp();
+        return sessions.estimatedSize();
+    }
+
+    private double activeGames() {
+        return sessions.asMap().values().stream()
+                .filter(session -> session.getGame().getStatus() == Game.GameStatus.IN_PROGRESS)
+                .count();
+    }
+
+    private void flush(Collection<GameSession> candidates) {
+        List<GameSession> flushed = new ArrayList<>();
+        List<Game> games = new ArrayList<>();
+        for (GameSession session : candidates) {
+            session.lock();
+            try {
+                if (session.isDirty()) {
+                    games.add(GameSession.copyOf(session.getGame()));
+                    session.setDirty(false);
+                    flushed.add(session);
+                }
+            } finally {
+                session.unlock();
+            }
+        }
+
+        if (games.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> stale;
+        try {
+            stale = gameRepository.updatePositions(games);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} game sessions", games.size(), e);
+            flushed.forEach(session -> session.setDirty(true));
+            return;
+        }
+
+        flushedGames.increment(games.size() - stale.size());
+        log.debug("Flushed {} game sessions", games.size() - stale.size());
+        for (int i = 0; i < flushed.size(); i++) {
+            afterFlush(flushed.get(i), games.get(i).getVersion(), stale.contains(games.get(i).getId()));
+        }
+    }
+
+    /**
+     * Brings a session's version in line with its row after a flush. If the row
+     * was changed by someone else, the session is stale and is discarded.
+     */
+    private void afterFlush(GameSession session, Long flushedVersion, boolean stale) {
+        session.lock();
+        try {
+            if (!Objects.equals(session.getGame().getVersion(), flushedVersion)) {
+                // Written through since the flush read it, which already included the flushed changes
+                return;
+            }
+            if (stale) {
+                log.warn("Discarding game {} because it was changed elsewhere", session.getGameId());
+                sessions.asMap().remove(session.getGameId(), session);
+            } else if (flushedVersion != null) {
+                // Replaced rather than updated so that views derived from the unflushed game are
+                // not reused. The changes are already written, so a pending rollback need not restore them.
+                Game flushed = GameSession.copyOf(session.getGame());
+                flushed.setVersion(flushedVersion + 1);
+                session.setGame(flushed);
+            }
+        } finally {
+            session.unlock();
+        }
+    }
+
+    private void restoreOnRollback(GameSession session, Game committed, Game previous, boolean wasDirty) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                session.lock();
+                try {
+                    if (session.getGame() == committed) {
+                        session.setGame(previous);
+                        session.setDirty(wasDirty);
+                    }
+                } finally {
+                    session.unlock();
+                }
+            }
+        });
+    }
+
+    private void onEviction(UUID gameId, GameSession session, RemovalCause cause) {
+        if (session != null && session.isDirty()) {
+            log.debug("Flushing game {} evicted from the session cache ({})", gameId, cause);
+            flush(List.of(session));
+        }
+    }
+}
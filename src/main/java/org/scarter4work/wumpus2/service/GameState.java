@@ -0,0 +1,23 @@
+package org.scarter4work.wumpus2.service;
+
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Snapshot of everything the player sees after reading or changing a game,
+ * assembled from one game session and its cave.
+ *
+ * @param game The game
+ * @param currentRoom The room the player is in
+ * @param hazardInfo Whether each kind of hazard is in an adjacent room
+ * @param visitedRooms The IDs of the rooms the player has visited
+ * @param rooms The rooms of the game, so that room IDs can be resolved to room numbers
+ */
+public record GameState(Game game, Room currentRoom, Map<String, Boolean> hazardInfo, Set<UUID> visitedRooms,
+                        List<Room> rooms) {
+}
@@ -0,0 +1,89 @@
+package org.scarter4work.wumpus2.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A compact game state for clients that keep their own copy: either what
+ * changed since the version the client holds, or, if the server cannot tell
+ * what that version looked like, the whole state with {@code full} set.
+ * Values that did not change are left out.
+ *
+ * @param version The version the client now holds, or null if the state has no
+ *                version of its own yet (its changes are still being written)
+ * @param full Whether this is the whole state rather than a change
+ * @param roomId The room the player is in, if it changed
+ * @param roomNumber The number of that room
+ * @param hazardInfo The hazards sensed in that room
+ * @param arrowsRemaining The arrows left, if they changed
+ * @param status The game status, if it changed
+ * @param visitedRooms The visited rooms, if they changed, as a base64 bitmap in which
+ *                     bit {@code n - 1} is set if room number {@code n} was visited
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GameStateDelta(Long version, boolean full, UUID roomId, Integer roomNumber,
+                             Map<String, Boolean> hazardInfo, Integer arrowsRemaining, Game.GameStatus status,
+                             String visitedRooms) {
+
+    /**
+     * Creates the whole state.
+     *
+     * @param state The game state
+     * @param version The version to hand out, or null if the state has none yet
+     * @return The state
+     */
+    public static GameStateDelta full(GameState state, Long version) {
+        Game game = state.game();
+        return new GameStateDelta(version, true, state.currentRoom().getId(), state.currentRoom().getRoomNumber(),
+                state.hazardInfo(), game.getArrowsRemaining(), game.getStatus(),
+                visitedBitmap(state.rooms(), state.visitedRooms()));
+    }
+
+    /**
+     * Creates a change.
+     *
+     * @param change What changed
+     * @param visitedRooms The visited rooms as a bitmap, or null if they did not change
+     * @return The change
+     */
+    public static GameStateDelta change(GameEvent change, String visitedRooms) {
+        return new GameStateDelta(change.version(), false, change.roomId(), change.roomNumber(),
+                change.hazardInfo(), change.arrowsRemaining(), change.status(), visitedRooms);
+    }
+
+    /**
+     * Creates an empty change, for a client that already holds the current version.
+     *
+     * @param version The current version
+     * @return The empty change
+     */
+    public static GameStateDelta unchanged(Long version) {
+        return new GameStateDelta(version, false, null, null, null, null, null, null);
+    }
+
+    /**
+     * Encodes visited rooms by room number, as base64 without padding.
+     * Rooms without a number are left out.
+     *
+     * @param rooms The rooms of the game
+     * @param visitedRooms The IDs of the visited rooms
+     * @return The bitmap
+     */
+    public static String visitedBitmap(List<Room> rooms, Set<UUID> visitedRooms) {
+        BitSet bitmap = new BitSet(rooms.size());
+        for (Room room : rooms) {
+            if (room.getRoomNumber() != null && visitedRooms.contains(room.getId())) {
+                bitmap.set(room.getRoomNumber() - 1);
+            }
+        }
+        return Base64.getEncoder().withoutPadding().encodeToString(bitmap.toByteArray());
+    }
+}
@@ -0,0 +1,71 @@
+package org.scarter4work.wumpus2.service;
+
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Hazard;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of the rooms of a game holding a hazard, in room ID order. Pages
+ * are read by keyset: each page starts after the last room ID of the page
+ * before. The rooms are those {@link CaveService#getRoomsForGame} builds for
+ * the game, whether it keeps its hazards in masks, in a cave record or in
+ * stored rooms.
+ * <p>
+ * A game is required. Only games created before cave templates have stored
+ * rooms; the room IDs of every other game are derived from the game ID, so
+ * there is no order to page through the rooms of all games by.
+ *
+ * @param hazard The hazard the rooms hold
+ * @param gameId The game whose rooms to read
+ * @param status Only if the game has this status, or null for any status
+ * @param after Only rooms with a greater ID, or null to start from the first room
+ * @param pageSize The number of rooms in a page, at most {@link #MAX_PAGE_SIZE}. One more room
+ *                 is selected, to tell whether another page follows.
+ */
+public record HazardRoomQuery(Hazard hazard, UUID gameId, Game.GameStatus status, UUID after, int pageSize) {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Room IDs in the order the database sorts them, byte by byte.
+     */
+    private static final Comparator<UUID> ROOM_ID_ORDER = Comparator.comparing(UUID::toString);
+
+    public HazardRoomQuery {
+        if (hazard == null) {
+            throw new IllegalArgumentException("Hazard is required");
+        }
+        if (gameId == null) {
+            throw new IllegalArgumentException("A gameId is required: only games created before cave templates "
+                    + "have stored rooms, so a search across games would leave out every current game");
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Answers the query from all rooms of its game.
+     *
+     * @param gameStatus The status of the game
+     * @param rooms The rooms of the game, in any order
+     * @return The rooms that match, in room ID order, up to one more than the page size
+     */
+    public List<Room> select(Game.GameStatus gameStatus, List<Room> rooms) {
+        if (status != null && status != gameStatus) {
+            return List.of();
+        }
+        return rooms.stream()
+                .filter(hazard::isIn)
+                .filter(room -> after == null || ROOM_ID_ORDER.compare(room.getId(), after) > 0)
+                .sorted(Comparator.comparing(Room::getId, ROOM_ID_ORDER))
+                .limit(pageSize + 1L)
+                .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package org.scarter4work.wumpus2.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.scarter4work.wumpus2.model.Game;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * What a player may know about a game: the layout of the whole cave, what they
+ * sensed in the rooms they have visited, and what those rooms held. Every
+ * room's contents are revealed once the game is over. Unlike the Room entities,
+ * this leaves out where unvisited hazards are, so it can be handed to clients
+ * and cached as it is.
+ *
+ * @param gameId The ID of the game
+ * @param version The version of the game, or null if it has none of its own yet
+ * @param status The game status
+ * @param arrowsRemaining The arrows left
+ * @param currentRoomId The room the player is in
+ * @param rooms The rooms of the cave, by room number
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PlayerView(UUID gameId, Long version, Game.GameStatus status, int arrowsRemaining,
+                         UUID currentRoomId, List<RoomView> rooms) {
+
+    /**
+     * A room as the player knows it.
+     *
+     * @param id The ID of the room
+     * @param roomNumber The number of the room
+     * @param northRoomId The room to the north, or null
+     * @param eastRoomId The room to the east, or null
+     * @param southRoomId The room to the south, or null
+     * @param westRoomId The room to the west, or null
+     * @param visited Whether the player has been in the room
+     * @param hazardInfo The hazards sensed in the room, if it was visited
+     * @param hasWumpus Whether the room holds the Wumpus, if it was visited or the game is over
+     * @param hasPit Whether the room holds a pit, if it was visited or the game is over
+     * @param hasBats Whether the room holds bats, if it was visited or the game is over
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record RoomView(UUID id, Integer roomNumber, UUID northRoomId, UUID eastRoomId, UUID southRoomId,
+                           UUID westRoomId, boolean visited, Map<String, Boolean> hazardInfo, Boolean hasWumpus,
+                           Boolean hasPit, Boolean hasBats) {
+    }
+}
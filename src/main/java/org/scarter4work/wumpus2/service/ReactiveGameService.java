@@ -0,0 +1,373 @@
+package org.scarter4work.wumpus2.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.model.CaveGraph;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.GameVisitedRoom;
+import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.model.RoomMask;
+import org.scarter4work.wumpus2.repository.ReactiveGameRepository;
+import org.scarter4work.wumpus2.repository.ReactiveRoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of {@link GameService} for the reactive API. Games
+ * are read and written through R2DBC on every request instead of through the
+ * session cache, and caves are built from the in-memory cave templates, so a
+ * masked game takes one query to read and one to update. The rules are those
+ * of {@link GameService}; a command that loses a concurrent update to the
+ * version check is retried on a fresh read like a blocking command.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveGameService {
+
+    private final GameService gameService;
+    private final RoomService roomService;
+    private final CaveService caveService;
+    private final ReactiveGameRepository gameRepository;
+    private final ReactiveRoomRepository roomRepository;
+    private final GameMetrics gameMetrics;
+    private final GameEventStream gameEventStream;
+    private final TransactionalOperator transactionalOperator;
+
+    @Autowired
+    public ReactiveGameService(GameService gameService, RoomService roomService, CaveService caveService,
+                               ReactiveGameRepository gameRepository, ReactiveRoomRepository roomRepository,
+                               GameMetrics gameMetrics, GameEventStream gameEventStream,
+                               TransactionalOperator transactionalOperator) {
+        this.gameService = gameService;
+        this.roomService = roomService;
+        this.caveService = caveService;
+        this.gameRepository = gameRepository;
+        this.roomRepository = roomRepository;
+        this.gameMetrics = gameMetrics;
+        this.gameEventStream = gameEventStream;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Creates a new game on the grid cave template, which is loaded at startup.
+     *
+     * @param playerName The name of the player
+     * @return The newly created game
+     */
+    public Mono<Game> createNewGame(String playerName) {
+        return Mono.defer(() -> {
+            UUID gameId = UUID.randomUUID();
+            CaveTemplate template = gameService.getCaveTemplate();
+            Game game = gameService.newGame(gameId, playerName, template, template.createRooms(gameId));
+            if (!game.isMasked()) {
+                return Mono.error(new IllegalStateException("Cave does not fit in the game's room masks"));
+            }
+            return gameRepository.insert(game).thenReturn(game);
+        });
+    }
+
+    /**
+     * Gets the current state of a game.
+     *
+     * @param gameId The ID of the game
+     * @return The game state, or an IllegalArgumentException if the game does not exist
+     */
+    public Mono<GameState> getGameState(UUID gameId) {
+        return loadGame(gameId).flatMap(this::assembleState);
+    }
+
+    /**
+     * Gets what the player may know about a game.
+     *
+     * @param gameId The ID of the game
+     * @return The player's view, or an IllegalArgumentException if the game does not exist
+     */
+    public Mono<PlayerView> getPlayerView(UUID gameId) {
+        return loadGame(gameId).flatMap(loaded -> visitedRooms(loaded.game(), loaded.cave())
+                .map(visited -> gameService.assemblePlayerView(loaded.game(), loaded.game().getVersion(),
+                        loaded.cave(), loaded.rooms(), visited)));
+    }
+
+    /**
+     * Moves the player to an adjacent room.
+     *
+     * @param gameId The ID of the game
+     * @param direction The direction to move (north, east, south, west)
+     * @return The game state after the move
+     */
+    public Mono<GameState> movePlayer(UUID gameId, String direction) {
+        return runCommand(gameId, GameEvent.Type.MOVED, (game, cave) -> gameService.applyMove(game, cave, direction));
+    }
+
+    /**
+     * Shoots an arrow in the specified direction.
+     *
+     * @param gameId The ID of the game
+     * @param direction The direction to shoot (north, east, south, west)
+     * @return The game state after the shot
+     */
+    public Mono<GameState> shootArrow(UUID gameId, String direction) {
+        return runCommand(gameId, GameEvent.Type.SHOT, (game, cave) -> gameService.applyShot(game, cave, direction));
+    }
+
+    /**
+     * Gets all rooms of a game.
+     *
+     * @param gameId The ID of the game
+     * @return List of rooms in the game, empty if the game does not exist
+     */
+    public Mono<List<Room>> getRoomsForGame(UUID gameId) {
+        return gameRepository.findById(gameId)
+                .flatMap(this::loadRooms)
+                .defaultIfEmpty(List.of());
+    }
+
+    /**
+     * Gets one page of the rooms that hold a hazard, like
+     * {@link RoomService#getRoomsWithHazard(HazardRoomQuery)}.
+     *
+     * @param query The hazard, filters and page position
+     * @return The page of rooms, or a {@link GameNotFoundException} if the game does not exist
+     */
+    public Mono<RoomPage> getRoomsWithHazard(HazardRoomQuery query) {
+        return gameRepository.findById(query.gameId())
+                .switchIfEmpty(Mono.error(() -> new GameNotFoundException(query.gameId())))
+                .flatMap(game -> loadRooms(game)
+                        .map(rooms -> RoomPage.of(query.select(game.getStatus(), rooms), query.pageSize())));
+    }
+
+    /**
+     * Gets a stored room.
+     *
+     * @param roomId The ID of the room
+     * @return The room, or empty if it does not exist
+     */
+    public Mono<Room> getRoom(UUID roomId) {
+        return roomRepository.findById(roomId);
+    }
+
+    /**
+     * Places hazards randomly in the rooms of a game. Games with stored rooms or
+     * cave records are updated through the blocking {@link RoomService}.
+     *
+     * @param gameId The ID of the game
+     * @return True if hazards were placed successfully
+     */
+    public Mono<Boolean> placeRandomHazards(UUID gameId) {
+        return Mono.defer(() -> gameRepository.findById(gameId)
+                        .switchIfEmpty(Mono.error(() -> new GameNotFoundException(gameId)))
+                        .flatMap(game -> {
+                            if (!game.isMasked()) {
+                                return Mono.fromCallable(() -> roomService.placeRandomHazards(gameId))
+                                        .subscribeOn(Schedulers.boundedElastic());
+                            }
+                            return loadTemplate(game.getCaveTemplateId()).flatMap(template -> {
+                                List<Room> rooms = CaveService.createMaskedRooms(game, template);
+                                gameService.placeRandomHazards(rooms);
+                                game.setWumpusMask(RoomMask.of(rooms, Room::isHasWumpus));
+                                game.setPitMask(RoomMask.of(rooms, Room::isHasPit));
+                                game.setBatMask(RoomMask.of(rooms, Room::isHasBats));
+                                return gameRepository.updateHazardMasks(game)
+                                        .flatMap(updated -> updated ? Mono.just(true) : Mono.error(conflict(gameId)));
+                            });
+                        }))
+                .retryWhen(conflictRetry(gameId));
+    }
+
+    /**
+     * Runs a sequence of moves and shots as one command, like
+     * {@link GameService#runCommands(UUID, List)}: one read, one transaction
+     * and one update for the whole batch.
+     *
+     * @param gameId The ID of the game
+     * @param commands The commands, in order
+     * @return The result of each command that was run and the final game state
+     */
+    public Mono<CommandBatchResult> runCommands(UUID gameId, List<GameCommand> commands) {
+        if (commands.size() > GameService.MAX_BATCH_COMMANDS) {
+            return Mono.error(new IllegalArgumentException(
+                    "At most " + GameService.MAX_BATCH_COMMANDS + " commands per batch"));
+        }
+
+        return Mono.defer(() -> loadGame(gameId).flatMap(loaded -> {
+                    Game game = loaded.game();
+                    Game previous = GameSession.copyOf(game);
+                    GameService.AppliedCommands applied = gameService.applyCommands(game, loaded.cave(), commands);
+                    if (applied.steps().isEmpty()) {
+                        return assembleState(loaded).map(state -> new BatchOutcome(new CommandBatchResult(
+                                gameService.commandResults(applied, previous, previous.getVersion(), loaded.cave(),
+                                        loaded.rooms()), state), null));
+                    }
+                    return gameRepository.update(game)
+                            .flatMap(updated -> updated
+                                    ? Flux.fromIterable(applied.steps()).concatMap(this::recordVisit).then()
+                                    : Mono.error(conflict(gameId)))
+                            .then(Mono.defer(() -> {
+                                game.setVersion(game.getVersion() + 1);
+                                return assembleState(loaded);
+                            }))
+                            .map(state -> new BatchOutcome(new CommandBatchResult(
+                                    gameService.commandResults(applied, previous, game.getVersion(), loaded.cave(),
+                                            loaded.rooms()), state), applied.cause()));
+                }))
+                .as(transactionalOperator::transactional)
+                .retryWhen(conflictRetry(gameId))
+                .doOnNext(outcome -> {
+                    if (outcome.cause() != null) {
+                        gameMetrics.gameFinished(outcome.result().state().game().getStatus(), outcome.cause());
+                    }
+                    outcome.result().results().stream()
+                            .filter(CommandResult::isApplied)
+                            .forEach(result -> gameEventStream.publish(result.change()));
+                })
+                .map(BatchOutcome::result);
+    }
+
+    /**
+     * Streams the changes to a game, starting with its current state.
+     *
+     * @param gameId The ID of the game
+     * @return The events of the game
+     */
+    public Flux<GameEvent> streamEvents(UUID gameId) {
+        return gameEventStream.stream(gameId, getGameState(gameId));
+    }
+
+    /**
+     * Runs a game command in a transaction: reads the game, applies the rule
+     * and writes the game back if no one else changed it in between, retrying
+     * on a fresh read otherwise. Observers of the game are told about the
+     * change once the transaction has committed.
+     */
+    private Mono<GameState> runCommand(UUID gameId, GameEvent.Type type,
+                                       BiFunction<Game, CaveGraph, GameMetrics.Cause> rule) {
+        return Mono.defer(() -> loadGame(gameId).flatMap(loaded -> {
+                    Game game = loaded.game();
+                    Game previous = GameSession.copyOf(game);
+                    GameMetrics.Cause cause = rule.apply(game, loaded.cave());
+                    return gameRepository.update(game)
+                            .flatMap(updated -> updated ? recordVisit(game) : Mono.error(conflict(gameId)))
+                            .then(Mono.defer(() -> {
+                                game.setVersion(game.getVersion() + 1);
+                                return assembleState(loaded);
+                            }))
+                            .map(state -> new Outcome(state, cause, GameEvent.change(type, previous, state.game(),
+                                    state.currentRoom(), state.hazardInfo())));
+                }))
+                .as(transactionalOperator::transactional)
+                .retryWhen(conflictRetry(gameId))
+                .doOnNext(outcome -> {
+                    if (outcome.cause() != null) {
+                        gameMetrics.gameFinished(outcome.state().game().getStatus(), outcome.cause());
+                    }
+                    gameEventStream.publish(outcome.event());
+                })
+                .map(Outcome::state);
+    }
+
+    private Retry conflictRetry(UUID gameId) {
+        return Retry.max(GameService.MAX_COMMAND_ATTEMPTS - 1)
+                .filter(OptimisticLockingFailureException.class::isInstance)
+                .doBeforeRetry(signal -> {
+                    gameMetrics.conflict(true);
+                    log.debug("Retrying command on game {} after a concurrent update (attempt {})",
+                            gameId, signal.totalRetries() + 1);
+                })
+                .onRetryExhaustedThrow((spec, signal) -> {
+                    gameMetrics.conflict(false);
+                    return new GameConflictException("Game was updated concurrently, reload and try again",
+                            signal.failure());
+                });
+    }
+
+    private static OptimisticLockingFailureException conflict(UUID gameId) {
+        return new OptimisticLockingFailureException("Game " + gameId + " was updated concurrently");
+    }
+
+    /**
+     * Records a visit to the player's current room, for games without a visited mask.
+     */
+    private Mono<Void> recordVisit(Game game) {
+        if (game.getVisitedMask() != null) {
+            return Mono.empty();
+        }
+        GameVisitedRoom visitedRoom = GameVisitedRoom.createVisitedRoom(game.getId(), game.getCurrentRoomId());
+        visitedRoom.setId(UUID.randomUUID());
+        return gameRepository.insertVisitedRoomIfAbsent(visitedRoom);
+    }
+
+    private Mono<LoadedGame> loadGame(UUID gameId) {
+        return gameRepository.findById(gameId)
+                .switchIfEmpty(Mono.error(() -> new GameNotFoundException(gameId)))
+                .flatMap(game -> loadRooms(game).map(rooms -> {
+                    if (rooms.isEmpty()) {
+                        throw new IllegalStateException("No rooms found for the game");
+                    }
+                    return new LoadedGame(game, rooms, CaveGraph.fromRooms(rooms));
+                }));
+    }
+
+    /**
+     * Loads the rooms of a game the way {@link CaveService#getRoomsForGame(Game)}
+     * does: from its template and masks, from its cave record, or as stored rooms.
+     */
+    private Mono<List<Room>> loadRooms(Game game) {
+        if (game.isMasked()) {
+            return loadTemplate(game.getCaveTemplateId())
+                    .map(template -> CaveService.createMaskedRooms(game, template));
+        }
+
+        return gameRepository.findGameCave(game.getId())
+                .flatMap(gameCave -> loadTemplate(gameCave.getTemplateId()).map(template -> {
+                    List<Room> rooms = template.createRooms(game.getId());
+                    gameCave.applyHazards(rooms);
+                    return rooms;
+                }))
+                .switchIfEmpty(roomRepository.findRoomsByGameId(game.getId()).collectList());
+    }
+
+    /**
+     * Gets a cave template from memory, or loads it through JPA off the event loop.
+     */
+    private Mono<CaveTemplate> loadTemplate(UUID templateId) {
+        return caveService.findLoadedTemplate(templateId)
+                .map(Mono::just)
+                .orElseGet(() -> Mono.fromCallable(() -> caveService.getTemplate(templateId))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private Mono<GameState> assembleState(LoadedGame loaded) {
+        Game game = loaded.game();
+        return visitedRooms(game, loaded.cave())
+                .map(visited -> gameService.assembleState(game, loaded.cave(), loaded.rooms(), visited));
+    }
+
+    private Mono<Set<UUID>> visitedRooms(Game game, CaveGraph cave) {
+        return game.getVisitedMask() != null
+                ? Mono.just(GameService.visitedRooms(game.getVisitedMask(), cave))
+                : gameRepository.findVisitedRoomIds(game.getId()).collect(Collectors.toSet());
+    }
+
+    private record LoadedGame(Game game, List<Room> rooms, CaveGraph cave) {
+    }
+
+    private record Outcome(GameState state, GameMetrics.Cause cause, GameEvent event) {
+    }
+
+    private record BatchOutcome(CommandBatchResult result, GameMetrics.Cause cause) {
+    }
+}
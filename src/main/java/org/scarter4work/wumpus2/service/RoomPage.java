@@ -0,0 +1,33 @@
+package org.scarter4work.wumpus2.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of rooms, read by keyset.
+ *
+ * @param rooms The rooms, in room ID order
+ * @param next The ID to pass as {@code after} for the next page, or null if this is the last page
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RoomPage(List<Room> rooms, UUID next) {
+
+    /**
+     * Creates a page from rooms read one past the page size, so that a full
+     * page only points to a next page if there is one.
+     *
+     * @param rooms The rooms read, up to one more than the page size
+     * @param pageSize The page size
+     * @return The page
+     */
+    public static RoomPage of(List<Room> rooms, int pageSize) {
+        if (rooms.size() <= pageSize) {
+            return new RoomPage(rooms, null);
+        }
+        List<Room> page = rooms.subList(0, pageSize);
+        return new RoomPage(List.copyOf(page), page.get(pageSize - 1).getId());
+    }
+}
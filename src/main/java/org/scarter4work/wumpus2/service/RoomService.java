@@ -1,16 +1,17 @@
 package org.scarter4work.wumpus2.service;
 
+import org.scarter4work.wumpus2.engine.CaveContents;
+import org.scarter4work.wumpus2.model.CaveGraph;
+import org.scarter4work.wumpus2.model.CaveTemplate;
 import org.scarter4work.wumpus2.model.Game;
-import org.scarter4work.wumpus2.model.GameRoom;
 import org.scarter4work.wumpus2.model.Room;
-import org.scarter4work.wumpus2.repository.GameRepository;
-import org.scarter4work.wumpus2.repository.GameRoomRepository;
 import org.scarter4work.wumpus2.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service class for managing room operations in Hunt the Wumpus.
@@ -19,14 +20,15 @@ import java.util.*;
 public class RoomService {
 
     private final RoomRepository roomRepository;
-    private final GameRoomRepository gameRoomRepository;
-    private final GameRepository gameRepository;
+    private final GameSessionCache gameSessionCache;
+    private final CaveService caveService;
 
     @Autowired
-    public RoomService(RoomRepository roomRepository, GameRoomRepository gameRoomRepository, GameRepository gameRepository) {
+    public RoomService(RoomRepository roomRepository, GameSessionCache gameSessionCache,
+                       CaveService caveService) {
         this.roomRepository = roomRepository;
-        this.gameRoomRepository = gameRoomRepository;
-        this.gameRepository = gameRepository;
+        this.gameSessionCache = gameSessionCache;
+        this.caveService = caveService;
     }
 
     /**
@@ -45,7 +47,8 @@ public class RoomService {
     }
 
     /**
-     * Retrieves a room by its ID.
+     * Retrieves a stored room by its ID. Rooms of template-based games are not
+     * stored individually; use {@link #getRoomsForGame(UUID)} for those.
      *
      * @param roomId The ID of the room to retrieve
      * @return The room if found, otherwise null
@@ -70,41 +73,23 @@ public class RoomService {
      * @return List of rooms in the game
      */
     public List<Room> getRoomsForGame(UUID gameId) {
-        List<GameRoom> gameRooms = gameRoomRepository.findByGameId(gameId);
-        List<Room> rooms = new ArrayList<>();
-        
-        for (GameRoom gameRoom : gameRooms) {
-            roomRepository.findById(gameRoom.getRoomId()).ifPresent(rooms::add);
-        }
-        
-        return rooms;
-    }
-
-    /**
-     * Gets all rooms that contain the Wumpus.
-     *
-     * @return List of rooms containing the Wumpus
-     */
-    public List<Room> getRoomsWithWumpus() {
-        return roomRepository.findByHasWumpusTrue();
-    }
-
-    /**
-     * Gets all rooms that contain pits.
-     *
-     * @return List of rooms containing pits
-     */
-    public List<Room> getRoomsWithPits() {
-        return roomRepository.findByHasPitTrue();
+        return findGame(gameId)
+                .map(caveService::getRoomsForGame)
+                .orElse(List.of());
     }
 
     /**
-     * Gets all rooms that contain bats.
+     * Gets one page of the rooms of a game that hold a hazard, read the way
+     * {@link #getRoomsForGame(UUID)} reads them.
      *
-     * @return List of rooms containing bats
+     * @param query The hazard, game, filters and page position
+     * @return The page of rooms
+     * @throws GameNotFoundException if the game does not exist
      */
-    public List<Room> getRoomsWithBats() {
-        return roomRepository.findByHasBatsTrue();
+    public RoomPage getRoomsWithHazard(HazardRoomQuery query) {
+        Game game = findGame(query.gameId())
+                .orElseThrow(() -> new GameNotFoundException(query.gameId()));
+        return RoomPage.of(query.select(game.getStatus(), caveService.getRoomsForGame(game)), query.pageSize());
     }
 
     /**
@@ -161,59 +146,53 @@ public class RoomService {
      * @param pitRoomIds List of room IDs to place pits
      * @param batRoomIds List of room IDs to place bats
      * @return True if hazards were placed successfully
+     * @throws GameNotFoundException if the game does not exist
      */
     @Transactional
     public boolean placeHazards(UUID gameId, UUID wumpusRoomId, List<UUID> pitRoomIds, List<UUID> batRoomIds) {
         // Verify the game exists
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new IllegalArgumentException("Game not found"));
+        Game game = findGame(gameId)
+                .orElseThrow(() -> new GameNotFoundException(gameId));
         
         // Get all rooms for the game
-        List<Room> gameRooms = getRoomsForGame(gameId);
-        Set<UUID> gameRoomIds = new HashSet<>();
+        List<Room> gameRooms = caveService.getRoomsForGame(game);
+        Map<UUID, Room> gameRoomIds = new HashMap<>();
         for (Room room : gameRooms) {
-            gameRoomIds.add(room.getId());
+            gameRoomIds.put(room.getId(), room);
         }
         
         // Verify all specified rooms are part of the game
-        if (!gameRoomIds.contains(wumpusRoomId)) {
+        if (!gameRoomIds.containsKey(wumpusRoomId)) {
             throw new IllegalArgumentException("Wumpus room is not part of the game");
         }
         
         for (UUID pitRoomId : pitRoomIds) {
-            if (!gameRoomIds.contains(pitRoomId)) {
+            if (!gameRoomIds.containsKey(pitRoomId)) {
                 throw new IllegalArgumentException("Pit room is not part of the game");
             }
         }
         
         for (UUID batRoomId : batRoomIds) {
-            if (!gameRoomIds.contains(batRoomId)) {
+            if (!gameRoomIds.containsKey(batRoomId)) {
                 throw new IllegalArgumentException("Bat room is not part of the game");
             }
         }
         
         // Place the Wumpus
-        Room wumpusRoom = roomRepository.findById(wumpusRoomId)
-                .orElseThrow(() -> new IllegalArgumentException("Wumpus room not found"));
-        wumpusRoom.setHasWumpus(true);
-        roomRepository.save(wumpusRoom);
+        gameRoomIds.get(wumpusRoomId).setHasWumpus(true);
         
         // Place pits
         for (UUID pitRoomId : pitRoomIds) {
-            Room pitRoom = roomRepository.findById(pitRoomId)
-                    .orElseThrow(() -> new IllegalArgumentException("Pit room not found"));
-            pitRoom.setHasPit(true);
-            roomRepository.save(pitRoom);
+            gameRoomIds.get(pitRoomId).setHasPit(true);
         }
         
         // Place bats
         for (UUID batRoomId : batRoomIds) {
-            Room batRoom = roomRepository.findById(batRoomId)
-                    .orElseThrow(() -> new IllegalArgumentException("Bat room not found"));
-            batRoom.setHasBats(true);
-            roomRepository.save(batRoom);
+            gameRoomIds.get(batRoomId).setHasBats(true);
         }
         
+        caveService.saveHazards(game, gameRooms);
+        gameSessionCache.invalidate(gameId);
         return true;
     }
 
@@ -222,55 +201,27 @@ public class RoomService {
      *
      * @param gameId The ID of the game
      * @return True if hazards were placed successfully
+     * @throws GameNotFoundException if the game does not exist
      */
     @Transactional
     public boolean placeRandomHazards(UUID gameId) {
         // Get all rooms for the game
-        List<Room> rooms = getRoomsForGame(gameId);
+        Game game = findGame(gameId)
+                .orElseThrow(() -> new GameNotFoundException(gameId));
+        List<Room> rooms = caveService.getRoomsForGame(game);
 
         if (rooms.isEmpty()) {
             throw new IllegalStateException("No rooms found for the game");
         }
 
-        // Validate we have enough rooms for all hazards (1 wumpus + 3 pits + 3 bats = 7 minimum)
-        if (rooms.size() < 7) {
-            throw new IllegalStateException("Not enough rooms to place all hazards");
-        }
-
-        // Clear any existing hazards in bulk
-        rooms.forEach(room -> {
-            room.setHasWumpus(false);
-            room.setHasPit(false);
-            room.setHasBats(false);
-        });
-
-        // Create shuffled list of room indices to avoid conflicts
-        List<Integer> availableIndices = new ArrayList<>();
-        for (int i = 0; i < rooms.size(); i++) {
-            availableIndices.add(i);
-        }
-        Collections.shuffle(availableIndices);
+        // Place 1 Wumpus, 3 pits and 3 bat colonies as the game engine does
+        byte[] contents = new byte[rooms.size()];
+        CaveContents.placeRandomHazards(contents, rooms.size(), ThreadLocalRandom.current());
+        CaveService.applyContents(rooms, contents);
 
-        int indexCounter = 0;
-
-        // Place 1 Wumpus
-        Room wumpusRoom = rooms.get(availableIndices.get(indexCounter++));
-        wumpusRoom.setHasWumpus(true);
-
-        // Place 3 pits
-        for (int i = 0; i < 3; i++) {
-            Room pitRoom = rooms.get(availableIndices.get(indexCounter++));
-            pitRoom.setHasPit(true);
-        }
-
-        // Place 3 bat colonies
-        for (int i = 0; i < 3; i++) {
-            Room batRoom = rooms.get(availableIndices.get(indexCounter++));
-            batRoom.setHasBats(true);
-        }
-
-        // Save all rooms in a single batch operation
-        roomRepository.saveAll(rooms);
+        // Save all hazards in a single operation
+        caveService.saveHazards(game, rooms);
+        gameSessionCache.invalidate(gameId);
 
         return true;
     }
@@ -329,23 +280,24 @@ public class RoomService {
      * @return List of hazard descriptions
      */
     public List<String> getHazardDescriptions(UUID gameId) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new IllegalArgumentException("Game not found"));
-        
-        UUID currentRoomId = game.getCurrentRoomId();
-        Map<String, List<String>> hazardInfo = getAdjacentHazardInfo(currentRoomId);
+        GameSession session = gameSessionCache.get(gameId);
+        CaveGraph cave = gameSessionCache.getCave(session);
+        int currentRoom = cave.indexOf(session.getGame().getCurrentRoomId());
+        if (currentRoom == CaveGraph.NO_ROOM) {
+            throw new IllegalStateException("Current room not found");
+        }
         
         List<String> descriptions = new ArrayList<>();
         
-        if (!hazardInfo.get("wumpus").isEmpty()) {
+        if (cave.wumpusNearby(currentRoom)) {
             descriptions.add("You smell a wumpus nearby!");
         }
         
-        if (!hazardInfo.get("pit").isEmpty()) {
+        if (cave.pitNearby(currentRoom)) {
             descriptions.add("You feel a draft from a nearby pit!");
         }
         
-        if (!hazardInfo.get("bats").isEmpty()) {
+        if (cave.batsNearby(currentRoom)) {
             descriptions.add("You hear bats rustling nearby!");
         }
         
@@ -353,44 +305,25 @@ public class RoomService {
     }
 
     /**
-     * Creates a new cave system with interconnected rooms.
+     * Gets the shared circular cave layout with the given number of rooms.
+     * The layout is stored once and reused by every game built from it.
      *
-     * @param numRooms The number of rooms to create
-     * @return List of created rooms
+     * @param numRooms The number of rooms
+     * @return The cave template
      */
-    @Transactional
-    public List<Room> createCaveSystem(int numRooms) {
-        if (numRooms < 5) {
-            throw new IllegalArgumentException("Cave system must have at least 5 rooms");
-        }
-        
-        // Create rooms
-        List<Room> rooms = new ArrayList<>();
-        for (int i = 0; i < numRooms; i++) {
-            Room room = new Room();
-            rooms.add(roomRepository.save(room));
-        }
-        
-        // Connect the rooms in a circular pattern with additional connections
-        for (int i = 0; i < rooms.size(); i++) {
-            Room room = rooms.get(i);
-            
-            // Basic circular connections
-            room.setNorthRoomId(rooms.get((i + 1) % rooms.size()).getId());
-            room.setSouthRoomId(rooms.get((i - 1 + rooms.size()) % rooms.size()).getId());
-            
-            // Additional connections to make the cave more complex
-            room.setEastRoomId(rooms.get((i + 3) % rooms.size()).getId());
-            
-            // Not all rooms have a west connection
-            if (i % 2 == 0) {
-                room.setWestRoomId(rooms.get((i + numRooms / 2) % rooms.size()).getId());
-            }
-            
-            roomRepository.save(room);
-        }
-        
-        return rooms;
+    public CaveTemplate createCaveSystem(int numRooms) {
+        return caveService.getTemplate(CaveTemplate.Layout.CIRCULAR, numRooms);
+    }
+
+    /**
+     * Finds a game through the session cache, as a copy that is safe to modify.
+     *
+     * @param gameId The ID of the game
+     * @return A copy of the game, or empty if the game does not exist
+     */
+    private Optional<Game> findGame(UUID gameId) {
+        return gameSessionCache.find(gameId)
+                .map(session -> GameSession.copyOf(session.getGame()));
     }
 
     /**
@@ -0,0 +1,50 @@
+package org.scarter4work.wumpus2.service;
+
+import org.scarter4work.wumpus2.engine.PlayerPolicy;
+import org.scarter4work.wumpus2.engine.SelfPlaySettings;
+import org.scarter4work.wumpus2.engine.SelfPlayStats;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+/**
+ * The balance statistics of a self-play run, with the configuration they were
+ * played under.
+ *
+ * @param layout The cave layout
+ * @param rooms The number of rooms in the cave
+ * @param pits The number of pits
+ * @param batColonies The number of bat colonies
+ * @param policy The player
+ * @param seed The seed of the run
+ * @param games The games played
+ * @param winRate The share of games won
+ * @param won The games won by shooting the Wumpus
+ * @param eatenByWumpus The games lost by walking into the Wumpus
+ * @param fellIntoPit The games lost by falling into a pit
+ * @param outOfArrows The games lost by missing with the last arrow
+ * @param unfinished The games given up after the step limit
+ * @param averageMoves The moves made per game
+ * @param averageArrowsUsed The arrows shot per game
+ * @param batFlights The times bats carried the player off
+ * @param elapsedMillis How long the run took
+ */
+public record SelfPlayReport(CaveTemplate.Layout layout, int rooms, int pits, int batColonies, PlayerPolicy policy,
+                             long seed, long games, double winRate, long won, long eatenByWumpus, long fellIntoPit,
+                             long outOfArrows, long unfinished, double averageMoves, double averageArrowsUsed,
+                             long batFlights, long elapsedMillis) {
+
+    /**
+     * @param layout The cave layout
+     * @param rooms The number of rooms in the cave
+     * @param settings What was played
+     * @param stats The totals of the run
+     * @param elapsedMillis How long the run took
+     * @return The report
+     */
+    public static SelfPlayReport of(CaveTemplate.Layout layout, int rooms, SelfPlaySettings settings,
+                                    SelfPlayStats stats, long elapsedMillis) {
+        return new SelfPlayReport(layout, rooms, settings.pits(), settings.batColonies(), settings.policy(),
+                settings.seed(), stats.games(), stats.winRate(), stats.won(), stats.eatenByWumpus(),
+                stats.fellIntoPit(), stats.outOfArrows(), stats.unfinished(), stats.averageMoves(),
+                stats.averageArrowsUsed(), stats.batFlights(), elapsedMillis);
+    }
+}
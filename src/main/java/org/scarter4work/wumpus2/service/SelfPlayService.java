@@ -0,0 +1,49 @@
+package org.scarter4work.wumpus2.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.scarter4work.wumpus2.engine.CaveTopology;
+import org.scarter4work.wumpus2.engine.SelfPlay;
+import org.scarter4work.wumpus2.engine.SelfPlaySettings;
+import org.scarter4work.wumpus2.engine.SelfPlayStats;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for self-play runs: simulated games played by the game engine, with
+ * no database involved, to measure how hard a cave configuration is.
+ */
+@Service
+@Slf4j
+public class SelfPlayService {
+
+    /**
+     * Plays a self-play run on a cave layout. The layout is built for the run
+     * and not stored.
+     *
+     * @param layout The cave layout
+     * @param rooms The number of rooms in the cave
+     * @param settings What to play
+     * @return The statistics of the run
+     * @throws IllegalArgumentException if there are more than {@link SelfPlaySettings#MAX_ROOMS} rooms,
+     *                                  the layout cannot have that many rooms or
+     *                                  the cave has too few rooms for the hazards
+     */
+    public SelfPlayReport play(CaveTemplate.Layout layout, int rooms, SelfPlaySettings settings) {
+        if (rooms > SelfPlaySettings.MAX_ROOMS) {
+            throw new IllegalArgumentException("Caves can have at most " + SelfPlaySettings.MAX_ROOMS + " rooms");
+        }
+        CaveTopology topology = CaveTemplate.create(layout, rooms).topology();
+
+        log.info("Playing {} self-play games of {} on a {} cave with {} rooms, {} pits and {} bat colonies, seed {}",
+                settings.games(), settings.policy(), layout, rooms, settings.pits(), settings.batColonies(),
+                settings.seed());
+        long start = System.nanoTime();
+        SelfPlayStats stats = SelfPlay.run(topology, settings);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Self-play won {} of {} games in {} ms", stats.won(), stats.games(), elapsedMillis);
+
+        return SelfPlayReport.of(layout, rooms, settings, stats, elapsedMillis);
+    }
+}
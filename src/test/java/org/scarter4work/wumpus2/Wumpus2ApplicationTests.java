@@ -1,15 +1,29 @@
 package org.scarter4work.wumpus2;
 
 import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.controller.RoomController;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ActiveProfiles;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @SpringBootTest
 @ActiveProfiles("test")
 public class Wumpus2ApplicationTests {
 
+    @Autowired
+    private ApplicationContext context;
+
     @Test
     void contextLoads() {
         // This test verifies that the application context loads successfully
     }
+
+    @Test
+    void roomEndpointsAreOffByDefault() {
+        // The room endpoints return hazards, which players only see through their view of the game
+        assertEquals(0, context.getBeanNamesForType(RoomController.class).length);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package org.scarter4work.wumpus2.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureObservability
+// Each test counts the requests and games since startup
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class QueryMetricsConfigTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void gameMetricsArePublishedOnThePrometheusEndpoint() {
+        // Arrange
+        JsonNode game = restTemplate.postForObject("/api/games", Map.of("playerName", "TestPlayer"), JsonNode.class);
+        String gameId = game.get("id").asText();
+
+        // Act
+        restTemplate.getForObject("/api/games/" + gameId + "/state", JsonNode.class);
+        String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        // Assert
+        assertTrue(scrape.contains("wumpus_http_db_queries_statements_count{method=\"POST\",uri=\"/api/games\"} 1"),
+                scrape);
+        assertTrue(scrape.contains("wumpus_http_db_queries_statements_sum{method=\"POST\",uri=\"/api/games\"} 1"),
+                scrape);
+        assertTrue(scrape.contains("wumpus_game_command_seconds_count{command=\"create\"} 1"), scrape);
+        assertTrue(scrape.contains("wumpus_game_state_assembly_seconds_count 1"), scrape);
+        assertTrue(scrape.contains("wumpus_games_active 1"), scrape);
+    }
+
+    @Test
+    void statementsOfMailboxCommandsCountTowardsTheirRequest() {
+        // Arrange
+        JsonNode game = restTemplate.postForObject("/api/games", Map.of("playerName", "TestPlayer"), JsonNode.class);
+        String gameId = game.get("id").asText();
+        JsonNode currentRoom = restTemplate.getForObject("/api/games/" + gameId + "/state", JsonNode.class)
+                .get("currentRoom");
+        String direction = List.of("north", "east", "south", "west").stream()
+                .filter(candidate -> !currentRoom.path(candidate + "RoomId").isNull()
+                        && !currentRoom.path(candidate + "RoomId").isMissingNode())
+                .findFirst()
+                .orElseThrow();
+
+        // Act
+        restTemplate.postForObject("/api/games/" + gameId + "/move", Map.of("direction", direction), JsonNode.class);
+        String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        // Assert
+        Matcher sum = Pattern.compile(
+                "wumpus_http_db_queries_statements_sum\\{method=\"POST\",uri=\"/api/games/\\{gameId}/move\"} ([0-9.]+)")
+                .matcher(scrape);
+        assertTrue(sum.find(), scrape);
+        assertTrue(Double.parseDouble(sum.group(1)) > 0, scrape);
+    }
+}
@@ -1,23 +1,54 @@
 package org.scarter4work.wumpus2.controller;
 
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.scarter4work.wumpus2.config.WebConfig;
+import org.scarter4work.wumpus2.engine.PlayerPolicy;
+import org.scarter4work.wumpus2.model.CaveTemplate;
 import org.scarter4work.wumpus2.model.Game;
 import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.service.AutoPlayResult;
+import org.scarter4work.wumpus2.service.AutoPlayService;
+import org.scarter4work.wumpus2.service.CommandBatchResult;
+import org.scarter4work.wumpus2.service.CommandResult;
+import org.scarter4work.wumpus2.service.GameCommand;
+import org.scarter4work.wumpus2.service.GameEvent;
+import org.scarter4work.wumpus2.service.GameEventStream;
+import org.scarter4work.wumpus2.service.GameMetrics;
 import org.scarter4work.wumpus2.service.GameService;
+import org.scarter4work.wumpus2.service.GameState;
+import org.scarter4work.wumpus2.service.GameStateDelta;
+import org.scarter4work.wumpus2.service.PlayerView;
 import org.scarter4work.wumpus2.service.RoomService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class GameControllerTest {
 
@@ -27,6 +58,15 @@ class GameControllerTest {
     @Mock
     private RoomService roomService;
 
+    @Mock
+    private GameEventStream gameEventStream;
+
+    @Mock
+    private AutoPlayService autoPlayService;
+
+    @Spy
+    private GameMetrics gameMetrics = new GameMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private GameController gameController;
 
@@ -78,10 +118,8 @@ class GameControllerTest {
         Set<UUID> mockVisitedRooms = new HashSet<>();
         mockVisitedRooms.add(mockRoom.getId());
 
-        when(gameService.getGame(gameId)).thenReturn(mockGame);
-        when(gameService.getCurrentRoom(gameId)).thenReturn(mockRoom);
-        when(gameService.getVisitedRooms(gameId)).thenReturn(mockVisitedRooms);
-        when(gameService.getHazardInformation(gameId)).thenReturn(mockHazardInfo);
+        when(gameService.getGameState(gameId))
+                .thenReturn(new GameState(mockGame, mockRoom, mockHazardInfo, mockVisitedRooms, List.of(mockRoom)));
         
         // Act
         ResponseEntity<GameController.GameStateResponse> response = gameController.getGameState(gameId);
@@ -92,9 +130,79 @@ class GameControllerTest {
         assertEquals(mockGame, response.getBody().getGame());
         assertEquals(mockRoom, response.getBody().getCurrentRoom());
         assertEquals(mockVisitedRooms, response.getBody().getVisitedRooms());
-        verify(gameService, times(1)).getGame(gameId);
-        verify(gameService, times(1)).getCurrentRoom(gameId);
-        verify(gameService, times(1)).getVisitedRooms(gameId);
+        verify(gameService, times(1)).getGameState(gameId);
+    }
+
+    @Test
+    void getGameStateLeavesOutWhatTheCurrentRoomHolds() throws Exception {
+        // Arrange
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setRoomNumber(7);
+        room.setHasBats(true);
+        GameController.GameStateResponse response =
+                new GameController.GameStateResponse(new Game(), room, Map.of(), Set.of());
+
+        // Act
+        String json = JsonMapper.builder().findAndAddModules().build().writeValueAsString(response);
+
+        // Assert
+        assertTrue(json.contains("\"roomNumber\":7"));
+        assertFalse(json.contains("hasBats"));
+        assertFalse(json.contains("hasWumpus"));
+        assertFalse(json.contains("hasPit"));
+        assertFalse(json.contains("\"rooms\""));
+    }
+
+    @Test
+    void getPlayerView() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        PlayerView view = new PlayerView(gameId, 7L, Game.GameStatus.IN_PROGRESS, 5, UUID.randomUUID(), List.of());
+        when(gameService.getPlayerView(gameId)).thenReturn(view);
+
+        // Act
+        ResponseEntity<PlayerView> response = gameController.getPlayerView(gameId);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(view, response.getBody());
+        assertEquals("\"7\"", response.getHeaders().getETag());
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void getGameStateInTheBinaryFormatWhenAsked() throws Exception {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        List<Room> rooms = CaveTemplate.create(CaveTemplate.Layout.GRID, 9).createRooms(gameId);
+        Game game = Game.createNewGame("TestPlayer", rooms.get(4).getId());
+        game.setId(gameId);
+        when(gameService.getGameState(gameId)).thenReturn(new GameState(game, rooms.get(4),
+                Map.of("pitNearby", true), Set.of(rooms.get(4).getId()), rooms));
+
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(new MappingJackson2HttpMessageConverter()));
+        new WebConfig().extendMessageConverters(converters);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(gameController)
+                .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+                .build();
+
+        // Act
+        byte[] binary = mockMvc.perform(get("/api/games/{gameId}/state", gameId)
+                        .accept(GameStateCodec.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(GameStateCodec.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        GameStateCodec.State state = GameStateCodec.decode(binary);
+        assertEquals(gameId, state.gameId());
+        assertEquals(5, state.roomNumber());
+        assertTrue(state.senses(GameStateCodec.PIT_NEARBY));
+        mockMvc.perform(get("/api/games/{gameId}/state", gameId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.currentRoom.roomNumber").value(5));
     }
 
     @Test
@@ -120,10 +228,8 @@ class GameControllerTest {
         Set<UUID> mockVisitedRooms = new HashSet<>();
         mockVisitedRooms.add(mockRoom.getId());
 
-        when(gameService.movePlayer(gameId, "north")).thenReturn(mockGame);
-        when(gameService.getCurrentRoom(gameId)).thenReturn(mockRoom);
-        when(gameService.getVisitedRooms(gameId)).thenReturn(mockVisitedRooms);
-        when(gameService.getHazardInformation(gameId)).thenReturn(mockHazardInfo);
+        when(gameService.movePlayerAndGetState(gameId, "north"))
+                .thenReturn(new GameState(mockGame, mockRoom, mockHazardInfo, mockVisitedRooms, List.of(mockRoom)));
         
         // Act
         ResponseEntity<GameController.GameStateResponse> response = gameController.movePlayer(gameId, request);
@@ -134,9 +240,28 @@ class GameControllerTest {
         assertEquals(mockGame, response.getBody().getGame());
         assertEquals(mockRoom, response.getBody().getCurrentRoom());
         assertEquals(mockVisitedRooms, response.getBody().getVisitedRooms());
-        verify(gameService, times(1)).movePlayer(gameId, "north");
-        verify(gameService, times(1)).getCurrentRoom(gameId);
-        verify(gameService, times(1)).getVisitedRooms(gameId);
+        verify(gameService, times(1)).movePlayerAndGetState(gameId, "north");
+        verify(gameService, never()).getGame(gameId);
+    }
+
+    @Test
+    void movePlayerDelta() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        GameController.MoveRequest request = new GameController.MoveRequest();
+        request.setDirection("north");
+
+        GameStateDelta delta = new GameStateDelta(4L, false, UUID.randomUUID(), 2,
+                Map.of("pitNearby", true), null, null, "Eg");
+        when(gameService.movePlayerAndGetDelta(gameId, "north", 3L)).thenReturn(delta);
+
+        // Act
+        ResponseEntity<GameStateDelta> response = gameController.movePlayerDelta(gameId, 3L, request);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(delta, response.getBody());
+        verify(gameService, never()).movePlayerAndGetState(any(UUID.class), anyString());
     }
 
     @Test
@@ -162,10 +287,8 @@ class GameControllerTest {
         Set<UUID> mockVisitedRooms = new HashSet<>();
         mockVisitedRooms.add(mockRoom.getId());
 
-        when(gameService.shootArrow(gameId, "north")).thenReturn(mockGame);
-        when(gameService.getCurrentRoom(gameId)).thenReturn(mockRoom);
-        when(gameService.getVisitedRooms(gameId)).thenReturn(mockVisitedRooms);
-        when(gameService.getHazardInformation(gameId)).thenReturn(mockHazardInfo);
+        when(gameService.shootArrowAndGetState(gameId, "north"))
+                .thenReturn(new GameState(mockGame, mockRoom, mockHazardInfo, mockVisitedRooms, List.of(mockRoom)));
         
         // Act
         ResponseEntity<GameController.GameStateResponse> response = gameController.shootArrow(gameId, request);
@@ -176,8 +299,94 @@ class GameControllerTest {
         assertEquals(mockGame, response.getBody().getGame());
         assertEquals(mockRoom, response.getBody().getCurrentRoom());
         assertEquals(mockVisitedRooms, response.getBody().getVisitedRooms());
-        verify(gameService, times(1)).shootArrow(gameId, "north");
-        verify(gameService, times(1)).getCurrentRoom(gameId);
-        verify(gameService, times(1)).getVisitedRooms(gameId);
+        verify(gameService, times(1)).shootArrowAndGetState(gameId, "north");
+        verify(gameService, never()).getGame(gameId);
+    }
+
+    @Test
+    void streamEventsNamesEventsByType() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        GameEvent shot = new GameEvent(gameId, 2L, GameEvent.Type.SHOT, null, null, null, 4, null);
+        when(gameEventStream.stream(eq(gameId), any())).thenReturn(Flux.just(shot));
+
+        // Act
+        Flux<ServerSentEvent<GameEvent>> events = gameController.streamEvents(gameId);
+
+        // Assert
+        StepVerifier.create(events)
+                .expectNextMatches(event -> "shot".equals(event.event()) && event.data() == shot)
+                .verifyComplete();
+    }
+
+    @Test
+    void runCommands() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        GameController.CommandRequest move = new GameController.CommandRequest();
+        move.setType("move");
+        move.setDirection("north");
+        GameController.CommandRequest shoot = new GameController.CommandRequest();
+        shoot.setType("SHOOT");
+        shoot.setDirection("east");
+        GameController.CommandBatchRequest request = new GameController.CommandBatchRequest();
+        request.setCommands(List.of(move, shoot));
+
+        Game game = new Game();
+        game.setId(gameId);
+        Room room = new Room();
+        GameState state = new GameState(game, room, Map.of(), Set.of(), List.of(room));
+        CommandResult moved = new CommandResult(GameCommand.of("move", "north"),
+                new GameEvent(gameId, 1L, GameEvent.Type.MOVED, room.getId(), 2, Map.of(), null, null), null);
+        when(gameService.runCommands(eq(gameId), any())).thenReturn(new CommandBatchResult(List.of(moved), state));
+
+        // Act
+        ResponseEntity<GameController.CommandBatchResponse> response = gameController.runCommands(gameId, request);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(List.of(moved), response.getBody().getResults());
+        assertSame(game, response.getBody().getState().getGame());
+        verify(gameService).runCommands(gameId, List.of(
+                new GameCommand(GameCommand.Type.MOVE, "north"), new GameCommand(GameCommand.Type.SHOOT, "east")));
+    }
+
+    @Test
+    void runCommandsRejectsBatchesOverTheLimit() throws Exception {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        String command = "{\"type\":\"move\",\"direction\":\"north\"}";
+        String body = "{\"commands\":[" + String.join(",",
+                Collections.nCopies(GameService.MAX_BATCH_COMMANDS + 1, command)) + "]}";
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(gameController).build();
+
+        // Act & Assert
+        mockMvc.perform(post("/api/games/{gameId}/commands", gameId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+        verify(gameService, never()).runCommands(any(), any());
+    }
+
+    @Test
+    void autoPlay() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        Game game = new Game();
+        game.setId(gameId);
+        game.setStatus(Game.GameStatus.WON);
+        Room room = new Room();
+        GameState state = new GameState(game, room, Map.of(), Set.of(), List.of(room));
+        when(autoPlayService.play(gameId, PlayerPolicy.PROBABILISTIC)).thenReturn(new AutoPlayResult(12, state));
+
+        // Act
+        ResponseEntity<GameController.AutoPlayResponse> response = gameController.autoPlay(gameId, PlayerPolicy.PROBABILISTIC);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(12, response.getBody().getSteps());
+        assertSame(game, response.getBody().getState().getGame());
     }
-}
\ No newline at end of file
+}
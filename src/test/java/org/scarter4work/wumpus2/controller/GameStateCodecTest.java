@@ -0,0 +1,136 @@
+package org.scarter4work.wumpus2.controller;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateCodecTest {
+
+    @Test
+    void roundTripsAGameState() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        List<Room> rooms = CaveTemplate.create(CaveTemplate.Layout.GRID, 25).createRooms(gameId);
+        Room current = rooms.get(12);
+        Game game = Game.createNewGame("Tëst Player", current.getId());
+        game.setId(gameId);
+        game.setVersion(41L);
+        game.setArrowsRemaining(3);
+        GameController.GameStateResponse response = new GameController.GameStateResponse(game, current,
+                Map.of("wumpusNearby", true, "pitNearby", false, "batsNearby", true),
+                Set.of(current.getId(), rooms.get(0).getId(), rooms.get(24).getId()));
+        response.setRooms(rooms);
+
+        // Act
+        byte[] bytes = GameStateCodec.encode(response);
+        GameStateCodec.State state = GameStateCodec.decode(bytes);
+
+        // Assert
+        assertEquals(gameId, state.gameId());
+        assertEquals(41L, state.version());
+        assertEquals(Game.GameStatus.IN_PROGRESS, state.status());
+        assertEquals(3, state.arrowsRemaining());
+        assertEquals(13, state.roomNumber());
+        assertArrayEquals(new int[] {8, 14, 18, 12}, state.neighbours());
+        assertTrue(state.senses(GameStateCodec.WUMPUS_NEARBY));
+        assertFalse(state.senses(GameStateCodec.PIT_NEARBY));
+        assertTrue(state.senses(GameStateCodec.BATS_NEARBY));
+        assertEquals(25, state.roomCount());
+        BitSet visited = new BitSet();
+        visited.set(0);
+        visited.set(12);
+        visited.set(24);
+        assertEquals(visited, state.visitedRooms());
+        assertEquals("Tëst Player", state.playerName());
+        // Format, ID, version, status, arrows, room, neighbours, hazards, room count, visited, name
+        assertEquals(1 + 16 + 1 + 1 + 1 + 1 + 4 + 1 + 1 + 4 + 1 + 12, bytes.length);
+    }
+
+    @Test
+    void encodesMissingNeighboursAndVersionsAsZero() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        List<Room> rooms = CaveTemplate.create(CaveTemplate.Layout.GRID, 9).createRooms(gameId);
+        Room corner = rooms.get(0);
+        Game game = Game.createNewGame("TestPlayer", corner.getId());
+        game.setId(gameId);
+        GameController.GameStateResponse response = new GameController.GameStateResponse(game, corner,
+                Map.of(), Set.of(corner.getId()));
+        response.setRooms(rooms);
+
+        // Act
+        GameStateCodec.State state = GameStateCodec.decode(GameStateCodec.encode(response));
+
+        // Assert
+        assertNull(state.version());
+        assertArrayEquals(new int[] {0, 2, 4, 0}, state.neighbours());
+        assertEquals(0, state.hazards());
+    }
+
+    @Test
+    void rejectsRoomsWithoutANumber() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        List<Room> rooms = CaveTemplate.create(CaveTemplate.Layout.GRID, 9).createRooms(gameId);
+        Game game = Game.createNewGame("TestPlayer", rooms.get(4).getId());
+        game.setId(gameId);
+        GameController.GameStateResponse response = new GameController.GameStateResponse(game, rooms.get(4),
+                Map.of(), Set.of(UUID.randomUUID()));
+        response.setRooms(rooms);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> GameStateCodec.encode(response));
+    }
+
+    @Test
+    void rejectsTruncatedAndUnknownInput() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        List<Room> rooms = CaveTemplate.create(CaveTemplate.Layout.GRID, 9).createRooms(gameId);
+        Game game = Game.createNewGame("TestPlayer", rooms.get(4).getId());
+        game.setId(gameId);
+        GameController.GameStateResponse response = new GameController.GameStateResponse(game, rooms.get(4),
+                Map.of(), Set.of(rooms.get(4).getId()));
+        response.setRooms(rooms);
+        byte[] bytes = GameStateCodec.encode(response);
+        byte[] unknownFormat = bytes.clone();
+        unknownFormat[0] = 2;
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> GameStateCodec.decode(Arrays.copyOf(bytes, bytes.length - 3)));
+        assertThrows(IllegalArgumentException.class, () -> GameStateCodec.decode(unknownFormat));
+    }
+
+    @Test
+    void varintsUseSevenBitsPerByte() {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        GameStateCodec.writeVarint(out, 0);
+        GameStateCodec.writeVarint(out, 127);
+        GameStateCodec.writeVarint(out, 300);
+        GameStateCodec.writeVarint(out, Long.MAX_VALUE);
+        ByteBuffer in = ByteBuffer.wrap(out.toByteArray());
+
+        // Assert
+        assertEquals(1 + 1 + 2 + 9, out.size());
+        assertEquals(0, GameStateCodec.readVarint(in));
+        assertEquals(127, GameStateCodec.readVarint(in));
+        assertEquals(300, GameStateCodec.readVarint(in));
+        assertEquals(Long.MAX_VALUE, GameStateCodec.readVarint(in));
+    }
+}
@@ -0,0 +1,353 @@
+package org.scarter4work.wumpus2.controller;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.GameRoom;
+import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.repository.GameRepository;
+import org.scarter4work.wumpus2.repository.GameRoomRepository;
+import org.scarter4work.wumpus2.repository.RoomRepository;
+import org.scarter4work.wumpus2.service.GameEvent;
+import org.scarter4work.wumpus2.service.GameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays through the reactive API on an embedded Netty server, with R2DBC on the
+ * same in-memory H2 database that JPA creates the schema in. The test profile
+ * comes last so that its connection settings win.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "wumpus.api.room-endpoints-enabled=true")
+@ActiveProfiles({"reactive", "test"})
+class ReactiveGameApiTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private GameRoomRepository gameRoomRepository;
+
+    @Test
+    void runsOnAReactiveServerWithR2dbc() {
+        // Assert
+        assertInstanceOf(ReactiveWebServerApplicationContext.class, context);
+        assertEquals("H2", connectionFactory.getMetadata().getName());
+    }
+
+    @Test
+    void playsAGame() {
+        // Arrange
+        Game game = webTestClient.post().uri("/api/games")
+                .bodyValue(Map.of("playerName", "TestPlayer"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Game.class)
+                .returnResult().getResponseBody();
+        assertNotNull(game);
+        StateView state = getState(game.getId());
+        String direction = openDirection(state.currentRoom());
+
+        // Act
+        StateView afterShot = webTestClient.post()
+                .uri("/api/games/{gameId}/shoot", game.getId())
+                .bodyValue(Map.of("direction", direction))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StateView.class)
+                .returnResult().getResponseBody();
+
+        // Assert
+        assertNotNull(afterShot);
+        assertEquals(state.game().getArrowsRemaining() - 1, afterShot.game().getArrowsRemaining());
+        assertEquals(state.game().getVersion() + 1, afterShot.game().getVersion());
+        assertEquals(afterShot.game().getArrowsRemaining(), getState(game.getId()).game().getArrowsRemaining());
+    }
+
+    @Test
+    void movesThePlayer() {
+        // Arrange
+        Game game = webTestClient.post().uri("/api/games")
+                .bodyValue(Map.of("playerName", "TestPlayer"))
+                .exchange()
+                .expectBody(Game.class)
+                .returnResult().getResponseBody();
+        assertNotNull(game);
+        Room start = getState(game.getId()).currentRoom();
+        String direction = openDirection(start);
+
+        // Act
+        StateView afterMove = webTestClient.post()
+                .uri("/api/games/{gameId}/move", game.getId())
+                .bodyValue(Map.of("direction", direction))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StateView.class)
+                .returnResult().getResponseBody();
+
+        // Assert
+        assertNotNull(afterMove);
+        assertNotEquals(start.getId(), afterMove.game().getCurrentRoomId());
+        assertTrue(afterMove.visitedRooms().contains(start.getId()));
+        assertEquals(afterMove.game().getCurrentRoomId(), getState(game.getId()).game().getCurrentRoomId());
+    }
+
+    @Test
+    void servesThePlayerViewWithAnETag() {
+        // Arrange
+        Game game = webTestClient.post().uri("/api/games")
+                .bodyValue(Map.of("playerName", "TestPlayer"))
+                .exchange()
+                .expectBody(Game.class)
+                .returnResult().getResponseBody();
+        assertNotNull(game);
+
+        // Act & Assert
+        String eTag = webTestClient.get().uri("/api/games/{gameId}/view", game.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.rooms.length()").isEqualTo(25)
+                .jsonPath("$.rooms[?(@.visited == true)].hasWumpus").isEqualTo(List.of(false))
+                .jsonPath("$.rooms[?(@.visited == false)].hasWumpus").isEmpty()
+                .returnResult().getResponseHeaders().getETag();
+        assertEquals("\"" + game.getVersion() + "\"", eTag);
+        webTestClient.get().uri("/api/games/{gameId}/view", game.getId())
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void runsABatchOfCommands() {
+        // Arrange
+        Game game = webTestClient.post().uri("/api/games")
+                .bodyValue(Map.of("playerName", "TestPlayer"))
+                .exchange()
+                .expectBody(Game.class)
+                .returnResult().getResponseBody();
+        assertNotNull(game);
+        String direction = missingDirection(game.getId(), getState(game.getId()).currentRoom());
+
+        // Act & Assert
+        webTestClient.post().uri("/api/games/{gameId}/commands", game.getId())
+                .bodyValue(Map.of("commands", List.of(
+                        Map.of("type", "shoot", "direction", direction),
+                        Map.of("type", "shoot", "direction", "nowhere"))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.results.length()").isEqualTo(2)
+                .jsonPath("$.results[0].change.arrowsRemaining").isEqualTo(game.getArrowsRemaining() - 1)
+                .jsonPath("$.results[1].error").isEqualTo("Invalid direction")
+                .jsonPath("$.state.game.version").isEqualTo(game.getVersion() + 1);
+        assertEquals(game.getArrowsRemaining() - 1, getState(game.getId()).game().getArrowsRemaining());
+        webTestClient.post().uri("/api/games/{gameId}/commands", game.getId())
+                .bodyValue(Map.of("commands", Collections.nCopies(GameService.MAX_BATCH_COMMANDS + 1,
+                        Map.of("type", "move", "direction", direction))))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void streamsGameEvents() {
+        // Arrange
+        Game game = webTestClient.post().uri("/api/games")
+                .bodyValue(Map.of("playerName", "TestPlayer"))
+                .exchange()
+                .expectBody(Game.class)
+                .returnResult().getResponseBody();
+        assertNotNull(game);
+        String direction = openDirection(getState(game.getId()).currentRoom());
+        Flux<ServerSentEvent<GameEvent>> events = webTestClient.get()
+                .uri("/api/games/{gameId}/events", game.getId())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<GameEvent>>() {
+                })
+                .getResponseBody();
+
+        // Act & Assert
+        StepVerifier.create(events)
+                .expectNextMatches(event -> "state".equals(event.event())
+                        && game.getCurrentRoomId().equals(event.data().roomId()))
+                .then(() -> webTestClient.post().uri("/api/games/{gameId}/shoot", game.getId())
+                        .bodyValue(Map.of("direction", direction))
+                        .exchange()
+                        .expectStatus().isOk())
+                .expectNextMatches(event -> "shot".equals(event.event())
+                        && event.data().arrowsRemaining() == game.getArrowsRemaining() - 1)
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void readsTheStoredRoomsOfALegacyGame() {
+        // Arrange
+        Room first = roomRepository.save(Room.createRoom(null, null, null, null));
+        Room second = roomRepository.save(Room.createRoom(null, null, null, first.getId()));
+        first.setEastRoomId(second.getId());
+        first.setRoomNumber(1);
+        second.setRoomNumber(2);
+        second.setHasPit(true);
+        roomRepository.saveAll(List.of(first, second));
+        Game game = gameRepository.save(Game.createNewGame("LegacyPlayer", first.getId()));
+        gameRoomRepository.saveAll(List.of(
+                GameRoom.createGameRoom(game.getId(), first.getId()),
+                GameRoom.createGameRoom(game.getId(), second.getId())));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/rooms/game/{gameId}", game.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(first.getId().toString())
+                .jsonPath("$[1].hasPit").isEqualTo(true);
+        webTestClient.get().uri("/api/rooms/{roomId}", second.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.westRoomId").isEqualTo(first.getId().toString());
+        webTestClient.get().uri("/api/rooms/pits?gameId={gameId}&status=IN_PROGRESS&size=1", game.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.rooms.length()").isEqualTo(1)
+                .jsonPath("$.rooms[0].id").isEqualTo(second.getId().toString())
+                .jsonPath("$.next").doesNotExist();
+        StateView state = getState(game.getId());
+        assertEquals(first.getId(), state.currentRoom().getId());
+        assertTrue(state.hazardInfo().get("pitNearby"));
+    }
+
+    @Test
+    void rejectsMalformedAndUnknownIds() {
+        // Act & Assert
+        webTestClient.get().uri("/api/games/{gameId}/state", "not-a-uuid")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/rooms/{roomId}", UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.get().uri("/api/rooms/bats?after=not-a-uuid")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/rooms/bats?size=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/rooms/bats?status=IN_PROGRESS")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/rooms/bats?gameId={gameId}", UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.get().uri("/api/games/{gameId}/state", UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void pagesTheHazardRoomsOfAGameBuiltFromATemplate() {
+        // Arrange
+        Game game = webTestClient.post().uri("/api/games")
+                .bodyValue(Map.of("playerName", "TestPlayer"))
+                .exchange()
+                .expectBody(Game.class)
+                .returnResult().getResponseBody();
+        assertNotNull(game);
+
+        // Act & Assert
+        webTestClient.get().uri("/api/rooms/wumpus?gameId={gameId}&status=IN_PROGRESS", game.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.rooms.length()").isEqualTo(1)
+                .jsonPath("$.rooms[0].hasWumpus").isEqualTo(true);
+        webTestClient.get().uri("/api/rooms/pits?gameId={gameId}&size=1", game.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.rooms.length()").isEqualTo(1)
+                .jsonPath("$.next").exists();
+    }
+
+    private StateView getState(UUID gameId) {
+        StateView state = webTestClient.get().uri("/api/games/{gameId}/state", gameId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StateView.class)
+                .returnResult().getResponseBody();
+        assertNotNull(state);
+        return state;
+    }
+
+    /**
+     * Finds a direction to shoot in without hitting the Wumpus, so that the
+     * game goes on after the shot.
+     */
+    private String missingDirection(UUID gameId, Room room) {
+        long wumpusMask = gameRepository.findById(gameId).orElseThrow().getWumpusMask();
+        UUID wumpusRoomId = CaveTemplate.roomId(gameId, Long.numberOfTrailingZeros(wumpusMask) + 1);
+        Map<String, UUID> neighbours = new LinkedHashMap<>();
+        neighbours.put("north", room.getNorthRoomId());
+        neighbours.put("east", room.getEastRoomId());
+        neighbours.put("south", room.getSouthRoomId());
+        neighbours.put("west", room.getWestRoomId());
+        return neighbours.entrySet().stream()
+                .filter(neighbour -> neighbour.getValue() != null && !neighbour.getValue().equals(wumpusRoomId))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String openDirection(Room room) {
+        if (room.getNorthRoomId() != null) {
+            return "north";
+        }
+        if (room.getEastRoomId() != null) {
+            return "east";
+        }
+        return room.getSouthRoomId() != null ? "south" : "west";
+    }
+
+    /**
+     * The game state response, read back as a record since the response class has no default constructor.
+     */
+    private record StateView(Game game, Room currentRoom, Map<String, Boolean> hazardInfo, Set<UUID> visitedRooms) {
+    }
+}
@@ -0,0 +1,57 @@
+package org.scarter4work.wumpus2.controller;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.service.GameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "wumpus.api.room-endpoints-enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RoomApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GameService gameService;
+
+    @Test
+    void findsTheHazardRoomsOfANewGameByStatus() throws Exception {
+        // Arrange
+        Game game = gameService.createNewGame("TestPlayer");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/rooms/wumpus")
+                        .param("gameId", game.getId().toString())
+                        .param("status", "IN_PROGRESS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rooms.length()").value(1))
+                .andExpect(jsonPath("$.rooms[0].hasWumpus").value(true));
+        mockMvc.perform(get("/api/rooms/wumpus")
+                        .param("gameId", game.getId().toString())
+                        .param("status", "WON"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rooms.length()").value(0));
+    }
+
+    @Test
+    void rejectsAStatusSearchWithoutAGame() throws Exception {
+        // Arrange
+        gameService.createNewGame("TestPlayer");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/rooms/wumpus").param("status", "IN_PROGRESS"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason(containsString("gameId")));
+    }
+}
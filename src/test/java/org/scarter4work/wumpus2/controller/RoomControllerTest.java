@@ -5,10 +5,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Hazard;
 import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.service.GameNotFoundException;
+import org.scarter4work.wumpus2.service.HazardRoomQuery;
+import org.scarter4work.wumpus2.service.RoomPage;
 import org.scarter4work.wumpus2.service.RoomService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -17,6 +24,8 @@ import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class RoomControllerTest {
 
@@ -103,86 +112,90 @@ class RoomControllerTest {
     @Test
     void getRoomsWithWumpus() {
         // Arrange
-        List<Room> mockRooms = new ArrayList<>();
-        
+        UUID gameId = UUID.randomUUID();
         Room room1 = new Room();
         room1.setId(UUID.randomUUID());
         room1.setRoomNumber(1);
         room1.setHasWumpus(true);
-        mockRooms.add(room1);
-
-        when(roomService.getRoomsWithWumpus()).thenReturn(mockRooms);
+        HazardRoomQuery query = new HazardRoomQuery(Hazard.WUMPUS, gameId, null, null,
+                HazardRoomQuery.DEFAULT_PAGE_SIZE);
+        when(roomService.getRoomsWithHazard(query)).thenReturn(new RoomPage(List.of(room1), null));
 
         // Act
-        ResponseEntity<List<Room>> response = roomController.getRoomsWithWumpus();
+        ResponseEntity<RoomPage> response = roomController.getRoomsWithWumpus(gameId, null, null,
+                HazardRoomQuery.DEFAULT_PAGE_SIZE);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertTrue(response.getBody().get(0).isHasWumpus());
-        verify(roomService, times(1)).getRoomsWithWumpus();
+        assertEquals(1, response.getBody().rooms().size());
+        assertTrue(response.getBody().rooms().get(0).isHasWumpus());
+        verify(roomService, times(1)).getRoomsWithHazard(query);
     }
 
     @Test
     void getRoomsWithPits() {
         // Arrange
-        List<Room> mockRooms = new ArrayList<>();
-        
+        UUID gameId = UUID.randomUUID();
+        UUID after = UUID.randomUUID();
         Room room1 = new Room();
         room1.setId(UUID.randomUUID());
         room1.setRoomNumber(1);
         room1.setHasPit(true);
-        mockRooms.add(room1);
-        
         Room room2 = new Room();
         room2.setId(UUID.randomUUID());
         room2.setRoomNumber(2);
         room2.setHasPit(true);
-        mockRooms.add(room2);
-
-        when(roomService.getRoomsWithPits()).thenReturn(mockRooms);
+        HazardRoomQuery query = new HazardRoomQuery(Hazard.PIT, gameId, Game.GameStatus.IN_PROGRESS, after, 2);
+        when(roomService.getRoomsWithHazard(query)).thenReturn(new RoomPage(List.of(room1, room2), room2.getId()));
 
         // Act
-        ResponseEntity<List<Room>> response = roomController.getRoomsWithPits();
+        ResponseEntity<RoomPage> response = roomController.getRoomsWithPits(gameId, Game.GameStatus.IN_PROGRESS,
+                after, 2);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(2, response.getBody().size());
-        assertTrue(response.getBody().get(0).isHasPit());
-        assertTrue(response.getBody().get(1).isHasPit());
-        verify(roomService, times(1)).getRoomsWithPits();
+        assertEquals(2, response.getBody().rooms().size());
+        assertEquals(room2.getId(), response.getBody().next());
+        verify(roomService, times(1)).getRoomsWithHazard(query);
     }
 
     @Test
-    void getRoomsWithBats() {
+    void getRoomsWithBatsRejectsPageSizesOutOfRange() throws Exception {
         // Arrange
-        List<Room> mockRooms = new ArrayList<>();
-        
-        Room room1 = new Room();
-        room1.setId(UUID.randomUUID());
-        room1.setRoomNumber(1);
-        room1.setHasBats(true);
-        mockRooms.add(room1);
-        
-        Room room2 = new Room();
-        room2.setId(UUID.randomUUID());
-        room2.setRoomNumber(2);
-        room2.setHasBats(true);
-        mockRooms.add(room2);
+        String gameId = UUID.randomUUID().toString();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(roomController).build();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/rooms/bats").param("gameId", gameId).param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/rooms/bats").param("gameId", gameId)
+                        .param("size", String.valueOf(HazardRoomQuery.MAX_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(roomService);
+    }
 
-        when(roomService.getRoomsWithBats()).thenReturn(mockRooms);
+    @Test
+    void getRoomsWithBatsRequiresAGame() throws Exception {
+        // Arrange
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(roomController).build();
 
-        // Act
-        ResponseEntity<List<Room>> response = roomController.getRoomsWithBats();
+        // Act & Assert
+        mockMvc.perform(get("/api/rooms/bats").param("status", "IN_PROGRESS"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(roomService);
+    }
 
-        // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertEquals(2, response.getBody().size());
-        assertTrue(response.getBody().get(0).isHasBats());
-        assertTrue(response.getBody().get(1).isHasBats());
-        verify(roomService, times(1)).getRoomsWithBats();
+    @Test
+    void getRoomsWithPitsAnswersNotFoundForUnknownGames() throws Exception {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        when(roomService.getRoomsWithHazard(any(HazardRoomQuery.class))).thenThrow(new GameNotFoundException(gameId));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(roomController).build();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/rooms/pits").param("gameId", gameId.toString()))
+                .andExpect(status().isNotFound());
     }
 }
\ No newline at end of file
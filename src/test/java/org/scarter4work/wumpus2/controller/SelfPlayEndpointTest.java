@@ -0,0 +1,82 @@
+package org.scarter4work.wumpus2.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.scarter4work.wumpus2.engine.PlayerPolicy;
+import org.scarter4work.wumpus2.engine.SelfPlaySettings;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.service.SelfPlayService;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SelfPlayEndpointTest {
+
+    @Mock
+    private SelfPlayService selfPlayService;
+
+    @InjectMocks
+    private SelfPlayEndpoint selfPlayEndpoint;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void playUsesTheDefaultsForMissingParameters() {
+        // Act
+        selfPlayEndpoint.play(null, null, null, null, null, null, null, null);
+
+        // Assert
+        ArgumentCaptor<SelfPlaySettings> settings = ArgumentCaptor.forClass(SelfPlaySettings.class);
+        verify(selfPlayService).play(eq(CaveTemplate.Layout.GRID), eq(SelfPlayEndpoint.DEFAULT_ROOMS),
+                settings.capture());
+        assertEquals(new SelfPlaySettings(SelfPlayEndpoint.DEFAULT_PITS, SelfPlayEndpoint.DEFAULT_BAT_COLONIES,
+                PlayerPolicy.CAUTIOUS, SelfPlayEndpoint.DEFAULT_GAMES, 0, SelfPlaySettings.DEFAULT_MAX_STEPS),
+                settings.getValue());
+    }
+
+    @Test
+    void playPassesTheGivenParameters() {
+        // Act
+        selfPlayEndpoint.play(CaveTemplate.Layout.CIRCULAR, 20, 2, 1, PlayerPolicy.RANDOM_WALK, 500, 9L, 50);
+
+        // Assert
+        verify(selfPlayService).play(CaveTemplate.Layout.CIRCULAR, 20,
+                new SelfPlaySettings(2, 1, PlayerPolicy.RANDOM_WALK, 500, 9, 50));
+    }
+
+    @Test
+    void playRejectsInvalidParametersAsBadRequests() {
+        // Arrange
+        when(selfPlayService.play(any(), anyInt(), any()))
+                .thenThrow(new IllegalArgumentException("Grid caves must have a square number of rooms"));
+
+        // Act & Assert
+        assertThrows(InvalidEndpointRequestException.class,
+                () -> selfPlayEndpoint.play(null, 24, null, null, null, null, null, null));
+        assertThrows(InvalidEndpointRequestException.class,
+                () -> selfPlayEndpoint.play(null, null, null, null, null, 0, null, null));
+    }
+
+    @Test
+    void playRejectsOversizedRunsBeforePlaying() {
+        // Arrange
+        SelfPlayEndpoint endpoint = new SelfPlayEndpoint(new SelfPlayService());
+
+        // Act & Assert
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.play(CaveTemplate.Layout.CIRCULAR,
+                Integer.MAX_VALUE, null, null, null, 1, null, null));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.play(null, null, null, null,
+                PlayerPolicy.MCTS, SelfPlaySettings.MAX_GAMES, null, null));
+    }
+}
@@ -0,0 +1,202 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HazardProbabilitiesTest {
+
+    private static final CaveTopology GRID = CaveTemplate.create(CaveTemplate.Layout.GRID, 25).topology();
+
+    @Test
+    void pitChancesMatchCountingEveryPlacement() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(11);
+        HazardProbabilities probabilities = new HazardProbabilities(3, 0);
+
+        for (int layout = 0; layout < 50; layout++) {
+            boolean[] pits = new boolean[25];
+            boolean[] visited = new boolean[25];
+            BeliefState belief = explore(random, pits, visited, 3, 6 + random.nextInt(10));
+
+            // Act
+            probabilities.update(belief);
+
+            // Assert
+            double[] expected = countPlacements(pits, visited, 3);
+            for (int room = 0; room < 25; room++) {
+                assertEquals(expected[room], probabilities.pit(room), 1e-9, "layout " + layout + " room " + room);
+            }
+        }
+    }
+
+    @Test
+    void pitChancesAddUpToThePitCount() {
+        // Arrange
+        CaveTopology cave = CaveTemplate.create(CaveTemplate.Layout.GRID, 100).topology();
+        BeliefState belief = new BeliefState().reset(cave);
+        byte[] contents = new byte[100];
+        SplittableRandom random = new SplittableRandom(5);
+        CaveContents.placeRandomHazards(contents, 100, random, 8, 0);
+        for (int room = 0; room < 100; room++) {
+            if (contents[room] == 0 && random.nextInt(3) == 0) {
+                belief.observe(room, CaveContents.nearby(cave, contents, room, CaveContents.WUMPUS),
+                        CaveContents.nearby(cave, contents, room, CaveContents.PIT), false);
+            }
+        }
+
+        // Act
+        HazardProbabilities probabilities = new HazardProbabilities(8, 0).update(belief);
+
+        // Assert
+        double pits = 0;
+        double wumpus = 0;
+        for (int room = 0; room < 100; room++) {
+            pits += probabilities.pit(room);
+            wumpus += probabilities.wumpus(room);
+            if (belief.isVisited(room)) {
+                assertEquals(0, probabilities.pit(room));
+            }
+        }
+        assertEquals(8, pits, 1e-9);
+        assertEquals(1, wumpus, 1e-9);
+    }
+
+    @Test
+    void componentsOfTheSameShapeShareOneEnumeration() {
+        // Arrange: breezes in two opposite corners leave two frontiers of the same shape
+        BeliefState belief = new BeliefState().reset(GRID);
+        belief.observe(0, false, true, false);
+        belief.observe(24, false, true, false);
+        HazardProbabilities probabilities = new HazardProbabilities(3, 3);
+
+        // Act
+        probabilities.update(belief);
+        int cached = probabilities.cachedComponents();
+        probabilities.update(belief);
+
+        // Assert
+        assertEquals(1, cached);
+        assertEquals(cached, probabilities.cachedComponents());
+        assertEquals(probabilities.pit(1), probabilities.pit(23), 1e-12);
+        assertTrue(probabilities.pit(1) > probabilities.pit(12));
+    }
+
+    @Test
+    void probabilisticPlayerWinsMoreOftenThanTheSolver() {
+        // Act
+        SelfPlayStats solver = SelfPlay.run(GRID, new SelfPlaySettings(3, 3, PlayerPolicy.SOLVER, 20_000, 9,
+                SelfPlaySettings.DEFAULT_MAX_STEPS));
+        SelfPlayStats probabilistic = SelfPlay.run(GRID, new SelfPlaySettings(3, 3, PlayerPolicy.PROBABILISTIC,
+                20_000, 9, SelfPlaySettings.DEFAULT_MAX_STEPS));
+
+        // Assert
+        assertTrue(probabilistic.winRate() > solver.winRate(),
+                "probabilistic " + probabilistic.winRate() + " vs solver " + solver.winRate());
+    }
+
+    @Test
+    void roomsProvenToHoldBatsHoldNoPit() {
+        // Arrange: room 10 is breezy but quiet, so room 5 holds no bats and room 0 hears the bats in room 1
+        BeliefState belief = new BeliefState().reset(GRID);
+        belief.observe(10, false, true, false);
+        belief.observe(0, false, true, true);
+        assertTrue(belief.isBats(1));
+
+        // Act
+        HazardProbabilities probabilities = new HazardProbabilities(3, 3).update(belief);
+
+        // Assert: the breeze in room 0 can only come from room 5
+        assertEquals(0, probabilities.pit(1));
+        assertEquals(1, probabilities.pit(5), 1e-9);
+    }
+
+    @Test
+    void constructorRejectsNegativeCounts() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new HazardProbabilities(-1, 3));
+        assertThrows(IllegalArgumentException.class, () -> new HazardProbabilities(3, -1));
+    }
+
+    /**
+     * Places pits at random and stands in some of the other rooms.
+     */
+    private static BeliefState explore(SplittableRandom random, boolean[] pits, boolean[] visited, int pitCount,
+                                       int rooms) {
+        byte[] contents = new byte[25];
+        CaveContents.placeRandomHazards(contents, 25, random, pitCount, 0);
+        BeliefState belief = new BeliefState().reset(GRID);
+        for (int room = 0; room < 25; room++) {
+            pits[room] = CaveContents.has(contents, room, CaveContents.PIT);
+        }
+        for (int i = 0; i < rooms; i++) {
+            int room = random.nextInt(25);
+            if (contents[room] == 0) {
+                visited[room] = true;
+                belief.observe(room, CaveContents.nearby(GRID, contents, room, CaveContents.WUMPUS),
+                        CaveContents.nearby(GRID, contents, room, CaveContents.PIT), false);
+            }
+        }
+        return belief;
+    }
+
+    /**
+     * Counts every placement of the pits outside the visited rooms that gives
+     * the breezes felt, and the share of them with a pit in each room.
+     */
+    private static double[] countPlacements(boolean[] pits, boolean[] visited, int pitCount) {
+        double[] withPit = new double[25];
+        int consistent = 0;
+        for (int mask = (1 << pitCount) - 1; mask < 1 << 25; mask = nextMask(mask)) {
+            if (!explains(mask, pits, visited)) {
+                continue;
+            }
+            consistent++;
+            for (int room = 0; room < 25; room++) {
+                if ((mask & 1 << room) != 0) {
+                    withPit[room]++;
+                }
+            }
+        }
+        for (int room = 0; room < 25; room++) {
+            withPit[room] /= consistent;
+        }
+        return withPit;
+    }
+
+    private static boolean explains(int mask, boolean[] pits, boolean[] visited) {
+        for (int room = 0; room < 25; room++) {
+            if (!visited[room]) {
+                continue;
+            }
+            if ((mask & 1 << room) != 0) {
+                return false;
+            }
+            boolean breeze = false;
+            boolean felt = false;
+            for (int direction = 0; direction < CaveTopology.DIRECTIONS; direction++) {
+                int neighbour = GRID.neighbour(room, direction);
+                if (neighbour != CaveTopology.NO_ROOM) {
+                    breeze |= (mask & 1 << neighbour) != 0;
+                    felt |= pits[neighbour];
+                }
+            }
+            if (breeze != felt) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The next larger int with the same number of bits set
+     */
+    private static int nextMask(int mask) {
+        int lowest = mask & -mask;
+        int ripple = mask + lowest;
+        return ripple | (((mask ^ ripple) >>> 2) / lowest);
+    }
+}
@@ -0,0 +1,235 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LayoutSamplerTest {
+
+    private static final CaveTopology GRID = CaveTemplate.create(CaveTemplate.Layout.GRID, 25).topology();
+
+    @Test
+    void everyLayoutExplainsWhatWasSensed() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(7);
+        LayoutSampler sampler = new LayoutSampler();
+
+        for (int layout = 0; layout < 20; layout++) {
+            BeliefState belief = explore(random, 3, 3);
+
+            // Act
+            assertTrue(sampler.start(belief, 3, 3, random), "layout " + layout);
+            for (int draw = 0; draw < 100; draw++) {
+                byte[] contents = sampler.next(random);
+
+                // Assert
+                assertEquals(1, count(contents, CaveContents.WUMPUS));
+                assertEquals(3, count(contents, CaveContents.PIT));
+                assertEquals(3, count(contents, CaveContents.BATS));
+                for (int room = 0; room < 25; room++) {
+                    if (belief.isVisited(room)) {
+                        assertEquals(0, contents[room]);
+                        assertEquals(belief.isBreezy(room), CaveContents.nearby(GRID, contents, room, CaveContents.PIT));
+                        assertEquals(belief.isNoisy(room), CaveContents.nearby(GRID, contents, room, CaveContents.BATS));
+                    }
+                    if (CaveContents.has(contents, room, CaveContents.WUMPUS)) {
+                        assertTrue(belief.isWumpusCandidate(room));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void pitsTurnUpAsOftenAsInEveryLayoutThatExplainsThePercepts() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(3);
+        LayoutSampler sampler = new LayoutSampler();
+
+        for (int layout = 0; layout < 5; layout++) {
+            BeliefState belief = explore(random, 3, 0);
+            double[] expected = countLayouts(belief);
+            assertTrue(sampler.start(belief, 3, 0, random));
+
+            // Act
+            int draws = 20_000;
+            int[] withPit = new int[25];
+            for (int draw = 0; draw < draws; draw++) {
+                byte[] contents = sampler.next(random);
+                for (int room = 0; room < 25; room++) {
+                    if (CaveContents.has(contents, room, CaveContents.PIT)) {
+                        withPit[room]++;
+                    }
+                }
+            }
+
+            // Assert
+            for (int room = 0; room < 25; room++) {
+                assertEquals(expected[room], (double) withPit[room] / draws, 0.03, "layout " + layout + " room " + room);
+            }
+        }
+    }
+
+    @Test
+    void pitsAndBatsTradeRoomsThatOnlyASwapReaches() {
+        // Arrange: room 0 is breezy and noisy, and rooms 1 and 5 are the only rooms next to it
+        BeliefState belief = new BeliefState().reset(GRID);
+        belief.observe(0, false, true, true);
+        double[][] expected = countPitAndBatLayouts(belief);
+        SplittableRandom random = new SplittableRandom(9);
+        LayoutSampler sampler = new LayoutSampler();
+        assertTrue(sampler.start(belief, 1, 1, random));
+
+        // Act
+        int draws = 20_000;
+        int[] withPit = new int[25];
+        int[] withBats = new int[25];
+        for (int draw = 0; draw < draws; draw++) {
+            byte[] contents = sampler.next(random);
+            for (int room = 0; room < 25; room++) {
+                if (CaveContents.has(contents, room, CaveContents.PIT)) {
+                    withPit[room]++;
+                }
+                if (CaveContents.has(contents, room, CaveContents.BATS)) {
+                    withBats[room]++;
+                }
+            }
+        }
+
+        // Assert
+        assertEquals(0.5, expected[0][1], 1e-9);
+        for (int room = 0; room < 25; room++) {
+            assertEquals(expected[0][room], (double) withPit[room] / draws, 0.03, "pit in room " + room);
+            assertEquals(expected[1][room], (double) withBats[room] / draws, 0.03, "bats in room " + room);
+        }
+    }
+
+    @Test
+    void startFailsWhenTheCountsCannotExplainWhatWasSensed() {
+        // Arrange
+        BeliefState belief = new BeliefState().reset(GRID);
+        belief.observe(12, false, true, false);
+
+        // Act & Assert
+        assertFalse(new LayoutSampler().start(belief, 0, 3, new SplittableRandom(1)));
+    }
+
+    /**
+     * Deals a cave and stands in some of its empty rooms.
+     */
+    private static BeliefState explore(SplittableRandom random, int pits, int batColonies) {
+        byte[] contents = new byte[25];
+        CaveContents.placeRandomHazards(contents, 25, random, pits, batColonies);
+        BeliefState belief = new BeliefState().reset(GRID);
+        int rooms = 6 + random.nextInt(10);
+        for (int i = 0; i < rooms; i++) {
+            int room = random.nextInt(25);
+            if (contents[room] == 0) {
+                belief.observe(room, CaveContents.nearby(GRID, contents, room, CaveContents.WUMPUS),
+                        CaveContents.nearby(GRID, contents, room, CaveContents.PIT),
+                        CaveContents.nearby(GRID, contents, room, CaveContents.BATS));
+            }
+        }
+        return belief;
+    }
+
+    /**
+     * Counts every room for the Wumpus and placement of three pits that gives
+     * the percepts sensed, and the share of them with a pit in each room.
+     */
+    private static double[] countLayouts(BeliefState belief) {
+        double[] withPit = new double[25];
+        int consistent = 0;
+        byte[] contents = new byte[25];
+        for (int a = 0; a < 25; a++) {
+            for (int b = a + 1; b < 25; b++) {
+                for (int c = b + 1; c < 25; c++) {
+                    contents[a] = contents[b] = contents[c] = CaveContents.PIT;
+                    if (explainsBreezes(belief, contents)) {
+                        for (int wumpus = 0; wumpus < 25; wumpus++) {
+                            if (contents[wumpus] == 0 && belief.isWumpusCandidate(wumpus)) {
+                                consistent++;
+                                withPit[a]++;
+                                withPit[b]++;
+                                withPit[c]++;
+                            }
+                        }
+                    }
+                    contents[a] = contents[b] = contents[c] = 0;
+                }
+            }
+        }
+        for (int room = 0; room < 25; room++) {
+            withPit[room] /= consistent;
+        }
+        return withPit;
+    }
+
+    /**
+     * Counts every room for the Wumpus, one pit and one bat colony that gives
+     * the percepts sensed, and the share of them with the pit, then the bats,
+     * in each room.
+     */
+    private static double[][] countPitAndBatLayouts(BeliefState belief) {
+        double[][] shares = new double[2][25];
+        int consistent = 0;
+        byte[] contents = new byte[25];
+        for (int pit = 0; pit < 25; pit++) {
+            for (int bats = 0; bats < 25; bats++) {
+                if (bats == pit) {
+                    continue;
+                }
+                contents[pit] = CaveContents.PIT;
+                contents[bats] = CaveContents.BATS;
+                if (explainsBreezes(belief, contents) && explainsNoises(belief, contents)) {
+                    for (int wumpus = 0; wumpus < 25; wumpus++) {
+                        if (contents[wumpus] == 0 && belief.isWumpusCandidate(wumpus)) {
+                            consistent++;
+                            shares[0][pit]++;
+                            shares[1][bats]++;
+                        }
+                    }
+                }
+                contents[pit] = contents[bats] = 0;
+            }
+        }
+        for (int room = 0; room < 25; room++) {
+            shares[0][room] /= consistent;
+            shares[1][room] /= consistent;
+        }
+        return shares;
+    }
+
+    private static boolean explainsNoises(BeliefState belief, byte[] contents) {
+        for (int room = 0; room < 25; room++) {
+            if (belief.isVisited(room)
+                    && belief.isNoisy(room) != CaveContents.nearby(GRID, contents, room, CaveContents.BATS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean explainsBreezes(BeliefState belief, byte[] contents) {
+        for (int room = 0; room < 25; room++) {
+            if (belief.isVisited(room) && (contents[room] != 0
+                    || belief.isBreezy(room) != CaveContents.nearby(GRID, contents, room, CaveContents.PIT))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int count(byte[] contents, int hazard) {
+        int count = 0;
+        for (int room = 0; room < 25; room++) {
+            if (CaveContents.has(contents, room, hazard)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
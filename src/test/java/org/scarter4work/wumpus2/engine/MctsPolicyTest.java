@@ -0,0 +1,94 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsPolicyTest {
+
+    private static final CaveTopology GRID = CaveTemplate.create(CaveTemplate.Layout.GRID, 25).topology();
+
+    @Test
+    void playsProvenMovesWithoutSearching() {
+        // Arrange: nothing is sensed in 12, so every room next to it is safe
+        byte[] contents = new byte[25];
+        contents[0] = CaveContents.WUMPUS;
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(1)).load(GRID, contents, 12, 5);
+        MctsPolicy player = new MctsPolicy(new SplittableRandom(2), 3, 3, MctsSettings.SELF_PLAY);
+        player.start(game);
+
+        // Act
+        int action = player.act(game);
+
+        // Assert
+        assertFalse(Policy.isShot(action));
+        assertEquals(0, player.getLastIterations());
+    }
+
+    @Test
+    void searchesWithItsWholeBudgetWhenEveryWayOnIsARisk() {
+        // Arrange: a breeze in corner 0, so the pit is in 1 or 5
+        byte[] contents = new byte[25];
+        contents[5] = CaveContents.PIT;
+        contents[24] = CaveContents.WUMPUS;
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(1)).load(GRID, contents, 0, 5);
+        MctsPolicy player = new MctsPolicy(new SplittableRandom(2), 3, 3, new MctsSettings(300, null, 1));
+        player.start(game);
+
+        // Act
+        int action = player.act(game);
+
+        // Assert
+        assertEquals(300, player.getLastIterations());
+        assertTrue(action == CaveTopology.EAST || action == CaveTopology.SOUTH, "action " + action);
+    }
+
+    @Test
+    void parallelSearchStopsAtItsTimeLimit() {
+        // Arrange
+        byte[] contents = new byte[25];
+        contents[5] = CaveContents.PIT;
+        contents[24] = CaveContents.WUMPUS;
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(1)).load(GRID, contents, 0, 5);
+        MctsPolicy player = new MctsPolicy(new SplittableRandom(2), 3, 3,
+                new MctsSettings(MctsSettings.MAX_ITERATIONS, Duration.ofMillis(50), 4));
+        player.start(game);
+
+        // Act
+        long start = System.nanoTime();
+        int action = player.act(game);
+        long elapsed = System.nanoTime() - start;
+
+        // Assert
+        assertTrue(elapsed < Duration.ofSeconds(2).toNanos(), "took " + elapsed + " ns");
+        assertTrue(player.getLastIterations() > 0);
+        assertTrue(player.getLastIterations() < MctsSettings.MAX_ITERATIONS);
+        assertTrue(action == CaveTopology.EAST || action == CaveTopology.SOUTH, "action " + action);
+    }
+
+    @Test
+    void mctsWinsMoreOftenThanTheSolver() {
+        // Act
+        SelfPlayStats solver = SelfPlay.run(GRID, new SelfPlaySettings(3, 3, PlayerPolicy.SOLVER, 2_000, 5,
+                SelfPlaySettings.DEFAULT_MAX_STEPS));
+        SelfPlayStats mcts = SelfPlay.run(GRID, new SelfPlaySettings(3, 3, PlayerPolicy.MCTS, 2_000, 5,
+                SelfPlaySettings.DEFAULT_MAX_STEPS));
+
+        // Assert
+        assertTrue(mcts.winRate() > solver.winRate(), "mcts " + mcts.winRate() + " vs solver " + solver.winRate());
+        assertEquals(0, mcts.unfinished());
+    }
+
+    @Test
+    void settingsRejectBudgetsOutOfRange() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new MctsSettings(0, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MctsSettings(MctsSettings.MAX_ITERATIONS + 1, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MctsSettings(100, Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MctsSettings(100, null, 0));
+    }
+}
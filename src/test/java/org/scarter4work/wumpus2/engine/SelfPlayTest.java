@@ -0,0 +1,95 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlayTest {
+
+    private static final CaveTopology GRID = CaveTemplate.create(CaveTemplate.Layout.GRID, 25).topology();
+
+    @Test
+    void runGivesTheSameTotalsForTheSameSeed() {
+        // Arrange
+        SelfPlaySettings settings = new SelfPlaySettings(3, 3, PlayerPolicy.CAUTIOUS, 3 * SelfPlay.CHUNK_SIZE + 17,
+                42, SelfPlaySettings.DEFAULT_MAX_STEPS);
+
+        // Act
+        SelfPlayStats first = SelfPlay.run(GRID, settings);
+        SelfPlayStats second = SelfPlay.run(GRID, settings);
+
+        // Assert
+        assertEquals(first, second);
+    }
+
+    @Test
+    void everyGameEndsInExactlyOneOutcome() {
+        // Arrange
+        SelfPlaySettings settings = new SelfPlaySettings(3, 3, PlayerPolicy.RANDOM_WALK, 10_000, 7,
+                SelfPlaySettings.DEFAULT_MAX_STEPS);
+
+        // Act
+        SelfPlayStats stats = SelfPlay.run(GRID, settings);
+
+        // Assert
+        assertEquals(10_000, stats.games());
+        assertEquals(stats.games(), stats.won() + stats.eatenByWumpus() + stats.fellIntoPit()
+                + stats.outOfArrows() + stats.unfinished());
+        assertTrue(stats.moves() > 0);
+        assertTrue(stats.averageArrowsUsed() <= SimulatedGame.STARTING_ARROWS);
+    }
+
+    @Test
+    void cautiousPlayerWinsMoreOftenThanRandomWalk() {
+        // Act
+        SelfPlayStats random = SelfPlay.run(GRID, new SelfPlaySettings(3, 3, PlayerPolicy.RANDOM_WALK, 10_000, 1,
+                SelfPlaySettings.DEFAULT_MAX_STEPS));
+        SelfPlayStats cautious = SelfPlay.run(GRID, new SelfPlaySettings(3, 3, PlayerPolicy.CAUTIOUS, 10_000, 1,
+                SelfPlaySettings.DEFAULT_MAX_STEPS));
+
+        // Assert
+        assertTrue(cautious.winRate() > random.winRate(),
+                "cautious " + cautious.winRate() + " vs random " + random.winRate());
+    }
+
+    @Test
+    void hazardFreeCavesCanOnlyBeLostByMissing() {
+        // Act
+        SelfPlayStats stats = SelfPlay.run(GRID, new SelfPlaySettings(0, 0, PlayerPolicy.CAUTIOUS, 1_000, 3,
+                SelfPlaySettings.DEFAULT_MAX_STEPS));
+
+        // Assert
+        assertEquals(0, stats.fellIntoPit());
+        assertEquals(0, stats.batFlights());
+    }
+
+    @Test
+    void runRejectsCavesTooSmallForTheHazards() {
+        // Arrange
+        SelfPlaySettings settings = new SelfPlaySettings(20, 10, PlayerPolicy.CAUTIOUS, 1, 0,
+                SelfPlaySettings.DEFAULT_MAX_STEPS);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> SelfPlay.run(GRID, settings));
+    }
+
+    @Test
+    void settingsRejectInvalidValues() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new SelfPlaySettings(-1, 3, PlayerPolicy.CAUTIOUS, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SelfPlaySettings(3, 3, null, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SelfPlaySettings(3, 3, PlayerPolicy.CAUTIOUS, 0, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SelfPlaySettings(3, 3, PlayerPolicy.CAUTIOUS, SelfPlaySettings.MAX_GAMES + 1, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SelfPlaySettings(3, 3, PlayerPolicy.CAUTIOUS, 1, 0, 0));
+        int maxSearchedGames = (int) (SelfPlaySettings.MAX_SEARCH_ITERATIONS / MctsSettings.SELF_PLAY.iterations());
+        assertDoesNotThrow(() -> new SelfPlaySettings(3, 3, PlayerPolicy.MCTS, maxSearchedGames, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SelfPlaySettings(3, 3, PlayerPolicy.MCTS, maxSearchedGames + 1, 0, 1));
+    }
+}
@@ -0,0 +1,205 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedGameTest {
+
+    @Test
+    void dealPlacesEveryHazardOnceAndStartsInASafeRoom() {
+        // Arrange
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(1));
+
+        for (int i = 0; i < 1_000; i++) {
+            // Act
+            game.deal(grid(5));
+
+            // Assert
+            assertEquals(1, count(game, CaveContents.WUMPUS));
+            assertEquals(CaveContents.PITS, count(game, CaveContents.PIT));
+            assertEquals(CaveContents.BAT_COLONIES, count(game, CaveContents.BATS));
+            int start = game.getCurrentRoom();
+            assertFalse(game.has(start, CaveContents.WUMPUS | CaveContents.PIT | CaveContents.BATS));
+            assertTrue(game.isVisited(start));
+            assertEquals(SimulatedGame.STARTING_ARROWS, game.getArrowsRemaining());
+            assertEquals(SimulatedGame.Outcome.IN_PROGRESS, game.getOutcome());
+        }
+    }
+
+    @Test
+    void replaysTheSameGamesFromTheSameSeed() {
+        // Arrange
+        SimulatedGame first = new SimulatedGame(new SplittableRandom(42));
+        SimulatedGame second = new SimulatedGame(new SplittableRandom(42));
+
+        // Act
+        long firstMoves = play(first, grid(5), new SplittableRandom(7), 100);
+        long secondMoves = play(second, grid(5), new SplittableRandom(7), 100);
+
+        // Assert
+        assertEquals(firstMoves, secondMoves);
+        assertEquals(first.getCurrentRoom(), second.getCurrentRoom());
+        assertEquals(first.getOutcome(), second.getOutcome());
+        for (int room = 0; room < 25; room++) {
+            assertEquals(first.has(room, CaveContents.WUMPUS), second.has(room, CaveContents.WUMPUS));
+            assertEquals(first.isVisited(room), second.isVisited(room));
+        }
+    }
+
+    @Test
+    void walkingIntoThePitOrTheWumpusEndsTheGame() {
+        // Arrange
+        byte[] contents = new byte[9];
+        contents[1] = CaveContents.PIT;
+        contents[3] = CaveContents.WUMPUS;
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(1)).load(grid(3), contents, 4, 5);
+        assertTrue(game.pitNearby());
+        assertTrue(game.wumpusNearby());
+        assertFalse(game.batsNearby());
+
+        // Act & Assert
+        assertEquals(SimulatedGame.Outcome.FELL_INTO_PIT, game.move(CaveTopology.NORTH));
+        assertEquals(1, game.getCurrentRoom());
+        assertTrue(game.isVisited(1));
+        assertThrows(IllegalStateException.class, () -> game.move(CaveTopology.SOUTH));
+
+        game.load(grid(3), contents, 4, 5);
+        assertEquals(SimulatedGame.Outcome.EATEN_BY_WUMPUS, game.move(CaveTopology.WEST));
+        assertFalse(game.getOutcome().isWon());
+        assertEquals(1, game.getMoves());
+    }
+
+    @Test
+    void batsCarryThePlayerOffUntilTheyLandInARoomWithoutBats() {
+        // Arrange
+        byte[] contents = new byte[9];
+        contents[1] = CaveContents.BATS;
+        contents[3] = CaveContents.BATS;
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(3));
+
+        for (int i = 0; i < 100; i++) {
+            game.load(grid(3), contents, 4, 5);
+
+            // Act
+            SimulatedGame.Outcome outcome = game.move(CaveTopology.NORTH);
+
+            // Assert
+            assertEquals(SimulatedGame.Outcome.IN_PROGRESS, outcome);
+            assertTrue(game.getBatFlights() >= 1);
+            assertFalse(game.has(game.getCurrentRoom(), CaveContents.BATS));
+            assertTrue(game.isVisited(game.getCurrentRoom()));
+            assertFalse(game.isVisited(1));
+        }
+    }
+
+    @Test
+    void shootingTheWumpusWinsAndMissingWithTheLastArrowLoses() {
+        // Arrange
+        byte[] contents = new byte[9];
+        contents[5] = CaveContents.WUMPUS;
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(1)).load(grid(3), contents, 4, 2);
+
+        // Act & Assert
+        assertEquals(SimulatedGame.Outcome.IN_PROGRESS, game.shoot(CaveTopology.NORTH));
+        assertEquals(SimulatedGame.Outcome.SHOT_WUMPUS, game.shoot(CaveTopology.EAST));
+        assertTrue(game.getOutcome().isWon());
+        assertEquals(0, game.getArrowsRemaining());
+
+        game.load(grid(3), contents, 4, 1);
+        assertEquals(SimulatedGame.Outcome.OUT_OF_ARROWS, game.shoot(CaveTopology.SOUTH));
+        assertThrows(IllegalStateException.class, () -> game.shoot(CaveTopology.EAST));
+    }
+
+    @Test
+    void rejectsStepsThroughWalls() {
+        // Arrange
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(1)).load(grid(3), new byte[9], 0, 5);
+
+        // Act & Assert
+        assertEquals(CaveTopology.NO_ROOM, game.neighbour(CaveTopology.NORTH));
+        assertThrows(IllegalArgumentException.class, () -> game.move(CaveTopology.NORTH));
+        assertThrows(IllegalArgumentException.class, () -> game.shoot(CaveTopology.WEST));
+        assertEquals(5, game.getArrowsRemaining());
+        assertEquals(0, game.getMoves());
+        assertThrows(IllegalArgumentException.class, () -> CaveTopology.of(new int[] {1, -1, -1}));
+        assertThrows(IllegalArgumentException.class, () -> CaveTopology.fromRoomNumbers(new int[] {2, 0, 0, 0}));
+    }
+
+    @Test
+    void playsGamesWithoutAllocating() {
+        // Arrange
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(11));
+        RandomGenerator player = new SplittableRandom(13);
+        CaveTopology topology = grid(5);
+        play(game, topology, player, 1_000);
+        threads.getCurrentThreadAllocatedBytes();
+
+        // Act
+        long before = threads.getCurrentThreadAllocatedBytes();
+        long moves = play(game, topology, player, 10_000);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // Assert
+        assertTrue(moves > 10_000);
+        assertTrue(allocated < 1_024, "Allocated " + allocated + " bytes");
+    }
+
+    /**
+     * Plays games in which the player wanders at random and now and then shoots.
+     *
+     * @return The moves made over all games
+     */
+    private static long play(SimulatedGame game, CaveTopology topology, RandomGenerator player, int games) {
+        long moves = 0;
+        for (int i = 0; i < games; i++) {
+            game.deal(topology);
+            while (!game.getOutcome().isOver()) {
+                int direction = player.nextInt(CaveTopology.DIRECTIONS);
+                while (game.neighbour(direction) == CaveTopology.NO_ROOM) {
+                    direction = (direction + 1) % CaveTopology.DIRECTIONS;
+                }
+                if (player.nextInt(5) == 0) {
+                    game.shoot(direction);
+                } else {
+                    game.move(direction);
+                }
+            }
+            moves += game.getMoves();
+        }
+        return moves;
+    }
+
+    private static int count(SimulatedGame game, int hazard) {
+        int count = 0;
+        for (int room = 0; room < game.getTopology().size(); room++) {
+            if (game.has(room, hazard)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Builds a square grid of rooms, each connected to its orthogonal neighbours.
+     */
+    private static CaveTopology grid(int width) {
+        int[] neighbours = new int[width * width * CaveTopology.DIRECTIONS];
+        for (int room = 0; room < width * width; room++) {
+            int row = room / width;
+            int col = room % width;
+            int offset = room * CaveTopology.DIRECTIONS;
+            neighbours[offset + CaveTopology.NORTH] = row > 0 ? room - width : CaveTopology.NO_ROOM;
+            neighbours[offset + CaveTopology.EAST] = col < width - 1 ? room + 1 : CaveTopology.NO_ROOM;
+            neighbours[offset + CaveTopology.SOUTH] = row < width - 1 ? room + width : CaveTopology.NO_ROOM;
+            neighbours[offset + CaveTopology.WEST] = col > 0 ? room - 1 : CaveTopology.NO_ROOM;
+        }
+        return CaveTopology.of(neighbours);
+    }
+}
@@ -0,0 +1,156 @@
+package org.scarter4work.wumpus2.engine;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverPolicyTest {
+
+    private static final CaveTopology GRID = CaveTemplate.create(CaveTemplate.Layout.GRID, 25).topology();
+
+    @Test
+    void smellingTheWumpusNarrowsItToTheRoomsNextToEveryStench() {
+        // Arrange
+        BeliefState belief = new BeliefState().reset(GRID);
+
+        // Act: 7 and 11 are the only rooms next to both 6 and 12
+        belief.observe(6, true, false, false);
+        belief.observe(12, true, false, false);
+
+        // Assert
+        assertEquals(2, belief.wumpusCandidateCount());
+        assertTrue(belief.isWumpusCandidate(7));
+        assertTrue(belief.isWumpusCandidate(11));
+        assertEquals(CaveTopology.NO_ROOM, belief.wumpusRoom());
+
+        // Act: no stench next to 11
+        belief.observe(10, false, false, false);
+
+        // Assert
+        assertEquals(7, belief.wumpusRoom());
+    }
+
+    @Test
+    void aBreezeWithOneUnprovenNeighbourProvesAPit() {
+        // Arrange
+        BeliefState belief = new BeliefState().reset(GRID);
+
+        // Act: corner 0 is breezy, so the pit is in 1 or 5
+        belief.observe(0, false, true, false);
+
+        // Assert
+        assertEquals(0.5, belief.pitRisk(1));
+        assertEquals(0.5, belief.pitRisk(5));
+
+        // Act: standing in 2 without a breeze clears 1
+        belief.observe(2, false, false, false);
+
+        // Assert
+        assertTrue(belief.isClearOfPit(1));
+        assertTrue(belief.isPit(5));
+        assertFalse(belief.isSafe(5));
+        assertEquals(0, belief.pitRisk(1));
+        assertEquals(1, belief.pitRisk(5));
+    }
+
+    @Test
+    void beingCarriedOffProvesBats() {
+        // Arrange
+        BeliefState belief = new BeliefState().reset(GRID);
+        belief.observe(12, false, false, true);
+
+        // Act
+        belief.carriedOffFrom(13);
+
+        // Assert
+        assertTrue(belief.isBats(13));
+        assertTrue(belief.isClearOfPit(13));
+        assertEquals(1, belief.batRisk(13));
+        assertFalse(belief.isSafe(13));
+    }
+
+    @Test
+    void solverHuntsDownTheWumpusItSmells() {
+        // Arrange
+        byte[] contents = new byte[25];
+        contents[7] = CaveContents.WUMPUS;
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(1)).load(GRID, contents, 6, 5);
+        SolverPolicy solver = new SolverPolicy(new SplittableRandom(2));
+        solver.start(game);
+
+        // Act
+        SimulatedGame.Outcome outcome = SimulatedGame.Outcome.IN_PROGRESS;
+        for (int step = 0; step < 100 && !outcome.isOver(); step++) {
+            outcome = Policy.apply(game, solver.act(game));
+        }
+
+        // Assert
+        assertEquals(SimulatedGame.Outcome.SHOT_WUMPUS, outcome);
+    }
+
+    @Test
+    void solverNeverStepsIntoAProvenPit() {
+        // Arrange: the only way on from 0 is past the breeze it feels, with the pit proven in 5
+        byte[] contents = new byte[25];
+        contents[5] = CaveContents.PIT;
+        contents[24] = CaveContents.WUMPUS;
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(1)).load(GRID, contents, 0, 5);
+        SolverPolicy solver = new SolverPolicy(new SplittableRandom(2));
+        solver.start(game);
+
+        // Act
+        SimulatedGame.Outcome outcome = SimulatedGame.Outcome.IN_PROGRESS;
+        for (int step = 0; step < 200 && !outcome.isOver(); step++) {
+            outcome = Policy.apply(game, solver.act(game));
+        }
+
+        // Assert
+        assertEquals(SimulatedGame.Outcome.SHOT_WUMPUS, outcome);
+        assertFalse(game.isVisited(5));
+    }
+
+    @Test
+    void solverWinsMoreOftenThanTheCautiousPlayer() {
+        // Act
+        SelfPlayStats cautious = SelfPlay.run(GRID, new SelfPlaySettings(3, 3, PlayerPolicy.CAUTIOUS, 20_000, 5,
+                SelfPlaySettings.DEFAULT_MAX_STEPS));
+        SelfPlayStats solver = SelfPlay.run(GRID, new SelfPlaySettings(3, 3, PlayerPolicy.SOLVER, 20_000, 5,
+                SelfPlaySettings.DEFAULT_MAX_STEPS));
+
+        // Assert
+        assertTrue(solver.winRate() > cautious.winRate(),
+                "solver " + solver.winRate() + " vs cautious " + cautious.winRate());
+    }
+
+    @Test
+    void choosingAnActionAllocatesNothing() {
+        // Arrange
+        SimulatedGame game = new SimulatedGame(new SplittableRandom(3));
+        SolverPolicy solver = new SolverPolicy(new SplittableRandom(4));
+        play(game, solver, 1_000);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        // Act
+        long before = threads.getThreadAllocatedBytes(thread);
+        play(game, solver, 1_000);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Assert
+        assertEquals(0, allocated);
+    }
+
+    private static void play(SimulatedGame game, SolverPolicy solver, int games) {
+        for (int i = 0; i < games; i++) {
+            game.deal(GRID);
+            solver.start(game);
+            for (int step = 0; step < SelfPlaySettings.DEFAULT_MAX_STEPS && !game.getOutcome().isOver(); step++) {
+                Policy.apply(game, solver.act(game));
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.scarter4work.wumpus2.load;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the load generator against an embedded instance on H2. By default this is a
+ * short smoke run; scale it up with system properties, for example
+ * {@code mvn test -Dtest=GameApiLoadTest -Dload.players=2000 -Dload.duration=PT1M}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.org.scarter4work.wumpus2=WARN")
+@ActiveProfiles("test")
+class GameApiLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void playersCompleteGameSessionsWithoutErrors() throws InterruptedException {
+        // Arrange
+        URI baseUrl = URI.create("http://localhost:" + port + "/wumpus");
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties(
+                new LoadTestSettings(baseUrl, 20, Duration.ofSeconds(3), Duration.ofSeconds(1), 0.1))
+                .withBaseUrl(baseUrl);
+
+        // Act
+        long start = System.nanoTime();
+        LoadReport report = new LoadGenerator(settings).run();
+        report.print(System.out, Duration.ofNanos(System.nanoTime() - start));
+
+        // Assert
+        assertTrue(report.requests() > 0);
+        assertEquals(0, report.errors());
+    }
+}
@@ -0,0 +1,159 @@
+package org.scarter4work.wumpus2.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives full game sessions against the REST API, one virtual thread per player.
+ * Each player follows the same flow as index.html: create a game, load its rooms,
+ * then poll the state and move or shoot in an open direction until the game ends,
+ * and start over until the run's duration has elapsed.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private static final String[] DIRECTIONS = {"north", "east", "south", "west"};
+
+    private final LoadTestSettings settings;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LoadReport report = new LoadReport();
+
+    public LoadGenerator(LoadTestSettings settings) {
+        this.settings = settings;
+        // Virtual threads on the client side too, so that the run adds no platform threads of its own
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Runs all players until the configured duration has elapsed.
+     *
+     * @return The report of the run
+     * @throws InterruptedException if interrupted while waiting for the players
+     */
+    public LoadReport run() throws InterruptedException {
+        log.info("Starting {} players against {} for {}", settings.players(), settings.baseUrl(), settings.duration());
+        long deadline = System.nanoTime() + settings.duration().toNanos();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < settings.players(); i++) {
+            long delayNanos = settings.rampUp().toNanos() * i / settings.players();
+            int player = i;
+            executor.submit(() -> {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delayNanos);
+                    while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                        playGame("load-" + player, deadline);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(settings.duration().toSeconds() + 60, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        return report;
+    }
+
+    private void playGame(String playerName, long deadline) throws InterruptedException {
+        JsonNode game = send("POST /api/games", post("/api/games",
+                objectMapper.createObjectNode().put("playerName", playerName)));
+        if (game == null) {
+            return;
+        }
+        String gameId = game.get("id").asText();
+
+        if (send("GET /api/games/{id}/view", get("/api/games/" + gameId + "/view")) == null) {
+            return;
+        }
+
+        while (System.nanoTime() < deadline) {
+            JsonNode state = send("GET /api/games/{id}/state", get("/api/games/" + gameId + "/state"));
+            if (state == null || !"IN_PROGRESS".equals(state.path("game").path("status").asText())) {
+                return;
+            }
+
+            String direction = openDirection(state.path("currentRoom"));
+            if (direction == null) {
+                return;
+            }
+
+            JsonNode command = objectMapper.createObjectNode().put("direction", direction);
+            boolean shoot = state.path("game").path("arrowsRemaining").asInt() > 0
+                    && ThreadLocalRandom.current().nextDouble() < settings.shootChance();
+            JsonNode result = shoot
+                    ? send("POST /api/games/{id}/shoot", post("/api/games/" + gameId + "/shoot", command))
+                    : send("POST /api/games/{id}/move", post("/api/games/" + gameId + "/move", command));
+            if (result == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Picks a random direction with a connected room, as the UI only enables those.
+     */
+    private static String openDirection(JsonNode room) {
+        List<String> open = new ArrayList<>(DIRECTIONS.length);
+        for (String direction : DIRECTIONS) {
+            if (!room.path(direction + "RoomId").isNull() && !room.path(direction + "RoomId").isMissingNode()) {
+                open.add(direction);
+            }
+        }
+        return open.isEmpty() ? null : open.get(ThreadLocalRandom.current().nextInt(open.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, JsonNode body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(settings.baseUrl() + path);
+    }
+
+    /**
+     * Sends a request and records its latency under the endpoint name.
+     *
+     * @return The parsed response body, or null if the request failed
+     */
+    private JsonNode send(String endpoint, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean success = response.statusCode() / 100 == 2;
+            report.record(endpoint, System.nanoTime() - start, success);
+            return success ? objectMapper.readTree(response.body()) : null;
+        } catch (IOException e) {
+            report.record(endpoint, System.nanoTime() - start, false);
+            log.debug("{} failed: {}", endpoint, e.getMessage());
+            return null;
+        }
+    }
+}
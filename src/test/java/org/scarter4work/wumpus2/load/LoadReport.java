@@ -0,0 +1,104 @@
+package org.scarter4work.wumpus2.load;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects per-endpoint latencies and errors of a load test run and prints
+ * p50/p95/p99 latency, throughput and error rate for each endpoint.
+ */
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+
+    /**
+     * Records one request.
+     *
+     * @param endpoint The endpoint name, e.g. "POST /api/games"
+     * @param nanos The request latency
+     * @param success Whether the request succeeded
+     */
+    public void record(String endpoint, long nanos, boolean success) {
+        timers.computeIfAbsent(endpoint, this::timer).record(nanos, TimeUnit.NANOSECONDS);
+        if (!success) {
+            errors.computeIfAbsent(endpoint, this::errorCounter).increment();
+        }
+    }
+
+    /**
+     * @return The total number of requests recorded
+     */
+    public long requests() {
+        return timers.values().stream().mapToLong(Timer::count).sum();
+    }
+
+    /**
+     * @return The total number of failed requests recorded
+     */
+    public long errors() {
+        return (long) errors.values().stream().mapToDouble(Counter::count).sum();
+    }
+
+    /**
+     * Prints the report.
+     *
+     * @param out Where to print
+     * @param elapsed How long the run took
+     */
+    public void print(PrintStream out, Duration elapsed) {
+        double seconds = elapsed.toMillis() / 1000.0;
+        out.printf("%-28s %9s %9s %9s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms");
+
+        List<String> endpoints = timers.keySet().stream().sorted().toList();
+        for (String endpoint : endpoints) {
+            Timer timer = timers.get(endpoint);
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            double[] percentiles = new double[PERCENTILES.length];
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                for (int i = 0; i < PERCENTILES.length; i++) {
+                    if (value.percentile() == PERCENTILES[i]) {
+                        percentiles[i] = value.value(TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+            Counter errorCounter = errors.get(endpoint);
+            long errorCount = errorCounter == null ? 0 : (long) errorCounter.count();
+            out.printf("%-28s %9d %9.1f %8.2f%% %10.2f %10.2f %10.2f%n",
+                    endpoint, timer.count(), timer.count() / seconds,
+                    timer.count() == 0 ? 0.0 : 100.0 * errorCount / timer.count(),
+                    percentiles[0], percentiles[1], percentiles[2]);
+        }
+
+        out.printf("total: %d requests in %.1f s, %.1f req/s, %d errors%n",
+                requests(), seconds, requests() / seconds, errors());
+    }
+
+    private Timer timer(String endpoint) {
+        return Timer.builder("load.request")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                // Keep every sample of the run in the percentiles instead of a rolling window
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+    }
+
+    private Counter errorCounter(String endpoint) {
+        return Counter.builder("load.errors").tag("endpoint", endpoint).register(registry);
+    }
+}
@@ -0,0 +1,27 @@
+package org.scarter4work.wumpus2.load;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Runs the load generator against an already running instance, e.g. one started
+ * with the default profile against a local Postgres container:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.scarter4work.wumpus2.load.LoadTestMain \
+ *     -Dload.baseUrl=http://localhost:8080/wumpus -Dload.players=2000 -Dload.duration=PT2M
+ * </pre>
+ * See {@link LoadTestSettings} for all options. To run against an embedded instance
+ * on H2 instead, use {@code GameApiLoadTest}.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties(new LoadTestSettings(
+                URI.create("http://localhost:8080/wumpus"), 1000, Duration.ofMinutes(1), Duration.ofSeconds(10), 0.1));
+
+        long start = System.nanoTime();
+        LoadReport report = new LoadGenerator(settings).run();
+        report.print(System.out, Duration.ofNanos(System.nanoTime() - start));
+    }
+}
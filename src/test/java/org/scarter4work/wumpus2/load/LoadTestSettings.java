@@ -0,0 +1,49 @@
+package org.scarter4work.wumpus2.load;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Settings of a load test run, read from system properties:
+ * <ul>
+ *     <li>{@code load.baseUrl} - base URL of the application, including the context path</li>
+ *     <li>{@code load.players} - number of concurrent simulated players</li>
+ *     <li>{@code load.duration} - how long to run, as an ISO-8601 duration such as PT2M</li>
+ *     <li>{@code load.rampUp} - time over which players are started</li>
+ *     <li>{@code load.shootChance} - probability that a command is a shot rather than a move</li>
+ * </ul>
+ *
+ * @param baseUrl Base URL of the application
+ * @param players Number of concurrent players
+ * @param duration How long to run
+ * @param rampUp Time over which players are started
+ * @param shootChance Probability that a command is a shot
+ */
+public record LoadTestSettings(URI baseUrl, int players, Duration duration, Duration rampUp, double shootChance) {
+
+    /**
+     * Reads the settings from system properties, using the given defaults for any
+     * that are not set.
+     *
+     * @param defaults The default settings
+     * @return The settings
+     */
+    public static LoadTestSettings fromSystemProperties(LoadTestSettings defaults) {
+        return new LoadTestSettings(
+                URI.create(System.getProperty("load.baseUrl", defaults.baseUrl().toString())),
+                Integer.getInteger("load.players", defaults.players()),
+                Duration.parse(System.getProperty("load.duration", defaults.duration().toString())),
+                Duration.parse(System.getProperty("load.rampUp", defaults.rampUp().toString())),
+                Double.parseDouble(System.getProperty("load.shootChance", String.valueOf(defaults.shootChance()))));
+    }
+
+    /**
+     * Returns these settings for another base URL.
+     *
+     * @param baseUrl The base URL
+     * @return The updated settings
+     */
+    public LoadTestSettings withBaseUrl(URI baseUrl) {
+        return new LoadTestSettings(baseUrl, players, duration, rampUp, shootChance);
+    }
+}
@@ -0,0 +1,110 @@
+package org.scarter4work.wumpus2.load;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the load generator against an embedded instance with the virtual-threads
+ * profile, recording JFR pinned-thread events. Fails if a virtual thread blocks
+ * while pinned by a monitor held in application code, or if the run needs a
+ * platform thread per player. Pins inside the H2 driver are reported but not
+ * counted, since production runs on Postgres.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.org.scarter4work.wumpus2=WARN")
+@ActiveProfiles({"test", "virtual-threads"})
+class VirtualThreadLoadTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Test
+    void playersAreServedOnVirtualThreadsWithoutPinning() throws InterruptedException {
+        // Arrange
+        URI baseUrl = URI.create("http://localhost:" + port + "/wumpus");
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties(
+                new LoadTestSettings(baseUrl, 100, Duration.ofSeconds(5), Duration.ofSeconds(1), 0.1))
+                .withBaseUrl(baseUrl);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int platformThreadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+
+        // Act
+        LoadReport report;
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable(PINNED_EVENT).withStackTrace().withThreshold(Duration.ZERO);
+            recording.onEvent(PINNED_EVENT, pinned::add);
+            recording.startAsync();
+
+            long start = System.nanoTime();
+            report = new LoadGenerator(settings).run();
+            report.print(System.out, Duration.ofNanos(System.nanoTime() - start));
+            recording.stop();
+        }
+        int platformThreadsPeak = threads.getPeakThreadCount();
+
+        // Assert
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+        assertInstanceOf(VirtualThreadExecutor.class,
+                webServer.getTomcat().getConnector().getProtocolHandler().getExecutor());
+        assertTrue(report.requests() > 0);
+        assertEquals(0, report.errors());
+
+        System.out.printf("Platform threads: %d before, %d peak; pinned events: %d%n",
+                platformThreadsBefore, platformThreadsPeak, pinned.size());
+        assertTrue(platformThreadsPeak - platformThreadsBefore < settings.players() / 4,
+                "Platform threads grew from " + platformThreadsBefore + " to " + platformThreadsPeak);
+
+        List<String> applicationPins = pinned.stream()
+                .filter(VirtualThreadLoadTest::pinnedInApplicationCode)
+                .map(VirtualThreadLoadTest::describe)
+                .distinct()
+                .toList();
+        assertTrue(applicationPins.isEmpty(), () -> "Pinned in application code:\n" + String.join("\n\n", applicationPins));
+    }
+
+    private static boolean pinnedInApplicationCode(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream().anyMatch(frame -> className(frame).startsWith("org.scarter4work."))
+                && frames.stream().noneMatch(frame -> className(frame).startsWith("org.h2."));
+    }
+
+    private static String describe(RecordedEvent event) {
+        StringBuilder description = new StringBuilder();
+        event.getStackTrace().getFrames().stream().limit(20).forEach(frame -> description
+                .append("    at ").append(className(frame)).append('.').append(frame.getMethod().getName())
+                .append(':').append(frame.getLineNumber()).append('\n'));
+        return description.toString();
+    }
+
+    private static String className(RecordedFrame frame) {
+        return frame.getMethod().getType().getName();
+    }
+}
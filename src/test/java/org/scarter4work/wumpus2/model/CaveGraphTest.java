@@ -0,0 +1,109 @@
+package org.scarter4work.wumpus2.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaveGraphTest {
+
+    @Test
+    void fromRoomsCompilesAdjacency() {
+        // Arrange
+        List<Room> rooms = createGrid(3);
+
+        // Act
+        CaveGraph cave = CaveGraph.fromRooms(rooms);
+
+        // Assert
+        assertEquals(9, cave.size());
+        int centre = cave.indexOf(rooms.get(4).getId());
+        assertEquals(4, centre);
+        assertEquals(5, cave.roomNumber(centre));
+        assertEquals(1, cave.neighbour(centre, Direction.NORTH));
+        assertEquals(5, cave.neighbour(centre, Direction.EAST));
+        assertEquals(7, cave.neighbour(centre, Direction.SOUTH));
+        assertEquals(3, cave.neighbour(centre, Direction.WEST));
+        assertEquals(CaveGraph.NO_ROOM, cave.neighbour(0, Direction.NORTH));
+        assertEquals(CaveGraph.NO_ROOM, cave.neighbour(0, Direction.WEST));
+        assertEquals(rooms.get(8).getId(), cave.roomId(8));
+    }
+
+    @Test
+    void unknownRoomsResolveToNoRoom() {
+        // Arrange
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setNorthRoomId(UUID.randomUUID());
+
+        // Act
+        CaveGraph cave = CaveGraph.fromRooms(List.of(room));
+
+        // Assert
+        assertEquals(CaveGraph.NO_ROOM, cave.indexOf(UUID.randomUUID()));
+        assertEquals(CaveGraph.NO_ROOM, cave.neighbour(0, Direction.NORTH));
+    }
+
+    @Test
+    void hazardsAreSensedFromAdjacentRoomsOnly() {
+        // Arrange
+        List<Room> rooms = createGrid(3);
+        rooms.get(0).setHasWumpus(true);
+        rooms.get(2).setHasPit(true);
+        rooms.get(7).setHasBats(true);
+
+        // Act
+        CaveGraph cave = CaveGraph.fromRooms(rooms);
+
+        // Assert
+        assertTrue(cave.hasWumpus(0));
+        assertTrue(cave.hasPit(2));
+        assertTrue(cave.hasBats(7));
+        assertTrue(cave.wumpusNearby(1));
+        assertTrue(cave.pitNearby(1));
+        assertFalse(cave.batsNearby(1));
+        assertFalse(cave.wumpusNearby(4));
+        assertTrue(cave.batsNearby(4));
+        assertFalse(cave.wumpusNearby(0));
+    }
+
+    @Test
+    void directionFromStringIsCaseInsensitive() {
+        assertEquals(Direction.NORTH, Direction.fromString("North"));
+        assertEquals(Direction.WEST, Direction.fromString("west"));
+        assertEquals("east", Direction.EAST.key());
+        assertThrows(IllegalArgumentException.class, () -> Direction.fromString("up"));
+        assertThrows(IllegalArgumentException.class, () -> Direction.fromString(null));
+    }
+
+    private List<Room> createGrid(int width) {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < width * width; i++) {
+            Room room = new Room();
+            room.setId(UUID.randomUUID());
+            room.setRoomNumber(i + 1);
+            rooms.add(room);
+        }
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            int row = i / width;
+            int col = i % width;
+            if (row > 0) {
+                room.setNorthRoomId(rooms.get(i - width).getId());
+            }
+            if (row < width - 1) {
+                room.setSouthRoomId(rooms.get(i + width).getId());
+            }
+            if (col < width - 1) {
+                room.setEastRoomId(rooms.get(i + 1).getId());
+            }
+            if (col > 0) {
+                room.setWestRoomId(rooms.get(i - 1).getId());
+            }
+        }
+        return rooms;
+    }
+}
@@ -0,0 +1,81 @@
+package org.scarter4work.wumpus2.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaveTemplateTest {
+
+    @Test
+    void gridTemplateConnectsOrthogonalNeighbours() {
+        // Act
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.GRID, 25);
+
+        // Assert
+        assertEquals(8, template.neighbour(13, Direction.NORTH));
+        assertEquals(14, template.neighbour(13, Direction.EAST));
+        assertEquals(18, template.neighbour(13, Direction.SOUTH));
+        assertEquals(12, template.neighbour(13, Direction.WEST));
+        assertEquals(0, template.neighbour(1, Direction.NORTH));
+        assertEquals(0, template.neighbour(25, Direction.EAST));
+    }
+
+    @Test
+    void circularTemplateMatchesRingLayout() {
+        // Act
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.CIRCULAR, 10);
+
+        // Assert
+        assertEquals(2, template.neighbour(1, Direction.NORTH));
+        assertEquals(4, template.neighbour(1, Direction.EAST));
+        assertEquals(10, template.neighbour(1, Direction.SOUTH));
+        assertEquals(6, template.neighbour(1, Direction.WEST));
+        assertEquals(0, template.neighbour(2, Direction.WEST));
+        assertThrows(IllegalArgumentException.class, () -> CaveTemplate.create(CaveTemplate.Layout.CIRCULAR, 4));
+        assertThrows(IllegalArgumentException.class, () -> CaveTemplate.create(CaveTemplate.Layout.GRID, 24));
+    }
+
+    @Test
+    void storedAdjacencyIsParsedBack() {
+        // Arrange
+        CaveTemplate created = CaveTemplate.create(CaveTemplate.Layout.GRID, 9);
+        CaveTemplate loaded = new CaveTemplate();
+        loaded.setLayout(created.getLayout());
+        loaded.setRoomCount(created.getRoomCount());
+        loaded.setAdjacency(created.getAdjacency());
+
+        // Act & Assert
+        for (int roomNumber = 1; roomNumber <= 9; roomNumber++) {
+            for (Direction direction : Direction.values()) {
+                assertEquals(created.neighbour(roomNumber, direction), loaded.neighbour(roomNumber, direction));
+            }
+        }
+    }
+
+    @Test
+    void createRoomsDerivesStableRoomIdsPerGame() {
+        // Arrange
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.GRID, 9);
+        UUID gameId = UUID.randomUUID();
+
+        // Act
+        List<Room> rooms = template.createRooms(gameId);
+        List<Room> again = template.createRooms(gameId);
+        List<Room> otherGame = template.createRooms(UUID.randomUUID());
+
+        // Assert
+        assertEquals(9, rooms.size());
+        assertEquals(rooms.get(4).getId(), again.get(4).getId());
+        assertNotEquals(rooms.get(4).getId(), otherGame.get(4).getId());
+        assertEquals(CaveTemplate.roomId(gameId, 5), rooms.get(4).getId());
+        assertEquals(rooms.get(1).getId(), rooms.get(4).getNorthRoomId());
+        assertEquals(rooms.get(5).getId(), rooms.get(4).getEastRoomId());
+        assertNull(rooms.get(0).getWestRoomId());
+
+        CaveGraph cave = CaveGraph.fromRooms(rooms);
+        assertEquals(7, cave.neighbour(4, Direction.SOUTH));
+    }
+}
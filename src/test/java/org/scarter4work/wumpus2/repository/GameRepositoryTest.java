@@ -0,0 +1,102 @@
+package org.scarter4work.wumpus2.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.Game;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class GameRepositoryTest {
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void updatePositionsWritesRoomAndArrowsInOneBatch() {
+        // Arrange
+        Game first = gameRepository.save(Game.createNewGame("First", UUID.randomUUID()));
+        Game second = gameRepository.save(Game.createNewGame("Second", UUID.randomUUID()));
+        entityManager.flush();
+        entityManager.clear();
+
+        UUID firstRoom = UUID.randomUUID();
+        first.setCurrentRoomId(firstRoom);
+        first.setArrowsRemaining(3);
+        first.setVisitedMask(0b101L);
+        second.setArrowsRemaining(1);
+
+        // Act
+        Set<UUID> stale = gameRepository.updatePositions(List.of(first, second));
+
+        // Assert
+        assertTrue(stale.isEmpty());
+        Game reloadedFirst = gameRepository.findById(first.getId()).orElseThrow();
+        Game reloadedSecond = gameRepository.findById(second.getId()).orElseThrow();
+        assertEquals(firstRoom, reloadedFirst.getCurrentRoomId());
+        assertEquals(3, reloadedFirst.getArrowsRemaining());
+        assertEquals(0b101L, reloadedFirst.getVisitedMask());
+        assertNull(reloadedSecond.getVisitedMask());
+        assertEquals(1, reloadedSecond.getArrowsRemaining());
+        assertEquals(first.getVersion() + 1, reloadedFirst.getVersion());
+        assertTrue(gameRepository.updatePositions(List.of()).isEmpty());
+    }
+
+    @Test
+    void updatePositionsSkipsGamesChangedSinceTheyWereRead() {
+        // Arrange
+        Game game = gameRepository.save(Game.createNewGame("Player", UUID.randomUUID()));
+        entityManager.flush();
+        entityManager.clear();
+
+        Game current = gameRepository.findById(game.getId()).orElseThrow();
+        current.setArrowsRemaining(4);
+        gameRepository.saveAndFlush(current);
+        entityManager.clear();
+
+        game.setArrowsRemaining(1);
+
+        // Act
+        Set<UUID> stale = gameRepository.updatePositions(List.of(game));
+
+        // Assert
+        assertEquals(Set.of(game.getId()), stale);
+        assertEquals(4, gameRepository.findById(game.getId()).orElseThrow().getArrowsRemaining());
+    }
+
+    @Test
+    void updateHazardMasksLeavesPositionUntouched() {
+        // Arrange
+        UUID startingRoom = UUID.randomUUID();
+        Game game = gameRepository.save(Game.createNewGame("Player", startingRoom));
+        entityManager.flush();
+        entityManager.clear();
+
+        game.setCurrentRoomId(UUID.randomUUID());
+        game.setWumpusMask(1L);
+        game.setPitMask(6L);
+        game.setBatMask(24L);
+
+        // Act
+        int updated = gameRepository.updateHazardMasks(game);
+
+        // Assert
+        assertEquals(1, updated);
+        Game reloaded = gameRepository.findById(game.getId()).orElseThrow();
+        assertEquals(startingRoom, reloaded.getCurrentRoomId());
+        assertEquals(1L, reloaded.getWumpusMask());
+        assertEquals(6L, reloaded.getPitMask());
+        assertEquals(24L, reloaded.getBatMask());
+    }
+}
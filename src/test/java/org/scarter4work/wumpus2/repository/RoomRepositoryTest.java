@@ -0,0 +1,89 @@
+package org.scarter4work.wumpus2.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.GameRoom;
+import org.scarter4work.wumpus2.model.Room;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class RoomRepositoryTest {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private GameRoomRepository gameRoomRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findRoomsByGameIdLoadsWholeCaveInOneStatement() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        UUID otherGameId = UUID.randomUUID();
+        createCave(gameId, 25);
+        createCave(otherGameId, 25);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // Act
+        List<Room> rooms = roomRepository.findRoomsByGameId(gameId);
+
+        // Assert
+        assertEquals(25, rooms.size());
+        for (int i = 0; i < rooms.size(); i++) {
+            assertEquals(i + 1, rooms.get(i).getRoomNumber());
+        }
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findRoomsByGameIdReturnsEmptyListForUnknownGame() {
+        // Arrange
+        createCave(UUID.randomUUID(), 5);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // Act
+        List<Room> rooms = roomRepository.findRoomsByGameId(UUID.randomUUID());
+
+        // Assert
+        assertTrue(rooms.isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private void createCave(UUID gameId, int size) {
+        for (int i = size; i >= 1; i--) {
+            Room room = new Room();
+            room.setRoomNumber(i);
+            room = roomRepository.save(room);
+            gameRoomRepository.save(GameRoom.createGameRoom(gameId, room.getId()));
+        }
+    }
+}
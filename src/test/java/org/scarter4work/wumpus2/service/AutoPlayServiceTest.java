@@ -0,0 +1,135 @@
+package org.scarter4work.wumpus2.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.scarter4work.wumpus2.config.AutoPlayProperties;
+import org.scarter4work.wumpus2.engine.PlayerPolicy;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AutoPlayServiceTest {
+
+    @Mock
+    private GameService gameService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AutoPlayService autoPlayService;
+
+    private UUID gameId;
+    private List<Room> rooms;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        AutoPlayProperties properties = new AutoPlayProperties();
+        properties.setMctsIterations(200);
+        autoPlayService = new AutoPlayService(gameService, new GameMetrics(meterRegistry), properties);
+
+        // Three rooms in a row, west to east
+        gameId = UUID.randomUUID();
+        rooms = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Room room = new Room();
+            room.setId(UUID.randomUUID());
+            room.setRoomNumber(i + 1);
+            rooms.add(room);
+        }
+        for (int i = 0; i < 2; i++) {
+            rooms.get(i).setEastRoomId(rooms.get(i + 1).getId());
+            rooms.get(i + 1).setWestRoomId(rooms.get(i).getId());
+        }
+    }
+
+    @Test
+    void playWalksToTheWumpusItSmellsAndShootsIt() {
+        // Arrange: the Wumpus is in the east room
+        when(gameService.getGameState(gameId)).thenReturn(state(0, Game.GameStatus.IN_PROGRESS, 5, false));
+        when(gameService.movePlayerAndGetState(gameId, "east"))
+                .thenReturn(state(1, Game.GameStatus.IN_PROGRESS, 5, true));
+        when(gameService.shootArrowAndGetState(gameId, "east")).thenReturn(state(1, Game.GameStatus.WON, 4, true));
+
+        // Act
+        AutoPlayResult result = autoPlayService.play(gameId, PlayerPolicy.SOLVER);
+
+        // Assert
+        assertEquals(2, result.steps());
+        assertEquals(Game.GameStatus.WON, result.state().game().getStatus());
+        verify(gameService).movePlayerAndGetState(gameId, "east");
+        verify(gameService).shootArrowAndGetState(gameId, "east");
+        assertEquals(2, meterRegistry.get("wumpus.ai.decision").tag("policy", "solver").timer().count());
+    }
+
+    @Test
+    void playWithMctsRecordsHowLongEachChoiceTook() {
+        // Arrange: a breeze in the middle room, so both ways on may hold a pit
+        when(gameService.getGameState(gameId)).thenReturn(breezyState(1));
+        when(gameService.movePlayerAndGetState(eq(gameId), any())).thenReturn(breezyState(0));
+
+        // Act
+        AutoPlayResult result = autoPlayService.play(gameId, PlayerPolicy.MCTS);
+
+        // Assert
+        assertEquals(Game.GameStatus.LOST, result.state().game().getStatus());
+        assertEquals(1, meterRegistry.get("wumpus.ai.decision").tag("policy", "mcts").timer().count());
+    }
+
+    @Test
+    void playRejectsGamesThatAreOver() {
+        // Arrange
+        when(gameService.getGameState(gameId)).thenReturn(state(0, Game.GameStatus.LOST, 5, false));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> autoPlayService.play(gameId, PlayerPolicy.SOLVER));
+        verify(gameService, never()).movePlayerAndGetState(any(), any());
+        verify(gameService, never()).shootArrowAndGetState(any(), any());
+    }
+
+    @Test
+    void playWithTheProbabilisticPolicyStopsWhenTheGameEnds() {
+        // Arrange: the player starts in the middle room and falls into a pit on the first move
+        when(gameService.getGameState(gameId)).thenReturn(state(1, Game.GameStatus.IN_PROGRESS, 5, false));
+        when(gameService.movePlayerAndGetState(eq(gameId), any()))
+                .thenReturn(state(2, Game.GameStatus.LOST, 5, false));
+
+        // Act
+        AutoPlayResult result = autoPlayService.play(gameId, PlayerPolicy.PROBABILISTIC);
+
+        // Assert
+        assertEquals(1, result.steps());
+    }
+
+    @Test
+    void playRejectsPoliciesThatCannotPlayStoredGames() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> autoPlayService.play(gameId, PlayerPolicy.CAUTIOUS));
+        verifyNoInteractions(gameService);
+    }
+
+    private GameState breezyState(int currentRoom) {
+        GameState state = state(currentRoom, currentRoom == 1 ? Game.GameStatus.IN_PROGRESS : Game.GameStatus.LOST,
+                5, false);
+        return new GameState(state.game(), state.currentRoom(),
+                Map.of("wumpusNearby", false, "pitNearby", true, "batsNearby", false), Set.of(), rooms);
+    }
+
+    private GameState state(int currentRoom, Game.GameStatus status, int arrows, boolean wumpusNearby) {
+        Game game = new Game();
+        game.setId(gameId);
+        game.setStatus(status);
+        game.setArrowsRemaining(arrows);
+        game.setCurrentRoomId(rooms.get(currentRoom).getId());
+        Map<String, Boolean> hazardInfo = Map.of("wumpusNearby", wumpusNearby, "pitNearby", false,
+                "batsNearby", false);
+        return new GameState(game, rooms.get(currentRoom), hazardInfo, Set.of(), rooms);
+    }
+}
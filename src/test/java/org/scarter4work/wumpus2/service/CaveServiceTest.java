@@ -0,0 +1,174 @@
+package org.scarter4work.wumpus2.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.scarter4work.wumpus2.model.CaveTemplate;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.GameCave;
+import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.model.RoomMask;
+import org.scarter4work.wumpus2.repository.CaveTemplateRepository;
+import org.scarter4work.wumpus2.repository.GameCaveRepository;
+import org.scarter4work.wumpus2.repository.GameRepository;
+import org.scarter4work.wumpus2.repository.RoomRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CaveServiceTest {
+
+    @Mock
+    private CaveTemplateRepository caveTemplateRepository;
+
+    @Mock
+    private GameCaveRepository gameCaveRepository;
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CaveService caveService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        caveService = new CaveService(caveTemplateRepository, gameCaveRepository, gameRepository, roomRepository,
+                transactionManager);
+    }
+
+    @Test
+    void getTemplateStoresLayoutOnceAndKeepsItInMemory() {
+        // Arrange
+        when(caveTemplateRepository.findByLayoutAndRoomCount(CaveTemplate.Layout.GRID, 25))
+                .thenReturn(Optional.empty());
+        when(caveTemplateRepository.saveAndFlush(any(CaveTemplate.class))).thenAnswer(invocation -> {
+            CaveTemplate template = invocation.getArgument(0);
+            template.setId(UUID.randomUUID());
+            return template;
+        });
+
+        // Act
+        CaveTemplate first = caveService.getTemplate(CaveTemplate.Layout.GRID, 25);
+        CaveTemplate second = caveService.getTemplate(CaveTemplate.Layout.GRID, 25);
+
+        // Assert
+        assertSame(first, second);
+        assertSame(first, caveService.getTemplate(first.getId()));
+        verify(caveTemplateRepository, times(1)).saveAndFlush(any(CaveTemplate.class));
+        verify(caveTemplateRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void getRoomsForGameBuildsRoomsFromTemplateAndHazards() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        CaveTemplate template = createTemplate();
+        List<Room> placed = template.createRooms(gameId);
+        placed.get(3).setHasWumpus(true);
+        placed.get(7).setHasPit(true);
+        when(caveTemplateRepository.findById(template.getId())).thenReturn(Optional.of(template));
+        when(gameCaveRepository.findById(gameId))
+                .thenReturn(Optional.of(GameCave.fromRooms(gameId, template.getId(), placed)));
+
+        // Act
+        List<Room> rooms = caveService.getRoomsForGame(createGame(gameId));
+
+        // Assert
+        assertEquals(9, rooms.size());
+        assertEquals(placed.get(3).getId(), rooms.get(3).getId());
+        assertTrue(rooms.get(3).isHasWumpus());
+        assertTrue(rooms.get(7).isHasPit());
+        assertEquals(1, rooms.stream().filter(Room::isHasWumpus).count());
+        verify(roomRepository, never()).findRoomsByGameId(any(UUID.class));
+    }
+
+    @Test
+    void legacyGamesAreReadAndSavedAsRoomRows() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        when(gameCaveRepository.findById(gameId)).thenReturn(Optional.empty());
+        when(roomRepository.findRoomsByGameId(gameId)).thenReturn(List.of(room));
+
+        // Act
+        List<Room> rooms = caveService.getRoomsForGame(createGame(gameId));
+        caveService.saveHazards(createGame(gameId), rooms);
+
+        // Assert
+        assertEquals(List.of(room), rooms);
+        verify(roomRepository, times(1)).saveAll(rooms);
+        verify(gameCaveRepository, never()).save(any(GameCave.class));
+    }
+
+    @Test
+    void saveHazardsUpdatesGameCaveOfTemplateGames() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        CaveTemplate template = createTemplate();
+        List<Room> rooms = template.createRooms(gameId);
+        GameCave gameCave = GameCave.fromRooms(gameId, template.getId(), rooms);
+        when(gameCaveRepository.findById(gameId)).thenReturn(Optional.of(gameCave));
+        rooms.get(2).setHasBats(true);
+
+        // Act
+        caveService.saveHazards(createGame(gameId), rooms);
+
+        // Assert
+        verify(gameCaveRepository, times(1)).save(gameCave);
+        verify(roomRepository, never()).saveAll(any());
+        List<Room> reloaded = template.createRooms(gameId);
+        gameCave.applyHazards(reloaded);
+        assertTrue(reloaded.get(2).isHasBats());
+    }
+
+    @Test
+    void maskedGamesAreBuiltAndSavedWithoutCaveRecords() {
+        // Arrange
+        CaveTemplate template = createTemplate();
+        when(caveTemplateRepository.findById(template.getId())).thenReturn(Optional.of(template));
+        Game game = createGame(UUID.randomUUID());
+        game.setCaveTemplateId(template.getId());
+        game.setWumpusMask(1L << 8);
+        game.setPitMask((1L << 2) | (1L << 6));
+        game.setBatMask(0L);
+
+        // Act
+        List<Room> rooms = caveService.getRoomsForGame(game);
+        rooms.get(3).setHasBats(true);
+        caveService.saveHazards(game, rooms);
+
+        // Assert
+        assertTrue(rooms.get(8).isHasWumpus());
+        assertTrue(rooms.get(2).isHasPit());
+        assertTrue(rooms.get(6).isHasPit());
+        assertEquals(RoomMask.add(0L, 3), game.getBatMask());
+        verify(gameRepository, times(1)).updateHazardMasks(game);
+        verifyNoInteractions(gameCaveRepository, roomRepository);
+    }
+
+    private Game createGame(UUID gameId) {
+        Game game = new Game();
+        game.setId(gameId);
+        return game;
+    }
+
+    private CaveTemplate createTemplate() {
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.GRID, 9);
+        template.setId(UUID.randomUUID());
+        return template;
+    }
+}
@@ -0,0 +1,143 @@
+package org.scarter4work.wumpus2.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.repository.GameRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires hundreds of parallel commands at one game. Some commands first discard
+ * the cached session, so that concurrent commands work on separate reads of the
+ * game, as they would on separate instances.
+ */
+@SpringBootTest(properties = "logging.level.org.scarter4work.wumpus2=WARN")
+@ActiveProfiles("test")
+class GameConcurrencyTest {
+
+    private static final int COMMANDS = 400;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private CaveService caveService;
+
+    @Autowired
+    private GameSessionCache gameSessionCache;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    private UUID gameId;
+
+    @BeforeEach
+    void setUp() {
+        // A cave without hazards, so that no move ends the game
+        Game game = gameService.createNewGame("TestPlayer");
+        List<Room> rooms = caveService.getRoomsForGame(game);
+        rooms.forEach(room -> {
+            room.setHasWumpus(false);
+            room.setHasPit(false);
+            room.setHasBats(false);
+        });
+        caveService.saveHazards(game, rooms);
+        gameSessionCache.discard(game.getId());
+        gameId = game.getId();
+    }
+
+    @Test
+    void parallelMovesAreEachWrittenExactlyOnce() throws InterruptedException {
+        // Arrange
+        long initialVersion = gameRepository.findById(gameId).orElseThrow().getVersion();
+        AtomicInteger moves = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> failures = new ArrayList<>();
+
+        // Act
+        runInParallel(index -> {
+            List<String> directions = new ArrayList<>(gameService.getAdjacentRooms(gameId).keySet());
+            try {
+                gameService.movePlayer(gameId, directions.get(ThreadLocalRandom.current().nextInt(directions.size())));
+                moves.incrementAndGet();
+            } catch (GameConflictException e) {
+                conflicts.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                // The player moved away and the chosen direction leads nowhere from the new room
+            }
+        }, failures);
+
+        // Assert
+        assertTrue(failures.isEmpty(), () -> "Unexpected failures: " + failures);
+        assertTrue(moves.get() > 0);
+        Game stored = gameRepository.findById(gameId).orElseThrow();
+        assertEquals(initialVersion + moves.get(), stored.getVersion(),
+                "Every successful move must be one write, with " + conflicts.get() + " conflicts");
+        assertEquals(stored.getCurrentRoomId(), gameService.getGame(gameId).getCurrentRoomId());
+    }
+
+    @Test
+    void parallelShotsSpendEachArrowOnce() throws InterruptedException {
+        // Arrange
+        AtomicInteger shots = new AtomicInteger();
+        List<Throwable> failures = new ArrayList<>();
+
+        // Act
+        runInParallel(index -> {
+            String direction = gameService.getAdjacentRooms(gameId).keySet().iterator().next();
+            try {
+                gameService.shootArrow(gameId, direction);
+                shots.incrementAndGet();
+            } catch (IllegalStateException e) {
+                // Out of arrows, game over, or a conflict that ran out of retries
+            }
+        }, failures);
+
+        // Assert
+        assertTrue(failures.isEmpty(), () -> "Unexpected failures: " + failures);
+        assertEquals(5, shots.get());
+        Game stored = gameRepository.findById(gameId).orElseThrow();
+        assertEquals(0, stored.getArrowsRemaining());
+        assertEquals(Game.GameStatus.LOST, stored.getStatus());
+    }
+
+    private void runInParallel(IndexedCommand command, List<Throwable> failures) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        for (int i = 0; i < COMMANDS; i++) {
+            int index = i;
+            executor.submit(() -> {
+                try {
+                    if (index % 4 == 0) {
+                        gameSessionCache.discard(gameId);
+                    }
+                    command.run(index);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @FunctionalInterface
+    private interface IndexedCommand {
+        void run(int index);
+    }
+}
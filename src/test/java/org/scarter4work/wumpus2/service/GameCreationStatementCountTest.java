@@ -0,0 +1,77 @@
+package org.scarter4work.wumpus2.service;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.repository.CaveTemplateRepository;
+import org.scarter4work.wumpus2.repository.GameRepository;
+import org.scarter4work.wumpus2.repository.GameVisitedRoomRepository;
+import org.scarter4work.wumpus2.repository.RoomRepository;
+import org.scarter4work.wumpus2.support.StatementCountingDataSourceConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCountingDataSourceConfig.class)
+class GameCreationStatementCountTest {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private CaveTemplateRepository caveTemplateRepository;
+
+    @Autowired
+    private CaveService caveService;
+
+    @Autowired
+    private GameVisitedRoomRepository gameVisitedRoomRepository;
+
+    @Test
+    void createNewGameWritesOnlyTheGameRow() {
+        // Arrange
+        gameService.createNewGame("WarmUp");
+        StatementCountingDataSourceConfig.reset();
+
+        // Act
+        Game game = gameService.createNewGame("TestPlayer");
+        long statements = StatementCountingDataSourceConfig.statementCount();
+
+        // Assert
+        assertEquals(1, statements, "Expected a single statement but was " + statements);
+
+        Game stored = gameRepository.findById(game.getId()).orElseThrow();
+        assertEquals("TestPlayer", stored.getPlayerName());
+        assertEquals(Game.GameStatus.IN_PROGRESS, stored.getStatus());
+
+        List<Room> rooms = caveService.getRoomsForGame(stored);
+        assertEquals(25, rooms.size());
+        assertEquals(1, rooms.stream().filter(Room::isHasWumpus).count());
+        assertEquals(3, rooms.stream().filter(Room::isHasPit).count());
+        assertEquals(3, rooms.stream().filter(Room::isHasBats).count());
+        assertEquals(rooms.get(1).getId(), rooms.get(0).getEastRoomId());
+        assertEquals(rooms.get(5).getId(), rooms.get(0).getSouthRoomId());
+        assertTrue(rooms.stream().anyMatch(room -> room.getId().equals(stored.getCurrentRoomId())));
+
+        assertEquals(Set.of(stored.getCurrentRoomId()), gameService.getVisitedRooms(game.getId()));
+        assertEquals(0, gameVisitedRoomRepository.count());
+
+        // Both games share one stored topology instead of storing their own rooms
+        assertEquals(1, caveTemplateRepository.count());
+        assertEquals(0, roomRepository.count());
+    }
+}
@@ -0,0 +1,49 @@
+package org.scarter4work.wumpus2.service;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.Game;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GameEventPublishingTest {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameEventStream gameEventStream;
+
+    @Test
+    void committedCommandsReachObservers() {
+        // Arrange
+        Game game = gameService.createNewGame("TestPlayer");
+        Map<String, UUID> adjacentRooms = gameService.getAdjacentRooms(game.getId());
+        String direction = adjacentRooms.keySet().iterator().next();
+
+        // Act & Assert
+        StepVerifier.create(gameEventStream.stream(game.getId(),
+                        Mono.fromCallable(() -> gameService.getGameState(game.getId()))))
+                .expectNextMatches(event -> event.type() == GameEvent.Type.STATE
+                        && event.roomId().equals(game.getCurrentRoomId()))
+                .then(() -> assertThrows(IllegalArgumentException.class,
+                        () -> gameService.movePlayer(game.getId(), "up")))
+                .then(() -> gameService.movePlayer(game.getId(), direction))
+                // Bats may carry the player on from the adjacent room
+                .expectNextMatches(event -> event.type() == GameEvent.Type.MOVED
+                        && event.roomId() != null && event.hazardInfo() != null)
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+        assertEquals(0, gameEventStream.size());
+    }
+}
@@ -0,0 +1,152 @@
+package org.scarter4work.wumpus2.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEventStreamTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private GameEventStream gameEventStream;
+
+    private UUID gameId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        gameEventStream = new GameEventStream(meterRegistry);
+        gameId = UUID.randomUUID();
+    }
+
+    @Test
+    void observersOfAGameShareOneChannel() {
+        // Arrange
+        StepVerifier.Step<GameEvent> first = StepVerifier.create(gameEventStream.stream(gameId, state(1L)))
+                .expectNextMatches(event -> event.type() == GameEvent.Type.STATE);
+        StepVerifier.Step<GameEvent> second = StepVerifier.create(gameEventStream.stream(gameId, state(1L)))
+                .expectNextMatches(event -> event.type() == GameEvent.Type.STATE);
+
+        // Act
+        StepVerifier firstVerifier = first.expectNext(change(2L, 4)).thenCancel().verifyLater();
+        StepVerifier secondVerifier = second.expectNext(change(2L, 4)).thenCancel().verifyLater();
+        assertEquals(1, gameEventStream.size());
+        assertEquals(1.0, meterRegistry.get("wumpus.event-streams.active").gauge().value());
+        gameEventStream.publish(change(2L, 4));
+
+        // Assert
+        firstVerifier.verify(TIMEOUT);
+        secondVerifier.verify(TIMEOUT);
+        assertEquals(0, gameEventStream.size());
+    }
+
+    @Test
+    void changesMadeBeforeTheCurrentStateWasReadAreDropped() {
+        // Arrange
+        Sinks.One<GameState> currentState = Sinks.one();
+
+        // Act & Assert
+        StepVerifier.create(gameEventStream.stream(gameId, currentState.asMono()))
+                .then(() -> gameEventStream.publish(change(1L, 4)))
+                .then(() -> gameEventStream.publish(change(3L, 2)))
+                .then(() -> currentState.tryEmitValue(gameState(2L)))
+                .expectNextMatches(event -> event.type() == GameEvent.Type.STATE && event.version() == 2L)
+                .expectNext(change(3L, 2))
+                .then(() -> gameEventStream.publish(change(4L, 1)))
+                .expectNext(change(4L, 1))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void streamEndsWhenTheGameIsOver() {
+        // Arrange
+        GameEvent won = new GameEvent(gameId, 2L, GameEvent.Type.SHOT, null, null, null, 4, Game.GameStatus.WON);
+
+        // Act & Assert
+        StepVerifier.create(gameEventStream.stream(gameId, state(1L)))
+                .expectNextMatches(event -> event.type() == GameEvent.Type.STATE)
+                .then(() -> gameEventStream.publish(won))
+                .expectNext(won)
+                .expectComplete()
+                .verify(TIMEOUT);
+        assertEquals(0, gameEventStream.size());
+    }
+
+    @Test
+    void changesToUnobservedGamesAreIgnored() {
+        // Act
+        gameEventStream.publish(change(2L, 4));
+
+        // Assert
+        assertEquals(0, gameEventStream.size());
+    }
+
+    @Test
+    void changeCarriesOnlyWhatChanged() {
+        // Arrange
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setRoomNumber(7);
+        Game previous = game(1L);
+        Game moved = game(2L);
+        moved.setCurrentRoomId(room.getId());
+        Game shot = game(2L);
+        shot.setArrowsRemaining(4);
+
+        // Act
+        GameEvent move = GameEvent.change(GameEvent.Type.MOVED, previous, moved, room, Map.of("pitNearby", true));
+        GameEvent shoot = GameEvent.change(GameEvent.Type.SHOT, previous, shot, room, Map.of("pitNearby", true));
+
+        // Assert
+        assertEquals(room.getId(), move.roomId());
+        assertEquals(7, move.roomNumber());
+        assertEquals(Map.of("pitNearby", true), move.hazardInfo());
+        assertNull(move.arrowsRemaining());
+        assertNull(move.status());
+        assertNull(shoot.roomId());
+        assertNull(shoot.hazardInfo());
+        assertEquals(4, shoot.arrowsRemaining());
+    }
+
+    private GameEvent change(Long version, int arrowsRemaining) {
+        return new GameEvent(gameId, version, GameEvent.Type.SHOT, null, null, null, arrowsRemaining, null);
+    }
+
+    private Mono<GameState> state(Long version) {
+        return Mono.fromCallable(() -> gameState(version));
+    }
+
+    private GameState gameState(Long version) {
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setRoomNumber(1);
+        Game game = game(version);
+        game.setCurrentRoomId(room.getId());
+        return new GameState(game, room, Map.of("wumpusNearby", false), Set.of(room.getId()), List.of(room));
+    }
+
+    private Game game(Long version) {
+        Game game = new Game();
+        game.setId(gameId);
+        game.setStatus(Game.GameStatus.IN_PROGRESS);
+        game.setArrowsRemaining(5);
+        game.setVersion(version);
+        return game;
+    }
+}
@@ -0,0 +1,151 @@
+package org.scarter4work.wumpus2.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.config.GameSessionProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMailboxesTest {
+
+    private GameSessionProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private GameMailboxes mailboxes;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GameSessionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        mailboxes = new GameMailboxes(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailboxes.shutdown();
+    }
+
+    @Test
+    void commandsForOneGameRunOneAtATime() throws Exception {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+
+        // Act
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(callers.submit(() -> mailboxes.execute(gameId, () -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                threads.add(Thread.currentThread());
+                running.decrementAndGet();
+                return null;
+            })));
+        }
+        for (Future<?> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        // Assert
+        assertEquals(0, overlaps.get());
+        assertEquals(200, threads.size());
+        assertTrue(threads.stream().allMatch(Thread::isVirtual));
+    }
+
+    @Test
+    void commandsForDifferentGamesRunInParallel() throws Exception {
+        // Arrange
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<Boolean> firstResult = callers.submit(() -> mailboxes.execute(first, () -> awaitBoth(bothRunning)));
+        Future<Boolean> secondResult = callers.submit(() -> mailboxes.execute(second, () -> awaitBoth(bothRunning)));
+
+        // Assert
+        assertTrue(firstResult.get(10, TimeUnit.SECONDS));
+        assertTrue(secondResult.get(10, TimeUnit.SECONDS));
+        assertEquals(2.0, meterRegistry.get("wumpus.mailboxes.active").gauge().value());
+        callers.shutdown();
+    }
+
+    @Test
+    void commandFromTheSameGameRunsImmediately() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+
+        // Act
+        String result = mailboxes.execute(gameId, () -> mailboxes.execute(gameId, () -> "nested"));
+
+        // Assert
+        assertEquals("nested", result);
+    }
+
+    @Test
+    void exceptionsReachTheCaller() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> mailboxes.execute(gameId, () -> {
+                    throw new IllegalArgumentException("Invalid direction");
+                }));
+        assertEquals("Invalid direction", exception.getMessage());
+        assertEquals("ok", mailboxes.execute(gameId, () -> "ok"));
+    }
+
+    @Test
+    void idleMailboxesAreEvicted() throws InterruptedException {
+        // Arrange
+        mailboxes.execute(UUID.randomUUID(), () -> null);
+        mailboxes.execute(UUID.randomUUID(), () -> null);
+
+        // Act
+        mailboxes.evictIdleMailboxes();
+        int beforeTimeout = mailboxes.size();
+        properties.setMailboxIdleTimeout(Duration.ZERO);
+        // A mailbox thread may still be winding down after handing back its result
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        do {
+            Thread.sleep(1);
+            mailboxes.evictIdleMailboxes();
+        } while (mailboxes.size() > 0 && System.nanoTime() < deadline);
+
+        // Assert
+        assertEquals(2, beforeTimeout);
+        assertEquals(0, mailboxes.size());
+    }
+
+    private static boolean awaitBoth(CountDownLatch bothRunning) {
+        bothRunning.countDown();
+        try {
+            return bothRunning.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
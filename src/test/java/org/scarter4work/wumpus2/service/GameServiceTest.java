@@ -1,23 +1,29 @@
 package org.scarter4work.wumpus2.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.scarter4work.wumpus2.config.GameSessionProperties;
+import org.scarter4work.wumpus2.model.CaveTemplate;
 import org.scarter4work.wumpus2.model.Game;
-import org.scarter4work.wumpus2.model.GameRoom;
 import org.scarter4work.wumpus2.model.GameVisitedRoom;
 import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.model.RoomMask;
 import org.scarter4work.wumpus2.repository.GameRepository;
-import org.scarter4work.wumpus2.repository.GameRoomRepository;
 import org.scarter4work.wumpus2.repository.GameVisitedRoomRepository;
-import org.scarter4work.wumpus2.repository.RoomRepository;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class GameServiceTest {
@@ -26,74 +32,93 @@ class GameServiceTest {
     private GameRepository gameRepository;
 
     @Mock
-    private RoomRepository roomRepository;
+    private GameVisitedRoomRepository gameVisitedRoomRepository;
 
     @Mock
-    private GameRoomRepository gameRoomRepository;
+    private CaveService caveService;
 
     @Mock
-    private GameVisitedRoomRepository gameVisitedRoomRepository;
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private GameMailboxes gameMailboxes;
 
-    @InjectMocks
     private GameService gameService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        GameSessionProperties properties = new GameSessionProperties();
+        GameSessionCache gameSessionCache = new GameSessionCache(gameRepository, caveService,
+                properties, meterRegistry);
+        gameMailboxes = new GameMailboxes(properties, meterRegistry);
+        gameService = new GameService(gameRepository, gameVisitedRoomRepository, gameSessionCache, caveService,
+                new GameMetrics(meterRegistry), gameMailboxes, transactionManager,
+                eventPublisher);
     }
 
     @Test
     void createNewGame() {
         // Arrange
         String playerName = "TestPlayer";
-
-        // Mock room creation
-        List<Room> mockRooms = new ArrayList<>();
-        for (int i = 1; i <= 25; i++) {
-            Room room = new Room();
-            room.setId(UUID.randomUUID());
-            room.setRoomNumber(i);
-            mockRooms.add(room);
-        }
-
-        // Mock game creation
-        Game mockGame = new Game();
-        mockGame.setId(UUID.randomUUID());
-        mockGame.setPlayerName(playerName);
-
-        when(roomRepository.save(any(Room.class))).thenAnswer(invocation -> {
-            Room room = invocation.getArgument(0);
-            if (room.getId() == null) {
-                room.setId(UUID.randomUUID());
-            }
-            return room;
-        });
-
-        when(gameRepository.save(any(Game.class))).thenAnswer(invocation -> {
-            Game game = invocation.getArgument(0);
-            if (game.getId() == null) {
-                game.setId(UUID.randomUUID());
-            }
-            return game;
-        });
-
-        when(gameRoomRepository.save(any(GameRoom.class))).thenAnswer(invocation -> {
-            GameRoom gameRoom = invocation.getArgument(0);
-            if (gameRoom.getId() == null) {
-                gameRoom.setId(UUID.randomUUID());
-            }
-            return gameRoom;
-        });
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.GRID, 25);
+        template.setId(UUID.randomUUID());
+        when(caveService.getTemplate(CaveTemplate.Layout.GRID, 25)).thenReturn(template);
 
         // Act
         Game result = gameService.createNewGame(playerName);
 
         // Assert
         assertNotNull(result);
+        assertNotNull(result.getId());
         assertEquals(playerName, result.getPlayerName());
-        verify(gameRepository, atLeast(1)).save(any(Game.class));
-        verify(roomRepository, atLeast(25)).save(any(Room.class));
-        verify(gameRoomRepository, atLeast(25)).save(any(GameRoom.class));
+        assertEquals(5, result.getArrowsRemaining());
+
+        // The 25-room grid fits in the game's masks, so no cave record or visit row is needed
+        verify(gameRepository, times(1)).insertNewGame(eq(result), isNull(), isNull());
+        assertEquals(template.getId(), result.getCaveTemplateId());
+        assertTrue(result.isMasked());
+
+        List<Room> rooms = template.createRooms(result.getId());
+        for (int i = 0; i < rooms.size(); i++) {
+            rooms.get(i).setHasWumpus(RoomMask.contains(result.getWumpusMask(), i));
+            rooms.get(i).setHasPit(RoomMask.contains(result.getPitMask(), i));
+            rooms.get(i).setHasBats(RoomMask.contains(result.getBatMask(), i));
+        }
+        assertEquals(25, rooms.size());
+        assertEquals(1, rooms.stream().filter(Room::isHasWumpus).count());
+        assertEquals(3, rooms.stream().filter(Room::isHasPit).count());
+        assertEquals(3, rooms.stream().filter(Room::isHasBats).count());
+
+        Room startingRoom = rooms.stream()
+                .filter(room -> room.getId().equals(result.getCurrentRoomId()))
+                .findFirst()
+                .orElseThrow();
+        assertFalse(startingRoom.isHasWumpus() || startingRoom.isHasPit() || startingRoom.isHasBats());
+        assertEquals(1L << (startingRoom.getRoomNumber() - 1), result.getVisitedMask());
+
+        verify(gameRepository, never()).saveAndFlush(any(Game.class));
+
+        // The new game is served from the session cache without reloading it
+        assertEquals(result.getId(), gameService.getGame(result.getId()).getId());
+        verify(gameRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void commandsOnUnknownGamesOpenNoMailbox() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        when(gameRepository.findById(gameId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(GameNotFoundException.class, () -> gameService.movePlayer(gameId, "north"));
+        assertThrows(GameNotFoundException.class, () -> gameService.shootArrow(gameId, "north"));
+        assertEquals(0, gameMailboxes.size());
     }
 
     @Test
@@ -174,9 +199,8 @@ class GameServiceTest {
         updatedGame.setCurrentRoomId(northRoom.getId());
 
         when(gameRepository.findById(gameId)).thenReturn(Optional.of(mockGame));
-        when(roomRepository.findById(currentRoom.getId())).thenReturn(Optional.of(currentRoom));
-        when(roomRepository.findById(northRoom.getId())).thenReturn(Optional.of(northRoom));
-        when(gameRepository.save(any(Game.class))).thenReturn(updatedGame);
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(currentRoom, northRoom));
+        when(gameRepository.saveAndFlush(any(Game.class))).thenReturn(updatedGame);
 
         // Act
         Game result = gameService.movePlayer(gameId, direction);
@@ -186,9 +210,201 @@ class GameServiceTest {
         assertEquals(gameId, result.getId());
         assertEquals(northRoom.getId(), result.getCurrentRoomId());
         verify(gameRepository, times(1)).findById(gameId);
-        verify(roomRepository, atLeastOnce()).findById(currentRoom.getId());
-        verify(roomRepository, atLeastOnce()).findById(northRoom.getId());
-        verify(gameRepository, times(1)).save(any(Game.class));
+        verify(caveService, times(1)).getRoomsForGame(any(Game.class));
+        verify(gameRepository, times(1)).saveAndFlush(any(Game.class));
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        GameEvent moved = (GameEvent) event.getValue();
+        assertEquals(GameEvent.Type.MOVED, moved.type());
+        assertEquals(northRoom.getId(), moved.roomId());
+        assertEquals(2, moved.roomNumber());
+        assertNull(moved.arrowsRemaining());
+        assertNull(moved.status());
+    }
+
+    @Test
+    void movePlayerIntoPitLosesGame() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        Room currentRoom = new Room();
+        currentRoom.setId(UUID.randomUUID());
+        Room pitRoom = new Room();
+        pitRoom.setId(UUID.randomUUID());
+        pitRoom.setHasPit(true);
+        currentRoom.setEastRoomId(pitRoom.getId());
+
+        Game mockGame = new Game();
+        mockGame.setId(gameId);
+        mockGame.setCurrentRoomId(currentRoom.getId());
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(mockGame));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(currentRoom, pitRoom));
+        when(gameRepository.saveAndFlush(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Game result = gameService.movePlayer(gameId, "EAST");
+
+        // Assert
+        assertEquals(Game.GameStatus.LOST, result.getStatus());
+        assertNotNull(result.getEndTime());
+        assertEquals(1.0, meterRegistry.get("wumpus.games.finished")
+                .tag("outcome", "lost").tag("cause", "pit").counter().count());
+        assertEquals(0.0, meterRegistry.get("wumpus.games.active").gauge().value());
+    }
+
+    @Test
+    void shootArrowIntoWumpusRoomWinsGame() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        Room currentRoom = new Room();
+        currentRoom.setId(UUID.randomUUID());
+        Room wumpusRoom = new Room();
+        wumpusRoom.setId(UUID.randomUUID());
+        wumpusRoom.setHasWumpus(true);
+        currentRoom.setSouthRoomId(wumpusRoom.getId());
+
+        Game mockGame = new Game();
+        mockGame.setId(gameId);
+        mockGame.setCurrentRoomId(currentRoom.getId());
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(mockGame));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(currentRoom, wumpusRoom));
+        when(gameRepository.saveAndFlush(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Game result = gameService.shootArrow(gameId, "south");
+
+        // Assert
+        assertEquals(Game.GameStatus.WON, result.getStatus());
+        assertEquals(4, result.getArrowsRemaining());
+        assertEquals(1.0, meterRegistry.get("wumpus.games.finished")
+                .tag("outcome", "won").tag("cause", "wumpus").counter().count());
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        GameEvent shot = (GameEvent) event.getValue();
+        assertEquals(GameEvent.Type.SHOT, shot.type());
+        assertNull(shot.roomId());
+        assertEquals(4, shot.arrowsRemaining());
+        assertEquals(Game.GameStatus.WON, shot.status());
+    }
+
+    @Test
+    void runCommandsStopsWhenTheGameEnds() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        Room start = new Room();
+        start.setId(UUID.randomUUID());
+        Room middle = new Room();
+        middle.setId(UUID.randomUUID());
+        Room pitRoom = new Room();
+        pitRoom.setId(UUID.randomUUID());
+        pitRoom.setHasPit(true);
+        start.setEastRoomId(middle.getId());
+        middle.setWestRoomId(start.getId());
+        middle.setEastRoomId(pitRoom.getId());
+
+        Game mockGame = new Game();
+        mockGame.setId(gameId);
+        mockGame.setCurrentRoomId(start.getId());
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(mockGame));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(start, middle, pitRoom));
+        when(gameRepository.saveAndFlush(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        CommandBatchResult result = gameService.runCommands(gameId, List.of(
+                GameCommand.of("move", "east"),
+                GameCommand.of("move", "east"),
+                GameCommand.of("shoot", "west")));
+
+        // Assert
+        assertEquals(2, result.results().size());
+        assertEquals(middle.getId(), result.results().get(0).change().roomId());
+        assertEquals(Game.GameStatus.LOST, result.results().get(1).change().status());
+        assertEquals(Game.GameStatus.LOST, result.state().game().getStatus());
+        assertEquals(pitRoom.getId(), result.state().currentRoom().getId());
+        verify(gameRepository, times(1)).saveAndFlush(any(Game.class));
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void runCommandsKeepsTheCommandsBeforeARejectedOne() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        Room start = new Room();
+        start.setId(UUID.randomUUID());
+        Room east = new Room();
+        east.setId(UUID.randomUUID());
+        start.setEastRoomId(east.getId());
+        east.setWestRoomId(start.getId());
+
+        Game mockGame = new Game();
+        mockGame.setId(gameId);
+        mockGame.setCurrentRoomId(start.getId());
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(mockGame));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(start, east));
+        when(gameRepository.saveAndFlush(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        CommandBatchResult result = gameService.runCommands(gameId, List.of(
+                GameCommand.of("shoot", "east"),
+                GameCommand.of("move", "east"),
+                GameCommand.of("move", "north"),
+                GameCommand.of("move", "west")));
+
+        // Assert
+        assertEquals(3, result.results().size());
+        assertEquals(4, result.results().get(0).change().arrowsRemaining());
+        assertTrue(result.results().get(1).isApplied());
+        assertFalse(result.results().get(2).isApplied());
+        assertEquals("Cannot move in that direction", result.results().get(2).error());
+        assertEquals(east.getId(), result.state().currentRoom().getId());
+        assertEquals(4, result.state().game().getArrowsRemaining());
+        verify(gameRepository, times(1)).saveAndFlush(any(Game.class));
+    }
+
+    @Test
+    void runCommandsRejectsOversizedBatches() {
+        // Arrange
+        List<GameCommand> commands = Collections.nCopies(GameService.MAX_BATCH_COMMANDS + 1,
+                GameCommand.of("move", "north"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> gameService.runCommands(UUID.randomUUID(), commands));
+        verify(gameRepository, never()).findById(any());
+    }
+
+    @Test
+    void getHazardInformation() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        Room currentRoom = new Room();
+        currentRoom.setId(UUID.randomUUID());
+        Room batRoom = new Room();
+        batRoom.setId(UUID.randomUUID());
+        batRoom.setHasBats(true);
+        Room wumpusRoom = new Room();
+        wumpusRoom.setId(UUID.randomUUID());
+        wumpusRoom.setHasWumpus(true);
+        currentRoom.setNorthRoomId(batRoom.getId());
+        batRoom.setNorthRoomId(wumpusRoom.getId());
+
+        Game mockGame = new Game();
+        mockGame.setId(gameId);
+        mockGame.setCurrentRoomId(currentRoom.getId());
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(mockGame));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(currentRoom, batRoom, wumpusRoom));
+
+        // Act
+        Map<String, Boolean> result = gameService.getHazardInformation(gameId);
+
+        // Assert
+        assertTrue(result.get("batsNearby"));
+        assertFalse(result.get("wumpusNearby"));
+        assertFalse(result.get("pitNearby"));
+        verify(gameRepository, times(1)).findById(gameId);
     }
 
     @Test
@@ -205,7 +421,7 @@ class GameServiceTest {
         mockGame.setCurrentRoomId(mockRoom.getId());
 
         when(gameRepository.findById(gameId)).thenReturn(Optional.of(mockGame));
-        when(roomRepository.findById(mockRoom.getId())).thenReturn(Optional.of(mockRoom));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(mockRoom));
 
         // Act
         Room result = gameService.getCurrentRoom(gameId);
@@ -214,7 +430,7 @@ class GameServiceTest {
         assertNotNull(result);
         assertEquals(mockRoom.getId(), result.getId());
         verify(gameRepository, times(1)).findById(gameId);
-        verify(roomRepository, times(1)).findById(mockRoom.getId());
+        verify(caveService, times(1)).getRoomsForGame(any(Game.class));
     }
 
     @Test
@@ -248,4 +464,273 @@ class GameServiceTest {
         assertTrue(result.contains(room2Id));
         verify(gameVisitedRoomRepository, times(1)).findByGameId(gameId);
     }
+
+    @Test
+    void maskedGameTracksVisitsWithoutVisitedRoomRows() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.GRID, 9);
+        template.setId(UUID.randomUUID());
+
+        Game game = Game.createNewGame("TestPlayer", CaveTemplate.roomId(gameId, 5));
+        game.setId(gameId);
+        game.setCaveTemplateId(template.getId());
+        game.setWumpusMask(0L);
+        game.setPitMask(0L);
+        game.setBatMask(0L);
+        game.setVisitedMask(1L << 4);
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(template.createRooms(gameId));
+        when(gameRepository.saveAndFlush(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Game result = gameService.movePlayer(gameId, "north");
+        Set<UUID> visitedRooms = gameService.getVisitedRooms(gameId);
+
+        // Assert
+        assertEquals(CaveTemplate.roomId(gameId, 2), result.getCurrentRoomId());
+        assertEquals((1L << 4) | (1L << 1), result.getVisitedMask());
+        assertEquals(Set.of(CaveTemplate.roomId(gameId, 5), CaveTemplate.roomId(gameId, 2)), visitedRooms);
+        verifyNoInteractions(gameVisitedRoomRepository);
+    }
+
+    @Test
+    void movePlayerAndGetStateAssemblesStateFromOneSessionLoad() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.GRID, 9);
+        template.setId(UUID.randomUUID());
+        List<Room> rooms = template.createRooms(gameId);
+        rooms.get(0).setHasPit(true);
+
+        Game game = Game.createNewGame("TestPlayer", CaveTemplate.roomId(gameId, 5));
+        game.setId(gameId);
+        game.setCaveTemplateId(template.getId());
+        game.setWumpusMask(0L);
+        game.setPitMask(1L);
+        game.setBatMask(0L);
+        game.setVisitedMask(1L << 4);
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(rooms);
+        when(gameRepository.saveAndFlush(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        GameState state = gameService.movePlayerAndGetState(gameId, "north");
+
+        // Assert
+        assertEquals(CaveTemplate.roomId(gameId, 2), state.game().getCurrentRoomId());
+        assertEquals(rooms.get(1), state.currentRoom());
+        assertTrue(state.hazardInfo().get("pitNearby"));
+        assertFalse(state.hazardInfo().get("wumpusNearby"));
+        assertEquals(Set.of(CaveTemplate.roomId(gameId, 5), CaveTemplate.roomId(gameId, 2)), state.visitedRooms());
+        verify(gameRepository, times(1)).findById(gameId);
+        verify(caveService, times(1)).getRoomsForGame(any(Game.class));
+        verify(gameRepository, times(1)).saveAndFlush(any(Game.class));
+        verifyNoInteractions(gameVisitedRoomRepository);
+    }
+
+    @Test
+    void movePlayerAndGetDeltaCarriesOnlyWhatChanged() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        List<Room> rooms = stubVersionedGame(gameId, 3L);
+
+        // Act
+        GameStateDelta delta = gameService.movePlayerAndGetDelta(gameId, "north", 3L);
+
+        // Assert
+        assertFalse(delta.full());
+        assertEquals(4L, delta.version());
+        assertEquals(rooms.get(1).getId(), delta.roomId());
+        assertEquals(2, delta.roomNumber());
+        assertTrue(delta.hazardInfo().get("pitNearby"));
+        assertNull(delta.arrowsRemaining());
+        assertNull(delta.status());
+        // Rooms 2 and 5 visited: bits 1 and 4
+        assertEquals(GameStateDelta.visitedBitmap(rooms, Set.of(rooms.get(1).getId(), rooms.get(4).getId())),
+                delta.visitedRooms());
+        assertEquals("Eg", delta.visitedRooms());
+    }
+
+    @Test
+    void movePlayerAndGetDeltaSendsTheWholeStateForAStaleVersion() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        List<Room> rooms = stubVersionedGame(gameId, 3L);
+
+        // Act
+        GameStateDelta delta = gameService.movePlayerAndGetDelta(gameId, "north", 1L);
+
+        // Assert
+        assertTrue(delta.full());
+        assertEquals(4L, delta.version());
+        assertEquals(rooms.get(1).getId(), delta.roomId());
+        assertEquals(5, delta.arrowsRemaining());
+        assertEquals(Game.GameStatus.IN_PROGRESS, delta.status());
+        assertEquals("Eg", delta.visitedRooms());
+    }
+
+    @Test
+    void getGameStateDeltaIsEmptyForTheCurrentVersion() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        stubVersionedGame(gameId, 3L);
+
+        // Act
+        GameStateDelta current = gameService.getGameStateDelta(gameId, 3L);
+        GameStateDelta stale = gameService.getGameStateDelta(gameId, 2L);
+
+        // Assert
+        assertEquals(GameStateDelta.unchanged(3L), current);
+        assertTrue(stale.full());
+        assertEquals(3L, stale.version());
+        assertEquals(5, stale.roomNumber());
+    }
+
+    @Test
+    void getPlayerViewOnlyRevealsVisitedRooms() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        List<Room> rooms = stubVersionedGame(gameId, 3L);
+
+        // Act
+        PlayerView view = gameService.getPlayerView(gameId);
+
+        // Assert
+        assertEquals(3L, view.version());
+        assertEquals(rooms.get(4).getId(), view.currentRoomId());
+        assertEquals(9, view.rooms().size());
+        PlayerView.RoomView pitRoom = view.rooms().get(0);
+        assertEquals(1, pitRoom.roomNumber());
+        assertEquals(rooms.get(1).getId(), pitRoom.eastRoomId());
+        assertFalse(pitRoom.visited());
+        assertNull(pitRoom.hasPit());
+        assertNull(pitRoom.hazardInfo());
+        PlayerView.RoomView current = view.rooms().get(4);
+        assertTrue(current.visited());
+        assertFalse(current.hasPit());
+        assertFalse(current.hazardInfo().get("pitNearby"));
+    }
+
+    @Test
+    void getPlayerViewIsDerivedOncePerChange() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        stubVersionedGame(gameId, 3L);
+
+        // Act
+        PlayerView first = gameService.getPlayerView(gameId);
+        PlayerView second = gameService.getPlayerView(gameId);
+        gameService.movePlayer(gameId, "north");
+        PlayerView afterMove = gameService.getPlayerView(gameId);
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(first, afterMove);
+        assertEquals(4L, afterMove.version());
+        assertTrue(afterMove.rooms().get(1).visited());
+        assertTrue(afterMove.rooms().get(1).hazardInfo().get("pitNearby"));
+        assertNull(afterMove.rooms().get(0).hasPit());
+    }
+
+    @Test
+    void getPlayerViewRevealsEveryRoomOnceTheGameIsOver() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        stubVersionedGame(gameId, 3L);
+        gameService.movePlayer(gameId, "north");
+
+        // Act
+        gameService.movePlayer(gameId, "west");
+        PlayerView view = gameService.getPlayerView(gameId);
+
+        // Assert
+        assertEquals(Game.GameStatus.LOST, view.status());
+        assertTrue(view.rooms().get(0).hasPit());
+        assertFalse(view.rooms().get(8).hasPit());
+        assertNull(view.rooms().get(8).hazardInfo());
+    }
+
+    @Test
+    void movePlayerRetriesOnAFreshReadAfterAConcurrentUpdate() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.GRID, 9);
+        template.setId(UUID.randomUUID());
+
+        Game stale = Game.createNewGame("TestPlayer", CaveTemplate.roomId(gameId, 5));
+        stale.setId(gameId);
+        stale.setVersion(1L);
+        Game fresh = Game.createNewGame("TestPlayer", CaveTemplate.roomId(gameId, 4));
+        fresh.setId(gameId);
+        fresh.setVersion(2L);
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(template.createRooms(gameId));
+        when(gameRepository.saveAndFlush(any(Game.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Game.class, gameId))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Game result = gameService.movePlayer(gameId, "north");
+
+        // Assert
+        assertEquals(CaveTemplate.roomId(gameId, 1), result.getCurrentRoomId());
+        verify(gameRepository, times(2)).findById(gameId);
+        verify(gameRepository, times(2)).saveAndFlush(any(Game.class));
+        assertEquals(1.0, meterRegistry.get("wumpus.game.conflicts").tag("result", "retried").counter().count());
+    }
+
+    @Test
+    void shootArrowReportsAConflictWhenEveryAttemptIsStale() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.GRID, 9);
+        template.setId(UUID.randomUUID());
+
+        Game game = Game.createNewGame("TestPlayer", CaveTemplate.roomId(gameId, 5));
+        game.setId(gameId);
+        game.setVersion(1L);
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(template.createRooms(gameId));
+        when(gameRepository.saveAndFlush(any(Game.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Game.class, gameId));
+
+        // Act & Assert
+        assertThrows(GameConflictException.class, () -> gameService.shootArrow(gameId, "north"));
+        verify(gameRepository, times(GameService.MAX_COMMAND_ATTEMPTS)).findById(gameId);
+        assertEquals(1.0, meterRegistry.get("wumpus.game.conflicts").tag("result", "rejected").counter().count());
+    }
+
+    /**
+     * Stubs a game in room 5 of a 3x3 grid with a pit in room 1, whose saves
+     * bump its version like Hibernate does.
+     */
+    private List<Room> stubVersionedGame(UUID gameId, long version) {
+        CaveTemplate template = CaveTemplate.create(CaveTemplate.Layout.GRID, 9);
+        template.setId(UUID.randomUUID());
+        List<Room> rooms = template.createRooms(gameId);
+        rooms.get(0).setHasPit(true);
+
+        Game game = Game.createNewGame("TestPlayer", CaveTemplate.roomId(gameId, 5));
+        game.setId(gameId);
+        game.setVersion(version);
+        game.setCaveTemplateId(template.getId());
+        game.setWumpusMask(0L);
+        game.setPitMask(1L);
+        game.setBatMask(0L);
+        game.setVisitedMask(1L << 4);
+
+        when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(rooms);
+        when(gameRepository.saveAndFlush(any(Game.class))).thenAnswer(invocation -> {
+            Game saved = invocation.getArgument(0);
+            saved.setVersion(saved.getVersion() + 1);
+            return saved;
+        });
+        return rooms;
+    }
 }
@@ -0,0 +1,251 @@
+package org.scarter4work.wumpus2.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.scarter4work.wumpus2.config.GameSessionProperties;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.model.Room;
+import org.scarter4work.wumpus2.repository.GameRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class GameSessionCacheTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private CaveService caveService;
+
+    private GameSessionProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new GameSessionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        when(gameRepository.saveAndFlush(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void findLoadsGameOnceAndRecordsHitsAndMisses() {
+        // Arrange
+        GameSessionCache cache = createCache();
+        Game game = createGame();
+        when(gameRepository.findById(game.getId())).thenReturn(Optional.of(game));
+
+        // Act
+        GameSession first = cache.get(game.getId());
+        GameSession second = cache.get(game.getId());
+        Optional<GameSession> missing = cache.find(UUID.randomUUID());
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(game, first.getGame());
+        assertEquals(game.getCurrentRoomId(), first.getGame().getCurrentRoomId());
+        assertTrue(missing.isEmpty());
+        verify(gameRepository, times(1)).findById(game.getId());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "gameSessions").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "gameSessions").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void getCaveLoadsRoomsOnce() {
+        // Arrange
+        GameSessionCache cache = createCache();
+        Game game = createGame();
+        Room room = new Room();
+        room.setId(game.getCurrentRoomId());
+        when(gameRepository.findById(game.getId())).thenReturn(Optional.of(game));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(room));
+
+        // Act
+        GameSession session = cache.get(game.getId());
+        cache.getCave(session);
+        cache.getCave(session);
+
+        // Assert
+        assertEquals(room, cache.getRoom(session, 0));
+        verify(caveService, times(1)).getRoomsForGame(any(Game.class));
+    }
+
+    @Test
+    void commitWritesThroughWhenWriteBehindIsDisabled() {
+        // Arrange
+        GameSessionCache cache = createCache();
+        GameSession session = cache.put(createGame(), List.of());
+        Game updated = GameSession.copyOf(session.getGame());
+        updated.setArrowsRemaining(4);
+
+        // Act
+        Game result = cache.commit(session, updated, false);
+
+        // Assert
+        assertEquals(4, result.getArrowsRemaining());
+        assertFalse(session.isDirty());
+        verify(gameRepository, times(1)).saveAndFlush(updated);
+    }
+
+    @Test
+    void commitDefersPositionChangesWhenWriteBehindIsEnabled() {
+        // Arrange
+        properties.setWriteBehind(true);
+        GameSessionCache cache = createCache();
+        GameSession session = cache.put(createGame(), List.of());
+        Game updated = GameSession.copyOf(session.getGame());
+        updated.setCurrentRoomId(UUID.randomUUID());
+
+        // Act
+        cache.commit(session, updated, false);
+
+        // Assert
+        assertTrue(session.isDirty());
+        verify(gameRepository, never()).saveAndFlush(any(Game.class));
+
+        // Act
+        cache.flushDirtySessions();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Game>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(gameRepository, times(1)).updatePositions(captor.capture());
+        assertEquals(updated.getCurrentRoomId(), captor.getValue().iterator().next().getCurrentRoomId());
+        assertFalse(session.isDirty());
+        assertEquals(1.0, meterRegistry.get("wumpus.sessions.write.behind.flushed").counter().count());
+    }
+
+    @Test
+    void commitWritesStatusChangesThroughEvenWithWriteBehind() {
+        // Arrange
+        properties.setWriteBehind(true);
+        GameSessionCache cache = createCache();
+        GameSession session = cache.put(createGame(), List.of());
+        Game updated = GameSession.copyOf(session.getGame());
+        updated.setStatus(Game.GameStatus.WON);
+
+        // Act
+        cache.commit(session, updated, true);
+        cache.flushDirtySessions();
+
+        // Assert
+        verify(gameRepository, times(1)).saveAndFlush(updated);
+        verify(gameRepository, never()).updatePositions(anyCollection());
+        assertFalse(session.isDirty());
+    }
+
+    @Test
+    void evictedDirtySessionsAreFlushed() {
+        // Arrange
+        properties.setWriteBehind(true);
+        properties.setMaximumSize(1);
+        GameSessionCache cache = createCache();
+        GameSession session = cache.put(createGame(), List.of());
+        Game updated = GameSession.copyOf(session.getGame());
+        updated.setArrowsRemaining(3);
+        cache.commit(session, updated, false);
+
+        // Act
+        cache.put(createGame(), List.of());
+        cache.put(createGame(), List.of());
+        cache.size();
+
+        // Assert
+        verify(gameRepository, timeout(1000).atLeastOnce()).updatePositions(anyCollection());
+        assertFalse(session.isDirty());
+    }
+
+    @Test
+    void invalidateFlushesAndRemovesSession() {
+        // Arrange
+        properties.setWriteBehind(true);
+        GameSessionCache cache = createCache();
+        Game game = createGame();
+        GameSession session = cache.put(game, List.of());
+        Game updated = GameSession.copyOf(session.getGame());
+        updated.setArrowsRemaining(2);
+        cache.commit(session, updated, false);
+        when(gameRepository.findById(game.getId())).thenReturn(Optional.of(game));
+
+        // Act
+        cache.invalidate(game.getId());
+        cache.get(game.getId());
+
+        // Assert
+        verify(gameRepository, times(1)).updatePositions(anyCollection());
+        verify(gameRepository, times(1)).findById(game.getId());
+    }
+
+    @Test
+    void putInsideATransactionCachesTheGameOnlyOnCommit() {
+        // Arrange
+        GameSessionCache cache = createCache();
+        Game game = createGame();
+        when(gameRepository.findById(game.getId())).thenReturn(Optional.empty());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            cache.put(game, List.of());
+
+            // Assert
+            assertTrue(cache.find(game.getId()).isEmpty());
+
+            // Act
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertTrue(cache.find(game.getId()).isPresent());
+    }
+
+    @Test
+    void flushReplacesTheGameSoThatDerivedViewsAreNotReused() {
+        // Arrange
+        properties.setWriteBehind(true);
+        GameSessionCache cache = createCache();
+        Game game = createGame();
+        game.setVersion(3L);
+        GameSession session = cache.put(game, List.of());
+        Game updated = GameSession.copyOf(session.getGame());
+        updated.setArrowsRemaining(4);
+        Game dirty = cache.commit(session, updated, false);
+        PlayerView unflushed = mock(PlayerView.class);
+        PlayerView flushed = mock(PlayerView.class);
+        session.getPlayerView(dirty, () -> unflushed);
+
+        // Act
+        cache.flushDirtySessions();
+
+        // Assert
+        assertNotSame(dirty, session.getGame());
+        assertEquals(4L, session.getGame().getVersion());
+        assertEquals(3L, dirty.getVersion());
+        assertSame(flushed, session.getPlayerView(session.getGame(), () -> flushed));
+    }
+
+    private GameSessionCache createCache() {
+        return new GameSessionCache(gameRepository, caveService, properties, meterRegistry);
+    }
+
+    private Game createGame() {
+        Game game = Game.createNewGame("TestPlayer", UUID.randomUUID());
+        game.setId(UUID.randomUUID());
+        return game;
+    }
+}
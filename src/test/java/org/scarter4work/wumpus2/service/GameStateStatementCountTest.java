@@ -0,0 +1,74 @@
+package org.scarter4work.wumpus2.service;
+
+import org.junit.jupiter.api.Test;
+import org.scarter4work.wumpus2.model.Game;
+import org.scarter4work.wumpus2.support.StatementCountingDataSourceConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCountingDataSourceConfig.class)
+class GameStateStatementCountTest {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameSessionCache gameSessionCache;
+
+    @Test
+    void moveWithStateReadsTheGameOnceAndWritesItOnce() {
+        // Arrange
+        Game game = gameService.createNewGame("TestPlayer");
+        Map<String, UUID> adjacentRooms = gameService.getAdjacentRooms(game.getId());
+        String direction = adjacentRooms.keySet().iterator().next();
+        gameSessionCache.invalidate(game.getId());
+        StatementCountingDataSourceConfig.reset();
+
+        // Act
+        GameState state = gameService.movePlayerAndGetState(game.getId(), direction);
+        long statements = StatementCountingDataSourceConfig.statementCount();
+
+        // Assert
+        assertTrue(statements <= 3, "Expected at most 3 statements but was " + statements);
+        assertEquals(state.game().getCurrentRoomId(), state.currentRoom().getId());
+        assertTrue(state.visitedRooms().contains(state.currentRoom().getId()));
+        assertEquals(3, state.hazardInfo().size());
+    }
+
+    @Test
+    void batchOfCommandsReadsTheGameOnceAndWritesItOnce() {
+        // Arrange
+        Game game = gameService.createNewGame("TestPlayer");
+        String direction = gameService.getAdjacentRooms(game.getId()).keySet().iterator().next();
+        String back = switch (direction) {
+            case "north" -> "south";
+            case "south" -> "north";
+            case "east" -> "west";
+            default -> "east";
+        };
+        List<GameCommand> commands = List.of(GameCommand.of("shoot", direction), GameCommand.of("shoot", direction),
+                GameCommand.of("move", direction), GameCommand.of("move", back));
+        gameSessionCache.invalidate(game.getId());
+        StatementCountingDataSourceConfig.reset();
+
+        // Act
+        CommandBatchResult result = gameService.runCommands(game.getId(), commands);
+        long statements = StatementCountingDataSourceConfig.statementCount();
+
+        // Assert
+        assertTrue(statements <= 3, "Expected at most 3 statements but was " + statements);
+        assertFalse(result.results().isEmpty());
+        assertEquals(result.state().game().getArrowsRemaining(),
+                gameService.getGame(game.getId()).getArrowsRemaining());
+    }
+}
@@ -6,16 +6,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.scarter4work.wumpus2.model.Game;
-import org.scarter4work.wumpus2.model.GameRoom;
+import org.scarter4work.wumpus2.model.Hazard;
 import org.scarter4work.wumpus2.model.Room;
-import org.scarter4work.wumpus2.repository.GameRepository;
-import org.scarter4work.wumpus2.repository.GameRoomRepository;
 import org.scarter4work.wumpus2.repository.RoomRepository;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class RoomServiceTest {
@@ -24,10 +24,10 @@ class RoomServiceTest {
     private RoomRepository roomRepository;
 
     @Mock
-    private GameRoomRepository gameRoomRepository;
+    private GameSessionCache gameSessionCache;
 
     @Mock
-    private GameRepository gameRepository;
+    private CaveService caveService;
 
     @InjectMocks
     private RoomService roomService;
@@ -117,31 +117,18 @@ class RoomServiceTest {
         // Arrange
         UUID gameId = UUID.randomUUID();
         
-        List<GameRoom> mockGameRooms = new ArrayList<>();
-        
-        UUID room1Id = UUID.randomUUID();
-        GameRoom gameRoom1 = new GameRoom();
-        gameRoom1.setGameId(gameId);
-        gameRoom1.setRoomId(room1Id);
-        mockGameRooms.add(gameRoom1);
-        
-        UUID room2Id = UUID.randomUUID();
-        GameRoom gameRoom2 = new GameRoom();
-        gameRoom2.setGameId(gameId);
-        gameRoom2.setRoomId(room2Id);
-        mockGameRooms.add(gameRoom2);
-        
         Room mockRoom1 = new Room();
-        mockRoom1.setId(room1Id);
+        mockRoom1.setId(UUID.randomUUID());
         mockRoom1.setRoomNumber(1);
         
         Room mockRoom2 = new Room();
-        mockRoom2.setId(room2Id);
+        mockRoom2.setId(UUID.randomUUID());
         mockRoom2.setRoomNumber(2);
         
-        when(gameRoomRepository.findByGameId(gameId)).thenReturn(mockGameRooms);
-        when(roomRepository.findById(room1Id)).thenReturn(Optional.of(mockRoom1));
-        when(roomRepository.findById(room2Id)).thenReturn(Optional.of(mockRoom2));
+        Game game = new Game();
+        game.setId(gameId);
+        when(gameSessionCache.find(gameId)).thenReturn(Optional.of(new GameSession(game)));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(mockRoom1, mockRoom2));
 
         // Act
         List<Room> result = roomService.getRoomsForGame(gameId);
@@ -149,84 +136,114 @@ class RoomServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(gameRoomRepository, times(1)).findByGameId(gameId);
-        verify(roomRepository, times(1)).findById(room1Id);
-        verify(roomRepository, times(1)).findById(room2Id);
+        verify(caveService, times(1)).getRoomsForGame(any(Game.class));
+        verify(roomRepository, never()).findById(any(UUID.class));
     }
 
     @Test
-    void getRoomsWithWumpus() {
+    void getRoomsWithHazardReturnsTheLastPageWithoutANext() {
         // Arrange
-        List<Room> mockRooms = new ArrayList<>();
-        
+        UUID gameId = UUID.randomUUID();
+        Game game = new Game();
+        game.setId(gameId);
         Room room1 = new Room();
         room1.setId(UUID.randomUUID());
         room1.setRoomNumber(1);
         room1.setHasWumpus(true);
-        mockRooms.add(room1);
-        
-        when(roomRepository.findByHasWumpusTrue()).thenReturn(mockRooms);
+        Room room2 = new Room();
+        room2.setId(UUID.randomUUID());
+        room2.setRoomNumber(2);
+        when(gameSessionCache.find(gameId)).thenReturn(Optional.of(new GameSession(game)));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(List.of(room1, room2));
 
         // Act
-        List<Room> result = roomService.getRoomsWithWumpus();
+        RoomPage result = roomService.getRoomsWithHazard(new HazardRoomQuery(Hazard.WUMPUS, gameId, null, null, 2));
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertTrue(result.get(0).isHasWumpus());
-        verify(roomRepository, times(1)).findByHasWumpusTrue();
+        assertEquals(List.of(room1), result.rooms());
+        assertNull(result.next());
     }
 
     @Test
-    void getRoomsWithPits() {
+    void getRoomsWithHazardReadsTheRoomsOfAGameFromItsCave() {
         // Arrange
-        List<Room> mockRooms = new ArrayList<>();
-        
-        Room room1 = new Room();
-        room1.setId(UUID.randomUUID());
-        room1.setRoomNumber(1);
-        room1.setHasPit(true);
-        mockRooms.add(room1);
-        
-        Room room2 = new Room();
-        room2.setId(UUID.randomUUID());
-        room2.setHasPit(true);
-        mockRooms.add(room2);
-        
-        when(roomRepository.findByHasPitTrue()).thenReturn(mockRooms);
+        UUID gameId = UUID.randomUUID();
+        Game game = new Game();
+        game.setId(gameId);
+        game.setStatus(Game.GameStatus.IN_PROGRESS);
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Room room = new Room();
+            room.setId(UUID.randomUUID());
+            room.setRoomNumber(i + 1);
+            room.setHasBats(i % 2 == 0);
+            rooms.add(room);
+        }
+        List<UUID> batRooms = rooms.stream()
+                .filter(Room::isHasBats)
+                .map(Room::getId)
+                .sorted(Comparator.comparing(UUID::toString))
+                .toList();
+        when(gameSessionCache.find(gameId)).thenReturn(Optional.of(new GameSession(game)));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(rooms);
 
         // Act
-        List<Room> result = roomService.getRoomsWithPits();
+        RoomPage first = roomService.getRoomsWithHazard(new HazardRoomQuery(Hazard.BATS, gameId, null, null, 2));
+        RoomPage second = roomService.getRoomsWithHazard(
+                new HazardRoomQuery(Hazard.BATS, gameId, Game.GameStatus.IN_PROGRESS, first.next(), 2));
+        RoomPage otherStatus = roomService.getRoomsWithHazard(
+                new HazardRoomQuery(Hazard.BATS, gameId, Game.GameStatus.WON, null, 2));
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.get(0).isHasPit());
-        assertTrue(result.get(1).isHasPit());
-        verify(roomRepository, times(1)).findByHasPitTrue();
+        assertEquals(batRooms.subList(0, 2), first.rooms().stream().map(Room::getId).toList());
+        assertEquals(batRooms.get(1), first.next());
+        assertEquals(batRooms.subList(2, 3), second.rooms().stream().map(Room::getId).toList());
+        assertNull(second.next());
+        assertTrue(otherStatus.rooms().isEmpty());
     }
 
     @Test
-    void getRoomsWithBats() {
+    void getRoomsWithHazardRejectsUnknownGames() {
         // Arrange
-        List<Room> mockRooms = new ArrayList<>();
-        
-        Room room1 = new Room();
-        room1.setId(UUID.randomUUID());
-        room1.setRoomNumber(1);
-        room1.setHasBats(true);
-        mockRooms.add(room1);
-        
-        when(roomRepository.findByHasBatsTrue()).thenReturn(mockRooms);
+        UUID gameId = UUID.randomUUID();
+        when(gameSessionCache.find(gameId)).thenReturn(Optional.empty());
 
-        // Act
-        List<Room> result = roomService.getRoomsWithBats();
+        // Act & Assert
+        assertThrows(GameNotFoundException.class,
+                () -> roomService.getRoomsWithHazard(new HazardRoomQuery(Hazard.PIT, gameId, null, null, 10)));
+    }
 
-        // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertTrue(result.get(0).isHasBats());
-        verify(roomRepository, times(1)).findByHasBatsTrue();
+    @Test
+    void placeRandomHazardsRejectsUnknownGames() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+        when(gameSessionCache.find(gameId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(GameNotFoundException.class, () -> roomService.placeRandomHazards(gameId));
+        verify(caveService, never()).saveHazards(any(Game.class), anyList());
+    }
+
+    @Test
+    void hazardRoomQueryRejectsPageSizesOutOfRange() {
+        // Arrange
+        UUID gameId = UUID.randomUUID();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new HazardRoomQuery(Hazard.BATS, gameId, null, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HazardRoomQuery(Hazard.BATS, gameId, null, null, HazardRoomQuery.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HazardRoomQuery(null, gameId, null, null, 1));
+    }
+
+    @Test
+    void hazardRoomQueryRequiresAGame() {
+        // Act & Assert
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> new HazardRoomQuery(Hazard.PIT, null, Game.GameStatus.IN_PROGRESS, null, 10));
+        assertTrue(error.getMessage().contains("gameId"));
     }
 
     @Test
@@ -243,29 +260,18 @@ class RoomServiceTest {
             mockRooms.add(room);
         }
         
-        List<GameRoom> mockGameRooms = new ArrayList<>();
-        for (Room room : mockRooms) {
-            GameRoom gameRoom = new GameRoom();
-            gameRoom.setGameId(gameId);
-            gameRoom.setRoomId(room.getId());
-            mockGameRooms.add(gameRoom);
-        }
-        
-        when(gameRoomRepository.findByGameId(gameId)).thenReturn(mockGameRooms);
-        when(roomRepository.findById(any(UUID.class))).thenAnswer(invocation -> {
-            UUID roomId = invocation.getArgument(0);
-            return mockRooms.stream()
-                    .filter(r -> r.getId().equals(roomId))
-                    .findFirst();
-        });
-        when(roomRepository.saveAll(any(List.class))).thenReturn(mockRooms);
+        Game game = new Game();
+        game.setId(gameId);
+        when(gameSessionCache.find(gameId)).thenReturn(Optional.of(new GameSession(game)));
+        when(caveService.getRoomsForGame(any(Game.class))).thenReturn(mockRooms);
 
         // Act
         boolean result = roomService.placeRandomHazards(gameId);
 
         // Assert
         assertTrue(result);
-        verify(gameRoomRepository, times(1)).findByGameId(gameId);
-        verify(roomRepository, times(1)).saveAll(any(List.class));
+        verify(caveService, times(1)).getRoomsForGame(any(Game.class));
+        verify(caveService, times(1)).saveHazards(any(Game.class), eq(mockRooms));
+        verify(gameSessionCache, times(1)).invalidate(gameId);
     }
 }
\ No newline at end of file
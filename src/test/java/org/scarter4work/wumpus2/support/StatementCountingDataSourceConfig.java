@@ -0,0 +1,100 @@
+package org.scarter4work.wumpus2.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test configuration that wraps the application DataSource and counts every
+ * statement sent to the database. A JDBC batch counts as one statement.
+ */
+@TestConfiguration
+public class StatementCountingDataSourceConfig {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private static final AtomicLong STATEMENTS = new AtomicLong();
+
+    /**
+     * @return The number of statements executed since the last reset
+     */
+    public static long statementCount() {
+        return STATEMENTS.get();
+    }
+
+    /**
+     * Resets the statement count to zero.
+     */
+    public static void reset() {
+        STATEMENTS.set(0);
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                        Object result = method.invoke(target, args);
+                        return result instanceof Connection connection
+                                ? proxy(Connection.class, connection, StatementCountingDataSourceConfig::onConnection)
+                                : result;
+                    });
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Object onConnection(Object target, Method method, Object[] args) throws Throwable {
+        Object result = method.invoke(target, args);
+        if (result instanceof CallableStatement statement) {
+            return proxy(CallableStatement.class, statement, StatementCountingDataSourceConfig::onStatement);
+        }
+        if (result instanceof PreparedStatement statement) {
+            return proxy(PreparedStatement.class, statement, StatementCountingDataSourceConfig::onStatement);
+        }
+        if (result instanceof Statement statement) {
+            return proxy(Statement.class, statement, StatementCountingDataSourceConfig::onStatement);
+        }
+        return result;
+    }
+
+    private static Object onStatement(Object target, Method method, Object[] args) throws Throwable {
+        if (EXECUTE_METHODS.contains(method.getName())) {
+            STATEMENTS.incrementAndGet();
+        }
+        return method.invoke(target, args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            try {
+                return handler.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+}